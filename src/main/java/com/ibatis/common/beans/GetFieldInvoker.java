@@ -45,6 +45,15 @@ public class GetFieldInvoker implements Invoker {
     return field.get(target);
   }
 
+  /**
+   * Gets the field.
+   *
+   * @return the field
+   */
+  public Field getField() {
+    return field;
+  }
+
   @Override
   public String getName() {
     return name;
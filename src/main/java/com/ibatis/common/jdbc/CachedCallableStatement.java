@@ -0,0 +1,683 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * A callable statement taken from a {@link StatementCache}.
+ */
+final class CachedCallableStatement extends CachedStatement implements CallableStatement {
+
+  /** The real statement. */
+  private final CallableStatement statement;
+
+  /**
+   * Instantiates a new cached callable statement.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param statement
+   *          the real statement
+   * @param connection
+   *          the connection handed out to the caller
+   */
+  CachedCallableStatement(StatementCache cache, StatementCache.Key key, CallableStatement statement,
+      Connection connection) {
+    super(cache, key, statement, connection);
+    this.statement = statement;
+  }
+
+  /**
+   * Gets the real statement, unless this statement was closed.
+   *
+   * @return the statement
+   *
+   * @throws SQLException
+   *           if the statement was closed
+   */
+  private CallableStatement openCall() throws SQLException {
+    open();
+    return statement;
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, int sqlType) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType, scale);
+  }
+
+  @Override
+  public boolean wasNull() throws SQLException {
+    return openCall().wasNull();
+  }
+
+  @Override
+  public String getString(int parameterIndex) throws SQLException {
+    return openCall().getString(parameterIndex);
+  }
+
+  @Override
+  public boolean getBoolean(int parameterIndex) throws SQLException {
+    return openCall().getBoolean(parameterIndex);
+  }
+
+  @Override
+  public byte getByte(int parameterIndex) throws SQLException {
+    return openCall().getByte(parameterIndex);
+  }
+
+  @Override
+  public short getShort(int parameterIndex) throws SQLException {
+    return openCall().getShort(parameterIndex);
+  }
+
+  @Override
+  public int getInt(int parameterIndex) throws SQLException {
+    return openCall().getInt(parameterIndex);
+  }
+
+  @Override
+  public long getLong(int parameterIndex) throws SQLException {
+    return openCall().getLong(parameterIndex);
+  }
+
+  @Override
+  public float getFloat(int parameterIndex) throws SQLException {
+    return openCall().getFloat(parameterIndex);
+  }
+
+  @Override
+  public double getDouble(int parameterIndex) throws SQLException {
+    return openCall().getDouble(parameterIndex);
+  }
+
+  @Deprecated
+  @Override
+  public BigDecimal getBigDecimal(int parameterIndex, int scale) throws SQLException {
+    return openCall().getBigDecimal(parameterIndex, scale);
+  }
+
+  @Override
+  public byte[] getBytes(int parameterIndex) throws SQLException {
+    return openCall().getBytes(parameterIndex);
+  }
+
+  @Override
+  public java.sql.Date getDate(int parameterIndex) throws SQLException {
+    return openCall().getDate(parameterIndex);
+  }
+
+  @Override
+  public java.sql.Time getTime(int parameterIndex) throws SQLException {
+    return openCall().getTime(parameterIndex);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int parameterIndex) throws SQLException {
+    return openCall().getTimestamp(parameterIndex);
+  }
+
+  @Override
+  public Object getObject(int parameterIndex) throws SQLException {
+    return openCall().getObject(parameterIndex);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int parameterIndex) throws SQLException {
+    return openCall().getBigDecimal(parameterIndex);
+  }
+
+  @Override
+  public Object getObject(int parameterIndex, java.util.Map<String,Class<?>> map) throws SQLException {
+    return openCall().getObject(parameterIndex, map);
+  }
+
+  @Override
+  public Ref getRef(int parameterIndex) throws SQLException {
+    return openCall().getRef(parameterIndex);
+  }
+
+  @Override
+  public Blob getBlob(int parameterIndex) throws SQLException {
+    return openCall().getBlob(parameterIndex);
+  }
+
+  @Override
+  public Clob getClob(int parameterIndex) throws SQLException {
+    return openCall().getClob(parameterIndex);
+  }
+
+  @Override
+  public Array getArray(int parameterIndex) throws SQLException {
+    return openCall().getArray(parameterIndex);
+  }
+
+  @Override
+  public java.sql.Date getDate(int parameterIndex, Calendar cal) throws SQLException {
+    return openCall().getDate(parameterIndex, cal);
+  }
+
+  @Override
+  public java.sql.Time getTime(int parameterIndex, Calendar cal) throws SQLException {
+    return openCall().getTime(parameterIndex, cal);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int parameterIndex, Calendar cal) throws SQLException {
+    return openCall().getTimestamp(parameterIndex, cal);
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, int sqlType) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, int sqlType, int scale) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType, scale);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, int sqlType, String typeName) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType, typeName);
+  }
+
+  @Override
+  public java.net.URL getURL(int parameterIndex) throws SQLException {
+    return openCall().getURL(parameterIndex);
+  }
+
+  @Override
+  public void setURL(String parameterName, java.net.URL val) throws SQLException {
+    openCall().setURL(parameterName, val);
+  }
+
+  @Override
+  public void setNull(String parameterName, int sqlType) throws SQLException {
+    openCall().setNull(parameterName, sqlType);
+  }
+
+  @Override
+  public void setBoolean(String parameterName, boolean x) throws SQLException {
+    openCall().setBoolean(parameterName, x);
+  }
+
+  @Override
+  public void setByte(String parameterName, byte x) throws SQLException {
+    openCall().setByte(parameterName, x);
+  }
+
+  @Override
+  public void setShort(String parameterName, short x) throws SQLException {
+    openCall().setShort(parameterName, x);
+  }
+
+  @Override
+  public void setInt(String parameterName, int x) throws SQLException {
+    openCall().setInt(parameterName, x);
+  }
+
+  @Override
+  public void setLong(String parameterName, long x) throws SQLException {
+    openCall().setLong(parameterName, x);
+  }
+
+  @Override
+  public void setFloat(String parameterName, float x) throws SQLException {
+    openCall().setFloat(parameterName, x);
+  }
+
+  @Override
+  public void setDouble(String parameterName, double x) throws SQLException {
+    openCall().setDouble(parameterName, x);
+  }
+
+  @Override
+  public void setBigDecimal(String parameterName, BigDecimal x) throws SQLException {
+    openCall().setBigDecimal(parameterName, x);
+  }
+
+  @Override
+  public void setString(String parameterName, String x) throws SQLException {
+    openCall().setString(parameterName, x);
+  }
+
+  @Override
+  public void setBytes(String parameterName, byte[] x) throws SQLException {
+    openCall().setBytes(parameterName, x);
+  }
+
+  @Override
+  public void setDate(String parameterName, java.sql.Date x) throws SQLException {
+    openCall().setDate(parameterName, x);
+  }
+
+  @Override
+  public void setTime(String parameterName, java.sql.Time x) throws SQLException {
+    openCall().setTime(parameterName, x);
+  }
+
+  @Override
+  public void setTimestamp(String parameterName, java.sql.Timestamp x) throws SQLException {
+    openCall().setTimestamp(parameterName, x);
+  }
+
+  @Override
+  public void setAsciiStream(String parameterName, java.io.InputStream x, int length) throws SQLException {
+    openCall().setAsciiStream(parameterName, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(String parameterName, java.io.InputStream x, int length) throws SQLException {
+    openCall().setBinaryStream(parameterName, x, length);
+  }
+
+  @Override
+  public void setObject(String parameterName, Object x, int targetSqlType, int scale) throws SQLException {
+    openCall().setObject(parameterName, x, targetSqlType, scale);
+  }
+
+  @Override
+  public void setObject(String parameterName, Object x, int targetSqlType) throws SQLException {
+    openCall().setObject(parameterName, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(String parameterName, Object x) throws SQLException {
+    openCall().setObject(parameterName, x);
+  }
+
+  @Override
+  public void setCharacterStream(String parameterName, java.io.Reader reader, int length) throws SQLException {
+    openCall().setCharacterStream(parameterName, reader, length);
+  }
+
+  @Override
+  public void setDate(String parameterName, java.sql.Date x, Calendar cal) throws SQLException {
+    openCall().setDate(parameterName, x, cal);
+  }
+
+  @Override
+  public void setTime(String parameterName, java.sql.Time x, Calendar cal) throws SQLException {
+    openCall().setTime(parameterName, x, cal);
+  }
+
+  @Override
+  public void setTimestamp(String parameterName, java.sql.Timestamp x, Calendar cal) throws SQLException {
+    openCall().setTimestamp(parameterName, x, cal);
+  }
+
+  @Override
+  public void setNull(String parameterName, int sqlType, String typeName) throws SQLException {
+    openCall().setNull(parameterName, sqlType, typeName);
+  }
+
+  @Override
+  public String getString(String parameterName) throws SQLException {
+    return openCall().getString(parameterName);
+  }
+
+  @Override
+  public boolean getBoolean(String parameterName) throws SQLException {
+    return openCall().getBoolean(parameterName);
+  }
+
+  @Override
+  public byte getByte(String parameterName) throws SQLException {
+    return openCall().getByte(parameterName);
+  }
+
+  @Override
+  public short getShort(String parameterName) throws SQLException {
+    return openCall().getShort(parameterName);
+  }
+
+  @Override
+  public int getInt(String parameterName) throws SQLException {
+    return openCall().getInt(parameterName);
+  }
+
+  @Override
+  public long getLong(String parameterName) throws SQLException {
+    return openCall().getLong(parameterName);
+  }
+
+  @Override
+  public float getFloat(String parameterName) throws SQLException {
+    return openCall().getFloat(parameterName);
+  }
+
+  @Override
+  public double getDouble(String parameterName) throws SQLException {
+    return openCall().getDouble(parameterName);
+  }
+
+  @Override
+  public byte[] getBytes(String parameterName) throws SQLException {
+    return openCall().getBytes(parameterName);
+  }
+
+  @Override
+  public java.sql.Date getDate(String parameterName) throws SQLException {
+    return openCall().getDate(parameterName);
+  }
+
+  @Override
+  public java.sql.Time getTime(String parameterName) throws SQLException {
+    return openCall().getTime(parameterName);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String parameterName) throws SQLException {
+    return openCall().getTimestamp(parameterName);
+  }
+
+  @Override
+  public Object getObject(String parameterName) throws SQLException {
+    return openCall().getObject(parameterName);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String parameterName) throws SQLException {
+    return openCall().getBigDecimal(parameterName);
+  }
+
+  @Override
+  public Object getObject(String parameterName, java.util.Map<String,Class<?>> map) throws SQLException {
+    return openCall().getObject(parameterName, map);
+  }
+
+  @Override
+  public Ref getRef(String parameterName) throws SQLException {
+    return openCall().getRef(parameterName);
+  }
+
+  @Override
+  public Blob getBlob(String parameterName) throws SQLException {
+    return openCall().getBlob(parameterName);
+  }
+
+  @Override
+  public Clob getClob(String parameterName) throws SQLException {
+    return openCall().getClob(parameterName);
+  }
+
+  @Override
+  public Array getArray(String parameterName) throws SQLException {
+    return openCall().getArray(parameterName);
+  }
+
+  @Override
+  public java.sql.Date getDate(String parameterName, Calendar cal) throws SQLException {
+    return openCall().getDate(parameterName, cal);
+  }
+
+  @Override
+  public java.sql.Time getTime(String parameterName, Calendar cal) throws SQLException {
+    return openCall().getTime(parameterName, cal);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String parameterName, Calendar cal) throws SQLException {
+    return openCall().getTimestamp(parameterName, cal);
+  }
+
+  @Override
+  public java.net.URL getURL(String parameterName) throws SQLException {
+    return openCall().getURL(parameterName);
+  }
+
+  @Override
+  public RowId getRowId(int parameterIndex) throws SQLException {
+    return openCall().getRowId(parameterIndex);
+  }
+
+  @Override
+  public RowId getRowId(String parameterName) throws SQLException {
+    return openCall().getRowId(parameterName);
+  }
+
+  @Override
+  public void setRowId(String parameterName, RowId x) throws SQLException {
+    openCall().setRowId(parameterName, x);
+  }
+
+  @Override
+  public void setNString(String parameterName, String value) throws SQLException {
+    openCall().setNString(parameterName, value);
+  }
+
+  @Override
+  public void setNCharacterStream(String parameterName, Reader value, long length) throws SQLException {
+    openCall().setNCharacterStream(parameterName, value, length);
+  }
+
+  @Override
+  public void setNClob(String parameterName, NClob value) throws SQLException {
+    openCall().setNClob(parameterName, value);
+  }
+
+  @Override
+  public void setClob(String parameterName, Reader reader, long length) throws SQLException {
+    openCall().setClob(parameterName, reader, length);
+  }
+
+  @Override
+  public void setBlob(String parameterName, InputStream inputStream, long length) throws SQLException {
+    openCall().setBlob(parameterName, inputStream, length);
+  }
+
+  @Override
+  public void setNClob(String parameterName, Reader reader, long length) throws SQLException {
+    openCall().setNClob(parameterName, reader, length);
+  }
+
+  @Override
+  public NClob getNClob(int parameterIndex) throws SQLException {
+    return openCall().getNClob(parameterIndex);
+  }
+
+  @Override
+  public NClob getNClob(String parameterName) throws SQLException {
+    return openCall().getNClob(parameterName);
+  }
+
+  @Override
+  public void setSQLXML(String parameterName, SQLXML xmlObject) throws SQLException {
+    openCall().setSQLXML(parameterName, xmlObject);
+  }
+
+  @Override
+  public SQLXML getSQLXML(int parameterIndex) throws SQLException {
+    return openCall().getSQLXML(parameterIndex);
+  }
+
+  @Override
+  public SQLXML getSQLXML(String parameterName) throws SQLException {
+    return openCall().getSQLXML(parameterName);
+  }
+
+  @Override
+  public String getNString(int parameterIndex) throws SQLException {
+    return openCall().getNString(parameterIndex);
+  }
+
+  @Override
+  public String getNString(String parameterName) throws SQLException {
+    return openCall().getNString(parameterName);
+  }
+
+  @Override
+  public java.io.Reader getNCharacterStream(int parameterIndex) throws SQLException {
+    return openCall().getNCharacterStream(parameterIndex);
+  }
+
+  @Override
+  public java.io.Reader getNCharacterStream(String parameterName) throws SQLException {
+    return openCall().getNCharacterStream(parameterName);
+  }
+
+  @Override
+  public java.io.Reader getCharacterStream(int parameterIndex) throws SQLException {
+    return openCall().getCharacterStream(parameterIndex);
+  }
+
+  @Override
+  public java.io.Reader getCharacterStream(String parameterName) throws SQLException {
+    return openCall().getCharacterStream(parameterName);
+  }
+
+  @Override
+  public void setBlob(String parameterName, Blob x) throws SQLException {
+    openCall().setBlob(parameterName, x);
+  }
+
+  @Override
+  public void setClob(String parameterName, Clob x) throws SQLException {
+    openCall().setClob(parameterName, x);
+  }
+
+  @Override
+  public void setAsciiStream(String parameterName, java.io.InputStream x, long length) throws SQLException {
+    openCall().setAsciiStream(parameterName, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(String parameterName, java.io.InputStream x, long length) throws SQLException {
+    openCall().setBinaryStream(parameterName, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(String parameterName, java.io.Reader reader, long length) throws SQLException {
+    openCall().setCharacterStream(parameterName, reader, length);
+  }
+
+  @Override
+  public void setAsciiStream(String parameterName, java.io.InputStream x) throws SQLException {
+    openCall().setAsciiStream(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryStream(String parameterName, java.io.InputStream x) throws SQLException {
+    openCall().setBinaryStream(parameterName, x);
+  }
+
+  @Override
+  public void setCharacterStream(String parameterName, java.io.Reader reader) throws SQLException {
+    openCall().setCharacterStream(parameterName, reader);
+  }
+
+  @Override
+  public void setNCharacterStream(String parameterName, Reader value) throws SQLException {
+    openCall().setNCharacterStream(parameterName, value);
+  }
+
+  @Override
+  public void setClob(String parameterName, Reader reader) throws SQLException {
+    openCall().setClob(parameterName, reader);
+  }
+
+  @Override
+  public void setBlob(String parameterName, InputStream inputStream) throws SQLException {
+    openCall().setBlob(parameterName, inputStream);
+  }
+
+  @Override
+  public void setNClob(String parameterName, Reader reader) throws SQLException {
+    openCall().setNClob(parameterName, reader);
+  }
+
+  @Override
+  public <T> T getObject(int parameterIndex, Class<T> type) throws SQLException {
+    return openCall().getObject(parameterIndex, type);
+  }
+
+  @Override
+  public <T> T getObject(String parameterName, Class<T> type) throws SQLException {
+    return openCall().getObject(parameterName, type);
+  }
+
+  @Override
+  public void setObject(String parameterName, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    openCall().setObject(parameterName, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setObject(String parameterName, Object x, SQLType targetSqlType) throws SQLException {
+    openCall().setObject(parameterName, x, targetSqlType);
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, SQLType sqlType) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, SQLType sqlType, int scale) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType, scale);
+  }
+
+  @Override
+  public void registerOutParameter(int parameterIndex, SQLType sqlType, String typeName) throws SQLException {
+    openCall().registerOutParameter(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, SQLType sqlType) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, SQLType sqlType, int scale) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType, scale);
+  }
+
+  @Override
+  public void registerOutParameter(String parameterName, SQLType sqlType, String typeName) throws SQLException {
+    openCall().registerOutParameter(parameterName, sqlType, typeName);
+  }
+}
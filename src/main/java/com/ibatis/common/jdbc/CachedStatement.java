@@ -0,0 +1,862 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A statement taken from a {@link StatementCache}. It delegates to the real statement directly, without reflection.
+ * Closing it closes the result sets it returned, resets the statement and returns it to the cache, and it cannot be
+ * used afterwards. A statement that was given a cursor name or set to close on completion is closed instead, since
+ * neither can be undone.
+ */
+class CachedStatement implements PreparedStatement {
+
+  /** The cache. */
+  private final StatementCache cache;
+
+  /** The key. */
+  private final StatementCache.Key key;
+
+  /** The real statement. */
+  private final PreparedStatement statement;
+
+  /** The connection handed out to the caller. */
+  private final Connection connection;
+
+  /** The values of the settings that were changed, before they were changed. */
+  private Map<Setting, Long> defaults;
+
+  /** Whether escape processing was changed. */
+  private boolean escapeProcessingChanged;
+
+  /** Whether a setting was changed that cannot be reset. */
+  private boolean unresettable;
+
+  /** The last result set returned by an execute or getResultSet call. */
+  private ResultSet resultSet;
+
+  /** The last result set returned by getGeneratedKeys. */
+  private ResultSet generatedKeys;
+
+  /** Whether a batch was added. */
+  private boolean batched;
+
+  /** Whether the statement may go back to the cache. */
+  private boolean poolable = true;
+
+  /** Whether the statement was closed. */
+  private boolean closed;
+
+  /**
+   * Instantiates a new cached statement.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param statement
+   *          the real statement
+   * @param connection
+   *          the connection handed out to the caller
+   */
+  CachedStatement(StatementCache cache, StatementCache.Key key, PreparedStatement statement, Connection connection) {
+    this.cache = cache;
+    this.key = key;
+    this.statement = statement;
+    this.connection = connection;
+  }
+
+  /**
+   * Gets the real statement.
+   *
+   * @return the statement
+   */
+  PreparedStatement getStatement() {
+    return statement;
+  }
+
+  /**
+   * Gets the real statement, unless this statement was closed.
+   *
+   * @return the statement
+   *
+   * @throws SQLException
+   *           if the statement was closed
+   */
+  protected PreparedStatement open() throws SQLException {
+    if (closed) {
+      throw new SQLException("Statement is closed.");
+    }
+    return statement;
+  }
+
+  /**
+   * Remembers the value of a setting before it is changed for the first time.
+   *
+   * @param setting
+   *          the setting
+   * @param value
+   *          the current value
+   */
+  private void rememberSetting(Setting setting, long value) {
+    if (defaults == null) {
+      defaults = new EnumMap<>(Setting.class);
+    }
+    defaults.putIfAbsent(setting, value);
+  }
+
+  /**
+   * Remembers a result set handed to the caller, so that it can be closed when the statement is returned.
+   *
+   * @param rs
+   *          the result set (or null)
+   *
+   * @return the result set
+   */
+  private ResultSet track(ResultSet rs) {
+    resultSet = rs;
+    return rs;
+  }
+
+  /**
+   * Resets the statement and returns it to the cache. A statement that cannot be reset is closed instead.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!poolable || unresettable) {
+      StatementCache.closeQuietly(statement);
+      return;
+    }
+    try {
+      closeQuietly(resultSet);
+      closeQuietly(generatedKeys);
+      resultSet = null;
+      generatedKeys = null;
+      if (statement.isClosed()) {
+        return;
+      }
+      statement.clearParameters();
+      if (batched) {
+        statement.clearBatch();
+      }
+      if (escapeProcessingChanged) {
+        statement.setEscapeProcessing(true);
+      }
+      if (defaults != null) {
+        for (Map.Entry<Setting, Long> setting : defaults.entrySet()) {
+          setting.getKey().restore(statement, setting.getValue());
+        }
+      }
+      statement.clearWarnings();
+    } catch (SQLException e) {
+      StatementCache.closeQuietly(statement);
+      return;
+    }
+    cache.release(key, statement);
+  }
+
+  private static void closeQuietly(ResultSet rs) {
+    if (rs != null) {
+      try {
+        rs.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    open();
+    return connection;
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    open().addBatch();
+    batched = true;
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    open().addBatch(sql);
+    batched = true;
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    open();
+    this.poolable = poolable;
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    open();
+    return poolable;
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    rememberSetting(Setting.FETCH_SIZE, open().getFetchSize());
+    statement.setFetchSize(rows);
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    rememberSetting(Setting.FETCH_DIRECTION, open().getFetchDirection());
+    statement.setFetchDirection(direction);
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    rememberSetting(Setting.MAX_ROWS, open().getMaxRows());
+    statement.setMaxRows(max);
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    rememberSetting(Setting.MAX_FIELD_SIZE, open().getMaxFieldSize());
+    statement.setMaxFieldSize(max);
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    rememberSetting(Setting.QUERY_TIMEOUT, open().getQueryTimeout());
+    statement.setQueryTimeout(seconds);
+  }
+
+  @Override
+  public String toString() {
+    return "Cached " + statement;
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    return track(open().executeQuery(sql));
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    return open().executeUpdate(sql);
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    return open().getMaxFieldSize();
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    return open().getMaxRows();
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    open().setEscapeProcessing(enable);
+    escapeProcessingChanged = true;
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    return open().getQueryTimeout();
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    open().cancel();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return open().getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    open().clearWarnings();
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    open().setCursorName(name);
+    unresettable = true;
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    return open().execute(sql);
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    return track(open().getResultSet());
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    return open().getUpdateCount();
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    return open().getMoreResults();
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return open().getFetchDirection();
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return open().getFetchSize();
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    return open().getResultSetConcurrency();
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    return open().getResultSetType();
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    open().clearBatch();
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    return open().executeBatch();
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    return open().getMoreResults(current);
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    generatedKeys = open().getGeneratedKeys();
+    return generatedKeys;
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    return open().executeUpdate(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    return open().executeUpdate(sql, columnIndexes);
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    return open().executeUpdate(sql, columnNames);
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    return open().execute(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    return open().execute(sql, columnIndexes);
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    return open().execute(sql, columnNames);
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    return open().getResultSetHoldability();
+  }
+
+  @Override
+  public void closeOnCompletion() throws SQLException {
+    open().closeOnCompletion();
+    unresettable = true;
+  }
+
+  @Override
+  public boolean isCloseOnCompletion() throws SQLException {
+    return open().isCloseOnCompletion();
+  }
+
+  @Override
+  public long getLargeUpdateCount() throws SQLException {
+    return open().getLargeUpdateCount();
+  }
+
+  @Override
+  public void setLargeMaxRows(long max) throws SQLException {
+    rememberSetting(Setting.LARGE_MAX_ROWS, open().getLargeMaxRows());
+    statement.setLargeMaxRows(max);
+  }
+
+  @Override
+  public long getLargeMaxRows() throws SQLException {
+    return open().getLargeMaxRows();
+  }
+
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    return open().executeLargeBatch();
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql) throws SQLException {
+    return open().executeLargeUpdate(sql);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    return open().executeLargeUpdate(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    return open().executeLargeUpdate(sql, columnIndexes);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+    return open().executeLargeUpdate(sql, columnNames);
+  }
+
+  @Override
+  public String enquoteLiteral(String val) throws SQLException {
+    return open().enquoteLiteral(val);
+  }
+
+  @Override
+  public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+    return open().enquoteIdentifier(identifier, alwaysQuote);
+  }
+
+  @Override
+  public boolean isSimpleIdentifier(String identifier) throws SQLException {
+    return open().isSimpleIdentifier(identifier);
+  }
+
+  @Override
+  public String enquoteNCharLiteral(String val) throws SQLException {
+    return open().enquoteNCharLiteral(val);
+  }
+
+  @Override
+  public ResultSet executeQuery() throws SQLException {
+    return track(open().executeQuery());
+  }
+
+  @Override
+  public int executeUpdate() throws SQLException {
+    return open().executeUpdate();
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    open().setNull(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    open().setBoolean(parameterIndex, x);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    open().setByte(parameterIndex, x);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    open().setShort(parameterIndex, x);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    open().setInt(parameterIndex, x);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    open().setLong(parameterIndex, x);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    open().setFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    open().setDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    open().setBigDecimal(parameterIndex, x);
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    open().setString(parameterIndex, x);
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    open().setBytes(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, java.sql.Date x) throws SQLException {
+    open().setDate(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, java.sql.Time x) throws SQLException {
+    open().setTime(parameterIndex, x);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, java.sql.Timestamp x) throws SQLException {
+    open().setTimestamp(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, java.io.InputStream x, int length) throws SQLException {
+    open().setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Deprecated
+  @Override
+  public void setUnicodeStream(int parameterIndex, java.io.InputStream x, int length) throws SQLException {
+    open().setUnicodeStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, java.io.InputStream x, int length) throws SQLException {
+    open().setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    open().clearParameters();
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    open().setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    open().setObject(parameterIndex, x);
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    return open().execute();
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, java.io.Reader reader, int length) throws SQLException {
+    open().setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    open().setRef(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    open().setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    open().setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    open().setArray(parameterIndex, x);
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return open().getMetaData();
+  }
+
+  @Override
+  public void setDate(int parameterIndex, java.sql.Date x, Calendar cal) throws SQLException {
+    open().setDate(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, java.sql.Time x, Calendar cal) throws SQLException {
+    open().setTime(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, java.sql.Timestamp x, Calendar cal) throws SQLException {
+    open().setTimestamp(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    open().setNull(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, java.net.URL x) throws SQLException {
+    open().setURL(parameterIndex, x);
+  }
+
+  @Override
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    return open().getParameterMetaData();
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    open().setRowId(parameterIndex, x);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    open().setNString(parameterIndex, value);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+    open().setNCharacterStream(parameterIndex, value, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob value) throws SQLException {
+    open().setNClob(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    open().setClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+    open().setBlob(parameterIndex, inputStream, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    open().setNClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+    open().setSQLXML(parameterIndex, xmlObject);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    open().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, java.io.InputStream x, long length) throws SQLException {
+    open().setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, java.io.InputStream x, long length) throws SQLException {
+    open().setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, java.io.Reader reader, long length) throws SQLException {
+    open().setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, java.io.InputStream x) throws SQLException {
+    open().setAsciiStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, java.io.InputStream x) throws SQLException {
+    open().setBinaryStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, java.io.Reader reader) throws SQLException {
+    open().setCharacterStream(parameterIndex, reader);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+    open().setNCharacterStream(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader) throws SQLException {
+    open().setClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+    open().setBlob(parameterIndex, inputStream);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+    open().setNClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    open().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    open().setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public long executeLargeUpdate() throws SQLException {
+    return open().executeLargeUpdate();
+  }
+
+  @Override
+  public <T> T unwrap(java.lang.Class<T> iface) throws java.sql.SQLException {
+    return open().unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(java.lang.Class<?> iface) throws java.sql.SQLException {
+    return open().isWrapperFor(iface);
+  }
+
+  /**
+   * A setting of a statement that is reset before the statement goes back to the cache.
+   */
+  private enum Setting {
+
+    /** The fetch size. */
+    FETCH_SIZE {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setFetchSize((int) value);
+      }
+    },
+
+    /** The fetch direction. */
+    FETCH_DIRECTION {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setFetchDirection((int) value);
+      }
+    },
+
+    /** The max rows. */
+    MAX_ROWS {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setMaxRows((int) value);
+      }
+    },
+
+    /** The large max rows. */
+    LARGE_MAX_ROWS {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setLargeMaxRows(value);
+      }
+    },
+
+    /** The max field size. */
+    MAX_FIELD_SIZE {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setMaxFieldSize((int) value);
+      }
+    },
+
+    /** The query timeout. */
+    QUERY_TIMEOUT {
+      @Override
+      void restore(PreparedStatement statement, long value) throws SQLException {
+        statement.setQueryTimeout((int) value);
+      }
+    };
+
+    /**
+     * Sets the setting back to the value it had before it was changed.
+     *
+     * @param statement
+     *          the statement
+     * @param value
+     *          the value
+     *
+     * @throws SQLException
+     *           if the setting cannot be set
+     */
+    abstract void restore(PreparedStatement statement, long value) throws SQLException;
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free collection of pooled items that are borrowed and returned rather than removed and added.
+ * <p>
+ * Every item stays in a copy-on-write list for its whole life and carries its own state, which borrowers claim with a
+ * compare-and-set. A thread first looks at the items it returned itself most recently, so a thread that repeatedly
+ * borrows and returns one item never contends with other threads. Threads that find nothing wait in a fair queue, and
+ * returned items are handed to the longest waiting thread directly.
+ *
+ * @param <T>
+ *          the item type
+ */
+final class ConcurrentBag<T extends ConcurrentBag.Entry> {
+
+  /** The state of an item that may be borrowed. */
+  static final int STATE_NOT_IN_USE = 0;
+
+  /** The state of a borrowed item. */
+  static final int STATE_IN_USE = 1;
+
+  /** The state of an item that was removed from the bag. */
+  static final int STATE_REMOVED = -1;
+
+  /** The state of an idle item taken aside for maintenance, which borrowers skip. */
+  static final int STATE_RESERVED = -2;
+
+  /** The maximum number of recently returned items remembered per thread. */
+  private static final int MAX_THREAD_LOCAL_ITEMS = 16;
+
+  /** All items. */
+  private final CopyOnWriteArrayList<T> sharedList = new CopyOnWriteArrayList<>();
+
+  /** The items each thread returned most recently. */
+  private final ThreadLocal<List<WeakReference<T>>> threadList = ThreadLocal.withInitial(ArrayList::new);
+
+  /** Hands returned items to waiting threads, in the order they started waiting. */
+  private final SynchronousQueue<T> handoffQueue = new SynchronousQueue<>(true);
+
+  /** The number of threads waiting for an item. */
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  /**
+   * Borrows an item that is not in use, without waiting.
+   *
+   * @return the item, or null if all items are in use
+   */
+  T borrowIdle() {
+    List<WeakReference<T>> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      T item = list.remove(i).get();
+      if (item != null && item.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+        return item;
+      }
+    }
+    for (T item : sharedList) {
+      if (item.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Borrows an item, waiting for one to be returned or added if all items are in use.
+   *
+   * @param timeout
+   *          the maximum time to wait
+   * @param unit
+   *          the unit of the timeout
+   *
+   * @return the item, or null if none became available in time
+   *
+   * @throws InterruptedException
+   *           if the thread is interrupted while waiting
+   */
+  T borrow(long timeout, TimeUnit unit) throws InterruptedException {
+    T item = borrowIdle();
+    if (item != null) {
+      return item;
+    }
+    waiters.incrementAndGet();
+    try {
+      // An item returned before this thread was counted as a waiter was not handed off
+      for (T shared : sharedList) {
+        if (shared.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+          return shared;
+        }
+      }
+      long remaining = unit.toNanos(timeout);
+      while (remaining > 0) {
+        long start = System.nanoTime();
+        item = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (item == null || item.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+          return item;
+        }
+        remaining -= System.nanoTime() - start;
+      }
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns a borrowed item. If threads are waiting, the item is handed to one of them.
+   *
+   * @param item
+   *          the item
+   */
+  void requite(T item) {
+    if (release(item)) {
+      List<WeakReference<T>> list = threadList.get();
+      if (list.size() < MAX_THREAD_LOCAL_ITEMS) {
+        list.add(new WeakReference<>(item));
+      }
+    }
+  }
+
+  /**
+   * Makes a borrowed or reserved item available again without remembering it for the current thread, which is what
+   * maintenance threads should use. If threads are waiting, the item is handed to one of them.
+   *
+   * @param item
+   *          the item
+   *
+   * @return true if the item is still available, false if it was handed off or taken right away
+   */
+  boolean release(T item) {
+    item.setState(STATE_NOT_IN_USE);
+    for (int i = 0; waiters.get() > 0; i++) {
+      if (item.getState() != STATE_NOT_IN_USE || handoffQueue.offer(item)) {
+        return false;
+      }
+      if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Takes an idle item aside, so that it can be checked or closed without a borrower getting it meanwhile. A reserved
+   * item is made available again with {@link #release(Entry)} or removed with {@link #remove(Entry)}.
+   *
+   * @param item
+   *          the item
+   *
+   * @return true if the item was idle and is now reserved
+   */
+  boolean reserve(T item) {
+    return item.compareAndSetState(STATE_NOT_IN_USE, STATE_RESERVED);
+  }
+
+  /**
+   * Adds an item. An item added as not in use is handed to a waiting thread, if there is one.
+   *
+   * @param item
+   *          the item, in state {@link #STATE_IN_USE} or {@link #STATE_NOT_IN_USE}
+   */
+  void add(T item) {
+    sharedList.add(item);
+    if (item.getState() == STATE_NOT_IN_USE) {
+      while (waiters.get() > 0 && item.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(item)) {
+        Thread.yield();
+      }
+    }
+  }
+
+  /**
+   * Removes an item for good, whatever its state.
+   *
+   * @param item
+   *          the item
+   *
+   * @return true if the item was removed by this call
+   */
+  boolean remove(T item) {
+    int state;
+    do {
+      state = item.getState();
+      if (state == STATE_REMOVED) {
+        return false;
+      }
+    } while (!item.compareAndSetState(state, STATE_REMOVED));
+    sharedList.remove(item);
+    return true;
+  }
+
+  /**
+   * Gets a snapshot of all items.
+   *
+   * @return the items
+   */
+  List<T> values() {
+    return new ArrayList<>(sharedList);
+  }
+
+  /**
+   * Counts the items in a state.
+   *
+   * @param state
+   *          the state
+   *
+   * @return the number of items
+   */
+  int getCount(int state) {
+    int count = 0;
+    for (T item : sharedList) {
+      if (item.getState() == state) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of threads waiting for an item.
+   *
+   * @return the number of waiting threads
+   */
+  int getWaitingThreadCount() {
+    return waiters.get();
+  }
+
+  /**
+   * An item in a bag.
+   */
+  abstract static class Entry {
+
+    /** The state. */
+    private final AtomicInteger state = new AtomicInteger(STATE_IN_USE);
+
+    /**
+     * Gets the state.
+     *
+     * @return the state
+     */
+    int getState() {
+      return state.get();
+    }
+
+    /**
+     * Sets the state.
+     *
+     * @param newState
+     *          the new state
+     */
+    void setState(int newState) {
+      state.set(newState);
+    }
+
+    /**
+     * Sets the state if it is the expected one.
+     *
+     * @param expect
+     *          the expected state
+     * @param update
+     *          the new state
+     *
+     * @return true if the state was changed
+     */
+    boolean compareAndSetState(int expect, int update) {
+      return state.compareAndSet(expect, update);
+    }
+  }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A lock-free histogram of durations, for percentiles of pool latencies.
+ * <p>
+ * Durations are counted in microseconds, in buckets whose width grows with the duration: values below 32 have a bucket
+ * each, and every power of two above is split into 16 buckets, so a percentile is off by at most 1/16 of its value.
+ * Recording a duration is one atomic increment.
+ */
+final class LatencyHistogram {
+
+  /** The number of buckets each power of two is split into. */
+  private static final int SUB_BUCKETS = 16;
+
+  /** The number of bits of the values that have a bucket each. */
+  private static final int LINEAR_BITS = 5;
+
+  /** The number of buckets, enough for any positive long. */
+  private static final int BUCKETS = (64 - LINEAR_BITS + 1) * SUB_BUCKETS + SUB_BUCKETS;
+
+  /** The counts per bucket. */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /** The longest duration recorded, in microseconds. */
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos
+   *          the duration in nanoseconds
+   */
+  void record(long nanos) {
+    long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    counts.incrementAndGet(indexOf(micros));
+    max.accumulate(micros);
+  }
+
+  /**
+   * Gets the number of durations recorded.
+   *
+   * @return the count
+   */
+  long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the longest duration recorded.
+   *
+   * @return the duration in milliseconds
+   */
+  double getMaxMillis() {
+    return max.get() / 1000.0;
+  }
+
+  /**
+   * Gets a percentile of the durations recorded.
+   *
+   * @param percentile
+   *          the percentile, between 0 and 100
+   *
+   * @return the highest duration of the requested share of the durations, in milliseconds, or 0 if nothing was recorded
+   */
+  double getPercentileMillis(double percentile) {
+    return getPercentileMillis(percentile, null);
+  }
+
+  /**
+   * Gets a percentile of the durations recorded since a snapshot was taken.
+   *
+   * @param percentile
+   *          the percentile, between 0 and 100
+   * @param since
+   *          the counts returned by {@link #getCounts()}, or null for all durations
+   *
+   * @return the highest duration of the requested share of the durations, in milliseconds, or 0 if nothing was recorded
+   */
+  double getPercentileMillis(double percentile, long[] since) {
+    long[] snapshot = getCounts();
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (since != null) {
+        snapshot[i] -= since[i];
+      }
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max.get()) / 1000.0;
+      }
+    }
+    return getMaxMillis();
+  }
+
+  /**
+   * Takes a snapshot of the counts per bucket, to get percentiles of the durations recorded after it.
+   *
+   * @return the counts
+   */
+  long[] getCounts() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Gets the bucket of a value.
+   *
+   * @param value
+   *          the value
+   *
+   * @return the index of the bucket
+   */
+  static int indexOf(long value) {
+    if (value < 1 << LINEAR_BITS) {
+      return (int) value;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(value) - LINEAR_BITS;
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /**
+   * Gets the highest value that falls into a bucket.
+   *
+   * @param index
+   *          the index of the bucket
+   *
+   * @return the value
+   */
+  static long highestValueOf(int index) {
+    if (index < 1 << LINEAR_BITS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long mantissa = index - shift * SUB_BUCKETS;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -15,44 +15,77 @@
  */
 package com.ibatis.common.jdbc;
 
-import com.ibatis.common.beans.ClassInfo;
+import com.ibatis.common.jdbc.exception.ConnectionAcquisitionException;
 import com.ibatis.common.logging.Log;
 import com.ibatis.common.logging.LogFactory;
 import com.ibatis.common.resources.Resources;
 
 import java.io.PrintWriter;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.sql.Array;
+import java.sql.Blob;
 import java.sql.CallableStatement;
+import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.NClob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLWarning;
+import java.sql.SQLXML;
 import java.sql.Savepoint;
+import java.sql.ShardingKey;
 import java.sql.Statement;
+import java.sql.Struct;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 /**
- * This is a simple, synchronous, thread-safe database connection pool.
+ * This is a simple, thread-safe database connection pool.
+ * <p>
+ * Checking connections in and out takes no lock: the pooled connections are kept in a {@link ConcurrentBag}, which
+ * hands a thread the connection it returned last when that one is idle, and queues threads fairly when every connection
+ * is in use. Connecting, pinging and rolling back happen on the requesting thread without blocking other requests.
+ * <p>
+ * A shared background thread can maintain the pool: it opens connections ahead of demand to keep
+ * Pool.MinimumIdleConnections idle (starting right after construction), validates idle connections with
+ * {@link Connection#isValid(int)} every Pool.ValidationInterval instead of pinging them at checkout, and retires
+ * connections older than Pool.MaximumConnectionLifetime or idle for longer than Pool.IdleTimeout.
  * <p>
  * REQUIRED PROPERTIES ------------------- JDBC.Driver JDBC.ConnectionURL JDBC.Username JDBC.Password
  * <p>
  * Pool.MaximumActiveConnections Pool.MaximumIdleConnections Pool.MaximumCheckoutTime Pool.TimeToWait Pool.PingQuery
  * Pool.PingEnabled Pool.PingConnectionsOlderThan Pool.PingConnectionsNotUsedFor Pool.QuietMode
+ * Pool.MinimumIdleConnections Pool.ValidationInterval Pool.ValidationTimeout Pool.MaximumConnectionLifetime
+ * Pool.IdleTimeout Pool.HousekeepingPeriod
  */
-public class SimpleDataSource implements DataSource {
+public class SimpleDataSource implements DataSource, SimpleDataSourceMXBean {
 
   /** The Constant log. */
   private static final Log log = LogFactory.getLog(SimpleDataSource.class);
@@ -86,6 +119,12 @@ public class SimpleDataSource implements DataSource {
   /** The Constant PROP_POOL_TIME_TO_WAIT. */
   private static final String PROP_POOL_TIME_TO_WAIT = "Pool.TimeToWait";
 
+  /** The Constant PROP_POOL_ACQUIRE_TIMEOUT. */
+  private static final String PROP_POOL_ACQUIRE_TIMEOUT = "Pool.AcquireTimeout";
+
+  /** The Constant PROP_POOL_MAX_WAITING_REQUESTS. */
+  private static final String PROP_POOL_MAX_WAITING_REQUESTS = "Pool.MaximumWaitingRequests";
+
   /** The Constant PROP_POOL_PING_QUERY. */
   private static final String PROP_POOL_PING_QUERY = "Pool.PingQuery";
 
@@ -98,6 +137,51 @@ public class SimpleDataSource implements DataSource {
   /** The Constant PROP_POOL_PING_CONN_NOT_USED_FOR. */
   private static final String PROP_POOL_PING_CONN_NOT_USED_FOR = "Pool.PingConnectionsNotUsedFor";
 
+  /** The Constant PROP_POOL_MIN_IDLE_CONN. */
+  private static final String PROP_POOL_MIN_IDLE_CONN = "Pool.MinimumIdleConnections";
+
+  /** The Constant PROP_POOL_VALIDATION_INTERVAL. */
+  private static final String PROP_POOL_VALIDATION_INTERVAL = "Pool.ValidationInterval";
+
+  /** The Constant PROP_POOL_VALIDATION_TIMEOUT. */
+  private static final String PROP_POOL_VALIDATION_TIMEOUT = "Pool.ValidationTimeout";
+
+  /** The Constant PROP_POOL_MAX_CONN_LIFETIME. */
+  private static final String PROP_POOL_MAX_CONN_LIFETIME = "Pool.MaximumConnectionLifetime";
+
+  /** The Constant PROP_POOL_IDLE_TIMEOUT. */
+  private static final String PROP_POOL_IDLE_TIMEOUT = "Pool.IdleTimeout";
+
+  /** The Constant PROP_POOL_HOUSEKEEPING_PERIOD. */
+  private static final String PROP_POOL_HOUSEKEEPING_PERIOD = "Pool.HousekeepingPeriod";
+
+  /** The Constant PROP_POOL_STATEMENT_CACHE_SIZE. */
+  private static final String PROP_POOL_STATEMENT_CACHE_SIZE = "Pool.StatementCacheSize";
+
+  /** The Constant PROP_POOL_LEAK_DETECTION_THRESHOLD. */
+  private static final String PROP_POOL_LEAK_DETECTION_THRESHOLD = "Pool.LeakDetectionThreshold";
+
+  /** The Constant PROP_POOL_NAME. */
+  private static final String PROP_POOL_NAME = "Pool.Name";
+
+  /** The Constant PROP_POOL_REGISTER_MBEAN. */
+  private static final String PROP_POOL_REGISTER_MBEAN = "Pool.RegisterMBean";
+
+  /** The Constant PROP_POOL_ADAPTIVE_SIZING. */
+  private static final String PROP_POOL_ADAPTIVE_SIZING = "Pool.AdaptiveSizing";
+
+  /** The Constant PROP_POOL_ADAPTIVE_MIN_SIZE. */
+  private static final String PROP_POOL_ADAPTIVE_MIN_SIZE = "Pool.AdaptiveMinimumSize";
+
+  /** The Constant PROP_POOL_ADAPTIVE_SIZING_INTERVAL. */
+  private static final String PROP_POOL_ADAPTIVE_SIZING_INTERVAL = "Pool.AdaptiveSizingInterval";
+
+  /** The Constant PROP_POOL_ADAPTIVE_WAIT_THRESHOLD. */
+  private static final String PROP_POOL_ADAPTIVE_WAIT_THRESHOLD = "Pool.AdaptiveWaitThreshold";
+
+  /** The share of connections kept on top of the average number in use when the pool shrinks. */
+  private static final double ADAPTIVE_HEADROOM = 1.5;
+
   /** The expected connection type code. */
   private int expectedConnectionTypeCode;
 
@@ -108,40 +192,70 @@ public class SimpleDataSource implements DataSource {
   /** The Constant ADD_DRIVER_PROPS_PREFIX_LENGTH. */
   private static final int ADD_DRIVER_PROPS_PREFIX_LENGTH = ADD_DRIVER_PROPS_PREFIX.length();
 
-  /** The pool lock. */
-  // ----- BEGIN: FIELDS LOCKED BY POOL_LOCK -----
-  private final Object POOL_LOCK = new Object();
+  /** The pooled connections, idle and active. */
+  // ----- BEGIN: POOL STATE, UPDATED WITHOUT LOCKING -----
+  private final ConcurrentBag<PoolEntry> connections = new ConcurrentBag<>();
 
-  /** The idle connections. */
-  private List idleConnections = new ArrayList<>();
-
-  /** The active connections. */
-  private List activeConnections = new ArrayList<>();
+  /** The number of physical connections, open or being opened. */
+  private final AtomicInteger totalConnections = new AtomicInteger();
 
   /** The request count. */
-  private long requestCount = 0;
+  private final LongAdder requestCount = new LongAdder();
 
   /** The accumulated request time. */
-  private long accumulatedRequestTime = 0;
+  private final LongAdder accumulatedRequestTime = new LongAdder();
 
   /** The accumulated checkout time. */
-  private long accumulatedCheckoutTime = 0;
+  private final LongAdder accumulatedCheckoutTime = new LongAdder();
 
   /** The claimed overdue connection count. */
-  private long claimedOverdueConnectionCount = 0;
+  private final LongAdder claimedOverdueConnectionCount = new LongAdder();
 
   /** The accumulated checkout time of overdue connections. */
-  private long accumulatedCheckoutTimeOfOverdueConnections = 0;
+  private final LongAdder accumulatedCheckoutTimeOfOverdueConnections = new LongAdder();
 
   /** The accumulated wait time. */
-  private long accumulatedWaitTime = 0;
+  private final LongAdder accumulatedWaitTime = new LongAdder();
 
   /** The had to wait count. */
-  private long hadToWaitCount = 0;
+  private final LongAdder hadToWaitCount = new LongAdder();
+
+  /** The number of requests that gave up waiting for a connection when their deadline passed. */
+  private final LongAdder acquireTimeoutCount = new LongAdder();
+
+  /** The number of requests rejected because too many requests were waiting. */
+  private final LongAdder rejectedRequestCount = new LongAdder();
+
+  /** The number of requests waiting for a connection, bounded by the maximum waiting requests. */
+  private final AtomicInteger waitingRequests = new AtomicInteger();
 
   /** The bad connection count. */
-  private long badConnectionCount = 0;
-  // ----- END: FIELDS LOCKED BY POOL_LOCK -----
+  private final LongAdder badConnectionCount = new LongAdder();
+
+  /** The statement cache hit count. */
+  private final LongAdder statementCacheHitCount = new LongAdder();
+
+  /** The statement cache miss count. */
+  private final LongAdder statementCacheMissCount = new LongAdder();
+
+  /** The time requests took to get a connection. */
+  private final LatencyHistogram checkoutWaitHistogram = new LatencyHistogram();
+
+  /** The time connections were checked out. */
+  private final LatencyHistogram checkoutHoldHistogram = new LatencyHistogram();
+
+  /** The number of connections held longer than the leak detection threshold. */
+  private final LongAdder leakedConnectionCount = new LongAdder();
+
+  /** The number of connections the pool may open now, when its size adapts to the load. */
+  private volatile int adaptivePoolSize;
+
+  /** The number of times the pool grew. */
+  private final LongAdder poolGrowthCount = new LongAdder();
+
+  /** The number of times the pool shrank. */
+  private final LongAdder poolShrinkCount = new LongAdder();
+  // ----- END: POOL STATE, UPDATED WITHOUT LOCKING -----
 
   /** The jdbc driver. */
   // ----- BEGIN: PROPERTY FIELDS FOR CONFIGURATION -----
@@ -177,6 +291,12 @@ public class SimpleDataSource implements DataSource {
   /** The pool time to wait. */
   private int poolTimeToWait;
 
+  /** The longest time a request waits for a connection in total, 0 to wait as long as it takes. */
+  private int poolAcquireTimeout;
+
+  /** The maximum number of requests waiting for a connection, 0 for no limit. */
+  private int poolMaximumWaitingRequests;
+
   /** The pool ping query. */
   private String poolPingQuery;
 
@@ -189,8 +309,70 @@ public class SimpleDataSource implements DataSource {
   /** The pool ping connections not used for. */
   private int poolPingConnectionsNotUsedFor;
 
+  /** The pool minimum idle connections. */
+  private int poolMinimumIdleConnections;
+
+  /** The pool validation interval. */
+  private int poolValidationInterval;
+
+  /** The pool validation timeout, in seconds. */
+  private int poolValidationTimeout;
+
+  /** The pool maximum connection lifetime. */
+  private int poolMaximumConnectionLifetime;
+
+  /** The pool idle timeout. */
+  private int poolIdleTimeout;
+
+  /** The pool housekeeping period. */
+  private int poolHousekeepingPeriod;
+
+  /** The number of prepared statements cached per connection. */
+  private int poolStatementCacheSize;
+
+  /** The time after which a checked out connection is reported as a possible leak. */
+  private int poolLeakDetectionThreshold;
+
+  /** The pool name. */
+  private String poolName;
+
+  /** Whether the pool size adapts to the load. */
+  private boolean poolAdaptiveSizing;
+
+  /** The smallest size the pool shrinks to. */
+  private int poolAdaptiveMinimumSize;
+
+  /** The time between two adjustments of the pool size. */
+  private int poolAdaptiveSizingInterval;
+
+  /** The 99th percentile of the wait for a connection above which the pool grows. */
+  private int poolAdaptiveWaitThreshold;
+
   // ----- END: PROPERTY FIELDS FOR CONFIGURATION -----
 
+  /** The housekeeping task, or null if the pool needs no maintenance. */
+  private Housekeeper housekeeper;
+
+  /** The name the pool is registered with in the platform MBean server, or null. */
+  private ObjectName mbeanName;
+
+  /** Whether the pool was closed for good. */
+  private volatile boolean closed;
+
+  // ----- BEGIN: ADAPTIVE SIZING STATE, ONLY USED BY THE HOUSEKEEPER THREAD -----
+  /** The time of the last adjustment of the pool size, from {@link System#nanoTime()}. */
+  private long sizingTimestamp;
+
+  /** The had to wait count at the last adjustment. */
+  private long sizingHadToWaitCount;
+
+  /** The accumulated checkout time at the last adjustment. */
+  private long sizingCheckoutTime;
+
+  /** The wait histogram counts at the last adjustment. */
+  private long[] sizingWaitCounts;
+  // ----- END: ADAPTIVE SIZING STATE -----
+
   /**
    * Constructor to allow passing in a map of properties for configuration.
    *
@@ -199,6 +381,26 @@ public class SimpleDataSource implements DataSource {
    */
   public SimpleDataSource(Map props) {
     initialize(props);
+    boolean maintained = poolMinimumIdleConnections > 0 || poolValidationInterval > 0
+        || poolMaximumConnectionLifetime > 0 || poolIdleTimeout > 0;
+    if (maintained || poolLeakDetectionThreshold > 0 || poolAdaptiveSizing) {
+      housekeeper = new Housekeeper(this);
+    }
+    if (maintained) {
+      housekeeper.schedule(poolHousekeepingPeriod);
+    }
+    if (poolLeakDetectionThreshold > 0) {
+      // look often enough to report a leak soon after it passed the threshold
+      housekeeper.scheduleLeakDetection(Math.min(poolLeakDetectionThreshold / 2, 1000));
+    }
+    if (poolAdaptiveSizing) {
+      sizingTimestamp = System.nanoTime();
+      sizingWaitCounts = checkoutWaitHistogram.getCounts();
+      housekeeper.scheduleSizing(poolAdaptiveSizingInterval);
+    }
+    if (Boolean.parseBoolean((String) props.get(PROP_POOL_REGISTER_MBEAN))) {
+      registerMBean();
+    }
   }
 
   /**
@@ -236,6 +438,12 @@ public class SimpleDataSource implements DataSource {
       poolTimeToWait = props.containsKey(PROP_POOL_TIME_TO_WAIT)
           ? Integer.parseInt((String) props.get(PROP_POOL_TIME_TO_WAIT)) : 20000;
 
+      poolAcquireTimeout = props.containsKey(PROP_POOL_ACQUIRE_TIMEOUT)
+          ? Integer.parseInt((String) props.get(PROP_POOL_ACQUIRE_TIMEOUT)) : 0;
+
+      poolMaximumWaitingRequests = props.containsKey(PROP_POOL_MAX_WAITING_REQUESTS)
+          ? Integer.parseInt((String) props.get(PROP_POOL_MAX_WAITING_REQUESTS)) : 0;
+
       poolPingEnabled = props.containsKey(PROP_POOL_PING_ENABLED)
           && Boolean.parseBoolean((String) props.get(PROP_POOL_PING_ENABLED));
 
@@ -248,6 +456,52 @@ public class SimpleDataSource implements DataSource {
       poolPingConnectionsNotUsedFor = props.containsKey(PROP_POOL_PING_CONN_NOT_USED_FOR)
           ? Integer.parseInt((String) props.get(PROP_POOL_PING_CONN_NOT_USED_FOR)) : 0;
 
+      poolMinimumIdleConnections = props.containsKey(PROP_POOL_MIN_IDLE_CONN)
+          ? Integer.parseInt((String) props.get(PROP_POOL_MIN_IDLE_CONN)) : 0;
+      poolMinimumIdleConnections = Math.min(poolMinimumIdleConnections,
+          Math.min(poolMaximumIdleConnections, poolMaximumActiveConnections));
+
+      poolValidationInterval = props.containsKey(PROP_POOL_VALIDATION_INTERVAL)
+          ? Integer.parseInt((String) props.get(PROP_POOL_VALIDATION_INTERVAL)) : 0;
+
+      poolValidationTimeout = props.containsKey(PROP_POOL_VALIDATION_TIMEOUT)
+          ? Integer.parseInt((String) props.get(PROP_POOL_VALIDATION_TIMEOUT)) : 5;
+
+      poolMaximumConnectionLifetime = props.containsKey(PROP_POOL_MAX_CONN_LIFETIME)
+          ? Integer.parseInt((String) props.get(PROP_POOL_MAX_CONN_LIFETIME)) : 0;
+
+      poolIdleTimeout = props.containsKey(PROP_POOL_IDLE_TIMEOUT)
+          ? Integer.parseInt((String) props.get(PROP_POOL_IDLE_TIMEOUT)) : 0;
+
+      poolHousekeepingPeriod = props.containsKey(PROP_POOL_HOUSEKEEPING_PERIOD)
+          ? Integer.parseInt((String) props.get(PROP_POOL_HOUSEKEEPING_PERIOD)) : 30000;
+
+      poolStatementCacheSize = props.containsKey(PROP_POOL_STATEMENT_CACHE_SIZE)
+          ? Integer.parseInt((String) props.get(PROP_POOL_STATEMENT_CACHE_SIZE)) : 0;
+
+      poolLeakDetectionThreshold = props.containsKey(PROP_POOL_LEAK_DETECTION_THRESHOLD)
+          ? Integer.parseInt((String) props.get(PROP_POOL_LEAK_DETECTION_THRESHOLD)) : 0;
+
+      poolName = props.containsKey(PROP_POOL_NAME) ? (String) props.get(PROP_POOL_NAME)
+          : Integer.toHexString(System.identityHashCode(this));
+
+      poolAdaptiveSizing = props.containsKey(PROP_POOL_ADAPTIVE_SIZING)
+          && Boolean.parseBoolean((String) props.get(PROP_POOL_ADAPTIVE_SIZING));
+
+      poolAdaptiveMinimumSize = props.containsKey(PROP_POOL_ADAPTIVE_MIN_SIZE)
+          ? Integer.parseInt((String) props.get(PROP_POOL_ADAPTIVE_MIN_SIZE)) : Math.max(1, poolMinimumIdleConnections);
+      poolAdaptiveMinimumSize = Math.min(Math.max(1, poolAdaptiveMinimumSize), poolMaximumActiveConnections);
+
+      poolAdaptiveSizingInterval = props.containsKey(PROP_POOL_ADAPTIVE_SIZING_INTERVAL)
+          ? Integer.parseInt((String) props.get(PROP_POOL_ADAPTIVE_SIZING_INTERVAL)) : 10000;
+
+      poolAdaptiveWaitThreshold = props.containsKey(PROP_POOL_ADAPTIVE_WAIT_THRESHOLD)
+          ? Integer.parseInt((String) props.get(PROP_POOL_ADAPTIVE_WAIT_THRESHOLD)) : 0;
+
+      adaptivePoolSize = poolAdaptiveSizing
+          ? Math.max(poolAdaptiveMinimumSize, Math.min(poolMaximumIdleConnections, poolMaximumActiveConnections))
+          : poolMaximumActiveConnections;
+
       jdbcDefaultAutoCommit = props.containsKey(PROP_JDBC_DEFAULT_AUTOCOMMIT)
           && Boolean.parseBoolean((String) props.get(PROP_JDBC_DEFAULT_AUTOCOMMIT));
 
@@ -301,7 +555,28 @@ public class SimpleDataSource implements DataSource {
    */
   @Override
   public Connection getConnection() throws SQLException {
-    return popConnection(jdbcUsername, jdbcPassword).getProxyConnection();
+    return popConnection(jdbcUsername, jdbcPassword, poolAcquireTimeout).getProxyConnection();
+  }
+
+  /**
+   * Gets a connection, waiting for one no longer than the given time instead of the acquire timeout of the pool.
+   * <p>
+   * This is for code that uses the data source directly. The transactions of a sql map client get their connections
+   * through {@link #getConnection()}, so they always wait up to the acquire timeout of the pool.
+   *
+   * @param acquireTimeout
+   *          the longest time to wait for a connection, 0 to wait as long as it takes
+   * @param unit
+   *          the unit of the timeout
+   *
+   * @return the connection
+   *
+   * @throws SQLException
+   *           a {@link ConnectionAcquisitionException} if no connection became available in time, or if too many
+   *           requests are waiting already
+   */
+  public Connection getConnection(long acquireTimeout, TimeUnit unit) throws SQLException {
+    return popConnection(jdbcUsername, jdbcPassword, unit.toMillis(acquireTimeout)).getProxyConnection();
   }
 
   /**
@@ -309,7 +584,7 @@ public class SimpleDataSource implements DataSource {
    */
   @Override
   public Connection getConnection(String username, String password) throws SQLException {
-    return popConnection(username, password).getProxyConnection();
+    return popConnection(username, password, poolAcquireTimeout).getProxyConnection();
   }
 
   /**
@@ -426,6 +701,24 @@ public class SimpleDataSource implements DataSource {
     return poolTimeToWait;
   }
 
+  /**
+   * Getter for the longest time a request waits for a connection in total.
+   *
+   * @return The time in milliseconds, 0 if requests wait as long as it takes
+   */
+  public int getPoolAcquireTimeout() {
+    return poolAcquireTimeout;
+  }
+
+  /**
+   * Getter for the maximum number of requests waiting for a connection.
+   *
+   * @return The number of requests, 0 if there is no limit
+   */
+  public int getPoolMaximumWaitingRequests() {
+    return poolMaximumWaitingRequests;
+  }
+
   /**
    * Getter for the query to be used to check a connection.
    *
@@ -453,6 +746,154 @@ public class SimpleDataSource implements DataSource {
     return poolPingConnectionsOlderThan;
   }
 
+  /**
+   * Getter for the number of idle connections the pool keeps open ahead of demand.
+   *
+   * @return The minimum number of idle connections
+   */
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  /**
+   * Getter for how often idle connections are validated in the background. Connections are not pinged at checkout when
+   * this is set.
+   *
+   * @return The interval in milliseconds, or 0 if connections are pinged at checkout instead
+   */
+  public int getPoolValidationInterval() {
+    return poolValidationInterval;
+  }
+
+  /**
+   * Getter for the time a background validation may take.
+   *
+   * @return The timeout in seconds
+   */
+  public int getPoolValidationTimeout() {
+    return poolValidationTimeout;
+  }
+
+  /**
+   * Getter for the age at which connections are retired.
+   *
+   * @return The lifetime in milliseconds, or 0 if connections are never retired for their age
+   */
+  public int getPoolMaximumConnectionLifetime() {
+    return poolMaximumConnectionLifetime;
+  }
+
+  /**
+   * Getter for the time after which idle connections beyond the minimum are closed.
+   *
+   * @return The timeout in milliseconds, or 0 if idle connections are kept up to the maximum idle count
+   */
+  public int getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  /**
+   * Getter for the time between two maintenance runs.
+   *
+   * @return The period in milliseconds
+   */
+  public int getPoolHousekeepingPeriod() {
+    return poolHousekeepingPeriod;
+  }
+
+  /**
+   * Getter for the maximum number of prepared statements cached for each connection.
+   *
+   * @return The number of statements, 0 if statements are not cached
+   */
+  public int getPoolStatementCacheSize() {
+    return poolStatementCacheSize;
+  }
+
+  /**
+   * Getter for the time after which a checked out connection is reported as a possible leak.
+   *
+   * @return The time in milliseconds, 0 if leaks are not detected
+   */
+  public int getPoolLeakDetectionThreshold() {
+    return poolLeakDetectionThreshold;
+  }
+
+  /**
+   * Getter for the name of the pool, used for its MBean.
+   *
+   * @return The name
+   */
+  public String getPoolName() {
+    return poolName;
+  }
+
+  /**
+   * Getter for whether the pool size adapts to the load.
+   *
+   * @return True if the pool grows and shrinks between its minimum size and the maximum active connections
+   */
+  public boolean isPoolAdaptiveSizing() {
+    return poolAdaptiveSizing;
+  }
+
+  /**
+   * Getter for the smallest size the pool shrinks to.
+   *
+   * @return The number of connections
+   */
+  public int getPoolAdaptiveMinimumSize() {
+    return poolAdaptiveMinimumSize;
+  }
+
+  /**
+   * Getter for the time between two adjustments of the pool size.
+   *
+   * @return The time in milliseconds
+   */
+  public int getPoolAdaptiveSizingInterval() {
+    return poolAdaptiveSizingInterval;
+  }
+
+  /**
+   * Getter for the 99th percentile of the wait for a connection above which the pool grows.
+   *
+   * @return The time in milliseconds, 0 if only requests that had to wait make the pool grow
+   */
+  public int getPoolAdaptiveWaitThreshold() {
+    return poolAdaptiveWaitThreshold;
+  }
+
+  /**
+   * Getter for the number of connections that are checked out.
+   *
+   * @return The number of active connections
+   */
+  @Override
+  public int getActiveConnectionCount() {
+    return connections.getCount(ConcurrentBag.STATE_IN_USE);
+  }
+
+  /**
+   * Getter for the number of connections waiting in the pool.
+   *
+   * @return The number of idle connections
+   */
+  @Override
+  public int getIdleConnectionCount() {
+    return connections.getCount(ConcurrentBag.STATE_NOT_IN_USE);
+  }
+
+  /**
+   * Getter for the number of requests waiting for a connection.
+   *
+   * @return The number of waiting requests
+   */
+  @Override
+  public int getWaitingRequestCount() {
+    return connections.getWaitingThreadCount();
+  }
+
   /**
    * Gets the expected connection type code.
    *
@@ -467,10 +908,9 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The number of connection requests made
    */
+  @Override
   public long getRequestCount() {
-    synchronized (POOL_LOCK) {
-      return requestCount;
-    }
+    return requestCount.sum();
   }
 
   /**
@@ -478,10 +918,10 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The average time
    */
+  @Override
   public long getAverageRequestTime() {
-    synchronized (POOL_LOCK) {
-      return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
-    }
+    long count = requestCount.sum();
+    return count == 0 ? 0 : accumulatedRequestTime.sum() / count;
   }
 
   /**
@@ -489,10 +929,10 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The average time
    */
+  @Override
   public long getAverageWaitTime() {
-    synchronized (POOL_LOCK) {
-      return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
-    }
+    long count = hadToWaitCount.sum();
+    return count == 0 ? 0 : accumulatedWaitTime.sum() / count;
   }
 
   /**
@@ -500,10 +940,9 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The number of requests that had to wait
    */
+  @Override
   public long getHadToWaitCount() {
-    synchronized (POOL_LOCK) {
-      return hadToWaitCount;
-    }
+    return hadToWaitCount.sum();
   }
 
   /**
@@ -511,21 +950,169 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The number of invalid connections
    */
+  @Override
   public long getBadConnectionCount() {
-    synchronized (POOL_LOCK) {
-      return badConnectionCount;
+    return badConnectionCount.sum();
+  }
+
+  /**
+   * Getter for the number of prepared statements that were reused from the statement cache of a connection.
+   *
+   * @return The number of cache hits
+   */
+  @Override
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.sum();
+  }
+
+  /**
+   * Getter for the number of prepared statements that were not found in the statement cache of a connection.
+   *
+   * @return The number of cache misses
+   */
+  @Override
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.sum();
+  }
+
+  @Override
+  public double getCheckoutWaitP50() {
+    return checkoutWaitHistogram.getPercentileMillis(50);
+  }
+
+  @Override
+  public double getCheckoutWaitP99() {
+    return checkoutWaitHistogram.getPercentileMillis(99);
+  }
+
+  @Override
+  public double getCheckoutWaitP999() {
+    return checkoutWaitHistogram.getPercentileMillis(99.9);
+  }
+
+  @Override
+  public double getCheckoutHoldP50() {
+    return checkoutHoldHistogram.getPercentileMillis(50);
+  }
+
+  @Override
+  public double getCheckoutHoldP99() {
+    return checkoutHoldHistogram.getPercentileMillis(99);
+  }
+
+  @Override
+  public double getCheckoutHoldP999() {
+    return checkoutHoldHistogram.getPercentileMillis(99.9);
+  }
+
+  /**
+   * Getter for the number of connections that were held longer than the leak detection threshold.
+   *
+   * @return The number of suspected leaks
+   */
+  @Override
+  public long getAcquireTimeoutCount() {
+    return acquireTimeoutCount.sum();
+  }
+
+  @Override
+  public long getRejectedRequestCount() {
+    return rejectedRequestCount.sum();
+  }
+
+  @Override
+  public int getPoolSize() {
+    return adaptivePoolSize;
+  }
+
+  @Override
+  public long getPoolGrowthCount() {
+    return poolGrowthCount.sum();
+  }
+
+  @Override
+  public long getPoolShrinkCount() {
+    return poolShrinkCount.sum();
+  }
+
+  @Override
+  public long getLeakedConnectionCount() {
+    return leakedConnectionCount.sum();
+  }
+
+  /**
+   * Describes the connections that are checked out longer than the leak detection threshold, with the stack of the
+   * code that checked them out.
+   *
+   * @return The suspected leaks, empty if leaks are not detected
+   */
+  @Override
+  public List<String> getSuspectedLeaks() {
+    List<String> leaks = new ArrayList<>();
+    if (poolLeakDetectionThreshold > 0) {
+      for (PoolEntry entry : connections.values()) {
+        SimplePooledConnection conn = entry.getActiveConnection();
+        if (conn != null && conn.getCheckoutTrace() != null && conn.getCheckoutTime() > poolLeakDetectionThreshold) {
+          StringWriter trace = new StringWriter();
+          conn.getCheckoutTrace().printStackTrace(new PrintWriter(trace));
+          leaks.add("Connection " + conn.getRealHashCode() + " checked out for " + conn.getCheckoutTime() + " ms: "
+              + trace);
+        }
+      }
+    }
+    return leaks;
+  }
+
+  /**
+   * Takes a snapshot of the statistics of the pool.
+   *
+   * @return The statistics
+   */
+  public SimpleDataSourceStatistics getStatistics() {
+    return new SimpleDataSourceStatistics(this);
+  }
+
+  /**
+   * Registers the statistics of the pool with the platform MBean server, as
+   * <code>com.ibatis.common.jdbc:type=SimpleDataSource,name=&lt;pool name&gt;</code>. The MBean server keeps the pool
+   * reachable until {@link #unregisterMBean()} is called.
+   */
+  public void registerMBean() {
+    try {
+      ObjectName name = new ObjectName(
+          "com.ibatis.common.jdbc:type=SimpleDataSource,name=" + ObjectName.quote(poolName));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      mbeanName = name;
+    } catch (JMException e) {
+      throw new RuntimeException("SimpleDataSource: Error registering MBean for pool '" + poolName + "'.  Cause: " + e,
+          e);
     }
   }
 
+  /**
+   * Removes the statistics of the pool from the platform MBean server, if they were registered.
+   */
+  public void unregisterMBean() {
+    if (mbeanName == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.unregisterMBean(mbeanName);
+    } catch (JMException e) {
+      log.warn("SimpleDataSource: Error unregistering MBean " + mbeanName + ".  Cause: " + e);
+    }
+    mbeanName = null;
+  }
+
   /**
    * Getter for the number of connections that were claimed before they were returned.
    *
    * @return The number of connections
    */
+  @Override
   public long getClaimedOverdueConnectionCount() {
-    synchronized (POOL_LOCK) {
-      return claimedOverdueConnectionCount;
-    }
+    return claimedOverdueConnectionCount.sum();
   }
 
   /**
@@ -534,10 +1121,8 @@ public class SimpleDataSource implements DataSource {
    * @return The average age
    */
   public long getAverageOverdueCheckoutTime() {
-    synchronized (POOL_LOCK) {
-      return claimedOverdueConnectionCount == 0 ? 0
-          : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
-    }
+    long count = claimedOverdueConnectionCount.sum();
+    return count == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections.sum() / count;
   }
 
   /**
@@ -545,10 +1130,10 @@ public class SimpleDataSource implements DataSource {
    *
    * @return The average age
    */
+  @Override
   public long getAverageCheckoutTime() {
-    synchronized (POOL_LOCK) {
-      return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
-    }
+    long count = requestCount.sum();
+    return count == 0 ? 0 : accumulatedCheckoutTime.sum() / count;
   }
 
   /**
@@ -568,50 +1153,82 @@ public class SimpleDataSource implements DataSource {
     builder.append("\n poolMaxIdleConnections         ").append(poolMaximumIdleConnections);
     builder.append("\n poolMaxCheckoutTime            " + poolMaximumCheckoutTime);
     builder.append("\n poolTimeToWait                 " + poolTimeToWait);
+    builder.append("\n poolAcquireTimeout             " + poolAcquireTimeout);
+    builder.append("\n poolMaximumWaitingRequests     " + poolMaximumWaitingRequests);
     builder.append("\n poolPingEnabled                " + poolPingEnabled);
     builder.append("\n poolPingQuery                  " + poolPingQuery);
     builder.append("\n poolPingConnectionsOlderThan   " + poolPingConnectionsOlderThan);
     builder.append("\n poolPingConnectionsNotUsedFor  " + poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMinIdleConnections         " + poolMinimumIdleConnections);
+    builder.append("\n poolValidationInterval         " + poolValidationInterval);
+    builder.append("\n poolMaxConnectionLifetime      " + poolMaximumConnectionLifetime);
+    builder.append("\n poolIdleTimeout                " + poolIdleTimeout);
+    builder.append("\n poolStatementCacheSize         " + poolStatementCacheSize);
+    builder.append("\n poolLeakDetectionThreshold     " + poolLeakDetectionThreshold);
+    builder.append("\n poolAdaptiveSizing             " + poolAdaptiveSizing);
     builder.append("\n --------------------------------------------------------------");
-    builder.append("\n activeConnections              " + activeConnections.size());
-    builder.append("\n idleConnections                " + idleConnections.size());
+    builder.append("\n poolSize                       " + getPoolSize());
+    builder.append("\n poolGrowths / poolShrinks      " + getPoolGrowthCount() + " / " + getPoolShrinkCount());
+    builder.append("\n activeConnections              " + getActiveConnectionCount());
+    builder.append("\n idleConnections                " + getIdleConnectionCount());
     builder.append("\n requestCount                   " + getRequestCount());
     builder.append("\n averageRequestTime             " + getAverageRequestTime());
     builder.append("\n averageCheckoutTime            " + getAverageCheckoutTime());
     builder.append("\n claimedOverdue                 " + getClaimedOverdueConnectionCount());
     builder.append("\n averageOverdueCheckoutTime     " + getAverageOverdueCheckoutTime());
     builder.append("\n hadToWait                      " + getHadToWaitCount());
+    builder.append("\n acquireTimeouts / rejected     " + getAcquireTimeoutCount() + " / " + getRejectedRequestCount());
     builder.append("\n averageWaitTime                " + getAverageWaitTime());
+    builder.append("\n checkoutWait p50/p99/p999      " + getCheckoutWaitP50() + " / " + getCheckoutWaitP99() + " / "
+        + getCheckoutWaitP999());
+    builder.append("\n checkoutHold p50/p99/p999      " + getCheckoutHoldP50() + " / " + getCheckoutHoldP99() + " / "
+        + getCheckoutHoldP999());
     builder.append("\n badConnectionCount             " + getBadConnectionCount());
+    builder.append("\n statementCacheHits             " + getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           " + getStatementCacheMissCount());
+    builder.append("\n leakedConnections              " + getLeakedConnectionCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
 
   /**
-   * Closes all of the connections in the pool.
+   * Closes the pool for good: stops its maintenance, removes its MBean and closes all of its connections. The pool
+   * opens no more connections afterwards, and requests for a connection fail. Once no pool needs maintenance any more,
+   * the housekeeper thread shared by the pools ends.
    */
-  public void forceCloseAll() {
-    synchronized (POOL_LOCK) {
-      for (int i = activeConnections.size(); i > 0; i--) {
-        try {
-          SimplePooledConnection conn = (SimplePooledConnection) activeConnections.remove(i - 1);
-          conn.invalidate();
+  public void close() {
+    closed = true;
+    if (housekeeper != null) {
+      housekeeper.cancel();
+    }
+    unregisterMBean();
+    forceCloseAll();
+  }
 
-          Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
-          realConn.close();
-        } catch (Exception e) {
-          // ignore
-        }
+  /**
+   * Checks whether the pool was closed.
+   *
+   * @return true if {@link #close()} was called
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Closes all of the connections in the pool. Unlike {@link #close()}, the pool stays usable and opens new connections
+   * as they are needed.
+   */
+  public void forceCloseAll() {
+    for (PoolEntry entry : connections.values()) {
+      SimplePooledConnection activeConnection = entry.getActiveConnection();
+      if (activeConnection != null && entry.checkin(activeConnection)) {
+        activeConnection.invalidate();
       }
-      for (int i = idleConnections.size(); i > 0; i--) {
+      if (connections.remove(entry)) {
+        totalConnections.decrementAndGet();
+        entry.closeStatements();
         try {
-          SimplePooledConnection conn = (SimplePooledConnection) idleConnections.remove(i - 1);
-          conn.invalidate();
-
-          Connection realConn = conn.getRealConnection();
+          Connection realConn = entry.getRealConnection();
           if (!realConn.getAutoCommit()) {
             realConn.rollback();
           }
@@ -636,42 +1253,53 @@ public class SimpleDataSource implements DataSource {
    *           the SQL exception
    */
   private void pushConnection(SimplePooledConnection conn) throws SQLException {
-
-    synchronized (POOL_LOCK) {
-      activeConnections.remove(conn);
-      if (conn.isValid()) {
-        if (idleConnections.size() < poolMaximumIdleConnections
-            && conn.getConnectionTypeCode() == getExpectedConnectionTypeCode()) {
-          accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
-          SimplePooledConnection newConn = new SimplePooledConnection(conn.getRealConnection(), this);
-          idleConnections.add(newConn);
-          newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
-          newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
-          conn.invalidate();
-          if (log.isDebugEnabled()) {
-            log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
-          }
-          POOL_LOCK.notifyAll();
-        } else {
-          accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
-          conn.getRealConnection().close();
-          if (log.isDebugEnabled()) {
-            log.debug("Closed connection " + conn.getRealHashCode() + ".");
-          }
-          conn.invalidate();
-        }
-      } else {
-        if (log.isDebugEnabled()) {
-          log.debug("A bad connection (" + conn.getRealHashCode()
-              + ") attempted to return to the pool, discarding connection.");
-        }
-        badConnectionCount++;
+    PoolEntry entry = conn.getPoolEntry();
+    if (entry == null || !entry.checkin(conn)) {
+      // Already returned, or claimed by another request because it was overdue
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode()
+            + ") attempted to return to the pool, discarding connection.");
+      }
+      badConnectionCount.increment();
+      return;
+    }
+    checkoutHoldHistogram.record(conn.getCheckoutNanos());
+    if (conn.isLeakReported()) {
+      log.warn("Previously reported leaked connection " + conn.getRealHashCode() + " was returned after "
+          + conn.getCheckoutTime() + " milliseconds.");
+    }
+    if (!isUsable(conn)) {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode()
+            + ") attempted to return to the pool, discarding connection.");
+      }
+      conn.invalidate();
+      badConnectionCount.increment();
+      discardConnection(entry);
+      return;
+    }
+    conn.invalidate();
+    accumulatedCheckoutTime.add(conn.getCheckoutTime());
+    entry.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+    try {
+      if (!entry.getRealConnection().getAutoCommit()) {
+        entry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      discardConnection(entry);
+      throw e;
+    }
+    if (!closed && conn.getConnectionTypeCode() == getExpectedConnectionTypeCode() && !isExpired(entry)
+        && totalConnections.get() <= adaptivePoolSize && (connections.getWaitingThreadCount() > 0
+            || connections.getCount(ConcurrentBag.STATE_NOT_IN_USE) < poolMaximumIdleConnections)) {
+      connections.requite(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Returned connection " + conn.getRealHashCode() + " to pool.");
+      }
+    } else {
+      discardConnection(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Closed connection " + conn.getRealHashCode() + ".");
       }
     }
   }
@@ -683,119 +1311,473 @@ public class SimpleDataSource implements DataSource {
    *          the username
    * @param password
    *          the password
+   * @param acquireTimeout
+   *          the longest time to wait for a connection in milliseconds, 0 to wait as long as it takes
    *
    * @return the simple pooled connection
    *
    * @throws SQLException
    *           the SQL exception
    */
-  private SimplePooledConnection popConnection(String username, String password) throws SQLException {
+  private SimplePooledConnection popConnection(String username, String password, long acquireTimeout)
+      throws SQLException {
     boolean countedWait = false;
     SimplePooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
+    long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(acquireTimeout);
     int localBadConnectionCount = 0;
 
     while (conn == null) {
-      synchronized (POOL_LOCK) {
-        if (!idleConnections.isEmpty()) {
-          // Pool has available connection
-          conn = (SimplePooledConnection) idleConnections.remove(0);
-          if (log.isDebugEnabled()) {
-            log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+      if (closed) {
+        throw new SQLException("SimpleDataSource: The pool is closed.");
+      }
+      PoolEntry entry = connections.borrowIdle();
+      if (entry != null && isExpired(entry)) {
+        // Retire the connection and look again
+        discardConnection(entry);
+        continue;
+      }
+      if (entry != null) {
+        // Pool has available connection
+        requestFill();
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + entry.getRealConnection().hashCode() + " from pool.");
+        }
+      } else if (reserveConnection()) {
+        // Can create new connection
+        entry = openConnection();
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + entry.getRealConnection().hashCode() + ".");
+        }
+      } else {
+        // Cannot create new connection
+        entry = claimOverdueConnection();
+        if (entry == null) {
+          // Must wait
+          if (!countedWait) {
+            hadToWaitCount.increment();
+            countedWait = true;
           }
-        } else {
-          // Pool does not have available connection
-          if (activeConnections.size() < poolMaximumActiveConnections) {
-            // Can create new connection
-            if (useDriverProps) {
-              conn = new SimplePooledConnection(DriverManager.getConnection(jdbcUrl, driverProps), this);
-            } else {
-              conn = new SimplePooledConnection(DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword), this);
-            }
-            Connection realConn = conn.getRealConnection();
-            if (realConn.getAutoCommit() != jdbcDefaultAutoCommit) {
-              realConn.setAutoCommit(jdbcDefaultAutoCommit);
-            }
-            if (log.isDebugEnabled()) {
-              log.debug("Created connection " + conn.getRealHashCode() + ".");
-            }
-          } else {
-            // Cannot create new connection
-            SimplePooledConnection oldestActiveConnection = (SimplePooledConnection) activeConnections.get(0);
-            long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
-            if (longestCheckoutTime > poolMaximumCheckoutTime) {
-              // Can claim overdue connection
-              claimedOverdueConnectionCount++;
-              accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
-              accumulatedCheckoutTime += longestCheckoutTime;
-              activeConnections.remove(oldestActiveConnection);
-              if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
-                oldestActiveConnection.getRealConnection().rollback();
-              }
-              conn = new SimplePooledConnection(oldestActiveConnection.getRealConnection(), this);
-              oldestActiveConnection.invalidate();
-              if (log.isDebugEnabled()) {
-                log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
-              }
-            } else {
-              // Must wait
-              try {
-                if (!countedWait) {
-                  hadToWaitCount++;
-                  countedWait = true;
-                }
-                if (log.isDebugEnabled()) {
-                  log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
-                }
-                long wt = System.currentTimeMillis();
-                POOL_LOCK.wait(poolTimeToWait);
-                accumulatedWaitTime += System.currentTimeMillis() - wt;
-              } catch (InterruptedException e) {
-                break;
-              }
+          long wait = poolTimeToWait > 0 ? TimeUnit.MILLISECONDS.toNanos(poolTimeToWait) : Long.MAX_VALUE;
+          if (acquireTimeout > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              acquireTimeoutCount.increment();
+              throw new ConnectionAcquisitionException("SimpleDataSource: Could not get a connection within "
+                  + acquireTimeout + " milliseconds.", ConnectionAcquisitionException.Reason.TIMEOUT);
             }
+            wait = Math.min(wait, remaining);
+          }
+          if (!enterWaitQueue()) {
+            rejectedRequestCount.increment();
+            throw new ConnectionAcquisitionException("SimpleDataSource: Could not get a connection because "
+                + poolMaximumWaitingRequests + " requests are waiting already.",
+                ConnectionAcquisitionException.Reason.QUEUE_FULL);
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + TimeUnit.NANOSECONDS.toMillis(wait) + " milliseconds for connection.");
+          }
+          long wt = System.currentTimeMillis();
+          try {
+            entry = connections.borrow(wait, TimeUnit.NANOSECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionAcquisitionException(
+                "SimpleDataSource: Interrupted while waiting for a connection.  Cause: " + e,
+                ConnectionAcquisitionException.Reason.INTERRUPTED, e);
+          } finally {
+            waitingRequests.decrementAndGet();
           }
+          accumulatedWaitTime.add(System.currentTimeMillis() - wt);
         }
-        if (conn != null) {
-          if (conn.isValid()) {
-            if (!conn.getRealConnection().getAutoCommit()) {
-              conn.getRealConnection().rollback();
-            }
-            conn.setConnectionTypeCode(assembleConnectionTypeCode(jdbcUrl, username, password));
-            conn.setCheckoutTimestamp(System.currentTimeMillis());
-            conn.setLastUsedTimestamp(System.currentTimeMillis());
-            activeConnections.add(conn);
-            requestCount++;
-            accumulatedRequestTime += System.currentTimeMillis() - t;
-          } else {
+      }
+      if (entry != null) {
+        conn = new SimplePooledConnection(entry, this);
+        if (isUsable(conn)) {
+          conn.setConnectionTypeCode(assembleConnectionTypeCode(jdbcUrl, username, password));
+          conn.setCheckoutTimestamp(System.currentTimeMillis());
+          conn.setLastUsedTimestamp(System.currentTimeMillis());
+          conn.startCheckout(poolLeakDetectionThreshold > 0);
+          entry.checkout(conn);
+          requestCount.increment();
+          accumulatedRequestTime.add(System.currentTimeMillis() - t);
+          checkoutWaitHistogram.record(System.nanoTime() - startNanos);
+        } else {
+          if (log.isDebugEnabled()) {
+            log.debug("A bad connection (" + conn.getRealHashCode()
+                + ") was returned from the pool, getting another connection.");
+          }
+          discardConnection(entry);
+          badConnectionCount.increment();
+          localBadConnectionCount++;
+          conn = null;
+          if (localBadConnectionCount > poolMaximumIdleConnections + 3) {
             if (log.isDebugEnabled()) {
-              log.debug("A bad connection (" + conn.getRealHashCode()
-                  + ") was returned from the pool, getting another connection.");
-            }
-            badConnectionCount++;
-            localBadConnectionCount++;
-            conn = null;
-            if (localBadConnectionCount > poolMaximumIdleConnections + 3) {
-              if (log.isDebugEnabled()) {
-                log.debug("SimpleDataSource: Could not get a good connection to the database.");
-              }
-              throw new SQLException("SimpleDataSource: Could not get a good connection to the database.");
+              log.debug("SimpleDataSource: Could not get a good connection to the database.");
             }
+            throw new SQLException("SimpleDataSource: Could not get a good connection to the database.");
           }
         }
       }
+    }
+
+    if (conn == null) {
+      if (log.isDebugEnabled()) {
+        log.debug("SimpleDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+      }
+      throw new SQLException(
+          "SimpleDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    }
+
+    return conn;
+  }
 
+  /**
+   * Counts the current thread as waiting for a connection, unless the maximum number of requests are waiting already.
+   * Requests are served in the order they started to wait.
+   *
+   * @return true if the thread may wait
+   */
+  private boolean enterWaitQueue() {
+    int waiting;
+    do {
+      waiting = waitingRequests.get();
+      if (poolMaximumWaitingRequests > 0 && waiting >= poolMaximumWaitingRequests) {
+        return false;
+      }
+    } while (!waitingRequests.compareAndSet(waiting, waiting + 1));
+    return true;
+  }
+
+  /**
+   * Reserves room for a new physical connection, unless the pool already has the maximum number of active connections.
+   *
+   * @return true if a connection may be opened
+   */
+  private boolean reserveConnection() {
+    int total;
+    do {
+      total = totalConnections.get();
+      if (total >= adaptivePoolSize) {
+        return false;
+      }
+    } while (!totalConnections.compareAndSet(total, total + 1));
+    return true;
+  }
+
+  /**
+   * Opens a physical connection for which room was reserved, and adds it to the pool as checked out. No lock is held
+   * while connecting.
+   *
+   * @return the pool entry of the new connection
+   *
+   * @throws SQLException
+   *           if the connection could not be opened
+   */
+  private PoolEntry openConnection() throws SQLException {
+    Connection realConn = null;
+    try {
+      if (useDriverProps) {
+        realConn = DriverManager.getConnection(jdbcUrl, driverProps);
+      } else {
+        realConn = DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword);
+      }
+      if (realConn.getAutoCommit() != jdbcDefaultAutoCommit) {
+        realConn.setAutoCommit(jdbcDefaultAutoCommit);
+      }
+    } catch (SQLException | RuntimeException e) {
+      totalConnections.decrementAndGet();
+      if (realConn != null) {
+        try {
+          realConn.close();
+        } catch (SQLException e2) {
+          // ignore
+        }
+      }
+      throw e;
+    }
+    PoolEntry entry = new PoolEntry(realConn, poolStatementCacheSize > 0
+        ? new StatementCache(poolStatementCacheSize, statementCacheHitCount, statementCacheMissCount) : null);
+    connections.add(entry);
+    return entry;
+  }
+
+  /**
+   * Claims the connection that has been checked out the longest, if it has been checked out for longer than the
+   * maximum checkout time. The request that checked it out can no longer use it.
+   *
+   * @return the pool entry of the claimed connection, or null if no connection is overdue
+   *
+   * @throws SQLException
+   *           if the claimed connection could not be rolled back
+   */
+  private PoolEntry claimOverdueConnection() throws SQLException {
+    PoolEntry oldestEntry = null;
+    SimplePooledConnection oldestActiveConnection = null;
+    long longestCheckoutTime = 0;
+    for (PoolEntry entry : connections.values()) {
+      SimplePooledConnection activeConnection = entry.getActiveConnection();
+      if (activeConnection != null && activeConnection.getCheckoutTime() > longestCheckoutTime) {
+        oldestEntry = entry;
+        oldestActiveConnection = activeConnection;
+        longestCheckoutTime = activeConnection.getCheckoutTime();
+      }
+    }
+    if (oldestEntry == null || longestCheckoutTime <= poolMaximumCheckoutTime
+        || !oldestEntry.checkin(oldestActiveConnection)) {
+      return null;
+    }
+    // Can claim overdue connection
+    oldestActiveConnection.invalidate();
+    claimedOverdueConnectionCount.increment();
+    accumulatedCheckoutTimeOfOverdueConnections.add(longestCheckoutTime);
+    accumulatedCheckoutTime.add(longestCheckoutTime);
+    try {
+      if (!oldestEntry.getRealConnection().getAutoCommit()) {
+        oldestEntry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      discardConnection(oldestEntry);
+      throw e;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + oldestEntry.getRealConnection().hashCode() + ".");
+    }
+    return oldestEntry;
+  }
+
+  /**
+   * Checks a connection before it is handed out or taken back. Connections are pinged, unless they are validated in
+   * the background.
+   *
+   * @param conn
+   *          the connection
+   *
+   * @return true if the connection may be used
+   */
+  private boolean isUsable(SimplePooledConnection conn) {
+    if (poolValidationInterval > 0) {
+      return conn.valid;
+    }
+    return conn.isValid();
+  }
+
+  /**
+   * Checks whether a connection has reached the maximum lifetime.
+   *
+   * @param entry
+   *          the pool entry of the connection
+   *
+   * @return true if the connection should be retired
+   */
+  private boolean isExpired(PoolEntry entry) {
+    return poolMaximumConnectionLifetime > 0
+        && System.currentTimeMillis() - entry.getCreatedTimestamp() > poolMaximumConnectionLifetime;
+  }
+
+  /**
+   * Reports the connections that are checked out longer than the leak detection threshold, once per checkout, with
+   * the stack of the code that checked them out.
+   */
+  private void detectLeaks() {
+    for (PoolEntry entry : connections.values()) {
+      SimplePooledConnection conn = entry.getActiveConnection();
+      if (conn != null && conn.getCheckoutTrace() != null && !conn.isLeakReported()
+          && conn.getCheckoutTime() > poolLeakDetectionThreshold) {
+        conn.setLeakReported();
+        leakedConnectionCount.increment();
+        log.error("Connection " + conn.getRealHashCode() + " has been checked out for " + conn.getCheckoutTime()
+            + " milliseconds, longer than the leak detection threshold of " + poolLeakDetectionThreshold
+            + " milliseconds. It may have leaked. It was checked out by:", conn.getCheckoutTrace());
+      }
+    }
+  }
+
+  /**
+   * Adjusts the pool size to the load since the last adjustment. The pool grows by a quarter when requests had to wait
+   * for a connection, or when the 99th percentile of the wait exceeded the threshold. Otherwise it shrinks towards the
+   * average number of connections in use (from the checkout time per elapsed time) plus some headroom, closing idle
+   * connections above the new size; connections in use above it are closed when they are returned.
+   */
+  private void resize() {
+    long now = System.nanoTime();
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - sizingTimestamp));
+    long hadToWait = hadToWaitCount.sum();
+    long checkoutTime = accumulatedCheckoutTime.sum();
+    long waited = hadToWait - sizingHadToWaitCount;
+    double waitP99 = checkoutWaitHistogram.getPercentileMillis(99, sizingWaitCounts);
+    double averageInUse = (double) (checkoutTime - sizingCheckoutTime) / elapsedMillis;
+    sizingTimestamp = now;
+    sizingHadToWaitCount = hadToWait;
+    sizingCheckoutTime = checkoutTime;
+    sizingWaitCounts = checkoutWaitHistogram.getCounts();
+
+    int size = adaptivePoolSize;
+    int newSize = size;
+    if (waited > 0 || poolAdaptiveWaitThreshold > 0 && waitP99 > poolAdaptiveWaitThreshold) {
+      newSize = Math.min(poolMaximumActiveConnections, size + Math.max(1, size / 4));
+    } else {
+      int needed = (int) Math.ceil(averageInUse * ADAPTIVE_HEADROOM);
+      if (needed < size) {
+        newSize = Math.max(poolAdaptiveMinimumSize, size - Math.max(1, (size - needed) / 2));
+      }
+    }
+    if (newSize == size) {
+      return;
+    }
+    adaptivePoolSize = newSize;
+    if (newSize > size) {
+      poolGrowthCount.increment();
+      // hand the new room to the waiting requests rather than letting them wait until they time out
+      while (connections.getWaitingThreadCount() > 0 && reserveConnection()) {
+        try {
+          connections.requite(openConnection());
+        } catch (SQLException e) {
+          log.warn("Could not open a connection for waiting requests: " + e.getMessage());
+          break;
+        }
+      }
+    } else {
+      poolShrinkCount.increment();
+      for (PoolEntry entry : connections.values()) {
+        if (totalConnections.get() <= newSize) {
+          break;
+        }
+        if (connections.reserve(entry)) {
+          discardConnection(entry);
+        }
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("SimpleDataSource: " + (newSize > size ? "Grew" : "Shrank") + " the pool from " + size + " to "
+          + newSize + " connections. In the last " + elapsedMillis + " ms " + waited
+          + " requests had to wait, the 99th percentile of the wait was " + waitP99 + " ms and " + averageInUse
+          + " connections were in use on average.");
+    }
+  }
+
+  /**
+   * Asks the housekeeper to open connections right away if the pool has fewer idle connections than its minimum.
+   */
+  private void requestFill() {
+    if (housekeeper != null && poolMinimumIdleConnections > 0
+        && connections.getCount(ConcurrentBag.STATE_NOT_IN_USE) < poolMinimumIdleConnections) {
+      housekeeper.fillSoon();
+    }
+  }
+
+  /**
+   * Maintains the idle connections: retires those that reached the maximum lifetime or idled past the idle timeout,
+   * validates those that were not validated for the validation interval, and opens connections until the minimum
+   * number of idle connections is reached. Each idle connection is reserved while it is looked at, so a request never
+   * gets a connection that is being validated or closed.
+   */
+  private void housekeep() {
+    if (closed) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    int idle = connections.getCount(ConcurrentBag.STATE_NOT_IN_USE);
+    for (PoolEntry entry : connections.values()) {
+      if (!connections.reserve(entry)) {
+        continue;
+      }
+      if (isExpired(entry)) {
+        idle--;
+        discardConnection(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Retired connection " + entry.getRealConnection().hashCode() + " after its maximum lifetime.");
+        }
+      } else if (poolIdleTimeout > 0 && idle > poolMinimumIdleConnections
+          && now - entry.getLastUsedTimestamp() > poolIdleTimeout) {
+        idle--;
+        discardConnection(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Closed idle connection " + entry.getRealConnection().hashCode() + ".");
+        }
+      } else if (poolValidationInterval > 0 && now - entry.getLastValidatedTimestamp() >= poolValidationInterval
+          && !validate(entry)) {
+        idle--;
+        badConnectionCount.increment();
+        discardConnection(entry);
+      } else {
+        connections.release(entry);
+      }
+    }
+    fill();
+  }
+
+  /**
+   * Opens connections until the minimum number of idle connections is reached, or the maximum number of active
+   * connections would be exceeded.
+   */
+  private void fill() {
+    while (!closed && connections.getCount(ConcurrentBag.STATE_NOT_IN_USE) < poolMinimumIdleConnections
+        && reserveConnection()) {
+      try {
+        PoolEntry entry = openConnection();
+        connections.release(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Opened connection " + entry.getRealConnection().hashCode() + " ahead of demand.");
+        }
+      } catch (SQLException | RuntimeException e) {
+        log.warn("SimpleDataSource: Could not open a connection ahead of demand. Cause: " + e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Validates an idle connection with {@link Connection#isValid(int)}.
+   *
+   * @param entry
+   *          the reserved pool entry of the connection
+   *
+   * @return true if the connection is still usable
+   */
+  private boolean validate(PoolEntry entry) {
+    try {
+      if (entry.getRealConnection().isValid(poolValidationTimeout)) {
+        entry.setLastValidatedTimestamp(System.currentTimeMillis());
+        return true;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + entry.getRealConnection().hashCode() + " is BAD.");
+      }
+    } catch (SQLException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + entry.getRealConnection().hashCode() + " is BAD: " + e.getMessage());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes a connection from the pool and closes it. If requests are waiting for a connection, a new one is opened in
+   * its place and handed to them, since they would otherwise only notice the free room when their wait times out.
+   *
+   * @param entry
+   *          the pool entry of the connection
+   */
+  private void discardConnection(PoolEntry entry) {
+    if (!connections.remove(entry)) {
+      return;
+    }
+    totalConnections.decrementAndGet();
+    entry.closeStatements();
+    try {
+      entry.getRealConnection().close();
+    } catch (SQLException e) {
+      // ignore
     }
-
-    if (conn == null) {
-      if (log.isDebugEnabled()) {
-        log.debug("SimpleDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    if (!closed && connections.getWaitingThreadCount() > 0 && reserveConnection()) {
+      try {
+        connections.requite(openConnection());
+      } catch (SQLException e) {
+        log.warn("Could not open a connection for waiting requests: " + e.getMessage());
       }
-      throw new SQLException(
-          "SimpleDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
-
-    return conn;
   }
 
   /**
@@ -872,20 +1854,14 @@ public class SimpleDataSource implements DataSource {
 
   @Override
   protected void finalize() throws Throwable {
-    forceCloseAll();
+    close();
   }
 
   /**
    * --------------------------------------------------------------------------------------- SimplePooledConnection
    * ---------------------------------------------------------------------------------------.
    */
-  public static class SimplePooledConnection implements InvocationHandler {
-
-    /** The Constant CLOSE. */
-    private static final String CLOSE = "close";
-
-    /** The Constant IFACES. */
-    private static final Class[] IFACES = { Connection.class };
+  public static class SimplePooledConnection implements Connection {
 
     /** The hash code. */
     private int hashCode = 0;
@@ -896,9 +1872,6 @@ public class SimpleDataSource implements DataSource {
     /** The real connection. */
     private Connection realConnection;
 
-    /** The proxy connection. */
-    private Connection proxyConnection;
-
     /** The checkout timestamp. */
     private long checkoutTimestamp;
 
@@ -912,7 +1885,19 @@ public class SimpleDataSource implements DataSource {
     private int connectionTypeCode;
 
     /** The valid. */
-    private boolean valid;
+    private volatile boolean valid;
+
+    /** The pool entry of the physical connection, or null if the connection is not pooled. */
+    private PoolEntry poolEntry;
+
+    /** The checkout time, from {@link System#nanoTime()}. */
+    private long checkoutNanos;
+
+    /** The stack of the code that checked the connection out, or null if leaks are not detected. */
+    private Throwable checkoutTrace;
+
+    /** Whether the connection was reported as a possible leak. */
+    private volatile boolean leakReported;
 
     /**
      * Constructor for SimplePooledConnection that uses the Connection and SimpleDataSource passed in.
@@ -929,8 +1914,30 @@ public class SimpleDataSource implements DataSource {
       this.createdTimestamp = System.currentTimeMillis();
       this.lastUsedTimestamp = System.currentTimeMillis();
       this.valid = true;
+    }
+
+    /**
+     * Constructor for a checkout of a pooled physical connection.
+     *
+     * @param poolEntry
+     *          - the pool entry of the physical connection
+     * @param dataSource
+     *          - the dataSource that the connection is from
+     */
+    private SimplePooledConnection(PoolEntry poolEntry, SimpleDataSource dataSource) {
+      this(poolEntry.getRealConnection(), dataSource);
+      this.poolEntry = poolEntry;
+      this.createdTimestamp = poolEntry.getCreatedTimestamp();
+      this.lastUsedTimestamp = poolEntry.getLastUsedTimestamp();
+    }
 
-      proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+    /**
+     * Gets the pool entry of the physical connection.
+     *
+     * @return the pool entry (or null)
+     */
+    private PoolEntry getPoolEntry() {
+      return poolEntry;
     }
 
     /**
@@ -959,12 +1966,13 @@ public class SimpleDataSource implements DataSource {
     }
 
     /**
-     * Getter for the proxy for the connection.
+     * Getter for the connection handed out to the caller. The pooled connection delegates to the real connection itself,
+     * so this is the pooled connection.
      *
-     * @return The proxy
+     * @return The connection
      */
     public Connection getProxyConnection() {
-      return proxyConnection;
+      return this;
     }
 
     /**
@@ -1082,6 +2090,52 @@ public class SimpleDataSource implements DataSource {
       return System.currentTimeMillis() - checkoutTimestamp;
     }
 
+    /**
+     * Starts the timing of the checkout.
+     *
+     * @param traced
+     *          whether to record the stack of the code checking the connection out
+     */
+    private void startCheckout(boolean traced) {
+      checkoutNanos = System.nanoTime();
+      checkoutTrace = traced ? new Throwable("Connection checkout") : null;
+    }
+
+    /**
+     * Gets the time this connection has been checked out, with the precision of {@link System#nanoTime()}.
+     *
+     * @return the time in nanoseconds
+     */
+    private long getCheckoutNanos() {
+      return System.nanoTime() - checkoutNanos;
+    }
+
+    /**
+     * Gets the stack of the code that checked the connection out.
+     *
+     * @return the stack, or null if leaks are not detected
+     */
+    private Throwable getCheckoutTrace() {
+      return checkoutTrace;
+    }
+
+    private boolean isLeakReported() {
+      return leakReported;
+    }
+
+    private void setLeakReported() {
+      leakReported = true;
+    }
+
+    /**
+     * Gets the statement cache of the physical connection.
+     *
+     * @return the statement cache, or null if statements are not cached
+     */
+    private StatementCache getStatementCache() {
+      return poolEntry == null ? null : poolEntry.getStatementCache();
+    }
+
     /**
      * Gets the valid connection.
      *
@@ -1119,35 +2173,9 @@ public class SimpleDataSource implements DataSource {
     }
 
     // **********************************
-    // Implemented Connection Methods -- Now handled by proxy
+    // Implemented Connection Methods
     // **********************************
 
-    /**
-     * Required for InvocationHandler implementation.
-     *
-     * @param proxy
-     *          - not used
-     * @param method
-     *          - the method to be executed
-     * @param args
-     *          - the parameters to be passed to the method
-     *
-     * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
-     */
-    @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      String methodName = method.getName();
-      if (CLOSE.hashCode() == methodName.hashCode() && CLOSE.equals(methodName)) {
-        dataSource.pushConnection(this);
-        return null;
-      }
-      try {
-        return method.invoke(getValidConnection(), args);
-      } catch (Throwable t) {
-        throw ClassInfo.unwrapThrowable(t);
-      }
-    }
-
     /**
      * Creates the statement.
      *
@@ -1172,6 +2200,10 @@ public class SimpleDataSource implements DataSource {
      *           the SQL exception
      */
     public PreparedStatement prepareStatement(String sql) throws SQLException {
+      StatementCache statementCache = getStatementCache();
+      if (statementCache != null) {
+        return statementCache.prepare(new StatementCache.Key(sql, false, -1, -1), getValidConnection(), this);
+      }
       return getValidConnection().prepareStatement(sql);
     }
 
@@ -1187,6 +2219,11 @@ public class SimpleDataSource implements DataSource {
      *           the SQL exception
      */
     public CallableStatement prepareCall(String sql) throws SQLException {
+      StatementCache statementCache = getStatementCache();
+      if (statementCache != null) {
+        return (CallableStatement) statementCache.prepare(new StatementCache.Key(sql, true, -1, -1),
+            getValidConnection(), this);
+      }
       return getValidConnection().prepareCall(sql);
     }
 
@@ -1415,7 +2452,12 @@ public class SimpleDataSource implements DataSource {
      */
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
         throws SQLException {
-      return getValidConnection().prepareCall(sql, resultSetType, resultSetConcurrency);
+      StatementCache statementCache = getStatementCache();
+      if (statementCache != null) {
+        return statementCache.prepare(new StatementCache.Key(sql, false, resultSetType, resultSetConcurrency),
+            getValidConnection(), this);
+      }
+      return getValidConnection().prepareStatement(sql, resultSetType, resultSetConcurrency);
     }
 
     /**
@@ -1434,6 +2476,11 @@ public class SimpleDataSource implements DataSource {
      *           the SQL exception
      */
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+      StatementCache statementCache = getStatementCache();
+      if (statementCache != null) {
+        return (CallableStatement) statementCache.prepare(
+            new StatementCache.Key(sql, true, resultSetType, resultSetConcurrency), getValidConnection(), this);
+      }
       return getValidConnection().prepareCall(sql, resultSetType, resultSetConcurrency);
     }
 
@@ -1445,7 +2492,7 @@ public class SimpleDataSource implements DataSource {
      * @throws SQLException
      *           the SQL exception
      */
-    public Map getTypeMap() throws SQLException {
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
       return getValidConnection().getTypeMap();
     }
 
@@ -1458,7 +2505,7 @@ public class SimpleDataSource implements DataSource {
      * @throws SQLException
      *           the SQL exception
      */
-    public void setTypeMap(Map map) throws SQLException {
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
       getValidConnection().setTypeMap(map);
     }
 
@@ -1659,6 +2706,386 @@ public class SimpleDataSource implements DataSource {
       return getValidConnection().prepareStatement(sql, columnNames);
     }
 
+    @Override
+    public Clob createClob() throws SQLException {
+      return getValidConnection().createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+      return getValidConnection().createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+      return getValidConnection().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+      return getValidConnection().createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+      return getValidConnection().isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+      getValidConnection().setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+      getValidConnection().setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+      return getValidConnection().getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+      return getValidConnection().getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+      return getValidConnection().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+      return getValidConnection().createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+      getValidConnection().setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+      return getValidConnection().getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+      getValidConnection().abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+      getValidConnection().setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+      return getValidConnection().getNetworkTimeout();
+    }
+
+    @Override
+    public void beginRequest() throws SQLException {
+      getValidConnection().beginRequest();
+    }
+
+    @Override
+    public void endRequest() throws SQLException {
+      getValidConnection().endRequest();
+    }
+
+    @Override
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, ShardingKey superShardingKey, int timeout)
+        throws SQLException {
+      return getValidConnection().setShardingKeyIfValid(shardingKey, superShardingKey, timeout);
+    }
+
+    @Override
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, int timeout) throws SQLException {
+      return getValidConnection().setShardingKeyIfValid(shardingKey, timeout);
+    }
+
+    @Override
+    public void setShardingKey(ShardingKey shardingKey, ShardingKey superShardingKey) throws SQLException {
+      getValidConnection().setShardingKey(shardingKey, superShardingKey);
+    }
+
+    @Override
+    public void setShardingKey(ShardingKey shardingKey) throws SQLException {
+      getValidConnection().setShardingKey(shardingKey);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+      if (iface.isInstance(this)) {
+        return iface.cast(this);
+      }
+      return getValidConnection().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+      return iface.isInstance(this) || getValidConnection().isWrapperFor(iface);
+    }
+
+  }
+
+  /**
+   * A physical connection in the pool. It outlives the {@link SimplePooledConnection} handed out for each checkout, and
+   * remembers which of them currently has it checked out.
+   */
+  private static final class PoolEntry extends ConcurrentBag.Entry {
+
+    /** The real connection. */
+    private final Connection realConnection;
+
+    /** The created timestamp. */
+    private final long createdTimestamp;
+
+    /** The last used timestamp. */
+    private volatile long lastUsedTimestamp;
+
+    /** The time the connection was last validated, or opened. */
+    private volatile long lastValidatedTimestamp;
+
+    /** The checkout that currently has the connection, or null. */
+    private final AtomicReference<SimplePooledConnection> activeConnection = new AtomicReference<>();
+
+    /** The prepared statements of the connection, or null if they are not cached. */
+    private final StatementCache statementCache;
+
+    /**
+     * Instantiates a new pool entry.
+     *
+     * @param realConnection
+     *          the real connection
+     * @param statementCache
+     *          the statement cache, or null
+     */
+    PoolEntry(Connection realConnection, StatementCache statementCache) {
+      this.realConnection = realConnection;
+      this.statementCache = statementCache;
+      this.createdTimestamp = System.currentTimeMillis();
+      this.lastUsedTimestamp = createdTimestamp;
+      this.lastValidatedTimestamp = createdTimestamp;
+    }
+
+    Connection getRealConnection() {
+      return realConnection;
+    }
+
+    long getCreatedTimestamp() {
+      return createdTimestamp;
+    }
+
+    long getLastUsedTimestamp() {
+      return lastUsedTimestamp;
+    }
+
+    void setLastUsedTimestamp(long lastUsedTimestamp) {
+      this.lastUsedTimestamp = lastUsedTimestamp;
+    }
+
+    long getLastValidatedTimestamp() {
+      return lastValidatedTimestamp;
+    }
+
+    void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+      this.lastValidatedTimestamp = lastValidatedTimestamp;
+    }
+
+    StatementCache getStatementCache() {
+      return statementCache;
+    }
+
+    /**
+     * Closes the cached statements before the connection is closed.
+     */
+    void closeStatements() {
+      if (statementCache != null) {
+        statementCache.close();
+      }
+    }
+
+    SimplePooledConnection getActiveConnection() {
+      return activeConnection.get();
+    }
+
+    /**
+     * Records the checkout that has the connection now.
+     *
+     * @param conn
+     *          the checkout
+     */
+    void checkout(SimplePooledConnection conn) {
+      activeConnection.set(conn);
+    }
+
+    /**
+     * Ends a checkout. Only one caller can end a given checkout, so a connection that is returned while it is being
+     * claimed as overdue goes to one of them only.
+     *
+     * @param conn
+     *          the checkout
+     *
+     * @return true if the checkout was still the active one
+     */
+    boolean checkin(SimplePooledConnection conn) {
+      return activeConnection.compareAndSet(conn, null);
+    }
+  }
+
+  /**
+   * Runs the maintenance of a pool on a daemon thread shared by all pools. The tasks only hold the pool weakly, and
+   * are cancelled when the pool is closed or has been garbage collected. The thread ends when the last housekeeper is
+   * cancelled, and a new one is started for the next pool that needs maintenance.
+   */
+  private static final class Housekeeper {
+
+    /** The shared executor, while any housekeeper is active. Guarded by the Housekeeper class. */
+    private static ScheduledExecutorService sharedExecutor;
+
+    /** The number of active housekeepers. Guarded by the Housekeeper class. */
+    private static int activeCount;
+
+    /** The executor of this housekeeper. */
+    private final ScheduledExecutorService executor;
+
+    /** Whether the housekeeper was cancelled. Guarded by the Housekeeper class. */
+    private boolean cancelled;
+
+    /** The pool. */
+    private final WeakReference<SimpleDataSource> dataSource;
+
+    /** Whether an immediate fill was requested and has not run yet. */
+    private final AtomicBoolean fillPending = new AtomicBoolean();
+
+    /** The periodic tasks. */
+    private final List<ScheduledFuture<?>> futures = new CopyOnWriteArrayList<>();
+
+    /**
+     * Instantiates a new housekeeper.
+     *
+     * @param dataSource
+     *          the pool
+     */
+    Housekeeper(SimpleDataSource dataSource) {
+      this.dataSource = new WeakReference<>(dataSource);
+      synchronized (Housekeeper.class) {
+        if (sharedExecutor == null) {
+          sharedExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SimpleDataSource housekeeper");
+            thread.setDaemon(true);
+            return thread;
+          });
+        }
+        activeCount++;
+        this.executor = sharedExecutor;
+      }
+    }
+
+    /**
+     * Cancels all tasks of the pool, and shuts the shared executor down if no other pool uses it.
+     */
+    void cancel() {
+      synchronized (Housekeeper.class) {
+        if (cancelled) {
+          return;
+        }
+        cancelled = true;
+        for (ScheduledFuture<?> future : futures) {
+          future.cancel(false);
+        }
+        if (--activeCount == 0) {
+          sharedExecutor.shutdown();
+          sharedExecutor = null;
+        }
+      }
+    }
+
+    /**
+     * Schedules the periodic maintenance, starting right away.
+     *
+     * @param period
+     *          the time between two runs, in milliseconds
+     */
+    void schedule(long period) {
+      schedule(SimpleDataSource::housekeep, "pool maintenance", 0, period);
+    }
+
+    /**
+     * Schedules the periodic leak detection.
+     *
+     * @param period
+     *          the time between two runs, in milliseconds
+     */
+    void scheduleLeakDetection(long period) {
+      schedule(SimpleDataSource::detectLeaks, "leak detection", period, period);
+    }
+
+    /**
+     * Schedules the periodic adjustment of the pool size.
+     *
+     * @param period
+     *          the time between two runs, in milliseconds
+     */
+    void scheduleSizing(long period) {
+      schedule(SimpleDataSource::resize, "adaptive pool sizing", period, period);
+    }
+
+    /**
+     * Schedules a periodic task.
+     *
+     * @param task
+     *          the task
+     * @param activity
+     *          the description of the task, for errors
+     * @param delay
+     *          the time before the first run, in milliseconds
+     * @param period
+     *          the time between two runs, in milliseconds
+     */
+    private void schedule(Consumer<SimpleDataSource> task, String activity, long delay, long period) {
+      synchronized (Housekeeper.class) {
+        if (cancelled) {
+          return;
+        }
+        futures.add(executor.scheduleWithFixedDelay(() -> {
+          SimpleDataSource ds = dataSource.get();
+          if (ds == null) {
+            cancel();
+            return;
+          }
+          try {
+            task.accept(ds);
+          } catch (RuntimeException e) {
+            log.error("SimpleDataSource: Error during " + activity + ". Cause: " + e, e);
+          }
+        }, delay, Math.max(1, period), TimeUnit.MILLISECONDS));
+      }
+    }
+
+    /**
+     * Opens connections for the minimum idle count as soon as possible, rather than at the next periodic run.
+     */
+    void fillSoon() {
+      if (fillPending.compareAndSet(false, true)) {
+        synchronized (Housekeeper.class) {
+          if (cancelled) {
+            return;
+          }
+          executor.execute(() -> {
+            fillPending.set(false);
+            SimpleDataSource ds = dataSource.get();
+            if (ds != null) {
+              ds.fill();
+            }
+          });
+        }
+      }
+    }
   }
 
   @Override
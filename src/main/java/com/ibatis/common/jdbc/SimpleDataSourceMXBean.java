@@ -0,0 +1,204 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.util.List;
+
+/**
+ * The statistics of a connection pool, as published over JMX. Reading them takes no lock in the pool.
+ *
+ * @see SimpleDataSourceStatistics
+ */
+public interface SimpleDataSourceMXBean {
+
+  /**
+   * Gets the number of connections checked out.
+   *
+   * @return the active connections
+   */
+  int getActiveConnectionCount();
+
+  /**
+   * Gets the number of connections in the pool that are not checked out.
+   *
+   * @return the idle connections
+   */
+  int getIdleConnectionCount();
+
+  /**
+   * Gets the number of connections the pool may open. It is the maximum active connections, unless the size of the pool
+   * adapts to the load.
+   *
+   * @return the pool size
+   */
+  int getPoolSize();
+
+  /**
+   * Gets the number of times the pool grew because requests had to wait for a connection.
+   *
+   * @return the growths
+   */
+  long getPoolGrowthCount();
+
+  /**
+   * Gets the number of times the pool shrank because its connections sat idle.
+   *
+   * @return the shrinks
+   */
+  long getPoolShrinkCount();
+
+  /**
+   * Gets the number of requests waiting for a connection.
+   *
+   * @return the waiting requests
+   */
+  int getWaitingRequestCount();
+
+  /**
+   * Gets the number of connections handed out.
+   *
+   * @return the requests
+   */
+  long getRequestCount();
+
+  /**
+   * Gets the average time a request took to get a connection.
+   *
+   * @return the average request time in milliseconds
+   */
+  long getAverageRequestTime();
+
+  /**
+   * Gets the number of requests that had to wait for a connection.
+   *
+   * @return the requests that waited
+   */
+  long getHadToWaitCount();
+
+  /**
+   * Gets the number of requests that gave up waiting for a connection when their deadline passed.
+   *
+   * @return the requests that timed out
+   */
+  long getAcquireTimeoutCount();
+
+  /**
+   * Gets the number of requests rejected without waiting because the maximum number of requests were waiting already.
+   *
+   * @return the rejected requests
+   */
+  long getRejectedRequestCount();
+
+  /**
+   * Gets the average time a request waited for a connection.
+   *
+   * @return the average wait time in milliseconds
+   */
+  long getAverageWaitTime();
+
+  /**
+   * Gets the average time a connection was checked out.
+   *
+   * @return the average checkout time in milliseconds
+   */
+  long getAverageCheckoutTime();
+
+  /**
+   * Gets the number of connections that were claimed from a request after the maximum checkout time.
+   *
+   * @return the claimed overdue connections
+   */
+  long getClaimedOverdueConnectionCount();
+
+  /**
+   * Gets the number of invalid connections that were found in the pool.
+   *
+   * @return the bad connections
+   */
+  long getBadConnectionCount();
+
+  /**
+   * Gets the number of prepared statements reused from a statement cache.
+   *
+   * @return the statement cache hits
+   */
+  long getStatementCacheHitCount();
+
+  /**
+   * Gets the number of prepared statements that were not found in a statement cache.
+   *
+   * @return the statement cache misses
+   */
+  long getStatementCacheMissCount();
+
+  /**
+   * Gets the median time a request took to get a connection.
+   *
+   * @return the 50th percentile in milliseconds
+   */
+  double getCheckoutWaitP50();
+
+  /**
+   * Gets the 99th percentile of the time a request took to get a connection.
+   *
+   * @return the 99th percentile in milliseconds
+   */
+  double getCheckoutWaitP99();
+
+  /**
+   * Gets the 99.9th percentile of the time a request took to get a connection.
+   *
+   * @return the 99.9th percentile in milliseconds
+   */
+  double getCheckoutWaitP999();
+
+  /**
+   * Gets the median time a connection was checked out.
+   *
+   * @return the 50th percentile in milliseconds
+   */
+  double getCheckoutHoldP50();
+
+  /**
+   * Gets the 99th percentile of the time a connection was checked out.
+   *
+   * @return the 99th percentile in milliseconds
+   */
+  double getCheckoutHoldP99();
+
+  /**
+   * Gets the 99.9th percentile of the time a connection was checked out.
+   *
+   * @return the 99.9th percentile in milliseconds
+   */
+  double getCheckoutHoldP999();
+
+  /**
+   * Gets the number of connections that were held longer than the leak detection threshold.
+   *
+   * @return the suspected leaks, including those returned since
+   */
+  long getLeakedConnectionCount();
+
+  /**
+   * Gets the connections that are held longer than the leak detection threshold now, with the stack of the code that
+   * checked them out.
+   *
+   * @return a description of each suspected leak
+   */
+  List<String> getSuspectedLeaks();
+
+}
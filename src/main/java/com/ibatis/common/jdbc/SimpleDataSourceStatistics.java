@@ -0,0 +1,272 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the statistics of a connection pool.
+ *
+ * @see SimpleDataSource#getStatistics()
+ */
+public class SimpleDataSourceStatistics implements SimpleDataSourceMXBean, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The active connection count. */
+  private final int activeConnectionCount;
+
+  /** The idle connection count. */
+  private final int idleConnectionCount;
+
+  /** The waiting request count. */
+  private final int waitingRequestCount;
+
+  /** The pool size. */
+  private final int poolSize;
+
+  /** The pool growth count. */
+  private final long poolGrowthCount;
+
+  /** The pool shrink count. */
+  private final long poolShrinkCount;
+
+  /** The request count. */
+  private final long requestCount;
+
+  /** The average request time. */
+  private final long averageRequestTime;
+
+  /** The had to wait count. */
+  private final long hadToWaitCount;
+
+  /** The acquire timeout count. */
+  private final long acquireTimeoutCount;
+
+  /** The rejected request count. */
+  private final long rejectedRequestCount;
+
+  /** The average wait time. */
+  private final long averageWaitTime;
+
+  /** The average checkout time. */
+  private final long averageCheckoutTime;
+
+  /** The claimed overdue connection count. */
+  private final long claimedOverdueConnectionCount;
+
+  /** The bad connection count. */
+  private final long badConnectionCount;
+
+  /** The statement cache hit count. */
+  private final long statementCacheHitCount;
+
+  /** The statement cache miss count. */
+  private final long statementCacheMissCount;
+
+  /** The checkout wait time percentiles, in milliseconds. */
+  private final double checkoutWaitP50;
+
+  private final double checkoutWaitP99;
+
+  private final double checkoutWaitP999;
+
+  /** The checkout hold time percentiles, in milliseconds. */
+  private final double checkoutHoldP50;
+
+  private final double checkoutHoldP99;
+
+  private final double checkoutHoldP999;
+
+  /** The leaked connection count. */
+  private final long leakedConnectionCount;
+
+  /** The suspected leaks. */
+  private final List<String> suspectedLeaks;
+
+  /**
+   * Instantiates a new statistics snapshot.
+   *
+   * @param dataSource
+   *          the pool to take the snapshot of
+   */
+  SimpleDataSourceStatistics(SimpleDataSource dataSource) {
+    this.activeConnectionCount = dataSource.getActiveConnectionCount();
+    this.idleConnectionCount = dataSource.getIdleConnectionCount();
+    this.waitingRequestCount = dataSource.getWaitingRequestCount();
+    this.poolSize = dataSource.getPoolSize();
+    this.poolGrowthCount = dataSource.getPoolGrowthCount();
+    this.poolShrinkCount = dataSource.getPoolShrinkCount();
+    this.requestCount = dataSource.getRequestCount();
+    this.averageRequestTime = dataSource.getAverageRequestTime();
+    this.hadToWaitCount = dataSource.getHadToWaitCount();
+    this.acquireTimeoutCount = dataSource.getAcquireTimeoutCount();
+    this.rejectedRequestCount = dataSource.getRejectedRequestCount();
+    this.averageWaitTime = dataSource.getAverageWaitTime();
+    this.averageCheckoutTime = dataSource.getAverageCheckoutTime();
+    this.claimedOverdueConnectionCount = dataSource.getClaimedOverdueConnectionCount();
+    this.badConnectionCount = dataSource.getBadConnectionCount();
+    this.statementCacheHitCount = dataSource.getStatementCacheHitCount();
+    this.statementCacheMissCount = dataSource.getStatementCacheMissCount();
+    this.checkoutWaitP50 = dataSource.getCheckoutWaitP50();
+    this.checkoutWaitP99 = dataSource.getCheckoutWaitP99();
+    this.checkoutWaitP999 = dataSource.getCheckoutWaitP999();
+    this.checkoutHoldP50 = dataSource.getCheckoutHoldP50();
+    this.checkoutHoldP99 = dataSource.getCheckoutHoldP99();
+    this.checkoutHoldP999 = dataSource.getCheckoutHoldP999();
+    this.leakedConnectionCount = dataSource.getLeakedConnectionCount();
+    this.suspectedLeaks = Collections.unmodifiableList(dataSource.getSuspectedLeaks());
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return activeConnectionCount;
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return idleConnectionCount;
+  }
+
+  @Override
+  public int getWaitingRequestCount() {
+    return waitingRequestCount;
+  }
+
+  @Override
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  @Override
+  public long getPoolGrowthCount() {
+    return poolGrowthCount;
+  }
+
+  @Override
+  public long getPoolShrinkCount() {
+    return poolShrinkCount;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requestCount;
+  }
+
+  @Override
+  public long getAverageRequestTime() {
+    return averageRequestTime;
+  }
+
+  @Override
+  public long getHadToWaitCount() {
+    return hadToWaitCount;
+  }
+
+  @Override
+  public long getAcquireTimeoutCount() {
+    return acquireTimeoutCount;
+  }
+
+  @Override
+  public long getRejectedRequestCount() {
+    return rejectedRequestCount;
+  }
+
+  @Override
+  public long getAverageWaitTime() {
+    return averageWaitTime;
+  }
+
+  @Override
+  public long getAverageCheckoutTime() {
+    return averageCheckoutTime;
+  }
+
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnectionCount;
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return badConnectionCount;
+  }
+
+  @Override
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount;
+  }
+
+  @Override
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount;
+  }
+
+  @Override
+  public double getCheckoutWaitP50() {
+    return checkoutWaitP50;
+  }
+
+  @Override
+  public double getCheckoutWaitP99() {
+    return checkoutWaitP99;
+  }
+
+  @Override
+  public double getCheckoutWaitP999() {
+    return checkoutWaitP999;
+  }
+
+  @Override
+  public double getCheckoutHoldP50() {
+    return checkoutHoldP50;
+  }
+
+  @Override
+  public double getCheckoutHoldP99() {
+    return checkoutHoldP99;
+  }
+
+  @Override
+  public double getCheckoutHoldP999() {
+    return checkoutHoldP999;
+  }
+
+  @Override
+  public long getLeakedConnectionCount() {
+    return leakedConnectionCount;
+  }
+
+  @Override
+  public List<String> getSuspectedLeaks() {
+    return suspectedLeaks;
+  }
+
+  @Override
+  public String toString() {
+    return "SimpleDataSourceStatistics[active=" + activeConnectionCount + ", idle=" + idleConnectionCount
+        + ", waiting=" + waitingRequestCount + ", poolSize=" + poolSize + ", requests=" + requestCount
+        + ", hadToWait=" + hadToWaitCount + ", acquireTimeouts=" + acquireTimeoutCount + ", rejected="
+        + rejectedRequestCount
+        + ", checkoutWait(p50/p99/p999)=" + checkoutWaitP50 + "/" + checkoutWaitP99 + "/" + checkoutWaitP999
+        + ", checkoutHold(p50/p99/p999)=" + checkoutHoldP50 + "/" + checkoutHoldP99 + "/" + checkoutHoldP999
+        + ", badConnections=" + badConnectionCount + ", leakedConnections=" + leakedConnectionCount + "]";
+  }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the prepared statements of one physical connection.
+ * <p>
+ * The cache outlives sessions and checkouts, so a statement prepared once is reused by every request that gets the
+ * same connection. A cached statement is taken out of the cache while it is in use, and closing it puts it back
+ * instead of closing it, after its parameters and settings were reset. When the cache is full, the statement that was
+ * used least recently is closed.
+ */
+final class StatementCache {
+
+  /** The maximum number of cached statements. */
+  private final int maxSize;
+
+  /** The number of requests that got a cached statement, shared by the caches of a pool. */
+  private final LongAdder hits;
+
+  /** The number of requests that had to prepare a statement, shared by the caches of a pool. */
+  private final LongAdder misses;
+
+  /** The idle statements, least recently used first. */
+  private final LinkedHashMap<Key, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Whether the connection is being closed, after which statements are no longer cached. */
+  private boolean closed;
+
+  /**
+   * Instantiates a new statement cache.
+   *
+   * @param maxSize
+   *          the maximum number of cached statements
+   * @param hits
+   *          the hit counter
+   * @param misses
+   *          the miss counter
+   */
+  StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+    this.maxSize = maxSize;
+    this.hits = hits;
+    this.misses = misses;
+  }
+
+  /**
+   * Gets a statement from the cache, or prepares it if it is not cached.
+   *
+   * @param key
+   *          the key of the statement
+   * @param realConnection
+   *          the connection to prepare the statement on
+   * @param pooledConnection
+   *          the connection handed out to the caller
+   *
+   * @return the statement, which goes back to the cache when it is closed
+   *
+   * @throws SQLException
+   *           if the statement could not be prepared
+   */
+  PreparedStatement prepare(Key key, Connection realConnection, Connection pooledConnection) throws SQLException {
+    PreparedStatement statement;
+    synchronized (this) {
+      statement = statements.remove(key);
+    }
+    if (statement != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+      statement = key.prepare(realConnection);
+    }
+    if (key.callable) {
+      return new CachedCallableStatement(this, key, (CallableStatement) statement, pooledConnection);
+    }
+    return new CachedStatement(this, key, statement, pooledConnection);
+  }
+
+  /**
+   * Puts a statement that is no longer in use back into the cache.
+   *
+   * @param key
+   *          the key of the statement
+   * @param statement
+   *          the statement
+   */
+  void release(Key key, PreparedStatement statement) {
+    List<PreparedStatement> toClose = new ArrayList<>(1);
+    synchronized (this) {
+      if (closed || statements.containsKey(key)) {
+        toClose.add(statement);
+      } else {
+        statements.put(key, statement);
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize) {
+          toClose.add(iterator.next());
+          iterator.remove();
+        }
+      }
+    }
+    for (PreparedStatement evicted : toClose) {
+      closeQuietly(evicted);
+    }
+  }
+
+  /**
+   * Closes the cached statements, and those still in use as they are closed.
+   */
+  void close() {
+    List<PreparedStatement> toClose;
+    synchronized (this) {
+      closed = true;
+      toClose = new ArrayList<>(statements.values());
+      statements.clear();
+    }
+    for (PreparedStatement statement : toClose) {
+      closeQuietly(statement);
+    }
+  }
+
+  /**
+   * Gets the number of idle statements in the cache.
+   *
+   * @return the number of statements
+   */
+  synchronized int size() {
+    return statements.size();
+  }
+
+  /**
+   * Closes a statement, ignoring errors.
+   *
+   * @param statement
+   *          the statement
+   */
+  static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Identifies a cached statement by its SQL and the way it was prepared.
+   */
+  static final class Key {
+
+    /** The sql. */
+    private final String sql;
+
+    /** Whether the statement was prepared with prepareCall. */
+    private final boolean callable;
+
+    /** The result set type, or -1 for the default. */
+    private final int resultSetType;
+
+    /** The result set concurrency, or -1 for the default. */
+    private final int resultSetConcurrency;
+
+    /**
+     * Instantiates a new key.
+     *
+     * @param sql
+     *          the sql
+     * @param callable
+     *          whether the statement was prepared with prepareCall
+     * @param resultSetType
+     *          the result set type
+     * @param resultSetConcurrency
+     *          the result set concurrency
+     */
+    Key(String sql, boolean callable, int resultSetType, int resultSetConcurrency) {
+      this.sql = sql;
+      this.callable = callable;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+    }
+
+    /**
+     * Prepares the statement this key identifies.
+     *
+     * @param connection
+     *          the connection
+     *
+     * @return the statement
+     *
+     * @throws SQLException
+     *           if the statement could not be prepared
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+      if (resultSetType == -1) {
+        return callable ? connection.prepareCall(sql) : connection.prepareStatement(sql);
+      }
+      return callable ? connection.prepareCall(sql, resultSetType, resultSetConcurrency)
+          : connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return callable == other.callable && resultSetType == other.resultSetType
+          && resultSetConcurrency == other.resultSetConcurrency && sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = sql.hashCode();
+      result = 31 * result + (callable ? 1 : 0);
+      result = 31 * result + resultSetType;
+      return 31 * result + resultSetConcurrency;
+    }
+  }
+}
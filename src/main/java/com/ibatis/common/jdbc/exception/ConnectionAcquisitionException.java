@@ -0,0 +1,82 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc.exception;
+
+/**
+ * Thrown when a pooled data source gives up on getting a connection: the deadline of the request passed, too many
+ * requests were already waiting, or the waiting thread was interrupted. Callers can tell a saturated pool from a
+ * failing database by this type, and shed the load instead of retrying right away.
+ */
+public class ConnectionAcquisitionException extends NestedSQLException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /** The SQLState of a connection that could not be established. */
+  private static final String SQL_STATE = "08001";
+
+  /**
+   * Why a connection could not be acquired.
+   */
+  public enum Reason {
+    /** The deadline of the request passed while it waited for a connection. */
+    TIMEOUT,
+    /** The maximum number of requests were already waiting, so the request was rejected without waiting. */
+    QUEUE_FULL,
+    /** The thread was interrupted while it waited for a connection. */
+    INTERRUPTED
+  }
+
+  /** The reason. */
+  private final Reason reason;
+
+  /**
+   * Instantiates a new connection acquisition exception.
+   *
+   * @param msg
+   *          the message for the exception
+   * @param reason
+   *          why the connection could not be acquired
+   */
+  public ConnectionAcquisitionException(String msg, Reason reason) {
+    super(msg, SQL_STATE);
+    this.reason = reason;
+  }
+
+  /**
+   * Instantiates a new connection acquisition exception.
+   *
+   * @param msg
+   *          the message for the exception
+   * @param reason
+   *          why the connection could not be acquired
+   * @param cause
+   *          the cause of the exception
+   */
+  public ConnectionAcquisitionException(String msg, Reason reason, Throwable cause) {
+    super(msg, SQL_STATE, cause);
+    this.reason = reason;
+  }
+
+  /**
+   * Gets why the connection could not be acquired.
+   *
+   * @return the reason
+   */
+  public Reason getReason() {
+    return reason;
+  }
+}
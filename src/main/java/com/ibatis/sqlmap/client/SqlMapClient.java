@@ -15,7 +15,11 @@
  */
 package com.ibatis.sqlmap.client;
 
+import com.ibatis.sqlmap.engine.cache.CacheStatistics;
+
 import java.sql.Connection;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * A thread safe client for working with your SQL Maps (Start Here). This interface inherits transaction control and
@@ -192,6 +196,36 @@ public interface SqlMapClient extends SqlMapExecutor, SqlMapTransactionManager {
    */
   void flushDataCache(String cacheId);
 
+  /**
+   * Takes a snapshot of the statistics of the cache model that matches the ID provided. cacheId should include the
+   * namespace, even when useStatementNamespaces="false".
+   *
+   * @param cacheId
+   *          The cache model
+   *
+   * @return The statistics, or null if the client does not keep any
+   */
+  default CacheStatistics getCacheStatistics(String cacheId) {
+    return null;
+  }
+
+  /**
+   * Takes a snapshot of the statistics of all cache models.
+   *
+   * @return The statistics, by cache model ID, or an empty map if the client does not keep any
+   */
+  default Map<String, CacheStatistics> getCacheStatistics() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Releases what the client registered outside of itself, such as the MBeans of the cache statistics. Call it when the
+   * client is no longer used, for example when an application is undeployed. The data source is not closed.
+   */
+  default void shutdown() {
+    // Nothing registered by default
+  }
+
   /**
    * Returns a generated implementation of a cusom mapper class as specified by the method parameter. The generated
    * implementation will run mapped statements by matching the method name to the statement name. The mapped statement
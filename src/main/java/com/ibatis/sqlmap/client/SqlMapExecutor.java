@@ -404,6 +404,23 @@ public interface SqlMapExecutor {
    */
   void startBatch() throws SQLException;
 
+  /**
+   * Starts a batch that sends the statements batched so far to the database each time the given number of rows was
+   * added, so a batch of any size needs no more memory than one of the given size. The update counts of all the rows are
+   * returned by {@link #executeBatch()} or {@link #executeBatchDetailed()}, which send the remaining rows.
+   * <p>
+   * The default implementation ignores the size and starts a batch that is only executed at the end.
+   *
+   * @param batchSize
+   *          the number of rows after which the batched statements are executed, 0 to execute them only at the end
+   *
+   * @throws SQLException
+   *           the SQL exception
+   */
+  default void startBatch(int batchSize) throws SQLException {
+    startBatch();
+  }
+
   /**
    * Executes (flushes) all statements currently batched.
    *
@@ -61,25 +61,48 @@ public class AccessPlanFactory {
       plan = new ComplexAccessPlan(clazz, propertyNames);
     } else if (Map.class.isAssignableFrom(clazz)) {
       plan = new MapAccessPlan(clazz, propertyNames);
+    } else if (bytecodeEnhancementEnabled) {
+      plan = getReflectiveAccessPlan(clazz, propertyNames);
     } else {
-      // Possibly causes bug 945746 --but the bug is unconfirmed (can't be reproduced)
-      if (bytecodeEnhancementEnabled) {
-        try {
-          plan = new EnhancedPropertyAccessPlan(clazz, propertyNames);
-        } catch (Throwable t) {
-          try {
-            plan = new PropertyAccessPlan(clazz, propertyNames);
-          } catch (Throwable t2) {
-            plan = new ComplexAccessPlan(clazz, propertyNames);
-          }
-        }
-      } else {
+      try {
+        plan = new MethodHandleAccessPlan(clazz, propertyNames);
+      } catch (Throwable t) {
+        plan = getReflectiveAccessPlan(clazz, propertyNames);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Creates an access plan for working with a bean through bytecode enhancement when it is enabled, or through
+   * reflection when it is not or when the accessors cannot be called through method handles.
+   *
+   * @param clazz
+   *          the clazz
+   * @param propertyNames
+   *          the property names
+   *
+   * @return An access plan
+   */
+  private static AccessPlan getReflectiveAccessPlan(Class clazz, String[] propertyNames) {
+    AccessPlan plan;
+    // Possibly causes bug 945746 --but the bug is unconfirmed (can't be reproduced)
+    if (bytecodeEnhancementEnabled) {
+      try {
+        plan = new EnhancedPropertyAccessPlan(clazz, propertyNames);
+      } catch (Throwable t) {
         try {
           plan = new PropertyAccessPlan(clazz, propertyNames);
-        } catch (Throwable t) {
+        } catch (Throwable t2) {
           plan = new ComplexAccessPlan(clazz, propertyNames);
         }
       }
+    } else {
+      try {
+        plan = new PropertyAccessPlan(clazz, propertyNames);
+      } catch (Throwable t) {
+        plan = new ComplexAccessPlan(clazz, propertyNames);
+      }
     }
     return plan;
   }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.accessplan;
+
+import com.ibatis.common.beans.GetFieldInvoker;
+import com.ibatis.common.beans.Invoker;
+import com.ibatis.common.beans.MethodInvoker;
+import com.ibatis.common.beans.SetFieldInvoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+
+/**
+ * Property access plan (for working with beans) that calls the accessors through method handles.
+ * <p>
+ * The handles are looked up once per plan and adapted to take and return plain objects, so setting or getting a
+ * property needs neither an argument array nor the access checks of reflection. Properties without accessors are
+ * read and written through their fields directly. Primitive properties can also be set from primitive values, through
+ * handles adapted to take a long or a double. Like the bytecode enhanced plan, a null value sets a primitive property
+ * to zero.
+ */
+public class MethodHandleAccessPlan extends BaseAccessPlan implements PrimitiveAccessPlan {
+
+  /** The type all setters are adapted to. */
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  /** The type all getters are adapted to. */
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /** The type setters of integral and boolean primitives are adapted to. */
+  private static final MethodType LONG_SETTER_TYPE = MethodType.methodType(void.class, Object.class, long.class);
+
+  /** The type setters of floating point primitives are adapted to. */
+  private static final MethodType DOUBLE_SETTER_TYPE = MethodType.methodType(void.class, Object.class, double.class);
+
+  /** The setters. */
+  private final MethodHandle[] setters;
+
+  /** The getters. */
+  private final MethodHandle[] getters;
+
+  /** The setters of the primitive properties, taking a long or a double. */
+  private final MethodHandle[] primitiveSetters;
+
+  /** The primitive type of each property, or null if it is not primitive. */
+  private final Class[] primitiveTypes;
+
+  /** The value a null sets each property to: zero for primitive properties, otherwise null. */
+  private final Object[] nullValues;
+
+  /** The setter names. */
+  private final String[] setterNames;
+
+  /** The getter names. */
+  private final String[] getterNames;
+
+  /**
+   * Instantiates a new method handle access plan.
+   *
+   * @param clazz
+   *          the clazz
+   * @param propertyNames
+   *          the property names
+   *
+   * @throws IllegalAccessException
+   *           if an accessor cannot be looked up
+   */
+  MethodHandleAccessPlan(Class clazz, String[] propertyNames) throws IllegalAccessException {
+    super(clazz, propertyNames);
+    Invoker[] setInvokers = getSetters(propertyNames);
+    Invoker[] getInvokers = getGetters(propertyNames);
+    setters = new MethodHandle[propertyNames.length];
+    getters = new MethodHandle[propertyNames.length];
+    primitiveSetters = new MethodHandle[propertyNames.length];
+    primitiveTypes = new Class[propertyNames.length];
+    nullValues = new Object[propertyNames.length];
+    setterNames = new String[propertyNames.length];
+    getterNames = new String[propertyNames.length];
+    for (int i = 0; i < propertyNames.length; i++) {
+      MethodHandle setter = toHandle(setInvokers[i]);
+      setters[i] = setter.asType(SETTER_TYPE);
+      Class type = setter.type().parameterType(1);
+      if (type.isPrimitive()) {
+        nullValues[i] = Array.get(Array.newInstance(type, 1), 0);
+      }
+      if (type.isPrimitive() && type != char.class) {
+        primitiveTypes[i] = type;
+        primitiveSetters[i] = MethodHandles.explicitCastArguments(setter,
+            type == double.class || type == float.class ? DOUBLE_SETTER_TYPE : LONG_SETTER_TYPE);
+      }
+      getters[i] = toHandle(getInvokers[i]).asType(GETTER_TYPE);
+      setterNames[i] = setInvokers[i].getName();
+      getterNames[i] = getInvokers[i].getName();
+    }
+  }
+
+  @Override
+  public void setProperties(Object object, Object[] values) {
+    int i = 0;
+    try {
+      for (i = 0; i < propertyNames.length; i++) {
+        Object value = values[i];
+        setters[i].invokeExact(object, value != null ? value : nullValues[i]);
+      }
+    } catch (Throwable t) {
+      throw new RuntimeException("Error setting property '" + setterNames[i] + "' of '" + object + "'.  Cause: " + t,
+          t);
+    }
+  }
+
+  @Override
+  public Class getPrimitiveType(int index) {
+    return primitiveTypes[index];
+  }
+
+  @Override
+  public void setProperties(Object object, Object[] values, long[] primitiveValues) {
+    int i = 0;
+    try {
+      for (i = 0; i < propertyNames.length; i++) {
+        Object value = values[i];
+        if (value != PRIMITIVE_VALUE) {
+          setters[i].invokeExact(object, value != null ? value : nullValues[i]);
+        } else if (primitiveTypes[i] == double.class || primitiveTypes[i] == float.class) {
+          primitiveSetters[i].invokeExact(object, Double.longBitsToDouble(primitiveValues[i]));
+        } else {
+          primitiveSetters[i].invokeExact(object, primitiveValues[i]);
+        }
+      }
+    } catch (Throwable t) {
+      throw new RuntimeException("Error setting property '" + setterNames[i] + "' of '" + object + "'.  Cause: " + t,
+          t);
+    }
+  }
+
+  @Override
+  public Object[] getProperties(Object object) {
+    int i = 0;
+    Object[] values = new Object[propertyNames.length];
+    try {
+      for (i = 0; i < propertyNames.length; i++) {
+        values[i] = (Object) getters[i].invokeExact(object);
+      }
+    } catch (Throwable t) {
+      throw new RuntimeException("Error getting property '" + getterNames[i] + "' of '" + object + "'.  Cause: " + t,
+          t);
+    }
+    return values;
+  }
+
+  /**
+   * Looks up the method handle of an invoker.
+   *
+   * @param invoker
+   *          the invoker
+   *
+   * @return the method handle
+   *
+   * @throws IllegalAccessException
+   *           if the method or field is not accessible
+   */
+  private static MethodHandle toHandle(Invoker invoker) throws IllegalAccessException {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    if (invoker instanceof MethodInvoker) {
+      return lookup.unreflect(((MethodInvoker) invoker).getMethod());
+    }
+    if (invoker instanceof SetFieldInvoker) {
+      return lookup.unreflectSetter(((SetFieldInvoker) invoker).getField());
+    }
+    if (invoker instanceof GetFieldInvoker) {
+      return lookup.unreflectGetter(((GetFieldInvoker) invoker).getField());
+    }
+    throw new IllegalAccessException("Unsupported invoker " + invoker.getClass().getName() + ".");
+  }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.accessplan;
+
+/**
+ * An access plan that can set primitive properties from primitive values, without boxing them.
+ */
+public interface PrimitiveAccessPlan extends AccessPlan {
+
+  /** The value that stands for a property whose value was passed in the primitive values instead. */
+  Object PRIMITIVE_VALUE = new Object();
+
+  /**
+   * Gets the primitive type a property is set as.
+   *
+   * @param index
+   *          - the index of the property
+   *
+   * @return the primitive type, or null if the property cannot be set from a primitive value
+   */
+  Class getPrimitiveType(int index);
+
+  /**
+   * Sets all of the properties of a bean, taking the value of each property whose value is {@link #PRIMITIVE_VALUE}
+   * from the primitive values. Integral and boolean values are passed as longs, with 1 for true; floating point values
+   * as the bits of a double.
+   *
+   * @param object
+   *          - the bean
+   * @param values
+   *          - the property values
+   * @param primitiveValues
+   *          - the primitive property values, by property index
+   */
+  void setProperties(Object object, Object[] values, long[] primitiveValues);
+
+}
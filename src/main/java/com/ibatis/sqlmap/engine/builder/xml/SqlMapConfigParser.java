@@ -22,6 +22,7 @@ import com.ibatis.sqlmap.client.SqlMapClient;
 import com.ibatis.sqlmap.client.SqlMapException;
 import com.ibatis.sqlmap.engine.config.SqlMapConfiguration;
 import com.ibatis.sqlmap.engine.datasource.DataSourceFactory;
+import com.ibatis.sqlmap.engine.datasource.ReplicaRoutingDataSource;
 import com.ibatis.sqlmap.engine.mapping.result.ResultObjectFactory;
 import com.ibatis.sqlmap.engine.transaction.TransactionConfig;
 import com.ibatis.sqlmap.engine.transaction.TransactionManager;
@@ -30,6 +31,10 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.Properties;
 
+import javax.sql.DataSource;
+
+import org.w3c.dom.Node;
+
 /**
  * The Class SqlMapConfigParser.
  */
@@ -178,6 +183,10 @@ public class SqlMapConfigParser {
       boolean cacheModelsEnabled = cacheModelsEnabledAttr == null || "true".equals(cacheModelsEnabledAttr);
       config.setCacheModelsEnabled(cacheModelsEnabled);
 
+      String cacheMBeansEnabledAttr = attributes.getProperty("cacheMBeansEnabled");
+      boolean cacheMBeansEnabled = "true".equals(cacheMBeansEnabledAttr);
+      config.setCacheMBeansEnabled(cacheMBeansEnabled);
+
       String enhancementEnabledAttr = attributes.getProperty("enhancementEnabled");
       boolean enhancementEnabled = enhancementEnabledAttr == null || "true".equals(enhancementEnabledAttr);
       config.setEnhancementEnabled(enhancementEnabled);
@@ -190,6 +199,14 @@ public class SqlMapConfigParser {
       boolean forceMultipleResultSetSupport = "true".equals(forceMultipleResultSetSupportAttr);
       config.setForceMultipleResultSetSupport(forceMultipleResultSetSupport);
 
+      String batchGroupingEnabledAttr = attributes.getProperty("batchGroupingEnabled");
+      boolean batchGroupingEnabled = "true".equals(batchGroupingEnabledAttr);
+      config.setBatchGroupingEnabled(batchGroupingEnabled);
+
+      String batchSizeAttr = attributes.getProperty("batchSize");
+      int batchSize = batchSizeAttr == null ? 0 : Integer.parseInt(batchSizeAttr);
+      config.setBatchSize(batchSize);
+
       String defaultTimeoutAttr = attributes.getProperty("defaultStatementTimeout");
       Integer defaultTimeout = defaultTimeoutAttr == null ? null : Integer.valueOf(defaultTimeoutAttr);
       config.setDefaultStatementTimeout(defaultTimeout);
@@ -274,28 +291,56 @@ public class SqlMapConfigParser {
     });
     parser.addNodelet("/sqlMapConfig/transactionManager/dataSource/end()", node -> {
       state.getConfig().getErrorContext().setActivity("configuring the data source");
-
+      state.setDataSource(newDataSource(node, state.getDsProps()));
+    });
+    parser.addNodelet("/sqlMapConfig/transactionManager/readReplicas/dataSource/property", node -> {
       Properties attributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
+      String name = attributes.getProperty("name");
+      String value = NodeletUtils.parsePropertyTokens(attributes.getProperty("value"), state.getGlobalProps());
+      state.getReplicaDsProps().setProperty(name, value);
+    });
+    parser.addNodelet("/sqlMapConfig/transactionManager/readReplicas/dataSource/end()", node -> {
+      state.getConfig().getErrorContext().setActivity("configuring a read replica data source");
+      state.addReplicaDataSource(newDataSource(node, state.getReplicaDsProps()));
+    });
+    parser.addNodelet("/sqlMapConfig/transactionManager/readReplicas/end()", node -> {
+      state.getConfig().getErrorContext().setActivity("configuring the read replicas");
+      Properties attributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
+      state.setDataSource(new ReplicaRoutingDataSource(state.getDataSource(), state.getReplicaDataSources(),
+          attributes.getProperty("balancing")));
+    });
+  }
 
-      String type = attributes.getProperty("type");
-      Properties props = state.getDsProps();
+  /**
+   * Creates a data source with the data source factory named by the type of a data source element.
+   *
+   * @param node
+   *          the data source element
+   * @param props
+   *          the properties of the data source
+   *
+   * @return the data source
+   */
+  private DataSource newDataSource(Node node, Properties props) {
+    Properties attributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
 
-      type = state.getConfig().getTypeHandlerFactory().resolveAlias(type);
-      try {
-        state.getConfig().getErrorContext().setMoreInfo("Check the data source type or class.");
-        DataSourceFactory dsFactory = (DataSourceFactory) Resources.instantiate(type);
-        state.getConfig().getErrorContext().setMoreInfo("Check the data source properties or configuration.");
-        dsFactory.initialize(props);
-        state.setDataSource(dsFactory.getDataSource());
-        state.getConfig().getErrorContext().setMoreInfo(null);
-      } catch (Exception e) {
-        if (e instanceof SqlMapException) {
-          throw (SqlMapException) e;
-        }
-        throw new SqlMapException(
-            "Error initializing DataSource.  Could not instantiate DataSourceFactory.  Cause: " + e, e);
+    String type = attributes.getProperty("type");
+
+    type = state.getConfig().getTypeHandlerFactory().resolveAlias(type);
+    try {
+      state.getConfig().getErrorContext().setMoreInfo("Check the data source type or class.");
+      DataSourceFactory dsFactory = (DataSourceFactory) Resources.instantiate(type);
+      state.getConfig().getErrorContext().setMoreInfo("Check the data source properties or configuration.");
+      dsFactory.initialize(props);
+      state.getConfig().getErrorContext().setMoreInfo(null);
+      return dsFactory.getDataSource();
+    } catch (Exception e) {
+      if (e instanceof SqlMapException) {
+        throw (SqlMapException) e;
       }
-    });
+      throw new SqlMapException(
+          "Error initializing DataSource.  Could not instantiate DataSourceFactory.  Cause: " + e, e);
+    }
   }
 
   /**
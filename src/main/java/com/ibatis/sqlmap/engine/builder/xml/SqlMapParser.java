@@ -35,6 +35,8 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.Properties;
 
+import org.w3c.dom.Node;
+
 /**
  * The Class SqlMapParser.
  */
@@ -153,6 +155,8 @@ public class SqlMapParser {
       String serializeAttr = attributes.getProperty("serialize");
       Boolean serialize = serializeAttr == null || serializeAttr.isEmpty() ? null
           : Boolean.valueOf("true".equals(serializeAttr));
+      boolean coalesceMisses = "true".equals(attributes.getProperty("coalesceMisses"));
+      String coalesceTimeoutAttr = attributes.getProperty("coalesceTimeout");
       type = state.getConfig().getTypeHandlerFactory().resolveAlias(type);
       Class clazz = Resources.classForName(type);
       if (readOnly == null) {
@@ -163,6 +167,15 @@ public class SqlMapParser {
       }
       CacheModelConfig cacheConfig = state.getConfig().newCacheModelConfig(id,
           (CacheController) Resources.instantiate(clazz), readOnly.booleanValue(), serialize.booleanValue());
+      if (coalesceMisses) {
+        try {
+          cacheConfig.setCoalesceMisses(coalesceTimeoutAttr == null || coalesceTimeoutAttr.isEmpty() ? 0L
+              : Long.parseLong(coalesceTimeoutAttr));
+        } catch (NumberFormatException e) {
+          throw new RuntimeException("Error building cache model '" + id
+              + "'.  Coalesce timeout must be a valid long integer value.  Cause: " + e, e);
+        }
+      }
       state.setCacheConfig(cacheConfig);
     });
     parser.addNodelet("/sqlMap/cacheModel/end()",
@@ -177,27 +190,55 @@ public class SqlMapParser {
     parser.addNodelet("/sqlMap/cacheModel/flushOnExecute", node -> {
       Properties childAttributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
       String statement = childAttributes.getProperty("statement");
-      state.getCacheConfig().addFlushTriggerStatement(statement);
+      String tags = childAttributes.getProperty("tags");
+      state.getCacheConfig().addFlushTriggerStatement(statement, tags);
     });
     parser.addNodelet("/sqlMap/cacheModel/flushInterval", node -> {
-      Properties childAttributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
-      try {
-        int milliseconds = childAttributes.getProperty("milliseconds") == null ? 0
-            : Integer.parseInt(childAttributes.getProperty("milliseconds"));
-        int seconds = childAttributes.getProperty("seconds") == null ? 0
-            : Integer.parseInt(childAttributes.getProperty("seconds"));
-        int minutes = childAttributes.getProperty("minutes") == null ? 0
-            : Integer.parseInt(childAttributes.getProperty("minutes"));
-        int hours = childAttributes.getProperty("hours") == null ? 0
-            : Integer.parseInt(childAttributes.getProperty("hours"));
-        state.getCacheConfig().setFlushInterval(hours, minutes, seconds, milliseconds);
-      } catch (NumberFormatException e) {
-        throw new RuntimeException("Error building cache in '" + "resourceNAME"
-            + "'.  Flush interval milliseconds must be a valid long integer value.  Cause: " + e, e);
-      }
+      long[] duration = parseCacheDuration(node, "Flush interval");
+      state.getCacheConfig().setFlushInterval(duration[0], duration[1], duration[2], duration[3]);
+    });
+    parser.addNodelet("/sqlMap/cacheModel/timeToLive", node -> {
+      long[] duration = parseCacheDuration(node, "Time to live");
+      state.getCacheConfig().setTimeToLive(duration[0], duration[1], duration[2], duration[3]);
+    });
+    parser.addNodelet("/sqlMap/cacheModel/timeToIdle", node -> {
+      long[] duration = parseCacheDuration(node, "Time to idle");
+      state.getCacheConfig().setTimeToIdle(duration[0], duration[1], duration[2], duration[3]);
+    });
+    parser.addNodelet("/sqlMap/cacheModel/staleWhileRevalidate", node -> {
+      long[] duration = parseCacheDuration(node, "Stale while revalidate");
+      state.getCacheConfig().setStaleWhileRevalidate(duration[0], duration[1], duration[2], duration[3]);
     });
   }
 
+  /**
+   * Parses the hours, minutes, seconds and milliseconds attributes of a cache model duration element.
+   *
+   * @param node
+   *          the element
+   * @param name
+   *          the name of the duration, for the error message
+   *
+   * @return the hours, minutes, seconds and milliseconds
+   */
+  private long[] parseCacheDuration(Node node, String name) {
+    Properties childAttributes = NodeletUtils.parseAttributes(node, state.getGlobalProps());
+    try {
+      int milliseconds = childAttributes.getProperty("milliseconds") == null ? 0
+          : Integer.parseInt(childAttributes.getProperty("milliseconds"));
+      int seconds = childAttributes.getProperty("seconds") == null ? 0
+          : Integer.parseInt(childAttributes.getProperty("seconds"));
+      int minutes = childAttributes.getProperty("minutes") == null ? 0
+          : Integer.parseInt(childAttributes.getProperty("minutes"));
+      int hours = childAttributes.getProperty("hours") == null ? 0
+          : Integer.parseInt(childAttributes.getProperty("hours"));
+      return new long[] { hours, minutes, seconds, milliseconds };
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Error building cache in '" + "resourceNAME" + "'.  " + name
+          + " milliseconds must be a valid long integer value.  Cause: " + e, e);
+    }
+  }
+
   /**
    * Adds the parameter map nodelets.
    */
@@ -298,6 +339,8 @@ public class SqlMapParser {
       String resultMapName = childAttributes.getProperty("resultMap");
       String callback = childAttributes.getProperty("typeHandler");
       String notNullColumn = childAttributes.getProperty("notNullColumn");
+      String batchSizeProp = childAttributes.getProperty("batchSize");
+      String batchKey = childAttributes.getProperty("batchKey");
 
       state.getConfig().getErrorContext().setMoreInfo("Check the result mapping property type or name.");
       Class javaClass = null;
@@ -331,8 +374,17 @@ public class SqlMapParser {
         }
       }
 
+      int batchSize = 0;
+      if (batchSizeProp != null) {
+        try {
+          batchSize = Integer.parseInt(batchSizeProp);
+        } catch (Exception e) {
+          throw new RuntimeException("Error parsing batch size.  Cause: " + e, e);
+        }
+      }
+
       state.getResultConfig().addResultMapping(propertyName, columnName, columnIndex, javaClass, jdbcType, nullValue,
-          notNullColumn, statementName, resultMapName, typeHandlerImpl);
+          notNullColumn, statementName, resultMapName, typeHandlerImpl, batchSize, batchKey);
     });
 
     parser.addNodelet("/sqlMap/resultMap/discriminator/subMap", node -> {
@@ -68,6 +68,9 @@ public class SqlStatementParser {
     String fetchSize = attributes.getProperty("fetchSize");
     String allowRemapping = attributes.getProperty("remapResults");
     String timeout = attributes.getProperty("timeout");
+    String cacheTags = attributes.getProperty("cacheTags");
+    String readOnly = attributes.getProperty("readOnly");
+    String batchOrder = attributes.getProperty("batchOrder");
 
     if (state.isUseStatementNamespaces()) {
       id = state.applyNamespace(id);
@@ -109,6 +112,15 @@ public class SqlStatementParser {
         new XMLSqlSource(state, node), parameterMapName, parameterClass, resultMapName, additionalResultMapNames,
         resultClass, additionalResultClasses, resultSetType, fetchSizeInt, allowRemappingBool, timeoutInt,
         cacheModelName, xmlResultName);
+    if (cacheTags != null) {
+      statementConf.setCacheTags(cacheTags);
+    }
+    if (readOnly != null) {
+      statementConf.setReadOnly("true".equals(readOnly));
+    }
+    if (batchOrder != null) {
+      statementConf.setBatchOrder(Integer.parseInt(batchOrder));
+    }
 
     findAndParseSelectKey(node, statementConf);
   }
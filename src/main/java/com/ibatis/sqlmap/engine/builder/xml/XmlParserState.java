@@ -71,6 +71,12 @@ public class XmlParserState {
   /** The data source. */
   private DataSource dataSource;
 
+  /** The properties of the read replica data source being parsed. */
+  private Properties replicaDsProps = new Properties();
+
+  /** The read replica data sources. */
+  private List<DataSource> replicaDataSources = new ArrayList<>();
+
   /**
    * Gets the config.
    *
@@ -332,4 +338,33 @@ public class XmlParserState {
   public void setDataSource(DataSource dataSource) {
     this.dataSource = dataSource;
   }
+
+  /**
+   * Gets the properties of the read replica data source being parsed.
+   *
+   * @return the replica ds props
+   */
+  public Properties getReplicaDsProps() {
+    return replicaDsProps;
+  }
+
+  /**
+   * Adds a read replica data source, and starts over with empty properties for the next one.
+   *
+   * @param dataSource
+   *          the replica data source
+   */
+  public void addReplicaDataSource(DataSource dataSource) {
+    replicaDataSources.add(dataSource);
+    replicaDsProps = new Properties();
+  }
+
+  /**
+   * Gets the read replica data sources.
+   *
+   * @return the replica data sources
+   */
+  public List<DataSource> getReplicaDataSources() {
+    return replicaDataSources;
+  }
 }
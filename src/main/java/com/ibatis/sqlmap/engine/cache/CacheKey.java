@@ -16,16 +16,18 @@
 package com.ibatis.sqlmap.engine.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Hash value generator for cache keys.
+ * <p>
+ * Values are kept in a flat array instead of a list, and int values are kept unboxed in a parallel primitive array
+ * that is only allocated once an int value is added, so building and comparing a key allocates little.
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   /** The Constant DEFAULT_MULTIPLYER. */
   private static final int DEFAULT_MULTIPLYER = 37;
@@ -33,6 +35,12 @@ public class CacheKey implements Cloneable, Serializable {
   /** The Constant DEFAULT_HASHCODE. */
   private static final int DEFAULT_HASHCODE = 17;
 
+  /** The initial number of value slots. */
+  private static final int DEFAULT_CAPACITY = 8;
+
+  /** Placeholder for a slot holding a primitive value. */
+  private static final Object PRIMITIVE_SLOT = PrimitiveSlot.INSTANCE;
+
   /** The multiplier. */
   private int multiplier;
 
@@ -45,8 +53,11 @@ public class CacheKey implements Cloneable, Serializable {
   /** The count. */
   private int count;
 
-  /** The param list. */
-  private List paramList = new ArrayList<>();
+  /** The values, in update order. */
+  private Object[] values = new Object[DEFAULT_CAPACITY];
+
+  /** The primitive values, by slot; null until the first primitive value is added. */
+  private int[] primitives;
 
   /**
    * Default constructor.
@@ -84,7 +95,7 @@ public class CacheKey implements Cloneable, Serializable {
   }
 
   /**
-   * Updates this object with new information based on an int value.
+   * Updates this object with new information based on an int value. The value is stored without boxing.
    *
    * @param x
    *          - the int value
@@ -92,7 +103,14 @@ public class CacheKey implements Cloneable, Serializable {
    * @return the cache key
    */
   public CacheKey update(int x) {
-    update(Integer.valueOf(x));
+    int slot = addSlot(x);
+    if (primitives == null) {
+      primitives = new int[values.length];
+    } else if (primitives.length < values.length) {
+      primitives = Arrays.copyOf(primitives, values.length);
+    }
+    values[slot] = PRIMITIVE_SLOT;
+    primitives[slot] = x;
     return this;
   }
 
@@ -105,17 +123,30 @@ public class CacheKey implements Cloneable, Serializable {
    * @return the cachekey
    */
   public CacheKey update(Object object) {
-    int baseHashCode = object.hashCode();
+    int slot = addSlot(object.hashCode());
+    values[slot] = object;
+    return this;
+  }
 
-    count++;
+  /**
+   * Mixes a value's hash code into the key and reserves a slot for the value.
+   *
+   * @param baseHashCode
+   *          the hash code of the value
+   *
+   * @return the slot index
+   */
+  private int addSlot(int baseHashCode) {
+    int slot = count++;
     checksum += baseHashCode;
     baseHashCode *= count;
 
     hashcode = multiplier * hashcode + baseHashCode;
 
-    paramList.add(object);
-
-    return this;
+    if (slot == values.length) {
+      values = Arrays.copyOf(values, slot << 1);
+    }
+    return slot;
   }
 
   @Override
@@ -133,10 +164,14 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < paramList.size(); i++) {
-      Object thisParam = paramList.get(i);
-      Object thatParam = cacheKey.paramList.get(i);
-      if (!Objects.equals(thisParam, thatParam)) {
+    for (int i = 0; i < count; i++) {
+      Object thisParam = values[i];
+      Object thatParam = cacheKey.values[i];
+      if (thisParam == PRIMITIVE_SLOT || thatParam == PRIMITIVE_SLOT) {
+        if (thisParam != thatParam || primitives[i] != cacheKey.primitives[i]) {
+          return false;
+        }
+      } else if (!Objects.equals(thisParam, thatParam)) {
         return false;
       }
     }
@@ -152,8 +187,13 @@ public class CacheKey implements Cloneable, Serializable {
   @Override
   public String toString() {
     StringBuilder returnValue = new StringBuilder().append(hashcode).append('|').append(checksum);
-    for (Object element : paramList) {
-      returnValue.append('|').append(element);
+    for (int i = 0; i < count; i++) {
+      returnValue.append('|');
+      if (values[i] == PRIMITIVE_SLOT) {
+        returnValue.append(primitives[i]);
+      } else {
+        returnValue.append(values[i]);
+      }
     }
 
     return returnValue.toString();
@@ -162,8 +202,18 @@ public class CacheKey implements Cloneable, Serializable {
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.paramList = new ArrayList<>(paramList);
+    clonedCacheKey.values = values.clone();
+    if (primitives != null) {
+      clonedCacheKey.primitives = primitives.clone();
+    }
     return clonedCacheKey;
   }
 
+  /**
+   * The placeholder for primitive slots. Being an enum it stays a singleton when a key is serialized.
+   */
+  private enum PrimitiveSlot {
+    INSTANCE
+  }
+
 }
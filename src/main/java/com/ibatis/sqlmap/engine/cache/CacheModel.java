@@ -25,10 +25,24 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
  * Wrapper for Caches.
@@ -47,14 +61,44 @@ public class CacheModel implements ExecuteListener {
   public static final Object NULL_OBJECT = "SERIALIZABLE_NULL_OBJECT";
 
   /** The requests. */
-  private int requests = 0;
+  private final LongAdder requests = new LongAdder();
 
   /** The hits. */
-  private int hits = 0;
+  private final LongAdder hits = new LongAdder();
+
+  /** The puts. */
+  private final LongAdder puts = new LongAdder();
+
+  /** The loads after a miss. */
+  private final LongAdder loads = new LongAdder();
+
+  /** The time spent loading after a miss, in nanoseconds. */
+  private final LongAdder loadTime = new LongAdder();
+
+  /** The entries dropped because they expired. */
+  private final LongAdder expirations = new LongAdder();
+
+  /** The entries dropped because one of their tags was invalidated. */
+  private final LongAdder invalidations = new LongAdder();
+
+  /** The flushes, by trigger. */
+  private final ConcurrentHashMap<String, LongAdder> flushes = new ConcurrentHashMap<>();
+
+  /** The trigger of flushes requested through the API. */
+  public static final String FLUSH_DATA_CACHE = "flushDataCache";
+
+  /** The trigger of flushes because the flush interval elapsed. */
+  public static final String FLUSH_INTERVAL = "flushInterval";
+
+  /** The trigger of flushes received from the peers of a clustered cache controller. */
+  public static final String FLUSH_PEER = "peerFlush";
 
   /** Constant to turn off periodic cache flushes. */
   private static final long NO_FLUSH_INTERVAL = -99999;
 
+  /** The number of invalidated tags remembered before the cache is flushed instead. */
+  private static final int MAX_INVALIDATED_TAGS = 100000;
+
   /** The id. */
   private String id;
 
@@ -65,7 +109,7 @@ public class CacheModel implements ExecuteListener {
   private boolean serialize;
 
   /** The last flush. */
-  private long lastFlush;
+  private volatile long lastFlush;
 
   /** The flush interval. */
   private long flushInterval;
@@ -73,25 +117,72 @@ public class CacheModel implements ExecuteListener {
   /** The flush interval seconds. */
   private long flushIntervalSeconds;
 
+  /** The time (in milliseconds) an entry may be served after it was cached, or 0 for no limit. */
+  private long timeToLive;
+
+  /** The time (in milliseconds) an entry may go unrequested before it expires, or 0 for no limit. */
+  private long timeToIdle;
+
+  /** The time (in milliseconds) an entry may still be served after its time to live while it is refreshed. */
+  private long staleWhileRevalidate;
+
   /** The flush trigger statements. */
   private Set flushTriggerStatements;
 
+  /** The tags invalidated by flush trigger statements that only invalidate part of the cache, by statement id. */
+  private final ConcurrentHashMap<String, CacheTags> flushTriggerTags = new ConcurrentHashMap<>();
+
+  /** The stamps of invalidations and flushes, in the order they happened. */
+  private final AtomicLong invalidationSequence = new AtomicLong();
+
+  /** The stamp of the last invalidation of each tag since the last flush. */
+  private final ConcurrentHashMap<String, Long> invalidatedTags = new ConcurrentHashMap<>();
+
+  /** The stamp of the last flush. */
+  private volatile long flushStamp;
+
   /** The controller. */
   private CacheController controller;
 
+  /** Whether the controller can be called without holding the monitor of this cache model. */
+  private boolean concurrentController;
+
+  /** Whether concurrent misses for the same key share a single load. */
+  private boolean coalesceMisses;
+
+  /** How long (in milliseconds) a coalesced miss waits for another thread's load, or 0 to wait until it finishes. */
+  private long coalesceTimeout;
+
+  /** The loads in progress, by key, when misses are coalesced. */
+  private final ConcurrentHashMap<CacheKey, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
+
   /** The resource. */
   private String resource;
 
+  /** The source of the current time (in milliseconds) for flush intervals and entry expiry. */
+  private LongSupplier clock = System::currentTimeMillis;
+
   /**
    * Default constructor.
    */
   public CacheModel() {
     this.flushInterval = NO_FLUSH_INTERVAL;
     this.flushIntervalSeconds = NO_FLUSH_INTERVAL;
-    this.lastFlush = System.currentTimeMillis();
+    this.lastFlush = clock.getAsLong();
     this.flushTriggerStatements = new HashSet<>();
   }
 
+  /**
+   * Sets the source of the current time (in milliseconds) that flush intervals and entry expiry are measured with.
+   *
+   * @param clock
+   *          the clock
+   */
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+    this.lastFlush = clock.getAsLong();
+  }
+
   /**
    * Getter for the cache model's id.
    *
@@ -184,6 +275,11 @@ public class CacheModel implements ExecuteListener {
   public void setCacheController(CacheController controller)
       throws ClassNotFoundException, InstantiationException, IllegalAccessException {
     this.controller = controller;
+    this.concurrentController = controller instanceof ConcurrentCacheController;
+    checkEntryTracking();
+    if (controller instanceof ClusteredCacheController) {
+      ((ClusteredCacheController) controller).attach(this);
+    }
   }
 
   /**
@@ -215,6 +311,117 @@ public class CacheModel implements ExecuteListener {
     this.flushIntervalSeconds = flushInterval / 1000;
   }
 
+  /**
+   * Getter for timeToLive property.
+   *
+   * @return The timeToLive (in milliseconds), or 0 if entries do not expire
+   */
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Setter for timeToLive property. Unlike the flush interval, which clears the whole cache at once, each entry expires
+   * this long after it was cached.
+   *
+   * @param timeToLive
+   *          The new timeToLive (in milliseconds), or 0 if entries do not expire
+   */
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Getter for timeToIdle property.
+   *
+   * @return The timeToIdle (in milliseconds), or 0 if entries do not expire when idle
+   */
+  public long getTimeToIdle() {
+    return timeToIdle;
+  }
+
+  /**
+   * Setter for timeToIdle property. Each entry expires when it has not been requested for this long.
+   *
+   * @param timeToIdle
+   *          The new timeToIdle (in milliseconds), or 0 if entries do not expire when idle
+   */
+  public void setTimeToIdle(long timeToIdle) {
+    this.timeToIdle = timeToIdle;
+    checkEntryTracking();
+  }
+
+  /**
+   * Getter for staleWhileRevalidate property.
+   *
+   * @return The staleWhileRevalidate window (in milliseconds)
+   */
+  public long getStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * Setter for staleWhileRevalidate property. For this long after an entry's time to live has passed, the first request
+   * for it reloads it while all other requests are still served the stale entry.
+   *
+   * @param staleWhileRevalidate
+   *          The new staleWhileRevalidate window (in milliseconds)
+   */
+  public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+    checkEntryTracking();
+  }
+
+  /**
+   * Checks that the controller keeps entries between requests if the time to idle or the stale-while-revalidate window
+   * need to track when an entry was last requested or who refreshes it.
+   */
+  private void checkEntryTracking() {
+    if (controller instanceof CopyingCacheController && (timeToIdle > 0 || staleWhileRevalidate > 0)) {
+      throw new RuntimeException("Cache model '" + id + "' cannot use a time to idle or a stale while revalidate "
+          + "window with " + controller.getClass().getName() + ", which returns a new copy of an entry on every "
+          + "request.");
+    }
+  }
+
+  /**
+   * Getter for coalesceMisses property.
+   *
+   * @return true if concurrent misses for the same key share a single load
+   */
+  public boolean isCoalesceMisses() {
+    return coalesceMisses;
+  }
+
+  /**
+   * Setter for coalesceMisses property.
+   *
+   * @param coalesceMisses
+   *          - if concurrent misses for the same key are to share a single load
+   */
+  public void setCoalesceMisses(boolean coalesceMisses) {
+    this.coalesceMisses = coalesceMisses;
+  }
+
+  /**
+   * Getter for coalesceTimeout property.
+   *
+   * @return The coalesceTimeout (in milliseconds)
+   */
+  public long getCoalesceTimeout() {
+    return coalesceTimeout;
+  }
+
+  /**
+   * Setter for coalesceTimeout property.
+   *
+   * @param coalesceTimeout
+   *          How long (in milliseconds) a coalesced miss waits for another thread's load, or 0 to wait until it finishes
+   */
+  public void setCoalesceTimeout(long coalesceTimeout) {
+    this.coalesceTimeout = coalesceTimeout;
+  }
+
   /**
    * Adds a flushTriggerStatment. When a flushTriggerStatment is executed, the cache is flushed (cleared).
    *
@@ -225,6 +432,22 @@ public class CacheModel implements ExecuteListener {
     flushTriggerStatements.add(statementName);
   }
 
+  /**
+   * Adds a flushTriggerStatment that only invalidates the entries carrying its tags, plus those cached without tags.
+   * Row tags such as <code>ACCOUNT:id</code> are resolved against the parameter object of each execution.
+   *
+   * @param statementName
+   *          The statement to add.
+   * @param tags
+   *          The tags the statement invalidates, or null to flush the whole cache.
+   */
+  public void addFlushTriggerStatement(String statementName, CacheTags tags) {
+    flushTriggerStatements.add(statementName);
+    if (tags != null) {
+      flushTriggerTags.put(statementName, tags);
+    }
+  }
+
   /**
    * Gets an Iterator containing all flushTriggerStatment objects for this cache.
    *
@@ -245,16 +468,198 @@ public class CacheModel implements ExecuteListener {
    */
   @Override
   public void onExecuteStatement(MappedStatement statement) {
-    flush();
+    onExecuteStatement(statement, null);
+  }
+
+  /**
+   * ExecuteListener event. Flushes the cache, or, if the statement was added with tags, invalidates the tags it resolves
+   * to for the parameter object.
+   *
+   * @param statement
+   *          The statement to execute
+   * @param parameterObject
+   *          The parameter object of the statement
+   */
+  @Override
+  public void onExecuteStatement(MappedStatement statement, Object parameterObject) {
+    CacheTags tags = flushTriggerTags.get(statement.getId());
+    if (tags == null) {
+      flush(statement.getId());
+    } else {
+      invalidate(tags.resolve(parameterObject));
+    }
+  }
+
+  /**
+   * Invalidates the entries cached with any of the given tags. Invalidating a row tag (<code>ACCOUNT:7</code>) drops the
+   * entries for that row and those tagged with the whole table (<code>ACCOUNT</code>); invalidating a table tag drops
+   * all entries for the table and its rows. Entries cached without tags are dropped by every invalidation, since
+   * nothing is known about what they depend on.
+   * <p>
+   * Entries are not looked up here; each entry is checked against the invalidations the next time it is requested. A
+   * {@link ClusteredCacheController} passes the invalidation on to its peers.
+   *
+   * @param tags
+   *          the tags to invalidate
+   */
+  public void invalidate(String... tags) {
+    stampTags(tags);
+    if (controller instanceof ClusteredCacheController) {
+      ((ClusteredCacheController) controller).invalidate(this, tags);
+    }
+  }
+
+  /**
+   * Applies an invalidation that a peer of the clustered cache controller broadcast. Unlike
+   * {@link #invalidate(String...)} the controller is not told about it again.
+   *
+   * @param tags
+   *          the tags to invalidate
+   */
+  public void applyPeerInvalidation(String... tags) {
+    stampTags(tags);
+  }
+
+  /**
+   * Stamps the tags, and the tags that depend on them, with a new invalidation stamp.
+   *
+   * @param tags
+   *          the tags to invalidate
+   */
+  private void stampTags(String[] tags) {
+    if (invalidatedTags.size() > MAX_INVALIDATED_TAGS) {
+      flush("invalidatedTags");
+    }
+    long stamp = invalidationSequence.incrementAndGet();
+    for (String tag : tags) {
+      int separator = tag.indexOf(CacheTags.ROW_SEPARATOR);
+      if (separator < 0) {
+        stampTag(tag, stamp);
+        stampTag(tag + CacheTags.ROW_SEPARATOR, stamp);
+      } else {
+        stampTag(tag, stamp);
+        stampTag(tag.substring(0, separator), stamp);
+      }
+    }
+    stampTag("", stamp);
+    if (log.isDebugEnabled()) {
+      log("invalidated tags", true, Arrays.toString(tags));
+    }
+  }
+
+  private void stampTag(String tag, long stamp) {
+    invalidatedTags.merge(tag, stamp, Math::max);
   }
 
   /**
    * Returns statistical information about the cache.
    *
-   * @return the number of cache hits divided by the total requests
+   * @return the number of cache hits divided by the total requests, or 0 if there were no requests
    */
   public double getHitRatio() {
-    return (double) hits / (double) requests;
+    long requestCount = requests.sum();
+    return requestCount == 0 ? 0 : (double) hits.sum() / (double) requestCount;
+  }
+
+  /**
+   * Takes a snapshot of the statistics of the cache.
+   *
+   * @return the statistics
+   */
+  public CacheStatistics getStatistics() {
+    return new CacheStatistics(this);
+  }
+
+  /**
+   * Gets the number of requests.
+   *
+   * @return the requests
+   */
+  long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * Gets the number of hits.
+   *
+   * @return the hits
+   */
+  long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of objects added to the cache.
+   *
+   * @return the puts
+   */
+  long getPuts() {
+    return puts.sum();
+  }
+
+  /**
+   * Gets the number of objects loaded after a miss.
+   *
+   * @return the loads
+   */
+  long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * Gets the average time a load after a miss took.
+   *
+   * @return the average load time in milliseconds
+   */
+  double getAverageLoadMillis() {
+    long loadCount = loads.sum();
+    return loadCount == 0 ? 0 : loadTime.sum() / 1000000.0 / loadCount;
+  }
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the number of entries, or -1 if the cache controller does not report it
+   */
+  long getSize() {
+    return controller instanceof MeasurableCacheController ? ((MeasurableCacheController) controller).getSize() : -1;
+  }
+
+  /**
+   * Gets the memory taken by the cached entries.
+   *
+   * @return the (estimated) weight in bytes, or 0 if the cache controller does not track it
+   */
+  long getWeight() {
+    return controller instanceof MeasurableCacheController ? ((MeasurableCacheController) controller).getWeight() : 0;
+  }
+
+  /**
+   * Gets the number of entries dropped, by cause.
+   *
+   * @return the evictions by cause
+   */
+  Map<String, Long> getEvictions() {
+    Map<String, Long> evictions = new HashMap<>();
+    if (controller instanceof MeasurableCacheController) {
+      evictions.put("size", ((MeasurableCacheController) controller).getEvictionCount());
+    }
+    evictions.put("expired", expirations.sum());
+    evictions.put("invalidated", invalidations.sum());
+    return evictions;
+  }
+
+  /**
+   * Gets the number of times the whole cache was flushed, by trigger.
+   *
+   * @return the flushes by trigger
+   */
+  Map<String, Long> getFlushes() {
+    Map<String, Long> counts = new HashMap<>();
+    for (Map.Entry<String, LongAdder> entry : flushes.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().sum());
+    }
+    return counts;
   }
 
   /**
@@ -271,9 +676,59 @@ public class CacheModel implements ExecuteListener {
    * Clears the cache.
    */
   public void flush() {
+    flush(FLUSH_DATA_CACHE);
+  }
+
+  /**
+   * Applies a flush that a peer of the clustered cache controller broadcast. The controller has already dropped its
+   * local entries; this only makes sure that loads which started before the flush are not cached afterwards. The
+   * monitor of this cache model is not taken, since the flush may be delivered while the peer holds its own.
+   */
+  public void applyPeerFlush() {
+    flushes.computeIfAbsent(FLUSH_PEER, k -> new LongAdder()).increment();
+    flushStamp = invalidationSequence.incrementAndGet();
+    invalidatedTags.clear();
+    lastFlush = clock.getAsLong();
+    if (log.isDebugEnabled()) {
+      log("flushed by peer", false, null);
+    }
+  }
+
+  /**
+   * Takes over an entry in its stored form that was read from a store shared with other JVMs. Invalidation stamps are
+   * local to each cache model, so the entry is treated as loaded now; the shared store must therefore drop entries on
+   * every flush and invalidation, as {@link ClusteredCacheController} implementations do.
+   *
+   * @param stored
+   *          the entry as stored by the cache model of another JVM
+   *
+   * @return the entry as stored by this cache model
+   */
+  public Object adoptStoredValue(Object stored) {
+    if (stored instanceof CacheEntry) {
+      CacheEntry entry = (CacheEntry) stored;
+      return new CacheEntry(entry.value, entry.expiresAt, entry.lastAccess, entry.dependencies,
+          invalidationSequence.get());
+    }
+    if (stored != NULL_OBJECT && NULL_OBJECT.equals(stored)) {
+      return NULL_OBJECT;
+    }
+    return stored;
+  }
+
+  /**
+   * Clears the cache.
+   *
+   * @param trigger
+   *          what caused the flush, as counted in the statistics
+   */
+  private void flush(String trigger) {
+    flushes.computeIfAbsent(trigger, k -> new LongAdder()).increment();
     synchronized (this) {
+      flushStamp = invalidationSequence.incrementAndGet();
       controller.flush(this);
-      lastFlush = System.currentTimeMillis();
+      invalidatedTags.clear();
+      lastFlush = clock.getAsLong();
       if (log.isDebugEnabled()) {
         log("flushed", false, null);
       }
@@ -283,6 +738,9 @@ public class CacheModel implements ExecuteListener {
   /**
    * Get an object out of the cache. A side effect of this method is that is may clear the cache if it has not been
    * cleared in the flushInterval.
+   * <p>
+   * The monitor of this cache model is only held while calling a controller that is not a
+   * {@link ConcurrentCacheController}; deserialization and statistics never hold it.
    *
    * @param key
    *          The key of the object to be returned
@@ -290,34 +748,20 @@ public class CacheModel implements ExecuteListener {
    * @return The cached object (or null)
    */
   public Object getObject(CacheKey key) {
-    Object value = null;
-    synchronized (this) {
-      if (flushInterval != NO_FLUSH_INTERVAL && System.currentTimeMillis() - lastFlush > flushInterval) {
-        flush();
-      }
+    if (flushInterval != NO_FLUSH_INTERVAL && clock.getAsLong() - lastFlush > flushInterval) {
+      flushIfExpired();
+    }
 
-      value = controller.getObject(this, key);
-      if (serialize && !readOnly && value != NULL_OBJECT && value != null) {
-        try {
-          ByteArrayInputStream bis = new ByteArrayInputStream((byte[]) value);
-          ObjectInputStream ois = new ObjectInputStream(bis);
-          value = ois.readObject();
-          ois.close();
-        } catch (Exception e) {
-          throw new RuntimeException("Error caching serializable object.  Be sure you're not attempting to use "
-              + "a serialized cache for an object that may be taking advantage of lazy loading.  Cause: " + e, e);
-        }
-      }
-      requests++;
+    Object value = toCachedValue(getStoredObject(key, true));
+    requests.increment();
+    if (value != null) {
+      hits.increment();
+    }
+    if (log.isDebugEnabled()) {
       if (value != null) {
-        hits++;
-      }
-      if (log.isDebugEnabled()) {
-        if (value != null) {
-          log("retrieved object", true, value);
-        } else {
-          log("cache miss", false, null);
-        }
+        log("retrieved object", true, value);
+      } else {
+        log("cache miss", false, null);
       }
     }
     return value;
@@ -332,27 +776,392 @@ public class CacheModel implements ExecuteListener {
    *          The object to be cached
    */
   public void putObject(CacheKey key, Object value) {
-    if (null == value) {
-      value = NULL_OBJECT;
+    putObject(key, value, null);
+  }
+
+  /**
+   * Add an object to the cache, tagged with what it depends on.
+   *
+   * @param key
+   *          The key of the object to be cached
+   * @param value
+   *          The object to be cached
+   * @param tags
+   *          The resolved tags of the object (or null)
+   */
+  public void putObject(CacheKey key, Object value, String[] tags) {
+    putStoredObject(key, toStoredValue(value), tags, invalidationSequence.get());
+  }
+
+  /**
+   * Loads an object that was not found in the cache and adds it to the cache. When misses are coalesced only one thread
+   * per key runs the loader at a time; other threads asking for the same key wait for its result instead. If that
+   * result is not available within the coalesce timeout, or the loading thread fails, a waiting thread runs the loader
+   * itself.
+   *
+   * @param key
+   *          The key of the object to be loaded
+   * @param loader
+   *          The loader that produces the object
+   *
+   * @return The loaded object (or null)
+   *
+   * @throws SQLException
+   *           if the loader fails
+   */
+  public Object loadObject(CacheKey key, CacheLoader loader) throws SQLException {
+    return loadObject(key, loader, null);
+  }
+
+  /**
+   * Loads an object that was not found in the cache and adds it to the cache, tagged with what it depends on. An
+   * invalidation of one of the tags while the object is being loaded keeps it from being served.
+   *
+   * @param key
+   *          The key of the object to be loaded
+   * @param loader
+   *          The loader that produces the object
+   * @param tags
+   *          The resolved tags of the object (or null)
+   *
+   * @return The loaded object (or null)
+   *
+   * @throws SQLException
+   *           if the loader fails
+   *
+   * @see #loadObject(CacheKey, CacheLoader)
+   */
+  public Object loadObject(CacheKey key, CacheLoader loader, String[] tags) throws SQLException {
+    return loadObject(key, loader, tags, this::putStoredObject);
+  }
+
+  /**
+   * Loads an object that was not found in the cache, coalescing concurrent misses like
+   * {@link #loadObject(CacheKey, CacheLoader, String[])}, but hands what this caller loaded to a sink instead of adding
+   * it to the cache. Objects shared from another caller's load are not handed to the sink.
+   *
+   * @param key
+   *          The key of the object to be loaded
+   * @param loader
+   *          The loader that produces the object
+   * @param tags
+   *          The resolved tags of the object (or null)
+   * @param sink
+   *          The sink for the stored form of an object loaded by this caller
+   *
+   * @return The loaded object (or null)
+   *
+   * @throws SQLException
+   *           if the loader fails
+   */
+  Object loadObject(CacheKey key, CacheLoader loader, String[] tags, LoadSink sink) throws SQLException {
+    long loadStamp = invalidationSequence.get();
+    if (!coalesceMisses) {
+      Object value = load(loader);
+      sink.put(key, toStoredValue(value), tags, loadStamp);
+      return value;
     }
-    synchronized (this) {
-      if (serialize && !readOnly && value != NULL_OBJECT) {
-        try {
-          ByteArrayOutputStream bos = new ByteArrayOutputStream();
-          ObjectOutputStream oos = new ObjectOutputStream(bos);
-          oos.writeObject(value);
-          oos.flush();
-          oos.close();
-          value = bos.toByteArray();
-        } catch (IOException e) {
-          throw new RuntimeException("Error caching serializable object.  Cause: " + e, e);
+
+    PendingLoad pending = new PendingLoad();
+    PendingLoad existing = pendingLoads.putIfAbsent(key, pending);
+    if (existing != null) {
+      Object stored = existing.await(coalesceTimeout);
+      if (stored != null) {
+        if (log.isDebugEnabled()) {
+          log("shared coalesced load", false, null);
         }
+        return nullIfNullObject(toCachedValue(stored));
+      }
+      Object value = load(loader);
+      sink.put(key, toStoredValue(value), tags, loadStamp);
+      return value;
+    }
+
+    try {
+      // Another thread may have finished loading between our miss and our registration
+      Object stored = getStoredObject(key, false);
+      if (stored == null) {
+        stored = toStoredValue(load(loader));
+        sink.put(key, stored, tags, loadStamp);
+      }
+      pending.complete(stored);
+      return nullIfNullObject(toCachedValue(stored));
+    } finally {
+      pending.release();
+      pendingLoads.remove(key, pending);
+    }
+  }
+
+  /**
+   * Runs a loader, recording the time it takes.
+   *
+   * @param loader
+   *          the loader
+   *
+   * @return the loaded object
+   *
+   * @throws SQLException
+   *           if the loader fails
+   */
+  Object load(CacheLoader loader) throws SQLException {
+    long start = System.nanoTime();
+    try {
+      return loader.load();
+    } finally {
+      loadTime.add(System.nanoTime() - start);
+      loads.increment();
+    }
+  }
+
+  /**
+   * Gets an object in its stored form from the controller. Expired and invalidated entries are removed and reported as
+   * missing. An
+   * entry whose time to live has passed but which is still inside the stale-while-revalidate window is returned as long
+   * as another caller is already refreshing it; the first caller to see it stale gets a miss and refreshes it.
+   *
+   * @param key
+   *          the key
+   * @param allowStale
+   *          whether an entry inside the stale-while-revalidate window may be returned
+   *
+   * @return the stored object (or null)
+   */
+  private Object getStoredObject(CacheKey key, boolean allowStale) {
+    Object stored;
+    if (concurrentController) {
+      stored = controller.getObject(this, key);
+    } else {
+      synchronized (this) {
+        stored = controller.getObject(this, key);
       }
-      controller.putObject(this, key, value);
+    }
+    if (!(stored instanceof CacheEntry)) {
+      return stored;
+    }
+
+    CacheEntry entry = (CacheEntry) stored;
+    if (entry.dependencies != null && isInvalidated(entry)) {
+      removeStoredObject(key);
+      invalidations.increment();
       if (log.isDebugEnabled()) {
-        log("stored object", true, value);
+        log("invalidated object", false, null);
+      }
+      return null;
+    }
+    if (timeToLive <= 0 && timeToIdle <= 0) {
+      return entry.value;
+    }
+    long now = clock.getAsLong();
+    boolean idle = timeToIdle > 0 && now - entry.lastAccess > timeToIdle;
+    if (!idle && now < entry.expiresAt) {
+      entry.lastAccess = now;
+      return entry.value;
+    }
+    if (!idle && now - entry.expiresAt < staleWhileRevalidate) {
+      if (allowStale && !entry.claimRefresh()) {
+        return entry.value;
+      }
+      return null;
+    }
+    removeStoredObject(key);
+    expirations.increment();
+    if (log.isDebugEnabled()) {
+      log("expired object", false, null);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the current invalidation stamp. An object loaded after taking the stamp is not served if the cache is flushed,
+   * or one of its tags invalidated, after the stamp was taken.
+   *
+   * @return the stamp
+   */
+  long getInvalidationStamp() {
+    return invalidationSequence.get();
+  }
+
+  /**
+   * Checks whether the cache was flushed, or one of the entry's tags invalidated, since the entry was loaded.
+   *
+   * @param entry
+   *          the entry
+   *
+   * @return true if the entry may no longer be served
+   */
+  private boolean isInvalidated(CacheEntry entry) {
+    if (flushStamp > entry.loadStamp) {
+      return true;
+    }
+    for (String dependency : entry.dependencies) {
+      Long stamp = invalidatedTags.get(dependency);
+      if (stamp != null && stamp > entry.loadStamp) {
+        return true;
       }
     }
+    return false;
+  }
+
+  /**
+   * Gets the tags whose invalidation invalidates an entry with the given tags.
+   *
+   * @param tags
+   *          the resolved tags of the entry (or null)
+   *
+   * @return the tags to check (or null if the entry never needs to be checked)
+   */
+  private String[] getDependencies(String[] tags) {
+    if (tags == null) {
+      return flushTriggerTags.isEmpty() ? null : new String[] { "" };
+    }
+    List<String> dependencies = new ArrayList<>();
+    for (String tag : tags) {
+      dependencies.add(tag);
+      int separator = tag.indexOf(CacheTags.ROW_SEPARATOR);
+      if (separator >= 0) {
+        // A row also depends on invalidations of its table as a whole
+        dependencies.add(tag.substring(0, separator + 1));
+      }
+    }
+    return dependencies.toArray(new String[dependencies.size()]);
+  }
+
+  /**
+   * Removes an expired or invalidated object from the controller. A clustered controller removes it from this JVM only.
+   *
+   * @param key
+   *          the key
+   */
+  private void removeStoredObject(CacheKey key) {
+    if (concurrentController) {
+      removeLocalObject(key);
+    } else {
+      synchronized (this) {
+        removeLocalObject(key);
+      }
+    }
+  }
+
+  private void removeLocalObject(CacheKey key) {
+    if (controller instanceof ClusteredCacheController) {
+      ((ClusteredCacheController) controller).removeLocalObject(this, key);
+    } else {
+      controller.removeObject(this, key);
+    }
+  }
+
+  /**
+   * Puts an object in its stored form into the controller.
+   *
+   * @param key
+   *          the key
+   * @param stored
+   *          the stored object
+   * @param tags
+   *          the resolved tags of the object (or null)
+   * @param loadStamp
+   *          the invalidation stamp taken before the object was loaded
+   */
+  void putStoredObject(CacheKey key, Object stored, String[] tags, long loadStamp) {
+    if (flushStamp > loadStamp) {
+      // loaded before the last flush, so it may be what the flush was meant to discard
+      return;
+    }
+    Object entry = stored;
+    String[] dependencies = getDependencies(tags);
+    if (timeToLive > 0 || timeToIdle > 0 || dependencies != null) {
+      long now = clock.getAsLong();
+      entry = new CacheEntry(stored, timeToLive > 0 ? now + timeToLive : Long.MAX_VALUE, now, dependencies,
+          loadStamp);
+    }
+    if (concurrentController) {
+      controller.putObject(this, key, entry);
+    } else {
+      synchronized (this) {
+        controller.putObject(this, key, entry);
+      }
+    }
+    puts.increment();
+    if (log.isDebugEnabled()) {
+      log("stored object", true, stored);
+    }
+  }
+
+  /**
+   * Converts an object into the form it is stored in, serializing it if this is a serialized read-write cache.
+   *
+   * @param value
+   *          the value
+   *
+   * @return the stored form
+   */
+  Object toStoredValue(Object value) {
+    if (null == value) {
+      return NULL_OBJECT;
+    }
+    if (serialize && !readOnly) {
+      try {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(value);
+        oos.flush();
+        oos.close();
+        return bos.toByteArray();
+      } catch (IOException e) {
+        throw new RuntimeException("Error caching serializable object.  Cause: " + e, e);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Converts a stored object back into a value, deserializing a private copy if this is a serialized read-write cache.
+   *
+   * @param stored
+   *          the stored object
+   *
+   * @return the value
+   */
+  private Object toCachedValue(Object stored) {
+    if (serialize && !readOnly && stored != NULL_OBJECT && stored != null) {
+      try {
+        ByteArrayInputStream bis = new ByteArrayInputStream((byte[]) stored);
+        ObjectInputStream ois = new ObjectInputStream(bis);
+        Object value = ois.readObject();
+        ois.close();
+        return value;
+      } catch (Exception e) {
+        throw new RuntimeException("Error caching serializable object.  Be sure you're not attempting to use "
+            + "a serialized cache for an object that may be taking advantage of lazy loading.  Cause: " + e, e);
+      }
+    }
+    return stored;
+  }
+
+  /**
+   * Gets the object a cache model handed to its controller, without the expiry and tag information the model may have
+   * wrapped it in. Controllers that look at cached objects, for example to weigh them, should look at this value.
+   *
+   * @param entry
+   *          the object the controller was asked to store
+   *
+   * @return the stored object
+   */
+  public static Object getStoredValue(Object entry) {
+    return entry instanceof CacheEntry ? ((CacheEntry) entry).value : entry;
+  }
+
+  private static Object nullIfNullObject(Object value) {
+    return value == NULL_OBJECT ? null : value;
+  }
+
+  /**
+   * Flushes the cache if the flush interval has elapsed, unless another thread has just done so.
+   */
+  private synchronized void flushIfExpired() {
+    if (clock.getAsLong() - lastFlush > flushInterval) {
+      flush(FLUSH_INTERVAL);
+    }
   }
 
   /**
@@ -403,4 +1212,141 @@ public class CacheModel implements ExecuteListener {
   public void setControllerProperties(Properties cacheProps) {
     controller.setProperties(cacheProps);
   }
+
+  /**
+   * A cached object together with the times it expires at and the tags it was cached with.
+   */
+  static class CacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The stored object. */
+    private final Object value;
+
+    /** The time the entry's time to live ends. */
+    private final long expiresAt;
+
+    /** The time the entry was last requested. */
+    private volatile long lastAccess;
+
+    /** Set once a caller has taken on refreshing the stale entry. */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /** The tags whose invalidation invalidates the entry, or null. */
+    private final String[] dependencies;
+
+    /** The invalidation stamp taken before the object was loaded. */
+    private final long loadStamp;
+
+    CacheEntry(Object value, long expiresAt, long lastAccess, String[] dependencies, long loadStamp) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.lastAccess = lastAccess;
+      this.dependencies = dependencies;
+      this.loadStamp = loadStamp;
+    }
+
+    Object getValue() {
+      return value;
+    }
+
+    long getExpiresAt() {
+      return expiresAt;
+    }
+
+    long getLastAccess() {
+      return lastAccess;
+    }
+
+    String[] getDependencies() {
+      return dependencies;
+    }
+
+    long getLoadStamp() {
+      return loadStamp;
+    }
+
+    /**
+     * Restores the identity of a cached null when an entry is read back from a controller that serializes it.
+     *
+     * @return the entry
+     */
+    private Object readResolve() {
+      if (value != NULL_OBJECT && NULL_OBJECT.equals(value)) {
+        return new CacheEntry(NULL_OBJECT, expiresAt, lastAccess, dependencies, loadStamp);
+      }
+      return this;
+    }
+
+    /**
+     * Claims the refresh of a stale entry.
+     *
+     * @return true if the caller is the first to claim it
+     */
+    boolean claimRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
+  }
+
+  /**
+   * Receives an object loaded after a miss, in its stored form.
+   */
+  interface LoadSink {
+
+    /**
+     * Takes a loaded object.
+     *
+     * @param key
+     *          the key
+     * @param stored
+     *          the stored object
+     * @param tags
+     *          the resolved tags of the object (or null)
+     * @param loadStamp
+     *          the invalidation stamp taken before the object was loaded
+     */
+    void put(CacheKey key, Object stored, String[] tags, long loadStamp);
+  }
+
+  /**
+   * A load in progress that other threads missing on the same key can wait for.
+   */
+  private static class PendingLoad {
+
+    /** Released when the load has finished, successfully or not. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** The stored form of the loaded object, or null if the load failed. */
+    private volatile Object stored;
+
+    void complete(Object stored) {
+      this.stored = stored;
+    }
+
+    void release() {
+      done.countDown();
+    }
+
+    /**
+     * Waits for the load to finish.
+     *
+     * @param timeout
+     *          the maximum time to wait in milliseconds, or 0 to wait until the load finishes
+     *
+     * @return the stored form of the loaded object, or null if the load failed or did not finish in time
+     */
+    Object await(long timeout) {
+      try {
+        if (timeout > 0) {
+          done.await(timeout, TimeUnit.MILLISECONDS);
+        } else {
+          done.await();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return stored;
+    }
+  }
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.util.Map;
+
+/**
+ * Publishes the live statistics of a cache model over JMX, so that the cache model itself is not registered as an
+ * MBean.
+ */
+public final class CacheModelStatistics implements CacheStatisticsMXBean {
+
+  /** The cache model. */
+  private final CacheModel cacheModel;
+
+  /**
+   * Instantiates a new cache model statistics MBean.
+   *
+   * @param cacheModel
+   *          the cache model
+   */
+  public CacheModelStatistics(CacheModel cacheModel) {
+    this.cacheModel = cacheModel;
+  }
+
+  @Override
+  public String getCacheModelId() {
+    return cacheModel.getId();
+  }
+
+  @Override
+  public long getRequests() {
+    return cacheModel.getRequests();
+  }
+
+  @Override
+  public long getHits() {
+    return cacheModel.getHits();
+  }
+
+  @Override
+  public long getMisses() {
+    long hits = cacheModel.getHits();
+    return Math.max(0, cacheModel.getRequests() - hits);
+  }
+
+  @Override
+  public double getHitRatio() {
+    return cacheModel.getHitRatio();
+  }
+
+  @Override
+  public long getPuts() {
+    return cacheModel.getPuts();
+  }
+
+  @Override
+  public long getLoads() {
+    return cacheModel.getLoads();
+  }
+
+  @Override
+  public double getAverageLoadMillis() {
+    return cacheModel.getAverageLoadMillis();
+  }
+
+  @Override
+  public long getSize() {
+    return cacheModel.getSize();
+  }
+
+  @Override
+  public long getWeight() {
+    return cacheModel.getWeight();
+  }
+
+  @Override
+  public Map<String, Long> getEvictions() {
+    return cacheModel.getEvictions();
+  }
+
+  @Override
+  public Map<String, Long> getFlushes() {
+    return cacheModel.getFlushes();
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Turns cached objects into bytes and back, for cache controllers that keep their entries outside the Java heap or
+ * outside the JVM.
+ * <p>
+ * A serializer must be able to round-trip any serializable object, including the wrappers a cache model stores its
+ * entries in; it may handle the types it knows best itself and fall back to Java serialization for the rest.
+ */
+public interface CacheSerializer {
+
+  /**
+   * Serialize an object.
+   *
+   * @param value
+   *          - the object
+   *
+   * @return the bytes
+   *
+   * @throws IOException
+   *           if the object cannot be serialized
+   */
+  byte[] serialize(Object value) throws IOException;
+
+  /**
+   * Deserialize an object.
+   *
+   * @param bytes
+   *          - the bytes
+   *
+   * @return the object
+   *
+   * @throws IOException
+   *           if the bytes cannot be deserialized
+   */
+  Object deserialize(byte[] bytes) throws IOException;
+
+  /**
+   * Configure a cache serializer.
+   *
+   * @param props
+   *          - the properties object containing configuration information
+   */
+  void setProperties(Properties props);
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A snapshot of the statistics of a cache model.
+ *
+ * @see CacheModel#getStatistics()
+ */
+public class CacheStatistics implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The cache model id. */
+  private final String cacheModelId;
+
+  /** The requests. */
+  private final long requests;
+
+  /** The hits. */
+  private final long hits;
+
+  /** The puts. */
+  private final long puts;
+
+  /** The loads. */
+  private final long loads;
+
+  /** The average load time in milliseconds. */
+  private final double averageLoadMillis;
+
+  /** The size. */
+  private final long size;
+
+  /** The weight. */
+  private final long weight;
+
+  /** The evictions by cause. */
+  private final Map<String, Long> evictions;
+
+  /** The flushes by trigger. */
+  private final Map<String, Long> flushes;
+
+  /**
+   * Instantiates a new cache statistics snapshot.
+   *
+   * @param model
+   *          the cache model to take the snapshot of
+   */
+  CacheStatistics(CacheModel model) {
+    this.cacheModelId = model.getId();
+    this.hits = model.getHits();
+    // read after the hits, so that a concurrent request never makes the hits exceed the requests
+    this.requests = Math.max(model.getRequests(), hits);
+    this.puts = model.getPuts();
+    this.loads = model.getLoads();
+    this.averageLoadMillis = model.getAverageLoadMillis();
+    this.size = model.getSize();
+    this.weight = model.getWeight();
+    this.evictions = Collections.unmodifiableMap(model.getEvictions());
+    this.flushes = Collections.unmodifiableMap(model.getFlushes());
+  }
+
+  /**
+   * Gets the cache model id.
+   *
+   * @return the id
+   */
+  public String getCacheModelId() {
+    return cacheModelId;
+  }
+
+  /**
+   * Gets the number of requests.
+   *
+   * @return the requests
+   */
+  public long getRequests() {
+    return requests;
+  }
+
+  /**
+   * Gets the number of hits.
+   *
+   * @return the hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of misses.
+   *
+   * @return the misses
+   */
+  public long getMisses() {
+    return requests - hits;
+  }
+
+  /**
+   * Gets the hit ratio.
+   *
+   * @return the hits divided by the requests, or 0 if there were no requests
+   */
+  public double getHitRatio() {
+    return requests == 0 ? 0 : (double) hits / (double) requests;
+  }
+
+  /**
+   * Gets the number of objects added to the cache.
+   *
+   * @return the puts
+   */
+  public long getPuts() {
+    return puts;
+  }
+
+  /**
+   * Gets the number of objects loaded after a miss.
+   *
+   * @return the loads
+   */
+  public long getLoads() {
+    return loads;
+  }
+
+  /**
+   * Gets the average time a load after a miss took.
+   *
+   * @return the average load time in milliseconds
+   */
+  public double getAverageLoadMillis() {
+    return averageLoadMillis;
+  }
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the number of entries, or -1 if the cache controller does not report it
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the memory taken by the cached entries.
+   *
+   * @return the (estimated) weight in bytes, or 0 if the cache controller does not track it
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Gets the number of entries dropped, by cause.
+   *
+   * @return the evictions by cause
+   *
+   * @see CacheStatisticsMXBean#getEvictions()
+   */
+  public Map<String, Long> getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Gets the number of times the whole cache was flushed, by trigger.
+   *
+   * @return the flushes by trigger
+   *
+   * @see CacheStatisticsMXBean#getFlushes()
+   */
+  public Map<String, Long> getFlushes() {
+    return flushes;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics[" + cacheModelId + ": requests=" + requests + ", hits=" + hits + ", puts=" + puts
+        + ", loads=" + loads + ", averageLoadMillis=" + averageLoadMillis + ", size=" + size + ", weight=" + weight
+        + ", evictions=" + evictions + ", flushes=" + flushes + "]";
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.util.Map;
+
+/**
+ * The statistics of a cache model, as published over JMX.
+ *
+ * @see CacheStatistics
+ */
+public interface CacheStatisticsMXBean {
+
+  /**
+   * Gets the cache model id.
+   *
+   * @return the id
+   */
+  String getCacheModelId();
+
+  /**
+   * Gets the number of requests.
+   *
+   * @return the requests
+   */
+  long getRequests();
+
+  /**
+   * Gets the number of hits.
+   *
+   * @return the hits
+   */
+  long getHits();
+
+  /**
+   * Gets the number of misses.
+   *
+   * @return the misses
+   */
+  long getMisses();
+
+  /**
+   * Gets the hit ratio.
+   *
+   * @return the hits divided by the requests, or 0 if there were no requests
+   */
+  double getHitRatio();
+
+  /**
+   * Gets the number of objects added to the cache.
+   *
+   * @return the puts
+   */
+  long getPuts();
+
+  /**
+   * Gets the number of objects loaded after a miss.
+   *
+   * @return the loads
+   */
+  long getLoads();
+
+  /**
+   * Gets the average time a load after a miss took.
+   *
+   * @return the average load time in milliseconds
+   */
+  double getAverageLoadMillis();
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the number of entries, or -1 if the cache controller does not report it
+   */
+  long getSize();
+
+  /**
+   * Gets the memory taken by the cached entries.
+   *
+   * @return the (estimated) weight in bytes, or 0 if the cache controller does not track it
+   */
+  long getWeight();
+
+  /**
+   * Gets the number of entries dropped, by cause: <code>size</code> for entries the cache controller evicted to make
+   * room, <code>expired</code> for entries past their time to live or time to idle, and <code>invalidated</code> for
+   * entries dropped by a tagged flush trigger statement.
+   *
+   * @return the evictions by cause
+   */
+  Map<String, Long> getEvictions();
+
+  /**
+   * Gets the number of times the whole cache was flushed, by trigger: the id of a flush trigger statement,
+   * <code>flushInterval</code>, <code>flushDataCache</code> for flushes requested through the API, or
+   * <code>invalidatedTags</code> when too many tags were invalidated to keep track of.
+   *
+   * @return the flushes by trigger
+   */
+  Map<String, Long> getFlushes();
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import com.ibatis.common.beans.ClassInfo;
+import com.ibatis.common.beans.ProbeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * The tags of a statement, naming the tables (and optionally the rows) its cached results depend on, or that it
+ * changes.
+ * <p>
+ * Tags are written as a comma separated list. A tag is either a table name, such as <code>ACCOUNT</code>, or a table
+ * name and a parameter property identifying a row, such as <code>ACCOUNT:id</code>. A row tag is resolved against the
+ * parameter object of each execution; for simple parameters such as an Integer the parameter itself is the row value.
+ */
+public class CacheTags {
+
+  /** The separator between a table and a row property. */
+  public static final char ROW_SEPARATOR = ':';
+
+  /** The tables. */
+  private final String[] tables;
+
+  /** The row properties, null for table tags. */
+  private final String[] properties;
+
+  /**
+   * Instantiates new cache tags.
+   *
+   * @param tables
+   *          the tables
+   * @param properties
+   *          the row properties, with null entries for table tags
+   */
+  private CacheTags(String[] tables, String[] properties) {
+    this.tables = tables;
+    this.properties = properties;
+  }
+
+  /**
+   * Parses a comma separated list of tags.
+   *
+   * @param tags
+   *          the tags
+   *
+   * @return the cache tags
+   */
+  public static CacheTags parse(String tags) {
+    List<String> tableList = new ArrayList<>();
+    List<String> propertyList = new ArrayList<>();
+    StringTokenizer parser = new StringTokenizer(tags, ",", false);
+    while (parser.hasMoreTokens()) {
+      String tag = parser.nextToken().trim();
+      if (tag.isEmpty()) {
+        continue;
+      }
+      int separator = tag.indexOf(ROW_SEPARATOR);
+      if (separator < 0) {
+        tableList.add(tag);
+        propertyList.add(null);
+      } else {
+        tableList.add(tag.substring(0, separator).trim());
+        propertyList.add(tag.substring(separator + 1).trim());
+      }
+    }
+    if (tableList.isEmpty()) {
+      throw new RuntimeException("Cache tags '" + tags + "' do not name any table.");
+    }
+    return new CacheTags(tableList.toArray(new String[tableList.size()]),
+        propertyList.toArray(new String[propertyList.size()]));
+  }
+
+  /**
+   * Resolves the tags for one execution of a statement. A row tag whose property is null for the parameter object
+   * resolves to its table tag.
+   *
+   * @param parameterObject
+   *          the parameter object
+   *
+   * @return the resolved tags, either <code>TABLE</code> or <code>TABLE:value</code>
+   */
+  public String[] resolve(Object parameterObject) {
+    String[] resolved = new String[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      Object value = properties[i] == null ? null : getRowValue(parameterObject, properties[i]);
+      resolved[i] = value == null ? tables[i] : tables[i] + ROW_SEPARATOR + value;
+    }
+    return resolved;
+  }
+
+  /**
+   * Gets the value identifying a row from the parameter object.
+   *
+   * @param parameterObject
+   *          the parameter object
+   * @param property
+   *          the property
+   *
+   * @return the value (or null)
+   */
+  private static Object getRowValue(Object parameterObject, String property) {
+    if (parameterObject == null) {
+      return null;
+    }
+    if (!(parameterObject instanceof Map) && ClassInfo.isKnownType(parameterObject.getClass())) {
+      return parameterObject;
+    }
+    return ProbeFactory.getProbe(parameterObject).getObject(parameterObject, property);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < tables.length; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(tables[i]);
+      if (properties[i] != null) {
+        builder.append(ROW_SEPARATOR).append(properties[i]);
+      }
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.util.Properties;
+
+/**
+ * Estimates how much memory a cached object takes, so that a cache controller can hold a cache model to a memory budget
+ * instead of an entry count.
+ */
+public interface CacheWeigher {
+
+  /**
+   * Estimate the weight of a cached object.
+   *
+   * @param key
+   *          - the key to the object
+   * @param value
+   *          - the object as stored by the cache model (a byte array for serialized read-write models)
+   *
+   * @return the estimated weight in bytes, never negative
+   */
+  long weigh(Object key, Object value);
+
+  /**
+   * Configure a cache weigher.
+   *
+   * @param props
+   *          - the properties of the cache model using the weigher
+   */
+  void setProperties(Properties props);
+
+}
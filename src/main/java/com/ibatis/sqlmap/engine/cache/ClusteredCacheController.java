@@ -0,0 +1,58 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+/**
+ * A cache controller whose cache models have peers in other JVMs. Besides the usual controller calls, the cache model
+ * tells the controller which model it serves and which tags it invalidated, so that the controller can pass flushes
+ * and invalidations on to the peers.
+ * <p>
+ * Flushes and invalidations received from peers are applied with {@link CacheModel#applyPeerFlush()} and
+ * {@link CacheModel#applyPeerInvalidation(String...)}, which do not call back into the controller. Entries the cache
+ * model drops because they expired or were invalidated are removed with {@link #removeLocalObject(CacheModel, Object)},
+ * since the peers judge their own copies.
+ */
+public interface ClusteredCacheController extends CacheController {
+
+  /**
+   * Called once the controller is set on a cache model.
+   *
+   * @param cacheModel
+   *          - the model the controller serves
+   */
+  void attach(CacheModel cacheModel);
+
+  /**
+   * Called after the cache model invalidated tags on behalf of this JVM.
+   *
+   * @param cacheModel
+   *          - the model
+   * @param tags
+   *          - the invalidated tags
+   */
+  void invalidate(CacheModel cacheModel, String[] tags);
+
+  /**
+   * Removes an object from this JVM only, without telling the peers.
+   *
+   * @param cacheModel
+   *          - the model to remove the object from
+   * @param key
+   *          - the key to the object
+   */
+  void removeLocalObject(CacheModel cacheModel, Object key);
+
+}
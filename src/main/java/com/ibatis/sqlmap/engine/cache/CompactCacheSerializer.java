@@ -0,0 +1,437 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Serializer for the results sql maps typically produce: scalars, strings, dates, byte arrays and lists and maps of
+ * them, such as the rows of a <code>resultClass="map"</code> statement. These are written as a compact tagged binary
+ * format with no class descriptors, which is several times smaller and faster than Java serialization. Any other
+ * object, such as a result bean, is written with Java serialization as a whole. The expiry and tags a cache model
+ * keeps with an entry are written separately from its value, so the value keeps the compact format.
+ */
+public class CompactCacheSerializer implements CacheSerializer {
+
+  /** The tag of a null value. */
+  private static final int NULL = 0;
+
+  /** The tag of an object written with Java serialization. */
+  private static final int SERIALIZED = 1;
+
+  /** The tag of a string. */
+  private static final int STRING = 2;
+
+  /** The tag of an integer. */
+  private static final int INTEGER = 3;
+
+  /** The tag of a long. */
+  private static final int LONG = 4;
+
+  /** The tag of a double. */
+  private static final int DOUBLE = 5;
+
+  /** The tag of a float. */
+  private static final int FLOAT = 6;
+
+  /** The tag of a short. */
+  private static final int SHORT = 7;
+
+  /** The tag of a byte. */
+  private static final int BYTE = 8;
+
+  /** The tag of a boolean. */
+  private static final int BOOLEAN = 9;
+
+  /** The tag of a character. */
+  private static final int CHARACTER = 10;
+
+  /** The tag of a big decimal. */
+  private static final int BIG_DECIMAL = 11;
+
+  /** The tag of a big integer. */
+  private static final int BIG_INTEGER = 12;
+
+  /** The tag of a date. */
+  private static final int DATE = 13;
+
+  /** The tag of a sql date. */
+  private static final int SQL_DATE = 14;
+
+  /** The tag of a time. */
+  private static final int TIME = 15;
+
+  /** The tag of a timestamp. */
+  private static final int TIMESTAMP = 16;
+
+  /** The tag of a bytes. */
+  private static final int BYTES = 17;
+
+  /** The tag of a array list. */
+  private static final int ARRAY_LIST = 18;
+
+  /** The tag of a hash map. */
+  private static final int HASH_MAP = 19;
+
+  /** The tag of a linked hash map. */
+  private static final int LINKED_HASH_MAP = 20;
+
+  /** The tag of a value with the expiry and tags of its cache entry. */
+  private static final int CACHE_ENTRY = 21;
+
+  /** The serializer for objects the compact format does not cover. */
+  private final CacheSerializer fallback = new JavaCacheSerializer();
+
+  @Override
+  public byte[] serialize(Object value) throws IOException {
+    if (value instanceof CacheModel.CacheEntry) {
+      return serializeEntry((CacheModel.CacheEntry) value);
+    }
+    if (!isCompact(value)) {
+      byte[] serialized = fallback.serialize(value);
+      byte[] bytes = new byte[serialized.length + 1];
+      bytes[0] = SERIALIZED;
+      System.arraycopy(serialized, 0, bytes, 1, serialized.length);
+      return bytes;
+    }
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bos);
+    write(out, value);
+    out.flush();
+    return bos.toByteArray();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws IOException {
+    if (bytes[0] == CACHE_ENTRY) {
+      return deserializeEntry(new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1)));
+    }
+    if (bytes[0] == SERIALIZED) {
+      byte[] serialized = new byte[bytes.length - 1];
+      System.arraycopy(bytes, 1, serialized, 0, serialized.length);
+      return fallback.deserialize(serialized);
+    }
+    return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  @Override
+  public void setProperties(Properties props) {
+    // No properties
+  }
+
+  /**
+   * Writes a cache entry: its expiry, tags and load stamp, followed by its value in its own serialized form.
+   *
+   * @param entry
+   *          the entry
+   *
+   * @return the bytes
+   *
+   * @throws IOException
+   *           if the value cannot be serialized
+   */
+  private byte[] serializeEntry(CacheModel.CacheEntry entry) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bos);
+    out.writeByte(CACHE_ENTRY);
+    out.writeLong(entry.getExpiresAt());
+    out.writeLong(entry.getLastAccess());
+    out.writeLong(entry.getLoadStamp());
+    String[] dependencies = entry.getDependencies();
+    out.writeInt(dependencies == null ? -1 : dependencies.length);
+    if (dependencies != null) {
+      for (String dependency : dependencies) {
+        writeBytes(out, dependency.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    writeBytes(out, serialize(entry.getValue()));
+    out.flush();
+    return bos.toByteArray();
+  }
+
+  /**
+   * Reads a cache entry written by {@link #serializeEntry(CacheModel.CacheEntry)}.
+   *
+   * @param in
+   *          the input, positioned after the tag
+   *
+   * @return the entry
+   *
+   * @throws IOException
+   *           if the value cannot be deserialized
+   */
+  private Object deserializeEntry(DataInputStream in) throws IOException {
+    long expiresAt = in.readLong();
+    long lastAccess = in.readLong();
+    long loadStamp = in.readLong();
+    int count = in.readInt();
+    String[] dependencies = count < 0 ? null : new String[count];
+    for (int i = 0; i < count; i++) {
+      dependencies[i] = new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+    Object value = deserialize(readBytes(in));
+    if (CacheModel.NULL_OBJECT.equals(value)) {
+      value = CacheModel.NULL_OBJECT;
+    }
+    return new CacheModel.CacheEntry(value, expiresAt, lastAccess, dependencies, loadStamp);
+  }
+
+  /**
+   * Checks whether an object, and everything it contains, can be written in the compact format.
+   *
+   * @param value
+   *          the value
+   *
+   * @return true if it can
+   */
+  private static boolean isCompact(Object value) {
+    if (value == null) {
+      return true;
+    }
+    Class<?> type = value.getClass();
+    if (type == ArrayList.class) {
+      return isCompact((Collection<?>) value);
+    }
+    if (type == HashMap.class || type == LinkedHashMap.class) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      return isCompact(map.keySet()) && isCompact(map.values());
+    }
+    return tagOf(type) != SERIALIZED;
+  }
+
+  private static boolean isCompact(Collection<?> values) {
+    for (Object element : values) {
+      if (!isCompact(element)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the tag of a scalar type.
+   *
+   * @param type
+   *          the type
+   *
+   * @return the tag, or SERIALIZED if the type is not a scalar of the compact format
+   */
+  private static int tagOf(Class<?> type) {
+    if (type == String.class) {
+      return STRING;
+    } else if (type == Integer.class) {
+      return INTEGER;
+    } else if (type == Long.class) {
+      return LONG;
+    } else if (type == Double.class) {
+      return DOUBLE;
+    } else if (type == Float.class) {
+      return FLOAT;
+    } else if (type == Short.class) {
+      return SHORT;
+    } else if (type == Byte.class) {
+      return BYTE;
+    } else if (type == Boolean.class) {
+      return BOOLEAN;
+    } else if (type == Character.class) {
+      return CHARACTER;
+    } else if (type == BigDecimal.class) {
+      return BIG_DECIMAL;
+    } else if (type == BigInteger.class) {
+      return BIG_INTEGER;
+    } else if (type == Date.class) {
+      return DATE;
+    } else if (type == java.sql.Date.class) {
+      return SQL_DATE;
+    } else if (type == Time.class) {
+      return TIME;
+    } else if (type == Timestamp.class) {
+      return TIMESTAMP;
+    } else if (type == byte[].class) {
+      return BYTES;
+    } else if (type == ArrayList.class) {
+      return ARRAY_LIST;
+    } else if (type == HashMap.class) {
+      return HASH_MAP;
+    } else if (type == LinkedHashMap.class) {
+      return LINKED_HASH_MAP;
+    }
+    return SERIALIZED;
+  }
+
+  private static void write(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    int tag = tagOf(value.getClass());
+    out.writeByte(tag);
+    switch (tag) {
+      case STRING:
+        writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        break;
+      case INTEGER:
+        out.writeInt((Integer) value);
+        break;
+      case LONG:
+        out.writeLong((Long) value);
+        break;
+      case DOUBLE:
+        out.writeDouble((Double) value);
+        break;
+      case FLOAT:
+        out.writeFloat((Float) value);
+        break;
+      case SHORT:
+        out.writeShort((Short) value);
+        break;
+      case BYTE:
+        out.writeByte((Byte) value);
+        break;
+      case BOOLEAN:
+        out.writeBoolean((Boolean) value);
+        break;
+      case CHARACTER:
+        out.writeChar((Character) value);
+        break;
+      case BIG_DECIMAL:
+        writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+        out.writeInt(((BigDecimal) value).scale());
+        break;
+      case BIG_INTEGER:
+        writeBytes(out, ((BigInteger) value).toByteArray());
+        break;
+      case DATE:
+      case SQL_DATE:
+      case TIME:
+        out.writeLong(((Date) value).getTime());
+        break;
+      case TIMESTAMP:
+        out.writeLong(((Timestamp) value).getTime());
+        out.writeInt(((Timestamp) value).getNanos());
+        break;
+      case BYTES:
+        writeBytes(out, (byte[]) value);
+        break;
+      case ARRAY_LIST:
+        List<?> list = (List<?>) value;
+        out.writeInt(list.size());
+        for (Object element : list) {
+          write(out, element);
+        }
+        break;
+      default:
+        Map<?, ?> map = (Map<?, ?>) value;
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          write(out, entry.getKey());
+          write(out, entry.getValue());
+        }
+        break;
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static Object read(DataInputStream in) throws IOException {
+    int tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case SHORT:
+        return in.readShort();
+      case BYTE:
+        return in.readByte();
+      case BOOLEAN:
+        return in.readBoolean();
+      case CHARACTER:
+        return in.readChar();
+      case BIG_DECIMAL:
+        BigInteger unscaled = new BigInteger(readBytes(in));
+        return new BigDecimal(unscaled, in.readInt());
+      case BIG_INTEGER:
+        return new BigInteger(readBytes(in));
+      case DATE:
+        return new Date(in.readLong());
+      case SQL_DATE:
+        return new java.sql.Date(in.readLong());
+      case TIME:
+        return new Time(in.readLong());
+      case TIMESTAMP:
+        Timestamp timestamp = new Timestamp(in.readLong());
+        timestamp.setNanos(in.readInt());
+        return timestamp;
+      case BYTES:
+        return readBytes(in);
+      case ARRAY_LIST:
+        int size = in.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(read(in));
+        }
+        return list;
+      case HASH_MAP:
+      case LINKED_HASH_MAP:
+        int entries = in.readInt();
+        Map<Object, Object> map = tag == HASH_MAP ? new HashMap<>(entries * 4 / 3 + 1)
+            : new LinkedHashMap<>(entries * 4 / 3 + 1);
+        for (int i = 0; i < entries; i++) {
+          Object key = read(in);
+          map.put(key, read(in));
+        }
+        return map;
+      default:
+        throw new IOException("Unknown tag " + tag + " in serialized cache entry.");
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+/**
+ * Marker for cache controllers that are safe for concurrent use without any external locking. The cache model calls
+ * these controllers without holding its own monitor, so hits on a hot cache model do not serialize on it.
+ * <p>
+ * Controllers that do not implement this interface are always called while the cache model monitor is held.
+ */
+public interface ConcurrentCacheController extends CacheController {
+
+}
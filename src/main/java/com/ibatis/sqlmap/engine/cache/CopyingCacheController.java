@@ -0,0 +1,24 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+/**
+ * A cache controller that hands out a new copy of an entry on every request, for example because it keeps entries in
+ * serialized form. Cache models cannot remember when such an entry was last requested or whether a caller is already
+ * refreshing it, so they reject a time to idle and a stale-while-revalidate window with these controllers.
+ */
+public interface CopyingCacheController extends CacheController {
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Weigher that estimates the size of cached results from their shape: serialized entries weigh their byte length, and
+ * lists and maps weigh their row or entry count times an average row weight.
+ */
+public class DefaultCacheWeigher implements CacheWeigher {
+
+  /** The default weight of a row. */
+  private static final long DEFAULT_ROW_WEIGHT = 256;
+
+  /** The weight of an object header plus a reference. */
+  private static final long OVERHEAD = 16;
+
+  /** The row weight. */
+  private long rowWeight = DEFAULT_ROW_WEIGHT;
+
+  /**
+   * Configures the weigher
+   *
+   * @param props
+   *          Optionally can contain properties [row-weight=256]
+   */
+  @Override
+  public void setProperties(Properties props) {
+    String weight = props.getProperty("row-weight");
+    if (weight == null) {
+      weight = props.getProperty("rowWeight");
+    }
+    if (weight != null) {
+      rowWeight = Long.parseLong(weight);
+    }
+  }
+
+  @Override
+  public long weigh(Object key, Object value) {
+    if (value == null || value == CacheModel.NULL_OBJECT) {
+      return OVERHEAD;
+    }
+    if (value instanceof byte[]) {
+      return OVERHEAD + ((byte[]) value).length;
+    }
+    if (value instanceof CharSequence) {
+      return OVERHEAD + 2L * ((CharSequence) value).length();
+    }
+    if (value instanceof Collection) {
+      return OVERHEAD + ((Collection) value).size() * rowWeight;
+    }
+    if (value instanceof Map) {
+      // a single row mapped to a map; an entry weighs roughly a column
+      return OVERHEAD + ((Map) value).size() * (rowWeight / 8 + OVERHEAD);
+    }
+    return rowWeight;
+  }
+
+  /**
+   * Parses a weight in bytes, with an optional k, m or g suffix.
+   *
+   * @param weight
+   *          the weight
+   *
+   * @return the weight in bytes
+   */
+  public static long parseWeight(String weight) {
+    String value = weight.trim().toLowerCase(Locale.ENGLISH);
+    long unit = 1;
+    if (value.endsWith("b")) {
+      value = value.substring(0, value.length() - 1);
+    }
+    if (value.endsWith("k")) {
+      unit = 1024L;
+    } else if (value.endsWith("m")) {
+      unit = 1024L * 1024L;
+    } else if (value.endsWith("g")) {
+      unit = 1024L * 1024L * 1024L;
+    }
+    if (unit > 1) {
+      value = value.substring(0, value.length() - 1);
+    }
+    return Long.parseLong(value.trim()) * unit;
+  }
+
+}
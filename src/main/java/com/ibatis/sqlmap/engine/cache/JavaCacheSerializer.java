@@ -0,0 +1,53 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Properties;
+
+/**
+ * Serializer that uses Java serialization.
+ */
+public class JavaCacheSerializer implements CacheSerializer {
+
+  @Override
+  public byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(value);
+    }
+    return bos.toByteArray();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return ois.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Error deserializing cached object.  Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public void setProperties(Properties props) {
+    // No properties
+  }
+
+}
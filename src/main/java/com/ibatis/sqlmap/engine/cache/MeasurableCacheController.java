@@ -0,0 +1,45 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+/**
+ * A cache controller that can report how full it is and how many entries it had to evict. Cache models include these
+ * figures in their statistics.
+ */
+public interface MeasurableCacheController extends CacheController {
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the number of entries
+   */
+  long getSize();
+
+  /**
+   * Gets the memory taken by the cached entries.
+   *
+   * @return the (estimated) weight in bytes, or 0 if the controller does not track it
+   */
+  long getWeight();
+
+  /**
+   * Gets the number of entries evicted to make room for others since the controller was created.
+   *
+   * @return the number of evictions
+   */
+  long getEvictionCount();
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The first level cache of a session. Results read through a cache model during a transaction are kept here, so that
+ * repeated identical queries in the same transaction do not touch the shared cache at all, and results loaded from the
+ * database are only added to the shared cache model when the transaction commits.
+ * <p>
+ * Executing an update discards everything cached by the transaction, since later reads may see its uncommitted
+ * changes. Results loaded by a transaction that ends without committing are published only if the transaction did not
+ * execute any update; otherwise they are discarded as if rolled back.
+ * <p>
+ * Until the transaction executes an update, its misses are coalesced with concurrent misses of other sessions like
+ * any other miss of the cache model; only adding the result to the cache model waits for the commit.
+ * <p>
+ * A transaction cache belongs to a single session and is not thread safe.
+ */
+public class TransactionCache {
+
+  /** The cached results, by cache model. */
+  private Map<CacheModel, Map<CacheKey, Object>> entries;
+
+  /** The results to publish to their cache models when the transaction commits. */
+  private List<PendingPut> pendingPuts;
+
+  /** Whether the transaction executed an update. */
+  private boolean updated;
+
+  /**
+   * Gets a result cached by this transaction.
+   *
+   * @param cacheModel
+   *          the cache model
+   * @param key
+   *          the key
+   *
+   * @return the result, CacheModel.NULL_OBJECT for a cached null, or null if the result is not cached
+   */
+  public Object getObject(CacheModel cacheModel, CacheKey key) {
+    if (entries == null) {
+      return null;
+    }
+    Map<CacheKey, Object> modelEntries = entries.get(cacheModel);
+    return modelEntries == null ? null : modelEntries.get(key);
+  }
+
+  /**
+   * Keeps a result found in the shared cache model for the rest of the transaction.
+   *
+   * @param cacheModel
+   *          the cache model
+   * @param key
+   *          the key
+   * @param value
+   *          the result as returned by the cache model
+   */
+  public void putObject(CacheModel cacheModel, CacheKey key, Object value) {
+    if (sharesInstances(cacheModel)) {
+      entriesFor(cacheModel).put(key, value);
+    }
+  }
+
+  /**
+   * Loads a result that neither this transaction nor the shared cache model has cached. The result is kept for the
+   * rest of the transaction and added to the cache model when the transaction commits. After an update the load is not
+   * shared with other sessions, since the result may include the transaction's uncommitted changes.
+   *
+   * @param cacheModel
+   *          the cache model
+   * @param key
+   *          the key
+   * @param loader
+   *          the loader that produces the result
+   * @param tags
+   *          the resolved tags of the result (or null)
+   *
+   * @return the loaded result (or null)
+   *
+   * @throws SQLException
+   *           if the loader fails
+   */
+  public Object loadObject(CacheModel cacheModel, CacheKey key, CacheLoader loader, String[] tags)
+      throws SQLException {
+    Object value;
+    if (updated) {
+      long loadStamp = cacheModel.getInvalidationStamp();
+      value = cacheModel.load(loader);
+      addPendingPut(cacheModel, key, cacheModel.toStoredValue(value), tags, loadStamp);
+    } else {
+      value = cacheModel.loadObject(key, loader, tags,
+          (loadedKey, stored, loadedTags, loadStamp) -> addPendingPut(cacheModel, loadedKey, stored, loadedTags,
+              loadStamp));
+    }
+    if (sharesInstances(cacheModel)) {
+      entriesFor(cacheModel).put(key, value == null ? CacheModel.NULL_OBJECT : value);
+    }
+    return value;
+  }
+
+  /**
+   * Discards everything cached by the transaction, because it executed an update.
+   */
+  public void onUpdate() {
+    updated = true;
+    clear();
+  }
+
+  /**
+   * Publishes the results loaded by the transaction to their cache models, and starts over.
+   */
+  public void commit() {
+    publish();
+    updated = false;
+  }
+
+  /**
+   * Ends the transaction. Loaded results are published if the transaction did not execute an update, and discarded
+   * otherwise.
+   */
+  public void end() {
+    if (!updated) {
+      publish();
+    }
+    clear();
+    updated = false;
+  }
+
+  private void addPendingPut(CacheModel cacheModel, CacheKey key, Object stored, String[] tags, long loadStamp) {
+    if (pendingPuts == null) {
+      pendingPuts = new ArrayList<>();
+    }
+    pendingPuts.add(new PendingPut(cacheModel, key, stored, tags, loadStamp));
+  }
+
+  private void publish() {
+    if (pendingPuts != null) {
+      for (PendingPut put : pendingPuts) {
+        put.cacheModel.putStoredObject(put.key, put.stored, put.tags, put.loadStamp);
+      }
+    }
+    clear();
+  }
+
+  private void clear() {
+    entries = null;
+    pendingPuts = null;
+  }
+
+  private Map<CacheKey, Object> entriesFor(CacheModel cacheModel) {
+    if (entries == null) {
+      entries = new HashMap<>();
+    }
+    return entries.computeIfAbsent(cacheModel, k -> new HashMap<>());
+  }
+
+  /**
+   * Checks whether a cache model hands out the same instance on every hit; a serialized read-write model hands out a
+   * private copy each time, so its results are not kept by the transaction.
+   *
+   * @param cacheModel
+   *          the cache model
+   *
+   * @return true if the result instances may be kept
+   */
+  private static boolean sharesInstances(CacheModel cacheModel) {
+    return cacheModel.isReadOnly() || !cacheModel.isSerialize();
+  }
+
+  /**
+   * A result waiting for the transaction to commit.
+   */
+  private static class PendingPut {
+
+    /** The cache model. */
+    private final CacheModel cacheModel;
+
+    /** The key. */
+    private final CacheKey key;
+
+    /** The stored form of the result. */
+    private final Object stored;
+
+    /** The resolved tags. */
+    private final String[] tags;
+
+    /** The invalidation stamp taken before the result was loaded. */
+    private final long loadStamp;
+
+    PendingPut(CacheModel cacheModel, CacheKey key, Object stored, String[] tags, long loadStamp) {
+      this.cacheModel = cacheModel;
+      this.key = key;
+      this.stored = stored;
+      this.tags = tags;
+      this.loadStamp = loadStamp;
+    }
+  }
+
+}
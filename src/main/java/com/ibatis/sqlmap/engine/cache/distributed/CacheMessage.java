@@ -0,0 +1,109 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import java.io.Serializable;
+
+/**
+ * A flush, removal or invalidation that a distributed cache controller broadcasts to its peers.
+ */
+public class CacheMessage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The kind of message.
+   */
+  public enum Type {
+
+    /** The whole cache was flushed. */
+    FLUSH,
+
+    /** A single key was removed. */
+    REMOVE,
+
+    /** Tags were invalidated. */
+    INVALIDATE
+  }
+
+  /** The type. */
+  private final Type type;
+
+  /** The node that sent the message. */
+  private final String origin;
+
+  /** The removed key, for a removal. */
+  private final Object key;
+
+  /** The invalidated tags, for an invalidation. */
+  private final String[] tags;
+
+  /**
+   * Instantiates a new cache message.
+   *
+   * @param type
+   *          the type
+   * @param origin
+   *          the node that sends the message
+   * @param key
+   *          the removed key (or null)
+   * @param tags
+   *          the invalidated tags (or null)
+   */
+  public CacheMessage(Type type, String origin, Object key, String[] tags) {
+    this.type = type;
+    this.origin = origin;
+    this.key = key;
+    this.tags = tags;
+  }
+
+  /**
+   * Gets the type.
+   *
+   * @return the type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the node that sent the message.
+   *
+   * @return the node id
+   */
+  public String getOrigin() {
+    return origin;
+  }
+
+  /**
+   * Gets the removed key.
+   *
+   * @return the key (or null)
+   */
+  public Object getKey() {
+    return key;
+  }
+
+  /**
+   * Gets the invalidated tags.
+   *
+   * @return the tags (or null)
+   */
+  public String[] getTags() {
+    return tags;
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import java.util.Properties;
+
+/**
+ * A key-value store shared by the nodes of a cluster, which distributed cache controllers consult when their near
+ * cache misses. Values are passed as the bytes produced by the controller's serializer; keys are cache keys, which are
+ * serializable and equal across JVMs for the same statement and parameters.
+ * <p>
+ * Every cache model has its own region, named like its transport channel.
+ */
+public interface CacheStore {
+
+  /**
+   * Get the bytes of an entry.
+   *
+   * @param region
+   *          - the region
+   * @param key
+   *          - the key
+   *
+   * @return the bytes, or null if there is no entry
+   */
+  byte[] get(String region, Object key);
+
+  /**
+   * Put an entry.
+   *
+   * @param region
+   *          - the region
+   * @param key
+   *          - the key
+   * @param value
+   *          - the bytes
+   */
+  void put(String region, Object key, byte[] value);
+
+  /**
+   * Remove an entry.
+   *
+   * @param region
+   *          - the region
+   * @param key
+   *          - the key
+   */
+  void remove(String region, Object key);
+
+  /**
+   * Remove all entries of a region.
+   *
+   * @param region
+   *          - the region
+   */
+  void clear(String region);
+
+  /**
+   * Configure a cache store.
+   *
+   * @param props
+   *          - the properties object containing configuration information
+   */
+  void setProperties(Properties props);
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import java.util.Properties;
+
+/**
+ * Broadcasts cache messages between the nodes of a cluster. Every cache model has its own channel, named after the
+ * cache model unless configured otherwise, and every node subscribed to a channel receives the messages published on
+ * it.
+ * <p>
+ * Delivery is best effort: a node that misses a message serves entries it should have dropped until they expire or
+ * the cache is flushed again, so transports over a network should favour reliable delivery over latency.
+ */
+public interface CacheTransport {
+
+  /**
+   * Subscribe to a channel.
+   *
+   * @param channel
+   *          - the channel
+   * @param listener
+   *          - the listener to call for each message
+   */
+  void subscribe(String channel, CacheMessageListener listener);
+
+  /**
+   * Unsubscribe from a channel.
+   *
+   * @param channel
+   *          - the channel
+   * @param listener
+   *          - the listener passed when subscribing
+   */
+  void unsubscribe(String channel, CacheMessageListener listener);
+
+  /**
+   * Publish a message to every subscriber of a channel.
+   *
+   * @param channel
+   *          - the channel
+   * @param message
+   *          - the message
+   */
+  void publish(String channel, CacheMessage message);
+
+  /**
+   * Configure a cache transport.
+   *
+   * @param props
+   *          - the properties object containing configuration information
+   */
+  void setProperties(Properties props);
+
+}
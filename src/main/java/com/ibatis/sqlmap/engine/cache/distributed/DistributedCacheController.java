@@ -0,0 +1,342 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import com.ibatis.common.resources.Resources;
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheSerializer;
+import com.ibatis.sqlmap.engine.cache.ClusteredCacheController;
+import com.ibatis.sqlmap.engine.cache.CompactCacheSerializer;
+import com.ibatis.sqlmap.engine.cache.ConcurrentCacheController;
+import com.ibatis.sqlmap.engine.cache.JavaCacheSerializer;
+import com.ibatis.sqlmap.engine.cache.MeasurableCacheController;
+import com.ibatis.sqlmap.engine.cache.lru.ConcurrentLruCacheController;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Cache controller for cache models that run on several nodes at once. Each node keeps a near cache (a
+ * {@link ConcurrentLruCacheController}) and broadcasts its flushes, removals and tag invalidations over a
+ * {@link CacheTransport}, so that a write on one node no longer leaves the other nodes serving stale results.
+ * Optionally the near caches sit in front of a {@link CacheStore} shared by all nodes, so that an entry loaded by one
+ * node is a hit for the others.
+ * <p>
+ * The shared store has no index of tags, so a tag invalidation clears the store region as a whole; the near caches
+ * still drop only the entries that depend on the invalidated tags.
+ */
+public class DistributedCacheController
+    implements ClusteredCacheController, ConcurrentCacheController, MeasurableCacheController, CacheMessageListener {
+
+  /** The id of this node. */
+  private final String nodeId = UUID.randomUUID().toString();
+
+  /** The near cache. */
+  private final ConcurrentLruCacheController nearCache = new ConcurrentLruCacheController();
+
+  /** The transport. */
+  private CacheTransport transport;
+
+  /** The shared store, or null for near caches only. */
+  private CacheStore store;
+
+  /** The serializer for entries in the shared store. */
+  private CacheSerializer serializer;
+
+  /** The configured channel, or null to use the cache model id. */
+  private String channelName;
+
+  /** The channel the controller is subscribed to, or null. */
+  private String channel;
+
+  /** The cache model. */
+  private CacheModel cacheModel;
+
+  /**
+   * Default constructor. Broadcasts over an {@link InProcessCacheTransport}, without a shared store.
+   */
+  public DistributedCacheController() {
+    this.transport = new InProcessCacheTransport();
+    this.serializer = new CompactCacheSerializer();
+  }
+
+  /**
+   * Sets the transport.
+   *
+   * @param transport
+   *          the new transport
+   */
+  public synchronized void setTransport(CacheTransport transport) {
+    unsubscribe();
+    this.transport = transport;
+    subscribe();
+  }
+
+  /**
+   * Sets the shared store.
+   *
+   * @param store
+   *          the new store (or null for near caches only)
+   */
+  public void setStore(CacheStore store) {
+    this.store = store;
+  }
+
+  /**
+   * Gets the id of this node.
+   *
+   * @return the node id
+   */
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public long getSize() {
+    return nearCache.getSize();
+  }
+
+  @Override
+  public long getWeight() {
+    return nearCache.getWeight();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return nearCache.getEvictionCount();
+  }
+
+  @Override
+  public synchronized void attach(CacheModel cacheModel) {
+    this.cacheModel = cacheModel;
+    unsubscribe();
+    subscribe();
+  }
+
+  /**
+   * Configures the cache
+   *
+   * @param props
+   *          Optionally can contain properties [channel=cache model id] [transport=inprocess|class name]
+   *          [store=none|inprocess|class name] [serializer=compact|java|class name] and any properties of the near
+   *          cache (such as size), the transport, the store and the serializer.
+   */
+  @Override
+  public synchronized void setProperties(Properties props) {
+    String transportClass = props.getProperty("transport");
+    String storeClass = props.getProperty("store");
+    String serializerClass = props.getProperty("serializer");
+
+    unsubscribe();
+    channelName = props.getProperty("channel");
+    if ("inprocess".equalsIgnoreCase(transportClass)) {
+      transport = new InProcessCacheTransport();
+    } else if (transportClass != null) {
+      transport = (CacheTransport) instantiate("transport", transportClass);
+    }
+    if (storeClass == null || "none".equalsIgnoreCase(storeClass)) {
+      store = null;
+    } else if ("inprocess".equalsIgnoreCase(storeClass)) {
+      store = new InProcessCacheStore();
+    } else {
+      store = (CacheStore) instantiate("store", storeClass);
+    }
+    if ("compact".equalsIgnoreCase(serializerClass)) {
+      serializer = new CompactCacheSerializer();
+    } else if ("java".equalsIgnoreCase(serializerClass)) {
+      serializer = new JavaCacheSerializer();
+    } else if (serializerClass != null) {
+      serializer = (CacheSerializer) instantiate("serializer", serializerClass);
+    }
+    nearCache.setProperties(props);
+    transport.setProperties(props);
+    if (store != null) {
+      store.setProperties(props);
+    }
+    serializer.setProperties(props);
+    subscribe();
+  }
+
+  /**
+   * Add an object to the cache
+   *
+   * @param cacheModel
+   *          The cacheModel
+   * @param key
+   *          The key of the object to be cached
+   * @param value
+   *          The object to be cached
+   */
+  @Override
+  public void putObject(CacheModel cacheModel, Object key, Object value) {
+    nearCache.putObject(cacheModel, key, value);
+    if (store != null) {
+      try {
+        store.put(channelFor(cacheModel), key, serializer.serialize(value));
+      } catch (IOException e) {
+        throw new RuntimeException("Error serializing object for distributed cache.  Cause: " + e, e);
+      }
+    }
+  }
+
+  /**
+   * Get an object out of the cache. A miss in the near cache is looked up in the shared store, if there is one.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be returned
+   *
+   * @return The cached object (or null)
+   */
+  @Override
+  public Object getObject(CacheModel cacheModel, Object key) {
+    Object value = nearCache.getObject(cacheModel, key);
+    if (value == null && store != null) {
+      byte[] bytes = store.get(channelFor(cacheModel), key);
+      if (bytes != null) {
+        try {
+          value = cacheModel.adoptStoredValue(serializer.deserialize(bytes));
+        } catch (IOException e) {
+          throw new RuntimeException("Error deserializing object from distributed cache.  Cause: " + e, e);
+        }
+        nearCache.putObject(cacheModel, key, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Removes an object from the cache on this node, from the shared store and on the peers.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be removed
+   *
+   * @return The removed object (or null)
+   */
+  @Override
+  public Object removeObject(CacheModel cacheModel, Object key) {
+    Object value = nearCache.removeObject(cacheModel, key);
+    if (store != null) {
+      store.remove(channelFor(cacheModel), key);
+    }
+    transport.publish(channelFor(cacheModel), new CacheMessage(CacheMessage.Type.REMOVE, nodeId, key, null));
+    return value;
+  }
+
+  /**
+   * Removes an object from the near cache of this node, for example because it expired here. The peers and the shared
+   * store keep their copies; an expired copy in the store is replaced when the object is loaded again.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be removed
+   */
+  @Override
+  public void removeLocalObject(CacheModel cacheModel, Object key) {
+    nearCache.removeObject(cacheModel, key);
+  }
+
+  /**
+   * Flushes the cache on this node and on its peers.
+   *
+   * @param cacheModel
+   *          The cache model
+   */
+  @Override
+  public void flush(CacheModel cacheModel) {
+    nearCache.flush(cacheModel);
+    if (store != null) {
+      store.clear(channelFor(cacheModel));
+    }
+    transport.publish(channelFor(cacheModel), new CacheMessage(CacheMessage.Type.FLUSH, nodeId, null, null));
+  }
+
+  @Override
+  public void invalidate(CacheModel cacheModel, String[] tags) {
+    if (store != null) {
+      store.clear(channelFor(cacheModel));
+    }
+    transport.publish(channelFor(cacheModel), new CacheMessage(CacheMessage.Type.INVALIDATE, nodeId, null, tags));
+  }
+
+  /**
+   * Applies a message from a peer. Messages this node sent itself are ignored.
+   *
+   * @param message
+   *          the message
+   */
+  @Override
+  public void onMessage(CacheMessage message) {
+    CacheModel model = cacheModel;
+    if (nodeId.equals(message.getOrigin()) || model == null) {
+      return;
+    }
+    switch (message.getType()) {
+      case FLUSH:
+        nearCache.flush(model);
+        model.applyPeerFlush();
+        break;
+      case REMOVE:
+        nearCache.removeObject(model, message.getKey());
+        break;
+      case INVALIDATE:
+        model.applyPeerInvalidation(message.getTags());
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Gets the channel (and store region) of a cache model.
+   *
+   * @param cacheModel
+   *          the cache model
+   *
+   * @return the channel
+   */
+  private String channelFor(CacheModel cacheModel) {
+    return channelName != null ? channelName : cacheModel.getId();
+  }
+
+  private void subscribe() {
+    if (cacheModel != null && channelFor(cacheModel) != null) {
+      channel = channelFor(cacheModel);
+      transport.subscribe(channel, this);
+    }
+  }
+
+  private void unsubscribe() {
+    if (channel != null) {
+      transport.unsubscribe(channel, this);
+      channel = null;
+    }
+  }
+
+  private static Object instantiate(String kind, String className) {
+    try {
+      return Resources.instantiate(className);
+    } catch (Exception e) {
+      throw new RuntimeException("Error instantiating cache " + kind + " '" + className + "'.  Cause: " + e, e);
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache store shared by the sql map clients of a single JVM, the counterpart of {@link InProcessCacheTransport}. The
+ * regions are unbounded; entries only leave them when they are removed or the region is cleared.
+ */
+public class InProcessCacheStore implements CacheStore {
+
+  /** The regions, shared by all instances. */
+  private static final Map<String, Map<Object, byte[]>> REGIONS = new ConcurrentHashMap<>();
+
+  @Override
+  public byte[] get(String region, Object key) {
+    Map<Object, byte[]> entries = REGIONS.get(region);
+    return entries == null ? null : entries.get(key);
+  }
+
+  @Override
+  public void put(String region, Object key, byte[] value) {
+    REGIONS.computeIfAbsent(region, k -> new ConcurrentHashMap<>()).put(key, value);
+  }
+
+  @Override
+  public void remove(String region, Object key) {
+    Map<Object, byte[]> entries = REGIONS.get(region);
+    if (entries != null) {
+      entries.remove(key);
+    }
+  }
+
+  @Override
+  public void clear(String region) {
+    Map<Object, byte[]> entries = REGIONS.get(region);
+    if (entries != null) {
+      entries.clear();
+    }
+  }
+
+  @Override
+  public void setProperties(Properties props) {
+    // Nothing to configure
+  }
+
+}
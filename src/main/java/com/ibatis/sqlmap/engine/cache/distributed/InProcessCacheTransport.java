@@ -0,0 +1,62 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cache transport between the sql map clients of a single JVM. Messages are delivered synchronously, on the thread
+ * that publishes them, to the subscribers of every instance, which makes it a stand-in for a network transport in tests
+ * and for several clients sharing one database in the same JVM.
+ */
+public class InProcessCacheTransport implements CacheTransport {
+
+  /** The subscribers of each channel, shared by all instances. */
+  private static final Map<String, List<CacheMessageListener>> CHANNELS = new ConcurrentHashMap<>();
+
+  @Override
+  public void subscribe(String channel, CacheMessageListener listener) {
+    CHANNELS.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  @Override
+  public void unsubscribe(String channel, CacheMessageListener listener) {
+    List<CacheMessageListener> listeners = CHANNELS.get(channel);
+    if (listeners != null) {
+      listeners.remove(listener);
+    }
+  }
+
+  @Override
+  public void publish(String channel, CacheMessage message) {
+    List<CacheMessageListener> listeners = CHANNELS.get(channel);
+    if (listeners != null) {
+      for (CacheMessageListener listener : listeners) {
+        listener.onMessage(message);
+      }
+    }
+  }
+
+  @Override
+  public void setProperties(Properties props) {
+    // Nothing to configure
+  }
+
+}
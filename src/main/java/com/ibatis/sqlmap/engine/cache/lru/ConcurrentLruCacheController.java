@@ -0,0 +1,463 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.lru;
+
+import com.ibatis.common.resources.Resources;
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheWeigher;
+import com.ibatis.sqlmap.engine.cache.ConcurrentCacheController;
+import com.ibatis.sqlmap.engine.cache.DefaultCacheWeigher;
+import com.ibatis.sqlmap.engine.cache.MeasurableCacheController;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache controller for highly concurrent cache models.
+ * <p>
+ * The cache is split into independently locked segments, each an access ordered map, so the access order is maintained
+ * in constant time and readers of different keys rarely contend with each other. Eviction is least recently used
+ * within a segment. Small caches use a single segment and therefore behave exactly like {@link LruCacheController}.
+ * <p>
+ * Besides an entry count the cache can be bounded by an estimated memory weight, so that one cached list of many rows
+ * counts for more than a single-row lookup. The weight of each entry is estimated by a {@link CacheWeigher}.
+ */
+public class ConcurrentLruCacheController implements ConcurrentCacheController, MeasurableCacheController {
+
+  /** The default cache size. */
+  private static final int DEFAULT_CACHE_SIZE = 100;
+
+  /** The default (and maximum) number of segments. */
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /** The minimum number of entries per segment before the cache is split further. */
+  private static final int MIN_SEGMENT_SIZE = 16;
+
+  /** Constant for a cache that is not bounded by weight. */
+  private static final long NO_MAX_WEIGHT = Long.MAX_VALUE;
+
+  /** The cache size. */
+  private int cacheSize;
+
+  /** The concurrency level. */
+  private int concurrencyLevel;
+
+  /** The maximum total weight. */
+  private long maxWeight;
+
+  /** The weigher, only used if the cache is bounded by weight. */
+  private CacheWeigher weigher;
+
+  /** The weight of all entries. */
+  private final AtomicLong weight = new AtomicLong();
+
+  /** The segment to start the next eviction at. */
+  private final AtomicInteger evictionCursor = new AtomicInteger();
+
+  /** The evictions. */
+  private final LongAdder evictions = new LongAdder();
+
+  /** The segments. */
+  private volatile Segment[] segments;
+
+  /**
+   * Default constructor.
+   */
+  public ConcurrentLruCacheController() {
+    this.cacheSize = DEFAULT_CACHE_SIZE;
+    this.concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+    this.maxWeight = NO_MAX_WEIGHT;
+    this.weigher = new DefaultCacheWeigher();
+    this.segments = createSegments(cacheSize, concurrencyLevel, weight, evictions);
+  }
+
+  /**
+   * Gets the cache size.
+   *
+   * @return the cache size
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Sets the cache size. Any cached entries are discarded.
+   *
+   * @param cacheSize
+   *          the new cache size
+   */
+  public void setCacheSize(int cacheSize) {
+    this.cacheSize = cacheSize;
+    this.segments = createSegments(cacheSize, concurrencyLevel, weight, evictions);
+  }
+
+  /**
+   * Gets the concurrency level.
+   *
+   * @return the maximum number of independently locked segments
+   */
+  public int getConcurrencyLevel() {
+    return concurrencyLevel;
+  }
+
+  /**
+   * Gets the maximum weight.
+   *
+   * @return the maximum estimated weight of all entries in bytes, or Long.MAX_VALUE if the cache is not bounded by weight
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * Sets the maximum weight. Any cached entries are discarded.
+   *
+   * @param maxWeight
+   *          the maximum estimated weight of all entries in bytes
+   */
+  public void setMaxWeight(long maxWeight) {
+    this.maxWeight = maxWeight;
+    this.segments = createSegments(cacheSize, concurrencyLevel, weight, evictions);
+  }
+
+  /**
+   * Sets the weigher used to estimate the weight of entries.
+   *
+   * @param weigher
+   *          the new weigher
+   */
+  public void setWeigher(CacheWeigher weigher) {
+    this.weigher = weigher;
+  }
+
+  /**
+   * Configures the cache
+   *
+   * @param props
+   *          Optionally can contain properties [cache-size=100] [concurrency-level=16] [max-weight=64m]
+   *          [weigher=class name] and any properties of the weigher. If a maximum weight is given without a cache size
+   *          the number of entries is not limited.
+   */
+  @Override
+  public void setProperties(Properties props) {
+    String size = props.getProperty("cache-size");
+    if (size == null) {
+      size = props.getProperty("size");
+    }
+    String level = props.getProperty("concurrency-level");
+    if (level == null) {
+      level = props.getProperty("concurrencyLevel");
+    }
+    String weightLimit = props.getProperty("max-weight");
+    if (weightLimit == null) {
+      weightLimit = props.getProperty("maxWeight");
+    }
+    String weigherClass = props.getProperty("weigher");
+
+    if (level != null) {
+      concurrencyLevel = Integer.parseInt(level);
+    }
+    if (weightLimit != null) {
+      maxWeight = DefaultCacheWeigher.parseWeight(weightLimit);
+      cacheSize = Integer.MAX_VALUE;
+    }
+    if (size != null) {
+      cacheSize = Integer.parseInt(size);
+    }
+    if (weigherClass != null) {
+      try {
+        weigher = (CacheWeigher) Resources.instantiate(weigherClass);
+      } catch (Exception e) {
+        throw new RuntimeException("Error instantiating cache weigher '" + weigherClass + "'.  Cause: " + e, e);
+      }
+    }
+    weigher.setProperties(props);
+    segments = createSegments(cacheSize, concurrencyLevel, weight, evictions);
+  }
+
+  /**
+   * Add an object to the cache
+   *
+   * @param cacheModel
+   *          The cacheModel
+   * @param key
+   *          The key of the object to be cached
+   * @param value
+   *          The object to be cached
+   */
+  @Override
+  public void putObject(CacheModel cacheModel, Object key, Object value) {
+    if (maxWeight == NO_MAX_WEIGHT) {
+      segmentFor(key).put(key, value, 0);
+      return;
+    }
+    long valueWeight = weigher.weigh(key, CacheModel.getStoredValue(value));
+    if (valueWeight > maxWeight) {
+      // an entry heavier than the whole cache would only evict everything else
+      segmentFor(key).remove(key);
+      return;
+    }
+    segmentFor(key).put(key, value, valueWeight);
+    if (weight.get() > maxWeight) {
+      evictToMaxWeight(key);
+    }
+  }
+
+  /**
+   * Evicts least recently used entries until the cache is within its maximum weight. The other segments are visited in
+   * turn, starting with a different one each time, and the segment of the entry just added comes last so that the new
+   * entry is the last to go.
+   *
+   * @param key
+   *          the key of the entry just added
+   */
+  private void evictToMaxWeight(Object key) {
+    Segment[] current = segments;
+    int own = indexFor(key, current.length);
+    int offset = evictionCursor.getAndIncrement();
+    for (int i = 0; i < current.length && weight.get() > maxWeight; i++) {
+      int index = (offset + i) & current.length - 1;
+      if (index != own) {
+        evict(current[index]);
+      }
+    }
+    evict(current[own]);
+  }
+
+  private void evict(Segment segment) {
+    while (weight.get() > maxWeight && segment.evictEldest()) {
+      // keep evicting
+    }
+  }
+
+  /**
+   * Get an object out of the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be returned
+   *
+   * @return The cached object (or null)
+   */
+  @Override
+  public Object getObject(CacheModel cacheModel, Object key) {
+    return segmentFor(key).get(key);
+  }
+
+  @Override
+  public Object removeObject(CacheModel cacheModel, Object key) {
+    return segmentFor(key).remove(key);
+  }
+
+  /**
+   * Flushes the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   */
+  @Override
+  public void flush(CacheModel cacheModel) {
+    Segment[] current = segments;
+    for (Segment segment : current) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * Gets the estimated weight of all entries.
+   *
+   * @return the weight in bytes, or 0 if the cache is not bounded by weight
+   */
+  @Override
+  public long getWeight() {
+    return weight.get();
+  }
+
+  @Override
+  public long getSize() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Gets the segment a key belongs to.
+   *
+   * @param key
+   *          the key
+   *
+   * @return the segment
+   */
+  private Segment segmentFor(Object key) {
+    Segment[] current = segments;
+    return current[indexFor(key, current.length)];
+  }
+
+  /**
+   * Gets the index of the segment a key belongs to.
+   *
+   * @param key
+   *          the key
+   * @param segmentCount
+   *          the number of segments, a power of two
+   *
+   * @return the segment index
+   */
+  private static int indexFor(Object key, int segmentCount) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return h & segmentCount - 1;
+  }
+
+  /**
+   * Creates the segments for a cache size. The segment count is a power of two no larger than the concurrency level,
+   * and is reduced until every segment holds at least {@link #MIN_SEGMENT_SIZE} entries. The size is divided evenly
+   * over the segments, while the weight is tracked for the cache as a whole.
+   *
+   * @param cacheSize
+   *          the total cache size
+   * @param concurrencyLevel
+   *          the maximum number of segments
+   * @param weight
+   *          the weight of all entries, reset to 0
+   * @param evictions
+   *          the evictions of the cache
+   *
+   * @return the segments
+   */
+  private static Segment[] createSegments(int cacheSize, int concurrencyLevel, AtomicLong weight,
+      LongAdder evictions) {
+    int limit = Math.max(1, Math.min(concurrencyLevel, cacheSize / MIN_SEGMENT_SIZE));
+    int count = Integer.highestOneBit(limit);
+    Segment[] segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment(cacheSize / count + (i < cacheSize % count ? 1 : 0), weight, evictions);
+    }
+    weight.set(0);
+    return segments;
+  }
+
+  /**
+   * An independently locked, access ordered part of the cache.
+   */
+  private static class Segment {
+
+    /** The maximum number of entries. */
+    private final int capacity;
+
+    /** The weight of all entries of the cache. */
+    private final AtomicLong weight;
+
+    /** The evictions of the cache. */
+    private final LongAdder evictions;
+
+    /** The entries, in access order. */
+    private final LinkedHashMap map = new LinkedHashMap(16, 0.75f, true);
+
+    /**
+     * Instantiates a new segment.
+     *
+     * @param capacity
+     *          the maximum number of entries in the segment
+     * @param weight
+     *          the weight of all entries of the cache
+     * @param evictions
+     *          the evictions of the cache
+     */
+    Segment(int capacity, AtomicLong weight, LongAdder evictions) {
+      this.capacity = capacity;
+      this.weight = weight;
+      this.evictions = evictions;
+    }
+
+    synchronized Object get(Object key) {
+      Node node = (Node) map.get(key);
+      return node == null ? null : node.value;
+    }
+
+    synchronized void put(Object key, Object value, long valueWeight) {
+      Node old = (Node) map.put(key, new Node(value, valueWeight));
+      weight.addAndGet(old == null ? valueWeight : valueWeight - old.weight);
+      if (map.size() > capacity) {
+        evictEldest();
+      }
+    }
+
+    synchronized boolean evictEldest() {
+      Iterator iterator = map.values().iterator();
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      Node eldest = (Node) iterator.next();
+      iterator.remove();
+      weight.addAndGet(-eldest.weight);
+      evictions.increment();
+      return true;
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+
+    synchronized Object remove(Object key) {
+      Node node = (Node) map.remove(key);
+      if (node == null) {
+        return null;
+      }
+      weight.addAndGet(-node.weight);
+      return node.value;
+    }
+
+    synchronized void clear() {
+      long cleared = 0;
+      for (Object node : map.values()) {
+        cleared += ((Node) node).weight;
+      }
+      map.clear();
+      weight.addAndGet(-cleared);
+    }
+  }
+
+  /**
+   * A cached object and its weight.
+   */
+  private static class Node {
+
+    /** The value. */
+    private final Object value;
+
+    /** The weight. */
+    private final long weight;
+
+    Node(Object value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+}
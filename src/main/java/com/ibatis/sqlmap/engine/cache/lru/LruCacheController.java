@@ -15,8 +15,8 @@
  */
 package com.ibatis.sqlmap.engine.cache.lru;
 
-import com.ibatis.sqlmap.engine.cache.CacheController;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.MeasurableCacheController;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,7 +28,7 @@ import java.util.Properties;
 /**
  * LRU (least recently used) cache controller implementation.
  */
-public class LruCacheController implements CacheController {
+public class LruCacheController implements MeasurableCacheController {
 
   /** The cache size. */
   private int cacheSize;
@@ -39,6 +39,9 @@ public class LruCacheController implements CacheController {
   /** The key list. */
   private List keyList;
 
+  /** The evictions. */
+  private long evictions;
+
   /**
    * Default constructor.
    */
@@ -102,6 +105,7 @@ public class LruCacheController implements CacheController {
       try {
         Object oldestKey = keyList.remove(0);
         cache.remove(oldestKey);
+        evictions++;
       } catch (IndexOutOfBoundsException e) {
         // ignore
       }
@@ -146,4 +150,19 @@ public class LruCacheController implements CacheController {
     keyList.clear();
   }
 
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public long getWeight() {
+    return 0;
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions;
+  }
+
 }
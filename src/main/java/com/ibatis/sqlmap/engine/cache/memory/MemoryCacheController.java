@@ -15,8 +15,8 @@
  */
 package com.ibatis.sqlmap.engine.cache.memory;
 
-import com.ibatis.sqlmap.engine.cache.CacheController;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.ConcurrentCacheController;
 
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
@@ -28,7 +28,7 @@ import java.util.Properties;
 /**
  * Memory-based implementation of CacheController.
  */
-public class MemoryCacheController implements CacheController {
+public class MemoryCacheController implements ConcurrentCacheController {
 
   /** The reference type. */
   private MemoryCacheLevel referenceType = MemoryCacheLevel.WEAK;
@@ -0,0 +1,526 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.offheap;
+
+import com.ibatis.common.resources.Resources;
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheSerializer;
+import com.ibatis.sqlmap.engine.cache.CompactCacheSerializer;
+import com.ibatis.sqlmap.engine.cache.ConcurrentCacheController;
+import com.ibatis.sqlmap.engine.cache.CopyingCacheController;
+import com.ibatis.sqlmap.engine.cache.DefaultCacheWeigher;
+import com.ibatis.sqlmap.engine.cache.JavaCacheSerializer;
+import com.ibatis.sqlmap.engine.cache.MeasurableCacheController;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache controller that keeps serialized entries outside the Java heap, so that large caches do not add to garbage
+ * collection pauses.
+ * <p>
+ * The memory is divided into independently locked segments, each a direct byte buffer (or a region of a memory mapped
+ * file) written as a ring: new entries are appended after the last one, and when a segment is full the oldest entries
+ * are overwritten. Only the keys and the position of each entry are kept on the heap. Every request deserializes a
+ * private copy of the entry, so cache models using this controller cannot have a time to idle or a stale while
+ * revalidate window.
+ */
+public class OffHeapCacheController
+    implements ConcurrentCacheController, MeasurableCacheController, CopyingCacheController {
+
+  /** The default memory size. */
+  private static final long DEFAULT_MAX_MEMORY = 64L * 1024L * 1024L;
+
+  /** The default (and maximum) number of segments, unless the memory does not fit in fewer. */
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /** The minimum segment size before the memory is split further. */
+  private static final long MIN_SEGMENT_MEMORY = 1024L * 1024L;
+
+  /** The maximum segment size, the largest buffer that can be allocated at once. */
+  private static final long MAX_SEGMENT_MEMORY = 1L << 30;
+
+  /** Returned by a segment for a cached null. */
+  private static final byte[] CACHED_NULL = {};
+
+  /** The memory size. */
+  private long maxMemory;
+
+  /** The concurrency level. */
+  private int concurrencyLevel;
+
+  /** The memory mapped file, or null for direct buffers. */
+  private String file;
+
+  /** The serializer. */
+  private CacheSerializer serializer;
+
+  /** The memory in use by all entries. */
+  private final AtomicLong usedMemory = new AtomicLong();
+
+  /** The number of entries overwritten to make room for new ones. */
+  private final AtomicLong evictions = new AtomicLong();
+
+  /** The segments. */
+  private volatile Segment[] segments;
+
+  /**
+   * Default constructor. The buffers are allocated when the controller is configured or first used.
+   */
+  public OffHeapCacheController() {
+    this.maxMemory = DEFAULT_MAX_MEMORY;
+    this.concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+    this.serializer = new CompactCacheSerializer();
+  }
+
+  /**
+   * Gets the maximum memory.
+   *
+   * @return the size in bytes of all segments together
+   */
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * Sets the maximum memory. Any cached entries are discarded.
+   *
+   * @param maxMemory
+   *          the size in bytes of all segments together
+   */
+  public void setMaxMemory(long maxMemory) {
+    this.maxMemory = maxMemory;
+    this.segments = null;
+  }
+
+  /**
+   * Sets the serializer.
+   *
+   * @param serializer
+   *          the new serializer
+   */
+  public void setSerializer(CacheSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  /**
+   * Gets the memory in use.
+   *
+   * @return the bytes taken by cached entries
+   */
+  @Override
+  public long getWeight() {
+    return usedMemory.get();
+  }
+
+  /**
+   * Gets the number of evictions.
+   *
+   * @return the number of entries overwritten to make room for new ones
+   */
+  @Override
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  @Override
+  public long getSize() {
+    Segment[] current = segments;
+    long size = 0;
+    if (current != null) {
+      for (Segment segment : current) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Configures the cache
+   *
+   * @param props
+   *          Optionally can contain properties [max-memory=64m] [concurrency-level=16] [serializer=compact|java|class
+   *          name] [file=path of a file to memory map instead of allocating direct buffers] and any properties of the
+   *          serializer.
+   */
+  @Override
+  public void setProperties(Properties props) {
+    String memory = props.getProperty("max-memory");
+    if (memory == null) {
+      memory = props.getProperty("maxMemory");
+    }
+    String level = props.getProperty("concurrency-level");
+    if (level == null) {
+      level = props.getProperty("concurrencyLevel");
+    }
+    String serializerClass = props.getProperty("serializer");
+
+    if (memory != null) {
+      maxMemory = DefaultCacheWeigher.parseWeight(memory);
+    }
+    if (level != null) {
+      concurrencyLevel = Integer.parseInt(level);
+    }
+    file = props.getProperty("file");
+    if ("compact".equalsIgnoreCase(serializerClass)) {
+      serializer = new CompactCacheSerializer();
+    } else if ("java".equalsIgnoreCase(serializerClass)) {
+      serializer = new JavaCacheSerializer();
+    } else if (serializerClass != null) {
+      try {
+        serializer = (CacheSerializer) Resources.instantiate(serializerClass);
+      } catch (Exception e) {
+        throw new RuntimeException("Error instantiating cache serializer '" + serializerClass + "'.  Cause: " + e, e);
+      }
+    }
+    serializer.setProperties(props);
+    segments = createSegments();
+  }
+
+  /**
+   * Add an object to the cache
+   *
+   * @param cacheModel
+   *          The cacheModel
+   * @param key
+   *          The key of the object to be cached
+   * @param value
+   *          The object to be cached
+   */
+  @Override
+  public void putObject(CacheModel cacheModel, Object key, Object value) {
+    byte[] bytes;
+    if (value == CacheModel.NULL_OBJECT) {
+      bytes = null;
+    } else {
+      try {
+        bytes = serializer.serialize(value);
+      } catch (IOException e) {
+        throw new RuntimeException("Error serializing object for off-heap cache.  Cause: " + e, e);
+      }
+    }
+    segmentFor(key).put(key, bytes);
+  }
+
+  /**
+   * Get an object out of the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be returned
+   *
+   * @return The cached object (or null)
+   */
+  @Override
+  public Object getObject(CacheModel cacheModel, Object key) {
+    byte[] bytes = segmentFor(key).get(key);
+    if (bytes == null) {
+      return null;
+    }
+    if (bytes == CACHED_NULL) {
+      return CacheModel.NULL_OBJECT;
+    }
+    try {
+      return serializer.deserialize(bytes);
+    } catch (IOException e) {
+      throw new RuntimeException("Error deserializing object from off-heap cache.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Remove an object from the cache. The entry is dropped without being deserialized.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be removed
+   *
+   * @return null
+   */
+  @Override
+  public Object removeObject(CacheModel cacheModel, Object key) {
+    segmentFor(key).remove(key);
+    return null;
+  }
+
+  /**
+   * Flushes the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   */
+  @Override
+  public void flush(CacheModel cacheModel) {
+    Segment[] current = segments;
+    if (current != null) {
+      for (Segment segment : current) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * Gets the segment a key belongs to, allocating the segments on first use.
+   *
+   * @param key
+   *          the key
+   *
+   * @return the segment
+   */
+  private Segment segmentFor(Object key) {
+    Segment[] current = segments;
+    if (current == null) {
+      synchronized (this) {
+        current = segments;
+        if (current == null) {
+          current = createSegments();
+          segments = current;
+        }
+      }
+    }
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return current[h & current.length - 1];
+  }
+
+  /**
+   * Creates the segments. The segment count is a power of two no larger than the concurrency level, reduced until every
+   * segment holds at least {@link #MIN_SEGMENT_MEMORY} bytes, but large enough that no segment exceeds
+   * {@link #MAX_SEGMENT_MEMORY}.
+   *
+   * @return the segments
+   */
+  private Segment[] createSegments() {
+    int count = Integer.highestOneBit((int) Math.max(1, Math.min(concurrencyLevel, maxMemory / MIN_SEGMENT_MEMORY)));
+    while (maxMemory / count > MAX_SEGMENT_MEMORY) {
+      count <<= 1;
+    }
+    int capacity = (int) (maxMemory / count);
+    Segment[] created = new Segment[count];
+    if (file == null) {
+      for (int i = 0; i < count; i++) {
+        created[i] = new Segment(ByteBuffer.allocateDirect(capacity), usedMemory, evictions);
+      }
+    } else {
+      try (RandomAccessFile mapped = new RandomAccessFile(file, "rw"); FileChannel channel = mapped.getChannel()) {
+        for (int i = 0; i < count; i++) {
+          created[i] = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, (long) i * capacity, capacity),
+              usedMemory, evictions);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Error mapping off-heap cache file '" + file + "'.  Cause: " + e, e);
+      }
+    }
+    usedMemory.set(0);
+    return created;
+  }
+
+  /**
+   * The position of an entry in a segment.
+   */
+  private static class Slot {
+
+    /** The key. */
+    private final Object key;
+
+    /** The offset in the segment buffer. */
+    private final int offset;
+
+    /** The length in bytes, or -1 for a cached null. */
+    private final int length;
+
+    /** The previous slot in the buffer. */
+    private Slot previous;
+
+    /** The next slot in the buffer. */
+    private Slot next;
+
+    Slot(Object key, int offset, int length) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /**
+   * An independently locked buffer written as a ring.
+   */
+  private static class Segment {
+
+    /** The buffer. */
+    private final ByteBuffer buffer;
+
+    /** The memory in use by all entries of the cache. */
+    private final AtomicLong usedMemory;
+
+    /** The evictions of the cache. */
+    private final AtomicLong evictions;
+
+    /** The entries by key. */
+    private final Map<Object, Slot> index = new HashMap<>();
+
+    /** The oldest entry in the buffer. */
+    private Slot first;
+
+    /** The newest entry in the buffer. */
+    private Slot last;
+
+    /** The offset the next entry is written at. */
+    private int head;
+
+    Segment(ByteBuffer buffer, AtomicLong usedMemory, AtomicLong evictions) {
+      this.buffer = buffer;
+      this.usedMemory = usedMemory;
+      this.evictions = evictions;
+    }
+
+    /**
+     * Copies an entry out of the buffer.
+     *
+     * @param key
+     *          the key
+     *
+     * @return the bytes, CACHED_NULL for a cached null, or null if there is no entry
+     */
+    synchronized byte[] get(Object key) {
+      Slot slot = index.get(key);
+      if (slot == null) {
+        return null;
+      }
+      if (slot.length < 0) {
+        return CACHED_NULL;
+      }
+      byte[] bytes = new byte[slot.length];
+      ByteBuffer view = buffer.duplicate();
+      view.position(slot.offset);
+      view.get(bytes);
+      return bytes;
+    }
+
+    /**
+     * Writes an entry, overwriting the oldest entries if there is no room. An entry larger than the segment is not
+     * cached.
+     *
+     * @param key
+     *          the key
+     * @param bytes
+     *          the bytes, or null for a cached null
+     */
+    synchronized void put(Object key, byte[] bytes) {
+      release(index.remove(key));
+      int length = bytes == null ? -1 : bytes.length;
+      // empty entries and cached nulls take a byte, so they are overwritten like any other entry and the number of
+      // slots is bounded by the size of the segment
+      int footprint = Math.max(length, 1);
+      if (footprint > buffer.capacity()) {
+        return;
+      }
+      // the slots at or after the head are from the previous pass over the buffer, and come first
+      if (head + footprint > buffer.capacity()) {
+        while (first != null && first.offset >= head) {
+          evict(first);
+        }
+        head = 0;
+      }
+      while (first != null && first.offset >= head && first.offset < head + footprint) {
+        evict(first);
+      }
+      Slot slot = new Slot(key, head, length);
+      if (bytes != null) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(head);
+        view.put(bytes);
+        usedMemory.addAndGet(bytes.length);
+      }
+      head += footprint;
+      link(slot);
+      index.put(key, slot);
+    }
+
+    private void evict(Slot oldest) {
+      index.remove(oldest.key);
+      release(oldest);
+      evictions.incrementAndGet();
+    }
+
+    synchronized int size() {
+      return index.size();
+    }
+
+    synchronized void remove(Object key) {
+      release(index.remove(key));
+    }
+
+    synchronized void clear() {
+      for (Slot slot : index.values()) {
+        release(slot);
+      }
+      index.clear();
+      first = null;
+      last = null;
+      head = 0;
+    }
+
+    /**
+     * Appends a slot after the newest one.
+     *
+     * @param slot
+     *          the slot
+     */
+    private void link(Slot slot) {
+      slot.previous = last;
+      if (last == null) {
+        first = slot;
+      } else {
+        last.next = slot;
+      }
+      last = slot;
+    }
+
+    /**
+     * Drops a slot that is no longer in the index, returning its memory.
+     *
+     * @param slot
+     *          the slot, or null
+     */
+    private void release(Slot slot) {
+      if (slot == null) {
+        return;
+      }
+      if (slot.previous == null) {
+        first = slot.next;
+      } else {
+        slot.previous.next = slot.next;
+      }
+      if (slot.next == null) {
+        last = slot.previous;
+      } else {
+        slot.next.previous = slot.previous;
+      }
+      if (slot.length > 0) {
+        usedMemory.addAndGet(-slot.length);
+      }
+    }
+  }
+
+}
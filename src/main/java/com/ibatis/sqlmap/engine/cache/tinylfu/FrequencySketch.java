@@ -0,0 +1,139 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.tinylfu;
+
+/**
+ * A count-min sketch estimating how often keys have been requested, using four 4-bit counters per key packed into
+ * longs. After a sample of additions proportional to the cache size all counters are halved, so the estimates follow
+ * the recent popularity of keys rather than their all-time counts.
+ * <p>
+ * This class is not thread safe; callers must hold the lock of the segment that owns it.
+ */
+final class FrequencySketch {
+
+  /** The hash seeds, one per counter row. */
+  private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+      0xcbf29ce484222325L };
+
+  /** Mask that clears the top bit of every counter after a shift. */
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  /** The maximum value of a counter. */
+  private static final int MAX_COUNT = 15;
+
+  /** The counter table. */
+  private final long[] table;
+
+  /** The table mask. */
+  private final int tableMask;
+
+  /** The number of additions before the counters are aged. */
+  private final int sampleSize;
+
+  /** The number of additions since the last aging. */
+  private int size;
+
+  /**
+   * Instantiates a new frequency sketch.
+   *
+   * @param maximumSize
+   *          the maximum number of entries of the cache using the sketch
+   */
+  FrequencySketch(int maximumSize) {
+    int capacity = Math.max(1, maximumSize);
+    int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * capacity;
+  }
+
+  /**
+   * Gets the estimated number of occurrences of a key, at most 15.
+   *
+   * @param key
+   *          the key
+   *
+   * @return the estimated frequency
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int shift = counterShift(hash, i);
+      frequency = Math.min(frequency, (int) (table[index] >>> shift & MAX_COUNT));
+    }
+    return frequency;
+  }
+
+  /**
+   * Records an occurrence of a key, aging all counters once the sample size is reached.
+   *
+   * @param key
+   *          the key
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int shift = counterShift(hash, i);
+      if ((table[index] >>> shift & MAX_COUNT) < MAX_COUNT) {
+        table[index] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Halves every counter.
+   */
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = table[i] >>> 1 & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  /**
+   * Gets the table index of a key's counter in a row.
+   */
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  /**
+   * Gets the bit offset of a key's counter in a row within its table slot.
+   */
+  private static int counterShift(int hash, int row) {
+    return (hash >>> (row << 3) & 15) << 2;
+  }
+
+  /**
+   * Applies a supplemental hash to guard against poor quality hash codes.
+   */
+  private static int spread(int x) {
+    x = (x >>> 16 ^ x) * 0x45d9f3b;
+    x = (x >>> 16 ^ x) * 0x45d9f3b;
+    return x >>> 16 ^ x;
+  }
+
+}
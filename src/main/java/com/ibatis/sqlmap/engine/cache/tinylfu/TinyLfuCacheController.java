@@ -0,0 +1,291 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.tinylfu;
+
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.ConcurrentCacheController;
+import com.ibatis.sqlmap.engine.cache.MeasurableCacheController;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Frequency based cache controller for highly concurrent cache models.
+ * <p>
+ * Entries are kept in independently locked, access ordered segments. Every lookup is recorded in a frequency sketch,
+ * and when a segment is full a new entry is only admitted if its key has been requested more often than the least
+ * recently used entry it would replace. Keys that are requested only once therefore never push popular results out of
+ * the cache.
+ */
+public class TinyLfuCacheController implements ConcurrentCacheController, MeasurableCacheController {
+
+  /** The default cache size. */
+  private static final int DEFAULT_CACHE_SIZE = 100;
+
+  /** The default (and maximum) number of segments. */
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /** The minimum number of entries per segment before the cache is split further. */
+  private static final int MIN_SEGMENT_SIZE = 16;
+
+  /** The cache size. */
+  private int cacheSize;
+
+  /** The concurrency level. */
+  private int concurrencyLevel;
+
+  /** The evictions. */
+  private final LongAdder evictions = new LongAdder();
+
+  /** The segments. */
+  private volatile Segment[] segments;
+
+  /**
+   * Default constructor.
+   */
+  public TinyLfuCacheController() {
+    this.cacheSize = DEFAULT_CACHE_SIZE;
+    this.concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+    this.segments = createSegments(cacheSize, concurrencyLevel);
+  }
+
+  /**
+   * Gets the cache size.
+   *
+   * @return the cache size
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Sets the cache size. Any cached entries are discarded.
+   *
+   * @param cacheSize
+   *          the new cache size
+   */
+  public void setCacheSize(int cacheSize) {
+    this.cacheSize = cacheSize;
+    this.segments = createSegments(cacheSize, concurrencyLevel);
+  }
+
+  /**
+   * Configures the cache
+   *
+   * @param props
+   *          Optionally can contain properties [cache-size=100] [concurrency-level=16]
+   */
+  @Override
+  public void setProperties(Properties props) {
+    String size = props.getProperty("cache-size");
+    if (size == null) {
+      size = props.getProperty("size");
+    }
+    if (size != null) {
+      cacheSize = Integer.parseInt(size);
+    }
+    String level = props.getProperty("concurrency-level");
+    if (level == null) {
+      level = props.getProperty("concurrencyLevel");
+    }
+    if (level != null) {
+      concurrencyLevel = Integer.parseInt(level);
+    }
+    segments = createSegments(cacheSize, concurrencyLevel);
+  }
+
+  /**
+   * Add an object to the cache. If the cache is full the object may be rejected in favour of the more frequently used
+   * entry it would have replaced.
+   *
+   * @param cacheModel
+   *          The cacheModel
+   * @param key
+   *          The key of the object to be cached
+   * @param value
+   *          The object to be cached
+   */
+  @Override
+  public void putObject(CacheModel cacheModel, Object key, Object value) {
+    if (segmentFor(key).put(key, value)) {
+      evictions.increment();
+    }
+  }
+
+  /**
+   * Get an object out of the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   * @param key
+   *          The key of the object to be returned
+   *
+   * @return The cached object (or null)
+   */
+  @Override
+  public Object getObject(CacheModel cacheModel, Object key) {
+    return segmentFor(key).get(key);
+  }
+
+  @Override
+  public Object removeObject(CacheModel cacheModel, Object key) {
+    return segmentFor(key).remove(key);
+  }
+
+  /**
+   * Flushes the cache.
+   *
+   * @param cacheModel
+   *          The cache model
+   */
+  @Override
+  public void flush(CacheModel cacheModel) {
+    Segment[] current = segments;
+    for (Segment segment : current) {
+      segment.clear();
+    }
+  }
+
+  @Override
+  public long getSize() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  @Override
+  public long getWeight() {
+    return 0;
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Gets the segment a key belongs to.
+   *
+   * @param key
+   *          the key
+   *
+   * @return the segment
+   */
+  private Segment segmentFor(Object key) {
+    Segment[] current = segments;
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return current[h & current.length - 1];
+  }
+
+  /**
+   * Creates the segments for a cache size.
+   *
+   * @param cacheSize
+   *          the total cache size
+   * @param concurrencyLevel
+   *          the maximum number of segments
+   *
+   * @return the segments
+   */
+  private static Segment[] createSegments(int cacheSize, int concurrencyLevel) {
+    int limit = Math.max(1, Math.min(concurrencyLevel, cacheSize / MIN_SEGMENT_SIZE));
+    int count = Integer.highestOneBit(limit);
+    Segment[] segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment(cacheSize / count + (i < cacheSize % count ? 1 : 0));
+    }
+    return segments;
+  }
+
+  /**
+   * An independently locked part of the cache with its own frequency sketch.
+   */
+  private static class Segment {
+
+    /** The capacity. */
+    private final int capacity;
+
+    /** The entries, in access order. */
+    private final LinkedHashMap map;
+
+    /** The frequency sketch. */
+    private final FrequencySketch sketch;
+
+    /**
+     * Instantiates a new segment.
+     *
+     * @param capacity
+     *          the maximum number of entries in the segment
+     */
+    Segment(int capacity) {
+      this.capacity = capacity;
+      this.map = new LinkedHashMap(16, 0.75f, true);
+      this.sketch = new FrequencySketch(capacity);
+    }
+
+    synchronized Object get(Object key) {
+      sketch.increment(key);
+      return map.get(key);
+    }
+
+    /**
+     * Adds an entry if there is room, or if it is requested more often than the entry it would replace.
+     *
+     * @param key
+     *          the key
+     * @param value
+     *          the value
+     *
+     * @return true if another entry was evicted
+     */
+    synchronized boolean put(Object key, Object value) {
+      if (map.containsKey(key) || map.size() < capacity) {
+        map.put(key, value);
+        return false;
+      }
+      if (capacity < 1) {
+        return false;
+      }
+      Iterator iterator = map.entrySet().iterator();
+      Object victim = ((Map.Entry) iterator.next()).getKey();
+      if (sketch.frequency(key) > sketch.frequency(victim)) {
+        iterator.remove();
+        map.put(key, value);
+        return true;
+      }
+      return false;
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+
+    synchronized Object remove(Object key) {
+      return map.remove(key);
+    }
+
+    synchronized void clear() {
+      map.clear();
+    }
+  }
+
+}
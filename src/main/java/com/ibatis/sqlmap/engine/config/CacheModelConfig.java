@@ -17,6 +17,7 @@ package com.ibatis.sqlmap.engine.config;
 
 import com.ibatis.sqlmap.engine.cache.CacheController;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheTags;
 import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
 import com.ibatis.sqlmap.engine.scope.ErrorContext;
 
@@ -86,16 +87,102 @@ public class CacheModelConfig {
    */
   public void setFlushInterval(long hours, long minutes, long seconds, long milliseconds) {
     errorContext.setMoreInfo("Check the cache model flush interval.");
+    cacheModel.setFlushInterval(toMilliseconds("A flush interval", hours, minutes, seconds, milliseconds));
+  }
+
+  /**
+   * Sets the time to live of each cache entry.
+   *
+   * @param hours
+   *          the hours
+   * @param minutes
+   *          the minutes
+   * @param seconds
+   *          the seconds
+   * @param milliseconds
+   *          the milliseconds
+   */
+  public void setTimeToLive(long hours, long minutes, long seconds, long milliseconds) {
+    errorContext.setMoreInfo("Check the cache model time to live.");
+    cacheModel.setTimeToLive(toMilliseconds("A time to live", hours, minutes, seconds, milliseconds));
+  }
+
+  /**
+   * Sets the time a cache entry may go unrequested before it expires.
+   *
+   * @param hours
+   *          the hours
+   * @param minutes
+   *          the minutes
+   * @param seconds
+   *          the seconds
+   * @param milliseconds
+   *          the milliseconds
+   */
+  public void setTimeToIdle(long hours, long minutes, long seconds, long milliseconds) {
+    errorContext.setMoreInfo("Check the cache model time to idle.");
+    cacheModel.setTimeToIdle(toMilliseconds("A time to idle", hours, minutes, seconds, milliseconds));
+  }
+
+  /**
+   * Sets the time an expired cache entry may still be served while it is being refreshed.
+   *
+   * @param hours
+   *          the hours
+   * @param minutes
+   *          the minutes
+   * @param seconds
+   *          the seconds
+   * @param milliseconds
+   *          the milliseconds
+   */
+  public void setStaleWhileRevalidate(long hours, long minutes, long seconds, long milliseconds) {
+    errorContext.setMoreInfo("Check the cache model stale while revalidate window.");
+    cacheModel.setStaleWhileRevalidate(
+        toMilliseconds("A stale while revalidate window", hours, minutes, seconds, milliseconds));
+  }
+
+  /**
+   * Converts a duration to milliseconds.
+   *
+   * @param name
+   *          the name of the duration, for the error message
+   * @param hours
+   *          the hours
+   * @param minutes
+   *          the minutes
+   * @param seconds
+   *          the seconds
+   * @param milliseconds
+   *          the milliseconds
+   *
+   * @return the duration in milliseconds
+   */
+  private static long toMilliseconds(String name, long hours, long minutes, long seconds, long milliseconds) {
     long t = 0L;
     t += milliseconds;
     t += seconds * 1000L;
     t += minutes * 60L * 1000L;
     t += hours * 60L * 60L * 1000L;
     if (t < 1L) {
-      throw new RuntimeException(
-          "A flush interval must specify one or more of milliseconds, seconds, minutes or hours.");
+      throw new RuntimeException(name + " must specify one or more of milliseconds, seconds, minutes or hours.");
+    }
+    return t;
+  }
+
+  /**
+   * Enables coalescing of concurrent cache misses for the same key.
+   *
+   * @param timeout
+   *          how long (in milliseconds) a miss waits for another thread's load, or 0 to wait until it finishes
+   */
+  public void setCoalesceMisses(long timeout) {
+    errorContext.setMoreInfo("Check the cache model coalesce timeout.");
+    if (timeout < 0L) {
+      throw new RuntimeException("A coalesce timeout must not be negative.");
     }
-    cacheModel.setFlushInterval(t);
+    cacheModel.setCoalesceMisses(true);
+    cacheModel.setCoalesceTimeout(timeout);
   }
 
   /**
@@ -109,6 +196,19 @@ public class CacheModelConfig {
     cacheModel.addFlushTriggerStatement(statement);
   }
 
+  /**
+   * Adds a flush trigger statement that only invalidates the given tags.
+   *
+   * @param statement
+   *          the statement
+   * @param tags
+   *          the tags the statement invalidates, or null to flush the whole cache
+   */
+  public void addFlushTriggerStatement(String statement, String tags) {
+    errorContext.setMoreInfo("Check the cache model flush on statement elements.");
+    cacheModel.addFlushTriggerStatement(statement, tags == null ? null : CacheTags.parse(tags));
+  }
+
   /**
    * Gets the cache model.
    *
@@ -20,6 +20,7 @@ import com.ibatis.common.beans.ProbeFactory;
 import com.ibatis.common.resources.Resources;
 import com.ibatis.sqlmap.client.SqlMapException;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheTags;
 import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
 import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
 import com.ibatis.sqlmap.engine.mapping.parameter.InlineParameterMapParser;
@@ -200,6 +201,40 @@ public class MappedStatementConfig {
     delegate.addMappedStatement(mappedStatement);
   }
 
+  /**
+   * Sets the tags of the tables (and rows) the results of the statement depend on. Results cached for the statement are
+   * invalidated by flush trigger statements with matching tags.
+   *
+   * @param cacheTags
+   *          the cache tags, for example <code>ACCOUNT:id</code>
+   */
+  public void setCacheTags(String cacheTags) {
+    errorContext.setMoreInfo("Check the cache tags.");
+    rootStatement.setCacheTags(CacheTags.parse(cacheTags));
+  }
+
+  /**
+   * Marks the statement as reading only, or as writing. Selects read only unless marked otherwise; read-only statements
+   * outside of an explicit transaction may run on a read replica.
+   *
+   * @param readOnly
+   *          the read only
+   */
+  public void setReadOnly(boolean readOnly) {
+    rootStatement.setReadOnly(readOnly);
+  }
+
+  /**
+   * Sets the position of the statement among the statements of a batch that groups its rows by SQL. Dependent writes
+   * get a higher order than the writes they depend on, e.g. order lines after orders.
+   *
+   * @param batchOrder
+   *          the batch order
+   */
+  public void setBatchOrder(int batchOrder) {
+    rootStatement.setBatchOrder(batchOrder);
+  }
+
   /**
    * Sets the select key statement.
    *
@@ -212,6 +212,41 @@ public class ResultMapConfig {
   public void addResultMapping(String propertyName, String columnName, Integer columnIndex, Class javaClass,
       String jdbcType, String nullValue, String notNullColumn, String statementName, String resultMapName,
       Object impl) {
+    addResultMapping(propertyName, columnName, columnIndex, javaClass, jdbcType, nullValue, notNullColumn,
+        statementName, resultMapName, impl, 0, null);
+  }
+
+  /**
+   * Adds the result mapping, with a nested select that may be run for several parent rows at once.
+   *
+   * @param propertyName
+   *          the property name
+   * @param columnName
+   *          the column name
+   * @param columnIndex
+   *          the column index
+   * @param javaClass
+   *          the java class
+   * @param jdbcType
+   *          the jdbc type
+   * @param nullValue
+   *          the null value
+   * @param notNullColumn
+   *          the not null column
+   * @param statementName
+   *          the statement name
+   * @param resultMapName
+   *          the result map name
+   * @param impl
+   *          the impl
+   * @param batchSize
+   *          the number of parent keys the nested select is run for at once, 0 to run it once per row
+   * @param batchKey
+   *          the property of the nested select results that holds the key of their parent
+   */
+  public void addResultMapping(String propertyName, String columnName, Integer columnIndex, Class javaClass,
+      String jdbcType, String nullValue, String notNullColumn, String statementName, String resultMapName,
+      Object impl, int batchSize, String batchKey) {
     errorContext.setObjectId(propertyName + " mapping of the " + resultMap.getId() + " result map");
     TypeHandler handler;
     if (impl != null) {
@@ -235,6 +270,15 @@ public class ResultMapConfig {
     mapping.setNullValue(nullValue);
     mapping.setNotNullColumn(notNullColumn);
     mapping.setStatementName(statementName);
+    if (batchSize > 0) {
+      if (statementName == null || batchKey == null || columnName == null || columnName.indexOf('=') > -1
+          || columnName.indexOf(',') > -1) {
+        throw new RuntimeException("Error configuring the batched nested select of the " + propertyName
+            + " mapping.  A batchSize requires a select, a batchKey and a single column.");
+      }
+      mapping.setBatchSize(batchSize);
+      mapping.setBatchKey(batchKey);
+    }
     mapping.setNestedResultMapName(resultMapName);
     if (resultMapName != null && resultMapName.length() > 0) {
       resultMap.addNestedResultMappings(mapping);
@@ -24,9 +24,13 @@ import com.ibatis.sqlmap.client.extensions.TypeHandlerCallback;
 import com.ibatis.sqlmap.engine.accessplan.AccessPlanFactory;
 import com.ibatis.sqlmap.engine.cache.CacheController;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.distributed.DistributedCacheController;
 import com.ibatis.sqlmap.engine.cache.fifo.FifoCacheController;
+import com.ibatis.sqlmap.engine.cache.lru.ConcurrentLruCacheController;
 import com.ibatis.sqlmap.engine.cache.lru.LruCacheController;
 import com.ibatis.sqlmap.engine.cache.memory.MemoryCacheController;
+import com.ibatis.sqlmap.engine.cache.offheap.OffHeapCacheController;
+import com.ibatis.sqlmap.engine.cache.tinylfu.TinyLfuCacheController;
 import com.ibatis.sqlmap.engine.datasource.DbcpDataSourceFactory;
 import com.ibatis.sqlmap.engine.datasource.JndiDataSourceFactory;
 import com.ibatis.sqlmap.engine.datasource.SimpleDataSourceFactory;
@@ -167,6 +171,17 @@ public class SqlMapConfiguration {
     client.getDelegate().setCacheModelsEnabled(cacheModelsEnabled);
   }
 
+  /**
+   * Sets the cache MBeans enabled.
+   *
+   * @param cacheMBeansEnabled
+   *          the new cache MBeans enabled
+   */
+  public void setCacheMBeansEnabled(boolean cacheMBeansEnabled) {
+    errorContext.setActivity("setting cache MBeans enabled/disabled");
+    client.getDelegate().setCacheMBeansEnabled(cacheMBeansEnabled);
+  }
+
   /**
    * Sets the enhancement enabled.
    *
@@ -204,6 +219,26 @@ public class SqlMapConfiguration {
     client.getDelegate().setForceMultipleResultSetSupport(forceMultipleResultSetSupport);
   }
 
+  /**
+   * Sets the batch grouping enabled.
+   *
+   * @param batchGroupingEnabled
+   *          the new batch grouping enabled
+   */
+  public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+    client.getDelegate().setBatchGroupingEnabled(batchGroupingEnabled);
+  }
+
+  /**
+   * Sets the batch size.
+   *
+   * @param batchSize
+   *          the new batch size
+   */
+  public void setBatchSize(int batchSize) {
+    client.getDelegate().setBatchSize(batchSize);
+  }
+
   /**
    * Sets the default statement timeout.
    *
@@ -383,6 +418,9 @@ public class SqlMapConfiguration {
   public void finalizeSqlMapConfig() {
     wireUpCacheModels();
     bindResultMapDiscriminators();
+    if (delegate.isCacheMBeansEnabled()) {
+      delegate.registerCacheMBeans();
+    }
   }
 
   /**
@@ -480,6 +518,10 @@ public class SqlMapConfiguration {
     typeHandlerFactory.putTypeAlias("FIFO", FifoCacheController.class.getName());
     typeHandlerFactory.putTypeAlias("LRU", LruCacheController.class.getName());
     typeHandlerFactory.putTypeAlias("MEMORY", MemoryCacheController.class.getName());
+    typeHandlerFactory.putTypeAlias("CONCURRENT_LRU", ConcurrentLruCacheController.class.getName());
+    typeHandlerFactory.putTypeAlias("TINYLFU", TinyLfuCacheController.class.getName());
+    typeHandlerFactory.putTypeAlias("OFFHEAP", OffHeapCacheController.class.getName());
+    typeHandlerFactory.putTypeAlias("DISTRIBUTED", DistributedCacheController.class.getName());
 
     // TYPE ALIASEs
     typeHandlerFactory.putTypeAlias("dom", DomTypeMarker.class.getName());
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.datasource;
+
+import com.ibatis.common.logging.Log;
+import com.ibatis.common.logging.LogFactory;
+import com.ibatis.sqlmap.client.SqlMapException;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A data source that hands out connections to read replicas for reads, and connections to the primary database
+ * otherwise.
+ * <p>
+ * Reads are marked per thread with {@link #beginRead()} and {@link #endRead()}. The sql map client marks read-only
+ * statements that run outside of an explicit transaction, so a connection requested while they run comes from a
+ * replica. A replica that cannot hand out a connection is skipped, and the primary is used when no replica can.
+ */
+public class ReplicaRoutingDataSource implements DataSource {
+
+  /** The balancing that picks the replicas in turn. */
+  public static final String ROUND_ROBIN = "roundRobin";
+
+  /** The balancing that picks the replica with the fewest connections open. */
+  public static final String LEAST_OUTSTANDING = "leastOutstanding";
+
+  /** The Constant log. */
+  private static final Log log = LogFactory.getLog(ReplicaRoutingDataSource.class);
+
+  /** The primary. */
+  private final DataSource primary;
+
+  /** The replicas. */
+  private final List<DataSource> replicas;
+
+  /** Whether the replica with the fewest connections open is picked. */
+  private final boolean leastOutstanding;
+
+  /** The next replica for round robin balancing. */
+  private final AtomicInteger next = new AtomicInteger();
+
+  /** The number of connections open per replica, for least outstanding balancing. */
+  private final AtomicIntegerArray outstanding;
+
+  /** The number of reads running on each thread. */
+  private final ThreadLocal<int[]> reads = ThreadLocal.withInitial(() -> new int[1]);
+
+  /**
+   * Instantiates a new replica routing data source.
+   *
+   * @param primary
+   *          the primary database
+   * @param replicas
+   *          the read replicas
+   * @param balancing
+   *          {@link #ROUND_ROBIN} or {@link #LEAST_OUTSTANDING}, null for round robin
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, String balancing) {
+    if (primary == null) {
+      throw new SqlMapException("ReplicaRoutingDataSource requires a primary DataSource.");
+    }
+    if (balancing != null && !ROUND_ROBIN.equals(balancing) && !LEAST_OUTSTANDING.equals(balancing)) {
+      throw new SqlMapException("Unknown replica balancing '" + balancing + "'.  Use '" + ROUND_ROBIN + "' or '"
+          + LEAST_OUTSTANDING + "'.");
+    }
+    this.primary = primary;
+    this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+    this.leastOutstanding = LEAST_OUTSTANDING.equals(balancing);
+    this.outstanding = new AtomicIntegerArray(this.replicas.size());
+  }
+
+  /**
+   * Gets the primary.
+   *
+   * @return the primary
+   */
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  /**
+   * Gets the replicas.
+   *
+   * @return the replicas
+   */
+  public List<DataSource> getReplicas() {
+    return replicas;
+  }
+
+  /**
+   * Marks the start of a read on the current thread. Connections requested until the matching {@link #endRead()} come
+   * from a replica.
+   */
+  public void beginRead() {
+    reads.get()[0]++;
+  }
+
+  /**
+   * Marks the end of a read on the current thread.
+   */
+  public void endRead() {
+    int[] count = reads.get();
+    if (--count[0] <= 0) {
+      reads.remove();
+    }
+  }
+
+  /**
+   * Checks if the current thread is reading.
+   *
+   * @return true, if connections come from a replica
+   */
+  public boolean isReading() {
+    return reads.get()[0] > 0;
+  }
+
+  /**
+   * Gets the number of connections open on a replica. Only counted with least outstanding balancing.
+   *
+   * @param replica
+   *          the index of the replica
+   *
+   * @return the number of connections
+   */
+  public int getOutstandingConnections(int replica) {
+    return outstanding.get(replica);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getConnection(null, null);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (!replicas.isEmpty() && isReading()) {
+      int first = pickReplica();
+      for (int i = 0; i < replicas.size(); i++) {
+        int replica = (first + i) % replicas.size();
+        try {
+          return openReplicaConnection(replica, username, password);
+        } catch (SQLException e) {
+          log.warn("Could not get a connection from read replica " + replica + ", trying the next one.  Cause: " + e);
+        }
+      }
+      log.warn("Could not get a connection from any read replica, reading from the primary.");
+    }
+    return username == null ? primary.getConnection() : primary.getConnection(username, password);
+  }
+
+  /**
+   * Picks the replica to try first.
+   *
+   * @return the index of the replica
+   */
+  private int pickReplica() {
+    if (!leastOutstanding) {
+      return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+    int best = 0;
+    for (int i = 1; i < replicas.size(); i++) {
+      if (outstanding.get(i) < outstanding.get(best)) {
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Opens a connection on a replica.
+   *
+   * @param replica
+   *          the index of the replica
+   * @param username
+   *          the username, or null for the default
+   * @param password
+   *          the password
+   *
+   * @return the connection
+   *
+   * @throws SQLException
+   *           if the replica could not hand out a connection
+   */
+  private Connection openReplicaConnection(int replica, String username, String password) throws SQLException {
+    DataSource dataSource = replicas.get(replica);
+    Connection connection = username == null ? dataSource.getConnection()
+        : dataSource.getConnection(username, password);
+    if (!leastOutstanding) {
+      return connection;
+    }
+    return new OutstandingConnection(connection, outstanding, replica);
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    primary.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    primary.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return primary.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return primary.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || primary.isWrapperFor(iface);
+  }
+}
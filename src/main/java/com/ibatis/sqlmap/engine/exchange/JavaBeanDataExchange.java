@@ -17,6 +17,7 @@ package com.ibatis.sqlmap.engine.exchange;
 
 import com.ibatis.sqlmap.engine.accessplan.AccessPlan;
 import com.ibatis.sqlmap.engine.accessplan.AccessPlanFactory;
+import com.ibatis.sqlmap.engine.accessplan.PrimitiveAccessPlan;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMapping;
 import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
@@ -125,10 +126,24 @@ public class JavaBeanDataExchange extends BaseDataExchange implements DataExchan
       }
     }
     errorContext.setMoreInfo("The error happened while setting a property on the result object.");
-    resultPlan.setProperties(object, values);
+    long[] primitiveValues = statementScope.getPrimitiveValues(resultMap);
+    if (primitiveValues != null && resultPlan instanceof PrimitiveAccessPlan) {
+      ((PrimitiveAccessPlan) resultPlan).setProperties(object, values, primitiveValues);
+    } else {
+      resultPlan.setProperties(object, values);
+    }
     return object;
   }
 
+  /**
+   * Gets the result plan.
+   *
+   * @return the result plan, or null if this data exchange is not for a result map
+   */
+  public AccessPlan getResultPlan() {
+    return resultPlan;
+  }
+
   // Bug ibatis-12
   @Override
   public Object setData(StatementScope statementScope, ParameterMap parameterMap, Object parameterObject,
@@ -21,6 +21,7 @@ import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMapping;
 import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
+import com.ibatis.sqlmap.engine.mapping.result.loader.NestedSelectBatch;
 import com.ibatis.sqlmap.engine.mapping.result.ResultObjectFactoryUtil;
 import com.ibatis.sqlmap.engine.mapping.statement.DefaultRowHandler;
 import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
@@ -38,8 +39,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Class responsible for executing the SQL.
@@ -108,7 +116,9 @@ public class DefaultSqlExecutor implements SqlExecutor {
       throws SQLException {
     Batch batch = (Batch) statementScope.getSession().getBatch();
     if (batch == null) {
-      batch = new Batch();
+      Integer batchSize = statementScope.getSession().getBatchSize();
+      batch = new Batch(batchGroupingEnabled(statementScope),
+          batchSize != null ? batchSize : getDelegate(statementScope.getSession()).getBatchSize());
       statementScope.getSession().setBatch(batch);
     }
     batch.addBatch(statementScope, conn, sql, parameters);
@@ -516,6 +526,30 @@ public class DefaultSqlExecutor implements SqlExecutor {
     return ((SqlMapClientImpl) scope.getSession().getSqlMapClient()).getDelegate().isForceMultipleResultSetSupport();
   }
 
+  /**
+   * Batch grouping enabled.
+   *
+   * @param scope
+   *          the scope
+   *
+   * @return true, if batches group their rows by SQL
+   */
+  private boolean batchGroupingEnabled(StatementScope scope) {
+    return getDelegate(scope.getSession()).isBatchGroupingEnabled();
+  }
+
+  /**
+   * Gets the delegate of the client of a session.
+   *
+   * @param sessionScope
+   *          the session scope
+   *
+   * @return the delegate
+   */
+  private SqlMapExecutorDelegate getDelegate(SessionScope sessionScope) {
+    return ((SqlMapClientImpl) sessionScope.getSqlMapClient()).getDelegate();
+  }
+
   /**
    * Handle results.
    *
@@ -559,12 +593,28 @@ public class DefaultSqlExecutor implements SqlExecutor {
           callback.handleResultObject(statementScope, columnValues, rs);
           resultsFetched++;
         }
+        loadNestedSelectBatches(statementScope);
       }
     } finally {
       statementScope.setResultSet(null);
     }
   }
 
+  /**
+   * Loads the batched nested selects of the rows read since their batches were last loaded.
+   *
+   * @param statementScope
+   *          the statement scope
+   *
+   * @throws SQLException
+   *           the SQL exception
+   */
+  private static void loadNestedSelectBatches(StatementScope statementScope) throws SQLException {
+    for (NestedSelectBatch batch : statementScope.getNestedSelectBatches()) {
+      batch.load();
+    }
+  }
+
   /**
    * Retrieve output parameters.
    *
@@ -665,6 +715,7 @@ public class DefaultSqlExecutor implements SqlExecutor {
           Object[] columnValues = resultMap.resolveSubMap(statementScope, rs).getResults(statementScope, rs);
           callback.handleResultObject(statementScope, columnValues, rs);
         }
+        loadNestedSelectBatches(statementScope);
       }
     } finally {
       statementScope.setResultSet(null);
@@ -862,10 +913,58 @@ public class DefaultSqlExecutor implements SqlExecutor {
     /** The size. */
     private int size;
 
+    /** Whether rows are grouped by SQL, with one statement per distinct SQL. */
+    private final boolean grouped;
+
+    /** The index of the statement of each SQL in the statement list, when rows are grouped. */
+    private Map<String, Integer> statementIndexes = new HashMap<>();
+
+    /** The batch order of each statement in the statement list, when rows are grouped. */
+    private List<Integer> batchOrderList = new ArrayList<>();
+
+    /** The number of rows after which the statements are executed, 0 to execute them only at the end. */
+    private final int batchSize;
+
+    /** The number of rows added since the statements were last executed. */
+    private int pendingSize;
+
+    /** The statements with rows that were not executed yet. */
+    private Set<PreparedStatement> pendingStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The update counts of the executions of each statement so far, by its batch result. */
+    private Map<BatchResult, UpdateCounts> updateCounts = new IdentityHashMap<>();
+
+    /** The number of rows updated by the executions so far. */
+    private int totalRowCount;
+
+    /** The error of the first row that failed to execute, or null if none did. */
+    private String failure;
+
+    /** The batch results of the statements that were executed and closed before the end of the batch. */
+    private List<BatchResult> executedResults = new ArrayList<>();
+
+    /** The failure of an execution started by adding a row, or null if there was none. */
+    private BatchException failedFlush;
+
     /**
      * Create a new batch.
      */
     public Batch() {
+      this(false, 0);
+    }
+
+    /**
+     * Create a new batch.
+     *
+     * @param grouped
+     *          - whether to add each row to the statement of its SQL, rather than to a new statement whenever the SQL
+     *          changes
+     * @param batchSize
+     *          - the number of rows after which the statements are executed, 0 to execute them only at the end
+     */
+    public Batch(boolean grouped, int batchSize) {
+      this.grouped = grouped;
+      this.batchSize = batchSize;
       this.size = 0;
     }
 
@@ -891,24 +990,159 @@ public class DefaultSqlExecutor implements SqlExecutor {
      *          - the parameters for the SQL
      *
      * @throws SQLException
-     *           - if the prepare for the SQL fails
+     *           - if the prepare for the SQL fails, or if executing the rows added so far failed, in which case the
+     *           cause is a BatchException with the results of the rows executed before
      */
     public void addBatch(StatementScope statementScope, Connection conn, String sql, Object[] parameters)
         throws SQLException {
+      if (failedFlush != null) {
+        throw newFlushException();
+      }
       PreparedStatement ps = null;
-      if (currentSql != null && currentSql.equals(sql)) {
+      Integer index = grouped ? statementIndexes.get(sql) : null;
+      if (index != null) {
+        ps = (PreparedStatement) statementList.get(index);
+      } else if (!grouped && currentSql != null && currentSql.equals(sql)) {
         int last = statementList.size() - 1;
         ps = (PreparedStatement) statementList.get(last);
       } else {
         ps = prepareStatement(statementScope.getSession(), conn, sql);
         setStatementTimeout(statementScope.getStatement(), ps);
         currentSql = sql;
+        if (grouped) {
+          statementIndexes.put(sql, statementList.size());
+          batchOrderList.add(statementScope.getStatement().getBatchOrder());
+        }
         statementList.add(ps);
         batchResultList.add(new BatchResult(statementScope.getStatement().getId(), sql));
       }
       statementScope.getParameterMap().setParameters(statementScope, ps, parameters);
       ps.addBatch();
       size++;
+      pendingSize++;
+      pendingStatements.add(ps);
+      if (batchSize > 0 && pendingSize >= batchSize) {
+        try {
+          flush();
+        } catch (BatchException e) {
+          throw newFlushException();
+        }
+        if (!grouped) {
+          closeExecutedStatements(statementScope.getSession());
+        }
+      }
+    }
+
+    /**
+     * Creates the exception reporting that executing the rows added so far failed.
+     *
+     * @return - the exception, caused by the BatchException of the failure
+     */
+    private SQLException newFlushException() {
+      BatchUpdateException e = failedFlush.getBatchUpdateException();
+      return new SQLException(failedFlush.getMessage(), e.getSQLState(), e.getErrorCode(), failedFlush);
+    }
+
+    /**
+     * Executes the rows added since the statements were last executed, keeping the statements for the rows still to
+     * come. The update counts are added to those of the earlier executions.
+     *
+     * @throws SQLException
+     *           - if a database access error occurs
+     * @throws BatchException
+     *           - if the driver throws BatchUpdateException
+     */
+    private void flush() throws SQLException, BatchException {
+      sortByBatchOrder();
+      for (int i = 0, n = statementList.size(); i < n; i++) {
+        PreparedStatement ps = (PreparedStatement) statementList.get(i);
+        if (pendingStatements.contains(ps)) {
+          BatchResult br = (BatchResult) batchResultList.get(i);
+          try {
+            addUpdateCounts(br, ps.executeBatch());
+          } catch (BatchUpdateException e) {
+            List answer = new ArrayList<>(executedResults);
+            for (int j = 0; j < i; j++) {
+              answer.add(withUpdateCounts((BatchResult) batchResultList.get(j)));
+            }
+            StringBuilder message = new StringBuilder();
+            message.append("Sub batch number ");
+            message.append(answer.size() + 1);
+            message.append(" failed.");
+            if (!answer.isEmpty()) {
+              message.append(" ");
+              message.append(answer.size());
+              message.append(" prior sub batch(s) completed successfully, but will be rolled back.");
+            }
+            failedFlush = new BatchException(message.toString(), e, answer, br.getStatementId(), br.getSql());
+            throw failedFlush;
+          }
+        }
+      }
+      pendingStatements.clear();
+      pendingSize = 0;
+    }
+
+    /**
+     * Closes the statements a flush executed, other than the one rows are still added to, keeping only their batch
+     * results. Only done when rows are not grouped, since a statement is not used again once the SQL changes.
+     *
+     * @param sessionScope
+     *          - the session scope
+     */
+    private void closeExecutedStatements(SessionScope sessionScope) {
+      int last = statementList.size() - 1;
+      for (int i = 0; i < last; i++) {
+        closeStatement(sessionScope, (PreparedStatement) statementList.get(i));
+        BatchResult br = withUpdateCounts((BatchResult) batchResultList.get(i));
+        updateCounts.remove(br);
+        executedResults.add(br);
+      }
+      if (last > 0) {
+        statementList.subList(0, last).clear();
+        batchResultList.subList(0, last).clear();
+      }
+    }
+
+    /**
+     * Sets the update counts of all executions of a statement on its batch result.
+     *
+     * @param br
+     *          - the batch result
+     *
+     * @return - the batch result
+     */
+    private BatchResult withUpdateCounts(BatchResult br) {
+      UpdateCounts counts = updateCounts.get(br);
+      if (counts != null) {
+        br.setUpdateCounts(counts.toArray());
+      }
+      return br;
+    }
+
+    /**
+     * Adds the update counts of an execution of a statement to those of its earlier executions, and the rows they
+     * updated to the running total.
+     *
+     * @param br
+     *          - the batch result of the statement
+     * @param rowCounts
+     *          - the update counts
+     */
+    private void addUpdateCounts(BatchResult br, int[] rowCounts) {
+      UpdateCounts counts = updateCounts.computeIfAbsent(br, k -> new UpdateCounts());
+      for (int j = 0; j < rowCounts.length; j++) {
+        if (rowCounts[j] == Statement.SUCCESS_NO_INFO) {
+          // do nothing
+        } else if (rowCounts[j] == Statement.EXECUTE_FAILED) {
+          if (failure == null) {
+            failure = "The batched statement at index " + (counts.rows + j) + " failed to execute.";
+          }
+        } else {
+          totalRowCount += rowCounts[j];
+        }
+      }
+      counts.add(rowCounts);
     }
 
     /**
@@ -923,19 +1157,16 @@ public class DefaultSqlExecutor implements SqlExecutor {
      *           - if the batch fails
      */
     public int executeBatch() throws SQLException {
-      int totalRowCount = 0;
-      for (Object element : statementList) {
-        PreparedStatement ps = (PreparedStatement) element;
-        int[] rowCounts = ps.executeBatch();
-        for (int j = 0; j < rowCounts.length; j++) {
-          if (rowCounts[j] == Statement.SUCCESS_NO_INFO) {
-            // do nothing
-          } else if (rowCounts[j] == Statement.EXECUTE_FAILED) {
-            throw new SQLException("The batched statement at index " + j + " failed to execute.");
-          } else {
-            totalRowCount += rowCounts[j];
-          }
-        }
+      if (failedFlush != null) {
+        throw failedFlush.getBatchUpdateException();
+      }
+      try {
+        flush();
+      } catch (BatchException e) {
+        throw e.getBatchUpdateException();
+      }
+      if (failure != null) {
+        throw new SQLException(failure);
       }
       return totalRowCount;
     }
@@ -951,25 +1182,13 @@ public class DefaultSqlExecutor implements SqlExecutor {
      *           if the driver throws BatchUpdateException
      */
     public List executeBatchDetailed() throws SQLException, BatchException {
-      List answer = new ArrayList<>();
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        BatchResult br = (BatchResult) batchResultList.get(i);
-        PreparedStatement ps = (PreparedStatement) statementList.get(i);
-        try {
-          br.setUpdateCounts(ps.executeBatch());
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append("Sub batch number ");
-          message.append(i + 1);
-          message.append(" failed.");
-          if (i > 0) {
-            message.append(" ");
-            message.append(i);
-            message.append(" prior sub batch(s) completed successfully, but will be rolled back.");
-          }
-          throw new BatchException(message.toString(), e, answer, br.getStatementId(), br.getSql());
-        }
-        answer.add(br);
+      if (failedFlush != null) {
+        throw failedFlush;
+      }
+      flush();
+      List answer = new ArrayList<>(executedResults);
+      for (Object element : batchResultList) {
+        answer.add(withUpdateCounts((BatchResult) element));
       }
       return answer;
     }
@@ -988,8 +1207,90 @@ public class DefaultSqlExecutor implements SqlExecutor {
       currentSql = null;
       statementList.clear();
       batchResultList.clear();
+      statementIndexes.clear();
+      batchOrderList.clear();
+      pendingStatements.clear();
+      updateCounts.clear();
+      executedResults.clear();
+      totalRowCount = 0;
+      failure = null;
+      failedFlush = null;
+      pendingSize = 0;
       size = 0;
     }
+
+    /**
+     * Puts the statements of a grouped batch in the order they run: statements with a batch order first, lowest order
+     * first, then the others in the order they were first added. The sort is stable, so statements with the same
+     * batch order keep the order they were added in.
+     */
+    private void sortByBatchOrder() {
+      if (!grouped || batchOrderList.stream().allMatch(Objects::isNull)) {
+        return;
+      }
+      List<Integer> indexes = new ArrayList<>();
+      for (int i = 0; i < statementList.size(); i++) {
+        indexes.add(i);
+      }
+      indexes.sort(Comparator.comparing(batchOrderList::get, Comparator.nullsLast(Comparator.naturalOrder())));
+      List sortedStatements = new ArrayList<>();
+      List sortedResults = new ArrayList<>();
+      List<Integer> sortedOrders = new ArrayList<>();
+      for (Integer i : indexes) {
+        sortedStatements.add(statementList.get(i));
+        sortedResults.add(batchResultList.get(i));
+        sortedOrders.add(batchOrderList.get(i));
+      }
+      statementList = sortedStatements;
+      batchResultList = sortedResults;
+      batchOrderList = sortedOrders;
+      statementIndexes.clear();
+      for (int i = 0; i < statementList.size(); i++) {
+        statementIndexes.put(((BatchResult) batchResultList.get(i)).getSql(), i);
+      }
+    }
+
+    /**
+     * The update counts of the executions of one statement, kept as returned by the driver and joined only when they
+     * are asked for.
+     */
+    private static class UpdateCounts {
+
+      /** The update counts of each execution. */
+      private final List<int[]> chunks = new ArrayList<>();
+
+      /** The number of rows executed. */
+      private int rows;
+
+      /**
+       * Adds the update counts of an execution.
+       *
+       * @param rowCounts
+       *          - the update counts
+       */
+      void add(int[] rowCounts) {
+        chunks.add(rowCounts);
+        rows += rowCounts.length;
+      }
+
+      /**
+       * Gets the update counts of all the executions, in the order they ran.
+       *
+       * @return - the update counts
+       */
+      int[] toArray() {
+        if (chunks.size() == 1) {
+          return chunks.get(0);
+        }
+        int[] all = new int[rows];
+        int offset = 0;
+        for (int[] chunk : chunks) {
+          System.arraycopy(chunk, 0, all, offset, chunk.length);
+          offset += chunk.length;
+        }
+        return all;
+      }
+    }
   }
 
   /**
@@ -22,6 +22,7 @@ import com.ibatis.sqlmap.client.SqlMapClient;
 import com.ibatis.sqlmap.client.SqlMapException;
 import com.ibatis.sqlmap.client.SqlMapSession;
 import com.ibatis.sqlmap.client.event.RowHandler;
+import com.ibatis.sqlmap.engine.cache.CacheStatistics;
 import com.ibatis.sqlmap.engine.execution.BatchException;
 import com.ibatis.sqlmap.engine.execution.SqlExecutor;
 import com.ibatis.sqlmap.engine.mapping.result.ResultObjectFactory;
@@ -191,6 +192,11 @@ public class SqlMapClientImpl implements SqlMapClient, ExtendedSqlMapClient {
     getLocalSqlMapSession().startBatch();
   }
 
+  @Override
+  public void startBatch(int batchSize) throws SQLException {
+    getLocalSqlMapSession().startBatch(batchSize);
+  }
+
   @Override
   public int executeBatch() throws SQLException {
     return getLocalSqlMapSession().executeBatch();
@@ -305,6 +311,21 @@ public class SqlMapClientImpl implements SqlMapClient, ExtendedSqlMapClient {
     delegate.flushDataCache(cacheId);
   }
 
+  @Override
+  public CacheStatistics getCacheStatistics(String cacheId) {
+    return delegate.getCacheStatistics(cacheId);
+  }
+
+  @Override
+  public Map<String, CacheStatistics> getCacheStatistics() {
+    return delegate.getCacheStatistics();
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
   /**
    * Gets the local sql map session.
    *
@@ -18,11 +18,16 @@ package com.ibatis.sqlmap.engine.impl;
 import com.ibatis.common.beans.Probe;
 import com.ibatis.common.beans.ProbeFactory;
 import com.ibatis.common.jdbc.exception.NestedSQLException;
+import com.ibatis.common.logging.Log;
+import com.ibatis.common.logging.LogFactory;
 import com.ibatis.common.util.PaginatedList;
 import com.ibatis.sqlmap.client.SqlMapException;
 import com.ibatis.sqlmap.client.event.RowHandler;
 import com.ibatis.sqlmap.engine.cache.CacheKey;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheModelStatistics;
+import com.ibatis.sqlmap.engine.cache.CacheStatistics;
+import com.ibatis.sqlmap.engine.datasource.ReplicaRoutingDataSource;
 import com.ibatis.sqlmap.engine.exchange.DataExchangeFactory;
 import com.ibatis.sqlmap.engine.execution.BatchException;
 import com.ibatis.sqlmap.engine.execution.DefaultSqlExecutor;
@@ -43,12 +48,19 @@ import com.ibatis.sqlmap.engine.transaction.TransactionState;
 import com.ibatis.sqlmap.engine.transaction.user.UserProvidedTransaction;
 import com.ibatis.sqlmap.engine.type.TypeHandlerFactory;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import javax.sql.DataSource;
 
@@ -57,6 +69,9 @@ import javax.sql.DataSource;
  */
 public class SqlMapExecutorDelegate {
 
+  /** The Constant log. */
+  private static final Log log = LogFactory.getLog(SqlMapExecutorDelegate.class);
+
   /** The Constant PROBE. */
   private static final Probe PROBE = ProbeFactory.getProbe();
 
@@ -66,6 +81,12 @@ public class SqlMapExecutorDelegate {
   /** The cache models enabled. */
   private boolean cacheModelsEnabled = true;
 
+  /** The cache MBeans enabled. */
+  private boolean cacheMBeansEnabled;
+
+  /** The names of the cache statistics MBeans registered by this client. */
+  private final List<ObjectName> cacheMBeanNames = new ArrayList<>();
+
   /** The enhancement enabled. */
   private boolean enhancementEnabled = false;
 
@@ -75,9 +96,18 @@ public class SqlMapExecutorDelegate {
   /** The force multiple result set support. */
   private boolean forceMultipleResultSetSupport;
 
+  /** Whether batches group their rows by SQL. */
+  private boolean batchGroupingEnabled;
+
+  /** The number of rows after which a batch is executed, 0 to execute it only at the end. */
+  private int batchSize;
+
   /** The tx manager. */
   private TransactionManager txManager;
 
+  /** The data source of the transaction manager, if it routes reads to replicas. */
+  private ReplicaRoutingDataSource replicaRouting;
+
   /** The mapped statements. */
   private HashMap mappedStatements;
 
@@ -204,6 +234,25 @@ public class SqlMapExecutorDelegate {
     this.cacheModelsEnabled = cacheModelsEnabled;
   }
 
+  /**
+   * Getter for the status of cache statistics MBeans.
+   *
+   * @return - the status
+   */
+  public boolean isCacheMBeansEnabled() {
+    return cacheMBeansEnabled;
+  }
+
+  /**
+   * Turn on or off registering the statistics of the cache models with the platform MBean server.
+   *
+   * @param cacheMBeansEnabled
+   *          - the new state of cache statistics MBeans
+   */
+  public void setCacheMBeansEnabled(boolean cacheMBeansEnabled) {
+    this.cacheMBeansEnabled = cacheMBeansEnabled;
+  }
+
   /**
    * Getter for the status of CGLib enhancements.
    *
@@ -259,6 +308,8 @@ public class SqlMapExecutorDelegate {
    */
   public void setTxManager(TransactionManager txManager) {
     this.txManager = txManager;
+    DataSource dataSource = txManager == null ? null : txManager.getConfig().getDataSource();
+    this.replicaRouting = dataSource instanceof ReplicaRoutingDataSource ? (ReplicaRoutingDataSource) dataSource : null;
   }
 
   /**
@@ -428,6 +479,80 @@ public class SqlMapExecutorDelegate {
     }
   }
 
+  /**
+   * Take a snapshot of the statistics of a single cache by ID.
+   *
+   * @param id
+   *          - the ID
+   *
+   * @return - the statistics
+   */
+  public CacheStatistics getCacheStatistics(String id) {
+    return getCacheModel(id).getStatistics();
+  }
+
+  /**
+   * Take a snapshot of the statistics of all of the data caches.
+   *
+   * @return - the statistics, by cache model ID
+   */
+  public Map<String, CacheStatistics> getCacheStatistics() {
+    Map<String, CacheStatistics> statistics = new TreeMap<>();
+    Iterator models = cacheModels.values().iterator();
+    while (models.hasNext()) {
+      CacheModel model = (CacheModel) models.next();
+      statistics.put(model.getId(), model.getStatistics());
+    }
+    return statistics;
+  }
+
+  /**
+   * Register the statistics of all of the data caches with the platform MBean server, as
+   * <code>com.ibatis.sqlmap:type=CacheModel,client=&lt;identity of this client&gt;,id=&lt;cache model ID&gt;</code>.
+   */
+  public synchronized void registerCacheMBeans() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String client = Integer.toHexString(System.identityHashCode(this));
+    Iterator models = cacheModels.values().iterator();
+    while (models.hasNext()) {
+      CacheModel model = (CacheModel) models.next();
+      try {
+        ObjectName name = new ObjectName(
+            "com.ibatis.sqlmap:type=CacheModel,client=" + client + ",id=" + ObjectName.quote(model.getId()));
+        server.registerMBean(new CacheModelStatistics(model), name);
+        cacheMBeanNames.add(name);
+      } catch (JMException e) {
+        unregisterCacheMBeans();
+        throw new SqlMapException(
+            "Error registering MBean for cache model '" + model.getId() + "'.  Cause: " + e, e);
+      }
+    }
+  }
+
+  /**
+   * Unregister the statistics MBeans registered by {@link #registerCacheMBeans()}, so that the platform MBean server no
+   * longer holds on to the cache models.
+   */
+  public synchronized void unregisterCacheMBeans() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : cacheMBeanNames) {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        log.warn("Error unregistering MBean " + name + ".  Cause: " + e);
+      }
+    }
+    cacheMBeanNames.clear();
+  }
+
+  /**
+   * Releases what this client registered outside of itself, such as the cache statistics MBeans. The data source is
+   * not closed.
+   */
+  public void shutdown() {
+    unregisterCacheMBeans();
+  }
+
   // -- Basic Methods
   /**
    * Call an insert statement by ID.
@@ -473,6 +598,7 @@ public class SqlMapExecutorDelegate {
       }
 
       StatementScope statementScope = beginStatementScope(sessionScope, ms);
+      sessionScope.getTransactionCache().onUpdate();
       try {
         ms.executeUpdate(statementScope, trans, param);
       } catch (SQLException e) {
@@ -564,6 +690,7 @@ public class SqlMapExecutorDelegate {
       trans = autoStartTransaction(sessionScope, autoStart, trans);
 
       StatementScope statementScope = beginStatementScope(sessionScope, ms);
+      sessionScope.getTransactionCache().onUpdate();
       try {
         rows = ms.executeUpdate(statementScope, trans, param);
       } finally {
@@ -640,6 +767,7 @@ public class SqlMapExecutorDelegate {
     MappedStatement ms = getMappedStatement(id);
     Transaction trans = getTransaction(sessionScope);
     boolean autoStart = trans == null;
+    boolean replicaRead = autoStart && beginReplicaRead(ms);
 
     try {
       trans = autoStartTransaction(sessionScope, autoStart, trans);
@@ -653,6 +781,9 @@ public class SqlMapExecutorDelegate {
 
       autoCommitTransaction(sessionScope, autoStart);
     } finally {
+      if (replicaRead) {
+        replicaRouting.endRead();
+      }
       autoEndTransaction(sessionScope, autoStart);
     }
 
@@ -704,6 +835,7 @@ public class SqlMapExecutorDelegate {
     MappedStatement ms = getMappedStatement(id);
     Transaction trans = getTransaction(sessionScope);
     boolean autoStart = trans == null;
+    boolean replicaRead = autoStart && beginReplicaRead(ms);
 
     try {
       trans = autoStartTransaction(sessionScope, autoStart, trans);
@@ -717,6 +849,9 @@ public class SqlMapExecutorDelegate {
 
       autoCommitTransaction(sessionScope, autoStart);
     } finally {
+      if (replicaRead) {
+        replicaRouting.endRead();
+      }
       autoEndTransaction(sessionScope, autoStart);
     }
 
@@ -744,6 +879,7 @@ public class SqlMapExecutorDelegate {
     MappedStatement ms = getMappedStatement(id);
     Transaction trans = getTransaction(sessionScope);
     boolean autoStart = trans == null;
+    boolean replicaRead = autoStart && beginReplicaRead(ms);
 
     try {
       trans = autoStartTransaction(sessionScope, autoStart, trans);
@@ -757,6 +893,9 @@ public class SqlMapExecutorDelegate {
 
       autoCommitTransaction(sessionScope, autoStart);
     } finally {
+      if (replicaRead) {
+        replicaRouting.endRead();
+      }
       autoEndTransaction(sessionScope, autoStart);
     }
 
@@ -901,6 +1040,7 @@ public class SqlMapExecutorDelegate {
       }
       sqlExecutor.cleanup(sessionScope);
       txManager.commit(sessionScope);
+      sessionScope.getTransactionCache().commit();
     } catch (TransactionException e) {
       throw new NestedSQLException("Could not commit transaction.  Cause: " + e, e);
     }
@@ -920,6 +1060,7 @@ public class SqlMapExecutorDelegate {
       try {
         sqlExecutor.cleanup(sessionScope);
       } finally {
+        sessionScope.getTransactionCache().end();
         txManager.end(sessionScope);
       }
     } catch (TransactionException e) {
@@ -935,6 +1076,20 @@ public class SqlMapExecutorDelegate {
    */
   public void startBatch(SessionScope sessionScope) {
     sessionScope.setInBatch(true);
+    sessionScope.setBatchSize(null);
+  }
+
+  /**
+   * Start a batch for a session, that is executed each time the given number of rows was added.
+   *
+   * @param sessionScope
+   *          - the session
+   * @param batchSize
+   *          - the number of rows after which the batch is executed, 0 to execute it only at the end
+   */
+  public void startBatch(SessionScope sessionScope, int batchSize) {
+    sessionScope.setInBatch(true);
+    sessionScope.setBatchSize(batchSize);
   }
 
   /**
@@ -1032,6 +1187,23 @@ public class SqlMapExecutorDelegate {
 
   // -- Protected Methods
 
+  /**
+   * Marks a read on the current thread if the statement is read-only and reads are routed to replicas, so the
+   * transaction started for the statement gets a replica connection. The caller ends the read after the statement.
+   *
+   * @param ms
+   *          the statement about to run outside of an explicit transaction
+   *
+   * @return true, if a read was marked
+   */
+  protected boolean beginReplicaRead(MappedStatement ms) {
+    if (replicaRouting == null || !ms.isReadOnly()) {
+      return false;
+    }
+    replicaRouting.beginRead();
+    return true;
+  }
+
   /**
    * Auto end transaction.
    *
@@ -1211,4 +1383,43 @@ public class SqlMapExecutorDelegate {
   public void setForceMultipleResultSetSupport(boolean forceMultipleResultSetSupport) {
     this.forceMultipleResultSetSupport = forceMultipleResultSetSupport;
   }
+
+  /**
+   * Checks if batches group their rows by SQL, preparing one statement per distinct SQL instead of one each time the
+   * SQL changes.
+   *
+   * @return true, if batch grouping is enabled
+   */
+  public boolean isBatchGroupingEnabled() {
+    return batchGroupingEnabled;
+  }
+
+  /**
+   * Sets the batch grouping enabled.
+   *
+   * @param batchGroupingEnabled
+   *          the new batch grouping enabled
+   */
+  public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+    this.batchGroupingEnabled = batchGroupingEnabled;
+  }
+
+  /**
+   * Gets the number of rows after which a batch is executed, for batches started without a batch size.
+   *
+   * @return the batch size, 0 if batches are only executed at the end
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the batch size.
+   *
+   * @param batchSize
+   *          the new batch size
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
 }
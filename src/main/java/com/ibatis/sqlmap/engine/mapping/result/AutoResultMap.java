@@ -27,15 +27,31 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An automatic result map for simple stuff.
+ * <p>
+ * The mappings are built from the metadata of the result set, once per distinct list of columns, into a result map
+ * that is never changed afterwards. Rows are mapped by that result map, so concurrent queries share it without locks.
+ * Without remapping the mappings of the first result set are kept for good; with remapping a result map is built for
+ * each list of columns the statement returns, and looked up once per result set.
  */
 public class AutoResultMap extends ResultMap {
 
+  /** The maximum number of column lists whose result maps are kept, beyond which result maps are built per query. */
+  private static final int MAX_SHAPES = 64;
+
+  /** The result maps of the column lists seen so far, when remapping is allowed. */
+  private final ConcurrentHashMap<List<String>, ResultMap> shapes = new ConcurrentHashMap<>();
+
+  /** The result map of the first result set, when remapping is not allowed. */
+  private volatile ResultMap fixedShape;
+
   /**
    * Constructor to pass in the SqlMapExecutorDelegate.
    *
@@ -50,170 +66,207 @@ public class AutoResultMap extends ResultMap {
   }
 
   @Override
-  public synchronized Object[] getResults(StatementScope statementScope, ResultSet rs) throws SQLException {
-    if (allowRemapping || getResultMappings() == null) {
-      initialize(rs);
+  public ResultMap resolveSubMap(StatementScope statementScope, ResultSet rs) throws SQLException {
+    if (!allowRemapping) {
+      ResultMap shape = fixedShape;
+      if (shape == null) {
+        shape = buildShape(getColumnIdentifiers(rs));
+        fixedShape = shape;
+      }
+      return shape;
     }
-    return super.getResults(statementScope, rs);
+    ResultMap shape = statementScope.getResultSetShape(this, rs);
+    if (shape == null) {
+      List<String> columns = getColumnIdentifiers(rs);
+      shape = shapes.get(columns);
+      if (shape == null) {
+        shape = buildShape(columns);
+        if (shapes.size() < MAX_SHAPES) {
+          ResultMap existing = shapes.putIfAbsent(columns, shape);
+          if (existing != null) {
+            shape = existing;
+          }
+        }
+      }
+      statementScope.setResultSetShape(this, rs, shape);
+    }
+    return shape;
+  }
+
+  @Override
+  public Object[] getResults(StatementScope statementScope, ResultSet rs) throws SQLException {
+    return resolveSubMap(statementScope, rs).getResults(statementScope, rs);
   }
 
   @Override
   public Object setResultObjectValues(StatementScope statementScope, Object resultObject, Object[] values) {
-    // synchronization is only needed when remapping is enabled
-    if (allowRemapping) {
-      synchronized (this) {
-        return super.setResultObjectValues(statementScope, resultObject, values);
-      }
+    try {
+      return resolveSubMap(statementScope, statementScope.getResultSet()).setResultObjectValues(statementScope,
+          resultObject, values);
+    } catch (SQLException e) {
+      throw new SqlMapException("Error automapping columns.  Cause: " + e, e);
     }
-    return super.setResultObjectValues(statementScope, resultObject, values);
   }
 
   /**
-   * Initialize.
+   * Builds the result map of a list of columns.
    *
-   * @param rs
-   *          the rs
+   * @param columns
+   *          the column identifiers, in the order of the result set
+   *
+   * @return the result map
    */
-  private void initialize(ResultSet rs) {
+  private ResultMap buildShape(List<String> columns) {
     if (getResultClass() == null) {
       throw new SqlMapException(
           "The automatic ResultMap named " + this.getId() + " had a null result class (not allowed).");
     }
+    List resultMappingList;
     if (Map.class.isAssignableFrom(getResultClass())) {
-      initializeMapResults(rs);
+      resultMappingList = initializeMapResults(columns);
     } else if (getDelegate().getTypeHandlerFactory().getTypeHandler(getResultClass()) != null) {
-      initializePrimitiveResults(rs);
+      resultMappingList = initializePrimitiveResults(columns);
     } else if (DomTypeMarker.class.isAssignableFrom(getResultClass())) {
-      initializeXmlResults(rs);
+      resultMappingList = initializeXmlResults(columns);
     } else {
-      initializeBeanResults(rs);
+      resultMappingList = initializeBeanResults(columns);
     }
+    ResultMap shape = new ResultMap(getDelegate());
+    shape.setId(getId());
+    shape.setResultClass(getResultClass());
+    shape.setXmlName(getXmlName());
+    shape.setResource(getResource());
+    shape.setResultMappingList(resultMappingList);
+    return shape;
   }
 
   /**
    * Initialize bean results.
    *
-   * @param rs
-   *          the rs
+   * @param columns
+   *          the columns
+   *
+   * @return the result mappings
    */
-  private void initializeBeanResults(ResultSet rs) {
-    try {
-      ClassInfo classInfo = ClassInfo.getInstance(getResultClass());
-      String[] propertyNames = classInfo.getWriteablePropertyNames();
+  private List initializeBeanResults(List<String> columns) {
+    ClassInfo classInfo = ClassInfo.getInstance(getResultClass());
+    String[] propertyNames = classInfo.getWriteablePropertyNames();
 
-      Map propertyMap = new HashMap<>();
-      for (String propertyName : propertyNames) {
-        propertyMap.put(propertyName.toUpperCase(java.util.Locale.ENGLISH), propertyName);
-      }
+    Map propertyMap = new HashMap<>();
+    for (String propertyName : propertyNames) {
+      propertyMap.put(propertyName.toUpperCase(java.util.Locale.ENGLISH), propertyName);
+    }
 
-      List resultMappingList = new ArrayList<>();
-      ResultSetMetaData rsmd = rs.getMetaData();
-      for (int i = 0, n = rsmd.getColumnCount(); i < n; i++) {
-        String columnName = getColumnIdentifier(rsmd, i + 1);
-        String upperColumnName = columnName.toUpperCase(java.util.Locale.ENGLISH);
-        String matchedProp = (String) propertyMap.get(upperColumnName);
-        Class type = null;
-        if (matchedProp == null) {
-          Probe p = ProbeFactory.getProbe(this.getResultClass());
-          try {
-            type = p.getPropertyTypeForSetter(this.getResultClass(), columnName);
-          } catch (Exception e) {
-            // TODO - add logging to this class?
-          }
-        } else {
-          type = classInfo.getSetterType(matchedProp);
-        }
-        if (type != null || matchedProp != null) {
-          ResultMapping resultMapping = new ResultMapping();
-          resultMapping.setPropertyName(matchedProp != null ? matchedProp : columnName);
-          resultMapping.setColumnName(columnName);
-          resultMapping.setColumnIndex(i + 1);
-          // map SQL to JDBC type
-          resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(type));
-          resultMappingList.add(resultMapping);
+    List resultMappingList = new ArrayList<>();
+    for (int i = 0, n = columns.size(); i < n; i++) {
+      String columnName = columns.get(i);
+      String upperColumnName = columnName.toUpperCase(java.util.Locale.ENGLISH);
+      String matchedProp = (String) propertyMap.get(upperColumnName);
+      Class type = null;
+      if (matchedProp == null) {
+        Probe p = ProbeFactory.getProbe(this.getResultClass());
+        try {
+          type = p.getPropertyTypeForSetter(this.getResultClass(), columnName);
+        } catch (Exception e) {
+          // TODO - add logging to this class?
         }
+      } else {
+        type = classInfo.getSetterType(matchedProp);
+      }
+      if (type != null || matchedProp != null) {
+        ResultMapping resultMapping = new ResultMapping();
+        resultMapping.setPropertyName(matchedProp != null ? matchedProp : columnName);
+        resultMapping.setColumnName(columnName);
+        resultMapping.setColumnIndex(i + 1);
+        // map SQL to JDBC type
+        resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(type));
+        resultMappingList.add(resultMapping);
       }
-      setResultMappingList(resultMappingList);
-
-    } catch (SQLException e) {
-      throw new RuntimeException("Error automapping columns. Cause: " + e);
     }
-
+    return resultMappingList;
   }
 
   /**
    * Initialize xml results.
    *
-   * @param rs
-   *          the rs
+   * @param columns
+   *          the columns
+   *
+   * @return the result mappings
    */
-  private void initializeXmlResults(ResultSet rs) {
-    try {
-      List resultMappingList = new ArrayList<>();
-      ResultSetMetaData rsmd = rs.getMetaData();
-      for (int i = 0, n = rsmd.getColumnCount(); i < n; i++) {
-        String columnName = getColumnIdentifier(rsmd, i + 1);
-        ResultMapping resultMapping = new ResultMapping();
-        resultMapping.setPropertyName(columnName);
-        resultMapping.setColumnName(columnName);
-        resultMapping.setColumnIndex(i + 1);
-        resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(String.class));
-        resultMappingList.add(resultMapping);
-      }
-      setResultMappingList(resultMappingList);
-    } catch (SQLException e) {
-      throw new RuntimeException("Error automapping columns. Cause: " + e);
+  private List initializeXmlResults(List<String> columns) {
+    List resultMappingList = new ArrayList<>();
+    for (int i = 0, n = columns.size(); i < n; i++) {
+      String columnName = columns.get(i);
+      ResultMapping resultMapping = new ResultMapping();
+      resultMapping.setPropertyName(columnName);
+      resultMapping.setColumnName(columnName);
+      resultMapping.setColumnIndex(i + 1);
+      resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(String.class));
+      resultMappingList.add(resultMapping);
     }
+    return resultMappingList;
   }
 
   /**
    * Initialize map results.
    *
-   * @param rs
-   *          the rs
+   * @param columns
+   *          the columns
+   *
+   * @return the result mappings
    */
-  private void initializeMapResults(ResultSet rs) {
-    try {
-      List resultMappingList = new ArrayList<>();
-      ResultSetMetaData rsmd = rs.getMetaData();
-      for (int i = 0, n = rsmd.getColumnCount(); i < n; i++) {
-        String columnName = getColumnIdentifier(rsmd, i + 1);
-        ResultMapping resultMapping = new ResultMapping();
-        resultMapping.setPropertyName(columnName);
-        resultMapping.setColumnName(columnName);
-        resultMapping.setColumnIndex(i + 1);
-        resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(Object.class));
-        resultMappingList.add(resultMapping);
-      }
-
-      setResultMappingList(resultMappingList);
-
-    } catch (SQLException e) {
-      throw new RuntimeException("Error automapping columns. Cause: " + e);
+  private List initializeMapResults(List<String> columns) {
+    List resultMappingList = new ArrayList<>();
+    for (int i = 0, n = columns.size(); i < n; i++) {
+      String columnName = columns.get(i);
+      ResultMapping resultMapping = new ResultMapping();
+      resultMapping.setPropertyName(columnName);
+      resultMapping.setColumnName(columnName);
+      resultMapping.setColumnIndex(i + 1);
+      resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(Object.class));
+      resultMappingList.add(resultMapping);
     }
+    return resultMappingList;
   }
 
   /**
    * Initialize primitive results.
    *
+   * @param columns
+   *          the columns
+   *
+   * @return the result mappings
+   */
+  private List initializePrimitiveResults(List<String> columns) {
+    String columnName = columns.get(0);
+    ResultMapping resultMapping = new ResultMapping();
+    resultMapping.setPropertyName(columnName);
+    resultMapping.setColumnName(columnName);
+    resultMapping.setColumnIndex(1);
+    resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(getResultClass()));
+
+    List resultMappingList = new ArrayList<>();
+    resultMappingList.add(resultMapping);
+    return resultMappingList;
+  }
+
+  /**
+   * Gets the identifiers of the columns of a result set, which tell its result map.
+   *
    * @param rs
    *          the rs
+   *
+   * @return the column identifiers
    */
-  private void initializePrimitiveResults(ResultSet rs) {
+  private List<String> getColumnIdentifiers(ResultSet rs) {
     try {
       ResultSetMetaData rsmd = rs.getMetaData();
-      String columnName = getColumnIdentifier(rsmd, 1);
-      ResultMapping resultMapping = new ResultMapping();
-      resultMapping.setPropertyName(columnName);
-      resultMapping.setColumnName(columnName);
-      resultMapping.setColumnIndex(1);
-      resultMapping.setTypeHandler(getDelegate().getTypeHandlerFactory().getTypeHandler(getResultClass()));
-
-      List resultMappingList = new ArrayList<>();
-      resultMappingList.add(resultMapping);
-
-      setResultMappingList(resultMappingList);
-
+      String[] columns = new String[rsmd.getColumnCount()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = getColumnIdentifier(rsmd, i + 1);
+      }
+      return Arrays.asList(columns);
     } catch (SQLException e) {
       throw new RuntimeException("Error automapping columns. Cause: " + e);
     }
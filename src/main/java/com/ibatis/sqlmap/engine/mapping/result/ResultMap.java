@@ -19,16 +19,28 @@ import com.ibatis.common.beans.Probe;
 import com.ibatis.common.beans.ProbeFactory;
 import com.ibatis.common.jdbc.exception.NestedSQLException;
 import com.ibatis.sqlmap.client.SqlMapException;
+import com.ibatis.sqlmap.engine.accessplan.AccessPlan;
+import com.ibatis.sqlmap.engine.accessplan.PrimitiveAccessPlan;
 import com.ibatis.sqlmap.engine.exchange.DataExchange;
+import com.ibatis.sqlmap.engine.exchange.JavaBeanDataExchange;
 import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
 import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
+import com.ibatis.sqlmap.engine.mapping.result.loader.NestedSelectBatch;
 import com.ibatis.sqlmap.engine.mapping.result.loader.ResultLoader;
 import com.ibatis.sqlmap.engine.mapping.sql.Sql;
 import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
 import com.ibatis.sqlmap.engine.scope.ErrorContext;
 import com.ibatis.sqlmap.engine.scope.StatementScope;
+import com.ibatis.sqlmap.engine.type.BooleanTypeHandler;
+import com.ibatis.sqlmap.engine.type.ByteTypeHandler;
+import com.ibatis.sqlmap.engine.type.CustomTypeHandler;
 import com.ibatis.sqlmap.engine.type.DomCollectionTypeMarker;
 import com.ibatis.sqlmap.engine.type.DomTypeMarker;
+import com.ibatis.sqlmap.engine.type.DoubleTypeHandler;
+import com.ibatis.sqlmap.engine.type.FloatTypeHandler;
+import com.ibatis.sqlmap.engine.type.IntegerTypeHandler;
+import com.ibatis.sqlmap.engine.type.LongTypeHandler;
+import com.ibatis.sqlmap.engine.type.ShortTypeHandler;
 import com.ibatis.sqlmap.engine.type.TypeHandler;
 import com.ibatis.sqlmap.engine.type.TypeHandlerFactory;
 
@@ -67,15 +79,15 @@ public class ResultMap {
   private Class resultClass;
 
   /** The result mappings. */
-  // DO NOT ACCESS EITHER OF THESE OUTSIDE OF THEIR BEAN GETTER/SETTER
+  // DO NOT ACCESS THIS OUTSIDE OF ITS BEAN GETTER/SETTER
   private ResultMapping[] resultMappings;
 
-  /** The remappable result mappings. */
-  private ThreadLocal remappableResultMappings = new ThreadLocal();
-
   /** The data exchange. */
   private DataExchange dataExchange;
 
+  /** The primitive type each mapping is read as, or null if all of them are read as objects. */
+  private Class[] primitiveTypes;
+
   /** The nested result mappings. */
   private List nestedResultMappings;
 
@@ -222,6 +234,7 @@ public class ResultMap {
    */
   public void setDataExchange(DataExchange dataExchange) {
     this.dataExchange = dataExchange;
+    initializePrimitiveTypes();
   }
 
   /**
@@ -321,9 +334,6 @@ public class ResultMap {
    * @return the result mappings
    */
   public ResultMapping[] getResultMappings() {
-    if (allowRemapping) {
-      return (ResultMapping[]) remappableResultMappings.get();
-    }
     return resultMappings;
   }
 
@@ -387,16 +397,78 @@ public class ResultMap {
    *          - the list
    */
   public void setResultMappingList(List resultMappingList) {
-    if (allowRemapping) {
-      this.remappableResultMappings.set(resultMappingList.toArray(new ResultMapping[resultMappingList.size()]));
-    } else {
-      this.resultMappings = (ResultMapping[]) resultMappingList.toArray(new ResultMapping[resultMappingList.size()]);
-    }
+    this.resultMappings = (ResultMapping[]) resultMappingList.toArray(new ResultMapping[resultMappingList.size()]);
 
     Map props = new HashMap<>();
     props.put("map", this);
     dataExchange = getDelegate().getDataExchangeFactory().getDataExchangeForClass(resultClass);
     dataExchange.initialize(props);
+    initializePrimitiveTypes();
+  }
+
+  /**
+   * Finds the mappings whose values can be read as primitives and set without boxing them: those of the primitive
+   * properties of a bean, read by the standard type handler of their type.
+   */
+  private void initializePrimitiveTypes() {
+    primitiveTypes = null;
+    if (resultMappings == null || !(dataExchange instanceof JavaBeanDataExchange)) {
+      return;
+    }
+    AccessPlan plan = ((JavaBeanDataExchange) dataExchange).getResultPlan();
+    if (!(plan instanceof PrimitiveAccessPlan)) {
+      return;
+    }
+    Class[] types = new Class[resultMappings.length];
+    boolean found = false;
+    for (int i = 0; i < resultMappings.length; i++) {
+      ResultMapping mapping = resultMappings[i];
+      if (mapping.getStatementName() == null && mapping.getNestedResultMapName() == null
+          && mapping.getTypeHandler() != null) {
+        Class type = ((PrimitiveAccessPlan) plan).getPrimitiveType(i);
+        if (type != null && type == getPrimitiveType(mapping.getTypeHandler())) {
+          types[i] = type;
+          found = true;
+        }
+      }
+    }
+    if (found) {
+      primitiveTypes = types;
+    }
+  }
+
+  /**
+   * Gets the primitive type a standard type handler reads.
+   *
+   * @param typeHandler
+   *          the type handler
+   *
+   * @return the primitive type, or null if the type handler does not read a primitive
+   */
+  private static Class getPrimitiveType(TypeHandler typeHandler) {
+    Class handlerClass = typeHandler.getClass();
+    if (handlerClass == IntegerTypeHandler.class) {
+      return int.class;
+    }
+    if (handlerClass == LongTypeHandler.class) {
+      return long.class;
+    }
+    if (handlerClass == DoubleTypeHandler.class) {
+      return double.class;
+    }
+    if (handlerClass == FloatTypeHandler.class) {
+      return float.class;
+    }
+    if (handlerClass == ShortTypeHandler.class) {
+      return short.class;
+    }
+    if (handlerClass == ByteTypeHandler.class) {
+      return byte.class;
+    }
+    if (handlerClass == BooleanTypeHandler.class) {
+      return boolean.class;
+    }
+    return null;
   }
 
   /**
@@ -429,9 +501,21 @@ public class ResultMap {
     errorContext.setMoreInfo("Check the result map.");
 
     boolean foundData = false;
-    Object[] columnValues = new Object[getResultMappings().length];
-    for (int i = 0; i < getResultMappings().length; i++) {
-      ResultMapping mapping = getResultMappings()[i];
+    ResultMapping[] mappings = getResultMappings();
+    int[] columnIndexes = getColumnIndexes(statementScope, rs, mappings);
+    // grouped rows need the values of their group by properties as objects
+    Class[] primitives = groupByProps == null ? primitiveTypes : null;
+    long[] primitiveValues = null;
+    if (primitives != null) {
+      primitiveValues = statementScope.getPrimitiveValues(this);
+      if (primitiveValues == null) {
+        primitiveValues = new long[mappings.length];
+        statementScope.setPrimitiveValues(this, primitiveValues);
+      }
+    }
+    Object[] columnValues = new Object[mappings.length];
+    for (int i = 0; i < mappings.length; i++) {
+      ResultMapping mapping = mappings[i];
       errorContext.setMoreInfo(mapping.getErrorString());
       if (mapping.getStatementName() != null) {
         if (resultClass == null) {
@@ -456,8 +540,15 @@ public class ResultMap {
           columnValues[i] = getNestedSelectMappingValue(statementScope, rs, mapping, type);
         }
         foundData = foundData || columnValues[i] != null;
+      } else if (primitives != null && primitives[i] != null) {
+        if (readPrimitiveValue(rs, mapping, columnIndexes[i], primitives[i], primitiveValues, i)) {
+          columnValues[i] = PrimitiveAccessPlan.PRIMITIVE_VALUE;
+          foundData = true;
+        } else {
+          columnValues[i] = doNullMapping(null, mapping);
+        }
       } else if (mapping.getNestedResultMapName() == null) {
-        columnValues[i] = getPrimitiveResultMappingValue(rs, mapping);
+        columnValues[i] = getPrimitiveResultMappingValue(rs, mapping, columnIndexes[i]);
         if (columnValues[i] == null) {
           columnValues[i] = doNullMapping(columnValues[i], mapping);
         } else {
@@ -632,6 +723,9 @@ public class ResultMap {
    */
   protected Object getNestedSelectMappingValue(StatementScope statementScope, ResultSet rs, ResultMapping mapping,
       Class targetType) throws SQLException {
+    if (mapping.getBatchSize() > 0 && Collection.class.isAssignableFrom(targetType)) {
+      return getBatchedNestedSelectMappingValue(statementScope, rs, mapping, targetType);
+    }
     try {
       TypeHandlerFactory typeHandlerFactory = getDelegate().getTypeHandlerFactory();
 
@@ -684,6 +778,46 @@ public class ResultMap {
 
   }
 
+  /**
+   * Gets the value of a nested select that is run for a batch of rows: an empty collection that gets the results of
+   * the row once the batch is loaded.
+   *
+   * @param statementScope
+   *          the statement scope
+   * @param rs
+   *          the rs
+   * @param mapping
+   *          the mapping
+   * @param targetType
+   *          the target type
+   *
+   * @return the collection, or null if the key of the row is null
+   *
+   * @throws SQLException
+   *           the SQL exception
+   */
+  private Object getBatchedNestedSelectMappingValue(StatementScope statementScope, ResultSet rs,
+      ResultMapping mapping, Class targetType) throws SQLException {
+    NestedSelectBatch batch = statementScope.getNestedSelectBatch(mapping);
+    if (batch == null) {
+      SqlMapClientImpl client = (SqlMapClientImpl) statementScope.getSession().getSqlMapClient();
+      batch = new NestedSelectBatch(client, mapping.getStatementName(), mapping.getBatchKey(), mapping.getBatchSize());
+      statementScope.setNestedSelectBatch(mapping, batch);
+    }
+    TypeHandlerFactory typeHandlerFactory = getDelegate().getTypeHandlerFactory();
+    TypeHandler keyTypeHandler = typeHandlerFactory.getTypeHandler(batch.getKeyType());
+    if (keyTypeHandler == null) {
+      keyTypeHandler = typeHandlerFactory.getUnkownTypeHandler();
+    }
+    Object key = keyTypeHandler.getResult(rs, mapping.getColumnName());
+    if (key == null) {
+      return null;
+    }
+    Collection collection = Set.class.isAssignableFrom(targetType) ? new HashSet<>() : new ArrayList<>();
+    batch.add(key, collection);
+    return collection;
+  }
+
   /**
    * Prepare primitive parameter object.
    *
@@ -833,6 +967,26 @@ public class ResultMap {
    *           the SQL exception
    */
   protected Object getPrimitiveResultMappingValue(ResultSet rs, ResultMapping mapping) throws SQLException {
+    return getPrimitiveResultMappingValue(rs, mapping, mapping.getColumnName() == null ? mapping.getColumnIndex() : 0);
+  }
+
+  /**
+   * Gets the primitive result mapping value, reading the column by a resolved index when there is one.
+   *
+   * @param rs
+   *          the rs
+   * @param mapping
+   *          the mapping
+   * @param columnIndex
+   *          the index of the column, or 0 to read it by the column name of the mapping
+   *
+   * @return the primitive result mapping value
+   *
+   * @throws SQLException
+   *           the SQL exception
+   */
+  protected Object getPrimitiveResultMappingValue(ResultSet rs, ResultMapping mapping, int columnIndex)
+      throws SQLException {
     Object value = null;
     TypeHandler typeHandler = mapping.getTypeHandler();
     if (typeHandler == null) {
@@ -840,16 +994,112 @@ public class ResultMap {
           + "' to the column '" + mapping.getColumnName()
           + "'.  One or both of the types, or the combination of types is not supported.");
     }
-    String columnName = mapping.getColumnName();
-    int columnIndex = mapping.getColumnIndex();
-    if (columnName == null) {
+    if (columnIndex > 0) {
       value = typeHandler.getResult(rs, columnIndex);
     } else {
-      value = typeHandler.getResult(rs, columnName);
+      value = typeHandler.getResult(rs, mapping.getColumnName());
     }
     return value;
   }
 
+  /**
+   * Reads the value of a mapping as a primitive, in the encoding of {@link PrimitiveAccessPlan}.
+   *
+   * @param rs
+   *          the rs
+   * @param mapping
+   *          the mapping
+   * @param columnIndex
+   *          the index of the column, or 0 to read it by the column name of the mapping
+   * @param type
+   *          the primitive type
+   * @param primitiveValues
+   *          the primitive values of the row
+   * @param index
+   *          the index of the mapping
+   *
+   * @return true, if the column was not null and its value was stored in the primitive values
+   *
+   * @throws SQLException
+   *           the SQL exception
+   */
+  private static boolean readPrimitiveValue(ResultSet rs, ResultMapping mapping, int columnIndex, Class type,
+      long[] primitiveValues, int index) throws SQLException {
+    String columnName = mapping.getColumnName();
+    long value;
+    if (type == int.class) {
+      value = columnIndex > 0 ? rs.getInt(columnIndex) : rs.getInt(columnName);
+    } else if (type == long.class) {
+      value = columnIndex > 0 ? rs.getLong(columnIndex) : rs.getLong(columnName);
+    } else if (type == double.class) {
+      value = Double.doubleToRawLongBits(columnIndex > 0 ? rs.getDouble(columnIndex) : rs.getDouble(columnName));
+    } else if (type == float.class) {
+      value = Double.doubleToRawLongBits(columnIndex > 0 ? rs.getFloat(columnIndex) : rs.getFloat(columnName));
+    } else if (type == short.class) {
+      value = columnIndex > 0 ? rs.getShort(columnIndex) : rs.getShort(columnName);
+    } else if (type == byte.class) {
+      value = columnIndex > 0 ? rs.getByte(columnIndex) : rs.getByte(columnName);
+    } else {
+      value = (columnIndex > 0 ? rs.getBoolean(columnIndex) : rs.getBoolean(columnName)) ? 1 : 0;
+    }
+    if (rs.wasNull()) {
+      return false;
+    }
+    primitiveValues[index] = value;
+    return true;
+  }
+
+  /**
+   * Gets the indexes of the columns of the mappings in a result set. Column names are resolved once per result set,
+   * so that the cells of every row are read by index instead of being looked up by name. Columns of custom type
+   * handlers are still read by name, because their callbacks may ask the result getter for the column name.
+   *
+   * @param statementScope
+   *          the statement scope
+   * @param rs
+   *          the rs
+   * @param mappings
+   *          the mappings
+   *
+   * @return the index of the column of each mapping, or 0 where the column is read by name
+   */
+  private int[] getColumnIndexes(StatementScope statementScope, ResultSet rs, ResultMapping[] mappings) {
+    int[] columnIndexes = statementScope.getColumnIndexes(this, rs);
+    if (columnIndexes == null) {
+      columnIndexes = new int[mappings.length];
+      for (int i = 0; i < mappings.length; i++) {
+        ResultMapping mapping = mappings[i];
+        if (mapping.getColumnName() == null) {
+          columnIndexes[i] = mapping.getColumnIndex();
+        } else if (mapping.getStatementName() == null && mapping.getNestedResultMapName() == null
+            && !(mapping.getTypeHandler() instanceof CustomTypeHandler)) {
+          columnIndexes[i] = findColumn(rs, mapping.getColumnName());
+        }
+      }
+      statementScope.setColumnIndexes(this, rs, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
+  /**
+   * Finds the index of a column.
+   *
+   * @param rs
+   *          the rs
+   * @param columnName
+   *          the column name
+   *
+   * @return the index, or 0 if the result set cannot tell it, in which case the column is read by name and any error
+   *         is reported then
+   */
+  private static int findColumn(ResultSet rs, String columnName) {
+    try {
+      return rs.findColumn(columnName);
+    } catch (SQLException | UnsupportedOperationException e) {
+      return 0;
+    }
+  }
+
   /**
    * Do null mapping.
    *
@@ -50,6 +50,12 @@ public class ResultMapping {
   /** The statement name. */
   private String statementName;
 
+  /** The number of parent keys the nested select is run for at once, 0 to run it once per row. */
+  private int batchSize;
+
+  /** The property of the nested select results that holds the key of their parent. */
+  private String batchKey;
+
   /** The java type. */
   private Class javaType;
 
@@ -231,6 +237,44 @@ public class ResultMapping {
     this.notNullColumn = notNullColumn;
   }
 
+  /**
+   * Getter for the number of parent keys the nested select is run for at once.
+   *
+   * @return - the number of keys, 0 if the nested select is run once per row
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Setter for the number of parent keys the nested select is run for at once.
+   *
+   * @param batchSize
+   *          - the number of keys, 0 to run the nested select once per row
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Getter for the property of the nested select results that holds the key of their parent.
+   *
+   * @return - the property name
+   */
+  public String getBatchKey() {
+    return batchKey;
+  }
+
+  /**
+   * Setter for the property of the nested select results that holds the key of their parent.
+   *
+   * @param batchKey
+   *          - the property name
+   */
+  public void setBatchKey(String batchKey) {
+    this.batchKey = batchKey;
+  }
+
   /**
    * Getter for the name of the statement.
    *
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.mapping.result.loader;
+
+import com.ibatis.common.beans.Probe;
+import com.ibatis.common.beans.ProbeFactory;
+import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
+import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the parent keys of a nested select, to run it once for a batch of parent rows instead of once per row.
+ * <p>
+ * Each parent row gets an empty collection that is filled when the batch is loaded: the select is run with the list of
+ * the keys, and each of its results is added to the collections of the parents whose key equals its key property.
+ */
+public class NestedSelectBatch {
+
+  /** The Constant PROBE. */
+  private static final Probe PROBE = ProbeFactory.getProbe();
+
+  /** The client. */
+  private final SqlMapClientImpl client;
+
+  /** The statement name. */
+  private final String statementName;
+
+  /** The property of the results that holds the key of their parent. */
+  private final String keyProperty;
+
+  /** The number of keys the select is run for at once. */
+  private final int batchSize;
+
+  /** The type of the key property of the results. */
+  private final Class keyType;
+
+  /** The collections waiting for results, by parent key. */
+  private final Map<Object, List<Collection>> targets = new LinkedHashMap<>();
+
+  /**
+   * Instantiates a new nested select batch.
+   *
+   * @param client
+   *          the client
+   * @param statementName
+   *          the statement name
+   * @param keyProperty
+   *          the property of the results that holds the key of their parent
+   * @param batchSize
+   *          the number of keys the select is run for at once
+   */
+  public NestedSelectBatch(SqlMapClientImpl client, String statementName, String keyProperty, int batchSize) {
+    this.client = client;
+    this.statementName = statementName;
+    this.keyProperty = keyProperty;
+    this.batchSize = batchSize;
+    ResultMap resultMap = client.getMappedStatement(statementName).getResultMap();
+    Class resultClass = resultMap == null ? null : resultMap.getResultClass();
+    if (resultClass == null || Map.class.isAssignableFrom(resultClass)) {
+      this.keyType = Object.class;
+    } else {
+      this.keyType = PROBE.getPropertyTypeForGetter(resultClass, keyProperty);
+    }
+  }
+
+  /**
+   * Gets the type the parent keys should be read as, so that they equal the keys of the results.
+   *
+   * @return the type of the key property, or Object if it is not known
+   */
+  public Class getKeyType() {
+    return keyType;
+  }
+
+  /**
+   * Adds the collection of a parent row, which gets the results whose key equals the key of the parent. The batch is
+   * loaded once it holds as many keys as its batch size.
+   *
+   * @param key
+   *          the key of the parent
+   * @param target
+   *          the collection
+   *
+   * @throws SQLException
+   *           if the batch was loaded and the select failed
+   */
+  public void add(Object key, Collection target) throws SQLException {
+    targets.computeIfAbsent(key, k -> new ArrayList<>()).add(target);
+    if (targets.size() >= batchSize) {
+      load();
+    }
+  }
+
+  /**
+   * Runs the select for the keys added since the batch was last loaded, and adds its results to their collections.
+   *
+   * @throws SQLException
+   *           if the select failed
+   */
+  public void load() throws SQLException {
+    if (targets.isEmpty()) {
+      return;
+    }
+    List results = client.queryForList(statementName, new ArrayList<>(targets.keySet()));
+    for (Object result : results) {
+      List<Collection> collections = targets.get(PROBE.getObject(result, keyProperty));
+      if (collections != null) {
+        for (Collection collection : collections) {
+          collection.add(result);
+        }
+      }
+    }
+    targets.clear();
+  }
+
+}
@@ -17,12 +17,17 @@ package com.ibatis.sqlmap.engine.mapping.statement;
 
 import com.ibatis.sqlmap.client.event.RowHandler;
 import com.ibatis.sqlmap.engine.cache.CacheKey;
+import com.ibatis.sqlmap.engine.cache.CacheLoader;
 import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheTags;
+import com.ibatis.sqlmap.engine.cache.TransactionCache;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
 import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
 import com.ibatis.sqlmap.engine.mapping.sql.Sql;
+import com.ibatis.sqlmap.engine.scope.SessionScope;
 import com.ibatis.sqlmap.engine.scope.StatementScope;
 import com.ibatis.sqlmap.engine.transaction.Transaction;
+import com.ibatis.sqlmap.engine.transaction.TransactionState;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -92,13 +97,15 @@ public class CachingStatement extends MappedStatement {
       Object resultObject) throws SQLException {
     CacheKey cacheKey = getCacheKey(statementScope, parameterObject);
     cacheKey.update("executeQueryForObject");
-    Object object = cacheModel.getObject(cacheKey);
+    TransactionCache transactionCache = getTransactionCache(statementScope);
+    Object object = getCachedObject(transactionCache, cacheKey);
     if (object == CacheModel.NULL_OBJECT) {
       // This was cached, but null
       object = null;
     } else if (object == null) {
-      object = statement.executeQueryForObject(statementScope, trans, parameterObject, resultObject);
-      cacheModel.putObject(cacheKey, object);
+      object = loadObject(transactionCache, cacheKey,
+          () -> statement.executeQueryForObject(statementScope, trans, parameterObject, resultObject),
+          parameterObject);
     }
     return object;
   }
@@ -110,14 +117,16 @@ public class CachingStatement extends MappedStatement {
     cacheKey.update("executeQueryForList");
     cacheKey.update(skipResults);
     cacheKey.update(maxResults);
-    Object listAsObject = cacheModel.getObject(cacheKey);
+    TransactionCache transactionCache = getTransactionCache(statementScope);
+    Object listAsObject = getCachedObject(transactionCache, cacheKey);
     List list;
     if (listAsObject == CacheModel.NULL_OBJECT) {
       // The cached object was null
       list = null;
     } else if (listAsObject == null) {
-      list = statement.executeQueryForList(statementScope, trans, parameterObject, skipResults, maxResults);
-      cacheModel.putObject(cacheKey, list);
+      list = (List) loadObject(transactionCache, cacheKey,
+          () -> statement.executeQueryForList(statementScope, trans, parameterObject, skipResults, maxResults),
+          parameterObject);
     } else {
       list = (List) listAsObject;
     }
@@ -154,6 +163,120 @@ public class CachingStatement extends MappedStatement {
     statement.notifyListeners();
   }
 
+  @Override
+  public void notifyListeners(Object parameterObject) {
+    statement.notifyListeners(parameterObject);
+  }
+
+  @Override
+  public CacheTags getCacheTags() {
+    return statement.getCacheTags();
+  }
+
+  @Override
+  public void setCacheTags(CacheTags cacheTags) {
+    statement.setCacheTags(cacheTags);
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return statement.isReadOnly();
+  }
+
+  @Override
+  public void setReadOnly(Boolean readOnly) {
+    statement.setReadOnly(readOnly);
+  }
+
+  @Override
+  public Integer getBatchOrder() {
+    return statement.getBatchOrder();
+  }
+
+  @Override
+  public void setBatchOrder(Integer batchOrder) {
+    statement.setBatchOrder(batchOrder);
+  }
+
+  /**
+   * Gets the transaction cache of the session. Sessions running on a connection provided by the application have none,
+   * because the sql map client never sees their transactions end.
+   *
+   * @param statementScope
+   *          the statement scope
+   *
+   * @return the transaction cache (or null)
+   */
+  private static TransactionCache getTransactionCache(StatementScope statementScope) {
+    SessionScope session = statementScope.getSession();
+    if (session == null || session.getTransactionState() == TransactionState.STATE_USER_PROVIDED) {
+      return null;
+    }
+    return session.getTransactionCache();
+  }
+
+  /**
+   * Looks a result up in the transaction cache first, and then in the cache model.
+   *
+   * @param transactionCache
+   *          the transaction cache (or null)
+   * @param cacheKey
+   *          the cache key
+   *
+   * @return the result, CacheModel.NULL_OBJECT for a cached null, or null if the result is not cached
+   */
+  private Object getCachedObject(TransactionCache transactionCache, CacheKey cacheKey) {
+    if (transactionCache == null) {
+      return cacheModel.getObject(cacheKey);
+    }
+    Object object = transactionCache.getObject(cacheModel, cacheKey);
+    if (object == null) {
+      object = cacheModel.getObject(cacheKey);
+      if (object != null) {
+        transactionCache.putObject(cacheModel, cacheKey, object);
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Loads a result that is not cached, through the transaction cache when there is one.
+   *
+   * @param transactionCache
+   *          the transaction cache (or null)
+   * @param cacheKey
+   *          the cache key
+   * @param loader
+   *          the loader
+   * @param parameterObject
+   *          the parameter object
+   *
+   * @return the result (or null)
+   *
+   * @throws SQLException
+   *           if the loader fails
+   */
+  private Object loadObject(TransactionCache transactionCache, CacheKey cacheKey, CacheLoader loader,
+      Object parameterObject) throws SQLException {
+    if (transactionCache == null) {
+      return cacheModel.loadObject(cacheKey, loader, resolveCacheTags(parameterObject));
+    }
+    return transactionCache.loadObject(cacheModel, cacheKey, loader, resolveCacheTags(parameterObject));
+  }
+
+  /**
+   * Resolves the tags a result for the parameter object is cached under.
+   *
+   * @param parameterObject
+   *          the parameter object
+   *
+   * @return the tags (or null)
+   */
+  private String[] resolveCacheTags(Object parameterObject) {
+    CacheTags cacheTags = statement.getCacheTags();
+    return cacheTags == null ? null : cacheTags.resolve(parameterObject);
+  }
+
   @Override
   public void initRequest(StatementScope statementScope) {
     statement.initRequest(statementScope);
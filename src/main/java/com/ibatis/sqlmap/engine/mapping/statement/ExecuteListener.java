@@ -31,4 +31,17 @@ public interface ExecuteListener {
    */
   void onExecuteStatement(MappedStatement statement);
 
+  /**
+   * On execute statement, with the parameter object the statement was executed with. Listeners that act on what was
+   * changed, rather than on the fact that the statement ran, override this method.
+   *
+   * @param statement
+   *          the statement
+   * @param parameterObject
+   *          the parameter object (or null)
+   */
+  default void onExecuteStatement(MappedStatement statement, Object parameterObject) {
+    onExecuteStatement(statement);
+  }
+
 }
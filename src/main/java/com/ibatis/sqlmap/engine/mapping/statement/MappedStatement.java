@@ -20,11 +20,13 @@ import com.ibatis.common.jdbc.exception.NestedSQLException;
 import com.ibatis.sqlmap.client.SqlMapClient;
 import com.ibatis.sqlmap.client.event.RowHandler;
 import com.ibatis.sqlmap.engine.cache.CacheKey;
+import com.ibatis.sqlmap.engine.cache.CacheTags;
 import com.ibatis.sqlmap.engine.execution.SqlExecutor;
 import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
 import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
 import com.ibatis.sqlmap.engine.mapping.sql.Sql;
+import com.ibatis.sqlmap.engine.mapping.sql.stat.StaticSql;
 import com.ibatis.sqlmap.engine.scope.ErrorContext;
 import com.ibatis.sqlmap.engine.scope.StatementScope;
 import com.ibatis.sqlmap.engine.transaction.Transaction;
@@ -89,6 +91,15 @@ public class MappedStatement {
   /** The resource. */
   private String resource;
 
+  /** The cache tags. */
+  private CacheTags cacheTags;
+
+  /** Whether the statement only reads, or null to decide by the statement type. */
+  private Boolean readOnly;
+
+  /** The position of the statement among the statements of a grouped batch, or null. */
+  private Integer batchOrder;
+
   /**
    * Gets the statement type.
    *
@@ -153,7 +164,7 @@ public class MappedStatement {
 
       errorContext.reset();
       sql.cleanup(statementScope);
-      notifyListeners();
+      notifyListeners(parameterObject);
       return rows;
     } catch (SQLException e) {
       errorContext.setCause(e);
@@ -324,7 +335,7 @@ public class MappedStatement {
 
       errorContext.reset();
       sql.cleanup(statementScope);
-      notifyListeners();
+      notifyListeners(parameterObject);
     } catch (SQLException e) {
       errorContext.setCause(e);
       throw new NestedSQLException(errorContext.toString(), e.getSQLState(), e.getErrorCode(), e);
@@ -645,7 +656,10 @@ public class MappedStatement {
     // works on 1 machine, but fails across machines.
     // cacheKey.update(baseCacheKey);
 
-    cacheKey.update(sql.getSql(statementScope, parameterObject)); // Fixes bug 953001
+    // Static SQL is fully determined by the statement id, so only generated SQL needs to be part of the key
+    if (!(sql instanceof StaticSql)) {
+      cacheKey.update(sql.getSql(statementScope, parameterObject)); // Fixes bug 953001
+    }
     return cacheKey;
   }
 
@@ -673,11 +687,80 @@ public class MappedStatement {
    * Notify listeners.
    */
   public void notifyListeners() {
+    notifyListeners(null);
+  }
+
+  /**
+   * Notify listeners.
+   *
+   * @param parameterObject
+   *          the parameter object the statement was executed with
+   */
+  public void notifyListeners(Object parameterObject) {
     for (Object executeListener : executeListeners) {
-      ((ExecuteListener) executeListener).onExecuteStatement(this);
+      ((ExecuteListener) executeListener).onExecuteStatement(this, parameterObject);
     }
   }
 
+  /**
+   * Gets the cache tags.
+   *
+   * @return the cache tags (or null)
+   */
+  public CacheTags getCacheTags() {
+    return cacheTags;
+  }
+
+  /**
+   * Sets the cache tags.
+   *
+   * @param cacheTags
+   *          the tables (and rows) the results of this statement depend on
+   */
+  public void setCacheTags(CacheTags cacheTags) {
+    this.cacheTags = cacheTags;
+  }
+
+  /**
+   * Checks if the statement only reads. Read-only statements that run outside of an explicit transaction may be routed
+   * to a read replica.
+   *
+   * @return true, if marked read-only, or if it is a select that was not marked otherwise
+   */
+  public boolean isReadOnly() {
+    return readOnly != null ? readOnly : getStatementType() == StatementType.SELECT;
+  }
+
+  /**
+   * Sets whether the statement only reads.
+   *
+   * @param readOnly
+   *          true or false, or null to decide by the statement type
+   */
+  public void setReadOnly(Boolean readOnly) {
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Gets the position of the statement among the statements of a grouped batch. When batches group their rows by SQL,
+   * the groups of statements with a batch order run first, lowest order first.
+   *
+   * @return the batch order, or null to run in the order the statement was first added to the batch
+   */
+  public Integer getBatchOrder() {
+    return batchOrder;
+  }
+
+  /**
+   * Sets the position of the statement among the statements of a grouped batch.
+   *
+   * @param batchOrder
+   *          the batch order, or null
+   */
+  public void setBatchOrder(Integer batchOrder) {
+    this.batchOrder = batchOrder;
+  }
+
   /**
    * Gets the sql executor.
    *
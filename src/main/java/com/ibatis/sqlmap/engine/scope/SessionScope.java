@@ -19,6 +19,7 @@ import com.ibatis.sqlmap.client.SqlMapClient;
 import com.ibatis.sqlmap.client.SqlMapException;
 import com.ibatis.sqlmap.client.SqlMapExecutor;
 import com.ibatis.sqlmap.client.SqlMapTransactionManager;
+import com.ibatis.sqlmap.engine.cache.TransactionCache;
 import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
 import com.ibatis.sqlmap.engine.transaction.Transaction;
 import com.ibatis.sqlmap.engine.transaction.TransactionState;
@@ -72,17 +73,24 @@ public class SessionScope {
   // Used by SqlExecutor
   private Object batch;
 
+  /** The number of rows after which the batch is executed, or null to use the one of the client. */
+  private Integer batchSize;
+
   /** The commit required. */
   private boolean commitRequired;
 
   /** The prepared statements. */
   private Map preparedStatements;
 
+  /** The transaction cache. */
+  private TransactionCache transactionCache;
+
   /**
    * Default constructor.
    */
   public SessionScope() {
     this.preparedStatements = new HashMap<>();
+    this.transactionCache = new TransactionCache();
     this.inBatch = false;
     this.requestStackDepth = 0;
     this.id = getNextId();
@@ -164,6 +172,25 @@ public class SessionScope {
     this.inBatch = inBatch;
   }
 
+  /**
+   * Gets the number of rows after which the batch of the session is executed.
+   *
+   * @return - the batch size, or null to use the batch size of the client
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the number of rows after which the batch of the session is executed.
+   *
+   * @param batchSize
+   *          - the batch size, or null to use the batch size of the client
+   */
+  public void setBatchSize(Integer batchSize) {
+    this.batchSize = batchSize;
+  }
+
   /**
    * Getter for the session transaction.
    *
@@ -202,6 +229,15 @@ public class SessionScope {
     this.transactionState = transactionState;
   }
 
+  /**
+   * Getter for the first level cache of the session, which keeps the cached results of the current transaction.
+   *
+   * @return - the transaction cache
+   */
+  public TransactionCache getTransactionCache() {
+    return transactionCache;
+  }
+
   /**
    * Getter for the batch of the session.
    *
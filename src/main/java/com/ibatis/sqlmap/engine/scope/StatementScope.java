@@ -17,10 +17,14 @@ package com.ibatis.sqlmap.engine.scope;
 
 import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
 import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
+import com.ibatis.sqlmap.engine.mapping.result.ResultMapping;
+import com.ibatis.sqlmap.engine.mapping.result.loader.NestedSelectBatch;
 import com.ibatis.sqlmap.engine.mapping.sql.Sql;
 import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
 
 import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -68,6 +72,27 @@ public class StatementScope {
   /** The current nested key. */
   private String currentNestedKey;
 
+  /** The result map the shape was resolved for. */
+  private ResultMap shapeOwner;
+
+  /** The result set the shape was resolved for. */
+  private ResultSet shapeResultSet;
+
+  /** The result map built for the columns of the shape result set. */
+  private ResultMap shape;
+
+  /** The result set the column indexes were resolved for. */
+  private ResultSet columnIndexesResultSet;
+
+  /** The column indexes of the mappings of each result map, in the column indexes result set. */
+  private Map<ResultMap, int[]> columnIndexes;
+
+  /** The primitive values of the current row of each result map. */
+  private Map<ResultMap, long[]> primitiveValues;
+
+  /** The batches of the batched nested selects, by result mapping. */
+  private Map<ResultMapping, NestedSelectBatch> nestedSelectBatches;
+
   /**
    * Instantiates a new statement scope.
    *
@@ -281,6 +306,151 @@ public class StatementScope {
     this.uniqueKeys.put(map, keys);
   }
 
+  /**
+   * Gets the result map that was resolved for the columns of a result set, so that it is only resolved once per
+   * result set rather than once per row.
+   *
+   * @param map
+   *          the result map the shape was resolved for
+   * @param rs
+   *          the result set
+   *
+   * @return the resolved result map, or null if it was resolved for another map or result set
+   */
+  public ResultMap getResultSetShape(ResultMap map, ResultSet rs) {
+    if (shapeOwner == map && shapeResultSet == rs) {
+      return shape;
+    }
+    return null;
+  }
+
+  /**
+   * Sets the result map that was resolved for the columns of a result set.
+   *
+   * @param map
+   *          the result map the shape was resolved for
+   * @param rs
+   *          the result set
+   * @param shape
+   *          the resolved result map
+   */
+  public void setResultSetShape(ResultMap map, ResultSet rs, ResultMap shape) {
+    this.shapeOwner = map;
+    this.shapeResultSet = rs;
+    this.shape = shape;
+  }
+
+  /**
+   * Gets the indexes of the columns of the mappings of a result map in a result set.
+   *
+   * @param map
+   *          the result map
+   * @param rs
+   *          the result set
+   *
+   * @return the column indexes, or null if they were not resolved for this result set yet
+   */
+  public int[] getColumnIndexes(ResultMap map, ResultSet rs) {
+    if (columnIndexes == null || columnIndexesResultSet != rs) {
+      return null;
+    }
+    return columnIndexes.get(map);
+  }
+
+  /**
+   * Sets the indexes of the columns of the mappings of a result map in a result set, forgetting those resolved for
+   * another result set.
+   *
+   * @param map
+   *          the result map
+   * @param rs
+   *          the result set
+   * @param indexes
+   *          the column indexes
+   */
+  public void setColumnIndexes(ResultMap map, ResultSet rs, int[] indexes) {
+    if (columnIndexes == null) {
+      columnIndexes = new HashMap<>();
+    }
+    if (columnIndexesResultSet != rs) {
+      columnIndexes.clear();
+      columnIndexesResultSet = rs;
+    }
+    columnIndexes.put(map, indexes);
+  }
+
+  /**
+   * Gets the buffer a result map reads the primitive values of a row into, so they can be set without boxing them.
+   *
+   * @param map
+   *          the result map
+   *
+   * @return the primitive values, or null if the result map does not read any
+   */
+  public long[] getPrimitiveValues(ResultMap map) {
+    if (primitiveValues == null) {
+      return null;
+    }
+    return primitiveValues.get(map);
+  }
+
+  /**
+   * Sets the buffer a result map reads the primitive values of a row into.
+   *
+   * @param map
+   *          the result map
+   * @param values
+   *          the primitive values
+   */
+  public void setPrimitiveValues(ResultMap map, long[] values) {
+    if (primitiveValues == null) {
+      primitiveValues = new HashMap<>();
+    }
+    primitiveValues.put(map, values);
+  }
+
+  /**
+   * Gets the batch of a batched nested select.
+   *
+   * @param mapping
+   *          the result mapping of the nested select
+   *
+   * @return the batch, or null if the nested select was not run yet
+   */
+  public NestedSelectBatch getNestedSelectBatch(ResultMapping mapping) {
+    if (nestedSelectBatches == null) {
+      return null;
+    }
+    return nestedSelectBatches.get(mapping);
+  }
+
+  /**
+   * Sets the batch of a batched nested select.
+   *
+   * @param mapping
+   *          the result mapping of the nested select
+   * @param batch
+   *          the batch
+   */
+  public void setNestedSelectBatch(ResultMapping mapping, NestedSelectBatch batch) {
+    if (nestedSelectBatches == null) {
+      nestedSelectBatches = new HashMap<>();
+    }
+    nestedSelectBatches.put(mapping, batch);
+  }
+
+  /**
+   * Gets the batches of the batched nested selects, to load those that are not full when the results are read.
+   *
+   * @return the batches
+   */
+  public Collection<NestedSelectBatch> getNestedSelectBatches() {
+    if (nestedSelectBatches == null) {
+      return Collections.emptyList();
+    }
+    return nestedSelectBatches.values();
+  }
+
   /**
    * Checks if is row data found.
    *
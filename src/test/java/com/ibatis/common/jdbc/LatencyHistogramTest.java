@@ -0,0 +1,56 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldMapEveryValueIntoABucketThatContainsIt() {
+    long[] values = { 0, 1, 31, 32, 33, 63, 64, 1000, 123456789L, Long.MAX_VALUE };
+    for (long value : values) {
+      int index = LatencyHistogram.indexOf(value);
+      Assertions.assertTrue(LatencyHistogram.highestValueOf(index) >= value, "upper bound of " + value);
+      Assertions.assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value, "lower bound of " + value);
+    }
+  }
+
+  @Test
+  void shouldReportZeroWhenEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assertions.assertEquals(0, histogram.getCount());
+    Assertions.assertEquals(0.0, histogram.getPercentileMillis(99), 0.0);
+  }
+
+  @Test
+  void shouldReportPercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    Assertions.assertEquals(1000, histogram.getCount());
+    Assertions.assertEquals(500.0, histogram.getPercentileMillis(50), 500.0 / 16);
+    Assertions.assertEquals(990.0, histogram.getPercentileMillis(99), 990.0 / 16);
+    Assertions.assertEquals(1000.0, histogram.getPercentileMillis(99.9), 1000.0 / 16);
+    Assertions.assertEquals(1000.0, histogram.getMaxMillis(), 0.0);
+    Assertions.assertTrue(histogram.getPercentileMillis(100) <= histogram.getMaxMillis());
+  }
+
+}
@@ -15,9 +15,23 @@
  */
 package com.ibatis.common.jdbc;
 
+import com.ibatis.common.jdbc.exception.ConnectionAcquisitionException;
+
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -240,16 +254,14 @@ class SimpleDataSourceTest {
   void shouldUnwrapPooledConnection() throws Exception {
     SimpleDataSource ds = new SimpleDataSource(baseProps());
     Connection proxy = ds.getConnection();
-    // The proxy is a JDK Proxy (implements Connection) wrapping a SimplePooledConnection handler.
-    // unwrapConnection checks instanceof SimplePooledConnection which is false for the JDK proxy,
-    // so it returns the same object unchanged.
-    Connection result = SimpleDataSource.unwrapConnection(proxy);
-    Assertions.assertSame(proxy, result);
+    // The pooled connection is a SimplePooledConnection delegating to the real connection.
+    Assertions.assertInstanceOf(SimpleDataSource.SimplePooledConnection.class, proxy);
+    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) proxy;
+    Connection realConn = spc.getRealConnection();
+    Assertions.assertSame(realConn, SimpleDataSource.unwrapConnection(proxy));
+    Assertions.assertSame(proxy, proxy.unwrap(SimpleDataSource.SimplePooledConnection.class));
 
     // Verify the actual unwrap path: if we pass a real connection it comes back unchanged.
-    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) java.lang.reflect.Proxy
-        .getInvocationHandler(proxy);
-    Connection realConn = spc.getRealConnection();
     Connection realResult = SimpleDataSource.unwrapConnection(realConn);
     Assertions.assertSame(realConn, realResult);
 
@@ -260,8 +272,7 @@ class SimpleDataSourceTest {
   void shouldReturnSameConnectionWhenAlreadyReal() throws Exception {
     SimpleDataSource ds = new SimpleDataSource(baseProps());
     Connection proxy = ds.getConnection();
-    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) java.lang.reflect.Proxy
-        .getInvocationHandler(proxy);
+    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) proxy;
     Connection real = spc.getRealConnection();
     Connection real2 = SimpleDataSource.unwrapConnection(real);
     Assertions.assertSame(real, real2);
@@ -277,12 +288,10 @@ class SimpleDataSourceTest {
     SimpleDataSource ds = new SimpleDataSource(baseProps());
     Connection proxy = ds.getConnection();
 
-    // Reach the internal SimplePooledConnection via unwrapConnection
-    // (proxy implements Connection but its handler is SimplePooledConnection)
-    java.lang.reflect.InvocationHandler handler = java.lang.reflect.Proxy.getInvocationHandler(proxy);
-    Assertions.assertInstanceOf(SimpleDataSource.SimplePooledConnection.class, handler);
+    // The connection handed out is the SimplePooledConnection itself
+    Assertions.assertInstanceOf(SimpleDataSource.SimplePooledConnection.class, proxy);
 
-    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) handler;
+    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) proxy;
 
     Assertions.assertTrue(spc.getCreatedTimestamp() > 0);
     Assertions.assertTrue(spc.getCheckoutTimestamp() > 0);
@@ -291,7 +300,7 @@ class SimpleDataSourceTest {
     Assertions.assertTrue(spc.getTimeElapsedSinceLastUse() >= 0);
     Assertions.assertTrue(spc.getCheckoutTime() >= 0);
     Assertions.assertNotNull(spc.getRealConnection());
-    Assertions.assertNotNull(spc.getProxyConnection());
+    Assertions.assertSame(spc, spc.getProxyConnection());
     Assertions.assertTrue(spc.getRealHashCode() != 0);
 
     // setter round-trips
@@ -315,13 +324,491 @@ class SimpleDataSourceTest {
   void shouldThrowWhenAccessingInvalidPooledConnection() throws Exception {
     SimpleDataSource ds = new SimpleDataSource(baseProps());
     Connection proxy = ds.getConnection();
-    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) java.lang.reflect.Proxy
-        .getInvocationHandler(proxy);
+    SimpleDataSource.SimplePooledConnection spc = (SimpleDataSource.SimplePooledConnection) proxy;
     spc.invalidate();
 
     Assertions.assertThrows(Exception.class, () -> proxy.createStatement());
   }
 
+  // -------------------------------------------------------------------------
+  // Concurrent checkout
+  // -------------------------------------------------------------------------
+
+  @Test
+  void shouldHandTheSameConnectionBackToTheSameThread() throws Exception {
+    SimpleDataSource ds = new SimpleDataSource(baseProps());
+    Connection first = ds.getConnection();
+    Connection firstReal = realConnection(first);
+    first.close();
+    Connection second = ds.getConnection();
+    Assertions.assertSame(firstReal, realConnection(second));
+    Assertions.assertNotSame(first, second);
+    second.close();
+  }
+
+  @Test
+  void shouldNotExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "3");
+    props.put("Pool.MaximumIdleConnections", "3");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    int threads = 16;
+    int iterations = 200;
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < iterations; j++) {
+            Connection conn = ds.getConnection();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            active.decrementAndGet();
+            conn.close();
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assertions.assertTrue(maxActive.get() <= 3, "at most 3 active connections expected, was " + maxActive.get());
+    Assertions.assertEquals(threads * iterations, ds.getRequestCount());
+    Assertions.assertEquals(0, ds.getBadConnectionCount());
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldHandReturnedConnectionToWaitingThread() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "1");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection held = ds.getConnection();
+    Connection heldReal = realConnection(held);
+    CountDownLatch started = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Connection> waiting = executor.submit(() -> {
+        started.countDown();
+        Connection conn = ds.getConnection();
+        Connection real = realConnection(conn);
+        conn.close();
+        return real;
+      });
+      started.await();
+      Thread.sleep(100);
+      held.close();
+      Assertions.assertSame(heldReal, waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    Assertions.assertEquals(1, ds.getHadToWaitCount());
+  }
+
+  @Test
+  void shouldClaimOverdueConnection() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "1");
+    props.put("Pool.MaximumCheckoutTime", "10");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection overdue = ds.getConnection();
+    Thread.sleep(50);
+    Connection claimed = ds.getConnection();
+    Assertions.assertSame(realConnection(overdue), realConnection(claimed));
+    Assertions.assertEquals(1, ds.getClaimedOverdueConnectionCount());
+    Assertions.assertThrows(Exception.class, () -> overdue.createStatement());
+
+    // the late close of the claimed checkout must not return the connection a second time
+    overdue.close();
+    Assertions.assertEquals(1, ds.getBadConnectionCount());
+    claimed.close();
+  }
+
+  // -------------------------------------------------------------------------
+  // Background maintenance
+  // -------------------------------------------------------------------------
+
+  @Test
+  void shouldOpenMinimumIdleConnectionsAheadOfDemand() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MinimumIdleConnections", "2");
+    props.put("Pool.HousekeepingPeriod", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Assertions.assertEquals(2, ds.getPoolMinimumIdleConnections());
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 2), "pool was not pre-warmed");
+
+    Connection conn = ds.getConnection();
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 2), "pool was not refilled");
+    Assertions.assertEquals(1, ds.getActiveConnectionCount());
+    conn.close();
+    ds.close();
+  }
+
+  @Test
+  void shouldStopMaintenanceWhenClosed() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MinimumIdleConnections", "2");
+    props.put("Pool.HousekeepingPeriod", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 2), "pool was not pre-warmed");
+    ds.close();
+    Assertions.assertTrue(ds.isClosed());
+    Assertions.assertEquals(0, ds.getIdleConnectionCount());
+    Thread.sleep(100);
+    Assertions.assertEquals(0, ds.getIdleConnectionCount());
+    Assertions.assertThrows(SQLException.class, ds::getConnection);
+  }
+
+  @Test
+  void shouldCloseReturnedConnectionsAfterPoolIsClosed() throws Exception {
+    SimpleDataSource ds = new SimpleDataSource(baseProps());
+    Connection conn = ds.getConnection();
+    Connection real = realConnection(conn);
+    ds.close();
+    conn.close();
+    Assertions.assertTrue(real.isClosed());
+    Assertions.assertEquals(0, ds.getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldRetireConnectionsAfterMaximumLifetime() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumConnectionLifetime", "50");
+    props.put("Pool.HousekeepingPeriod", "60000");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection first = ds.getConnection();
+    Connection firstReal = realConnection(first);
+    first.close();
+    Thread.sleep(100);
+    Connection second = ds.getConnection();
+    Assertions.assertNotSame(firstReal, realConnection(second));
+    Assertions.assertTrue(firstReal.isClosed());
+    second.close();
+  }
+
+  @Test
+  void shouldDiscardIdleConnectionsThatFailValidation() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.ValidationInterval", "1");
+    props.put("Pool.HousekeepingPeriod", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn = ds.getConnection();
+    Connection real = realConnection(conn);
+    conn.close();
+    Assertions.assertEquals(1, ds.getIdleConnectionCount());
+    real.close();
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 0), "bad connection was not discarded");
+    Assertions.assertEquals(1, ds.getBadConnectionCount());
+  }
+
+  @Test
+  void shouldCloseConnectionsIdleLongerThanIdleTimeout() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MinimumIdleConnections", "1");
+    props.put("Pool.IdleTimeout", "50");
+    props.put("Pool.HousekeepingPeriod", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn1 = ds.getConnection();
+    Connection conn2 = ds.getConnection();
+    Connection conn3 = ds.getConnection();
+    conn1.close();
+    conn2.close();
+    conn3.close();
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 1), "idle connections were not closed");
+    ds.close();
+  }
+
+  @Test
+  void shouldReuseCachedStatementAcrossCheckouts() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.StatementCacheSize", "2");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Assertions.assertEquals(2, ds.getPoolStatementCacheSize());
+    Connection conn = ds.getConnection();
+    PreparedStatement ps = conn.prepareStatement("SELECT 1");
+    PreparedStatement real = realStatement(ps);
+    Assertions.assertSame(conn, ps.getConnection());
+    ps.close();
+    Assertions.assertTrue(ps.isClosed());
+    Assertions.assertThrows(SQLException.class, ps::executeQuery);
+    conn.close();
+
+    conn = ds.getConnection();
+    PreparedStatement again = conn.prepareStatement("SELECT 1");
+    Assertions.assertSame(real, realStatement(again));
+    again.close();
+    conn.close();
+    Assertions.assertEquals(1, ds.getStatementCacheHitCount());
+    Assertions.assertEquals(1, ds.getStatementCacheMissCount());
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldDelegateWithoutDynamicProxies() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.StatementCacheSize", "2");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn = ds.getConnection();
+    Assertions.assertFalse(java.lang.reflect.Proxy.isProxyClass(conn.getClass()));
+    PreparedStatement ps = conn.prepareStatement("SELECT 1");
+    Assertions.assertFalse(java.lang.reflect.Proxy.isProxyClass(ps.getClass()));
+    Assertions.assertFalse(ps instanceof CallableStatement);
+    CallableStatement cs = conn.prepareCall("{call p()}");
+    Assertions.assertFalse(java.lang.reflect.Proxy.isProxyClass(cs.getClass()));
+    Assertions.assertSame(conn, cs.getConnection());
+    cs.close();
+    ps.close();
+    Assertions.assertSame(realStatement(cs), realStatement(conn.prepareCall("{call p()}")));
+    conn.close();
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedStatement() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.StatementCacheSize", "2");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn = ds.getConnection();
+    conn.prepareStatement("SELECT 1").close();
+    conn.prepareStatement("SELECT 2").close();
+    conn.prepareStatement("SELECT 1").close();
+    conn.prepareStatement("SELECT 3").close();
+    Assertions.assertEquals(1, ds.getStatementCacheHitCount());
+    conn.prepareStatement("SELECT 1").close();
+    Assertions.assertEquals(2, ds.getStatementCacheHitCount());
+    conn.prepareStatement("SELECT 2").close();
+    Assertions.assertEquals(2, ds.getStatementCacheHitCount());
+    Assertions.assertEquals(4, ds.getStatementCacheMissCount());
+    conn.close();
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldNotShareStatementsThatAreInUse() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.StatementCacheSize", "2");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn = ds.getConnection();
+    PreparedStatement ps1 = conn.prepareStatement("SELECT 1");
+    PreparedStatement ps2 = conn.prepareStatement("SELECT 1");
+    Assertions.assertNotSame(realStatement(ps1), realStatement(ps2));
+    Assertions.assertFalse(ps1.equals(ps2));
+    ps1.close();
+    ps2.close();
+    Assertions.assertEquals(0, ds.getStatementCacheHitCount());
+    conn.close();
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldRecordCheckoutLatencies() throws Exception {
+    SimpleDataSource ds = new SimpleDataSource(baseProps());
+    for (int i = 0; i < 10; i++) {
+      Connection conn = ds.getConnection();
+      Thread.sleep(2);
+      conn.close();
+    }
+    SimpleDataSourceStatistics statistics = ds.getStatistics();
+    Assertions.assertEquals(10, statistics.getRequestCount());
+    Assertions.assertTrue(statistics.getCheckoutHoldP50() >= 1.0, statistics.toString());
+    Assertions.assertTrue(statistics.getCheckoutHoldP999() >= statistics.getCheckoutHoldP50());
+    Assertions.assertTrue(statistics.getCheckoutWaitP99() >= statistics.getCheckoutWaitP50());
+    Assertions.assertTrue(ds.getStatus().contains("checkoutHold p50/p99/p999"));
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldReportConnectionsHeldLongerThanLeakDetectionThreshold() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.LeakDetectionThreshold", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection conn = ds.getConnection();
+    Assertions.assertTrue(await(() -> ds.getLeakedConnectionCount() == 1), "leak was not detected");
+    Assertions.assertEquals(1, ds.getSuspectedLeaks().size());
+    Assertions.assertTrue(ds.getSuspectedLeaks().get(0).contains("shouldReportConnectionsHeldLonger"));
+    conn.close();
+    Assertions.assertTrue(ds.getSuspectedLeaks().isEmpty());
+    Assertions.assertEquals(1, ds.getLeakedConnectionCount());
+    ds.close();
+  }
+
+  @Test
+  void shouldRegisterStatisticsMBean() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.Name", "mbeantest");
+    props.put("Pool.RegisterMBean", "true");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+    javax.management.ObjectName name = new javax.management.ObjectName(
+        "com.ibatis.common.jdbc:type=SimpleDataSource,name=\"mbeantest\"");
+    try {
+      ds.getConnection().close();
+      Assertions.assertEquals(Long.valueOf(1), server.getAttribute(name, "RequestCount"));
+      Assertions.assertEquals(Integer.valueOf(1), server.getAttribute(name, "IdleConnectionCount"));
+    } finally {
+      ds.unregisterMBean();
+      ds.forceCloseAll();
+    }
+    Assertions.assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  void shouldUnregisterStatisticsMBeanWhenClosed() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.Name", "closetest");
+    props.put("Pool.RegisterMBean", "true");
+    props.put("Pool.MinimumIdleConnections", "1");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+    javax.management.ObjectName name = new javax.management.ObjectName(
+        "com.ibatis.common.jdbc:type=SimpleDataSource,name=\"closetest\"");
+    Assertions.assertTrue(server.isRegistered(name));
+    ds.close();
+    Assertions.assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  void shouldGrowAdaptivePoolWhenRequestsWait() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "4");
+    props.put("Pool.MaximumIdleConnections", "1");
+    props.put("Pool.AdaptiveSizing", "true");
+    props.put("Pool.AdaptiveSizingInterval", "50");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Assertions.assertEquals(1, ds.getPoolSize());
+    Connection held = ds.getConnection();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Connection> waiting = executor.submit(() -> {
+        Connection conn = ds.getConnection();
+        Connection real = realConnection(conn);
+        conn.close();
+        return real;
+      });
+      Assertions.assertNotSame(realConnection(held), waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+      held.close();
+    }
+    Assertions.assertEquals(1, ds.getPoolGrowthCount());
+    ds.close();
+  }
+
+  @Test
+  void shouldShrinkAdaptivePoolWhenConnectionsIdle() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "4");
+    props.put("Pool.MaximumIdleConnections", "4");
+    props.put("Pool.AdaptiveSizing", "true");
+    props.put("Pool.AdaptiveMinimumSize", "2");
+    props.put("Pool.AdaptiveSizingInterval", "20");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection[] conns = new Connection[4];
+    for (int i = 0; i < conns.length; i++) {
+      conns[i] = ds.getConnection();
+    }
+    for (Connection conn : conns) {
+      conn.close();
+    }
+    Assertions.assertTrue(await(() -> ds.getPoolSize() == 2), "pool did not shrink");
+    Assertions.assertTrue(await(() -> ds.getIdleConnectionCount() == 2), "idle connections were not closed");
+    Assertions.assertTrue(ds.getPoolShrinkCount() > 0);
+    Thread.sleep(100);
+    Assertions.assertEquals(2, ds.getPoolSize());
+    ds.close();
+  }
+
+  @Test
+  void shouldFailWhenAcquireTimeoutPasses() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "1");
+    props.put("Pool.AcquireTimeout", "50");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection held = ds.getConnection();
+    try {
+      ConnectionAcquisitionException e = Assertions.assertThrows(ConnectionAcquisitionException.class,
+          ds::getConnection);
+      Assertions.assertEquals(ConnectionAcquisitionException.Reason.TIMEOUT, e.getReason());
+      e = Assertions.assertThrows(ConnectionAcquisitionException.class,
+          () -> ds.getConnection(10, TimeUnit.MILLISECONDS));
+      Assertions.assertEquals(ConnectionAcquisitionException.Reason.TIMEOUT, e.getReason());
+      Assertions.assertEquals(2, ds.getAcquireTimeoutCount());
+    } finally {
+      held.close();
+    }
+    ds.getConnection(10, TimeUnit.MILLISECONDS).close();
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldRejectRequestsWhenTooManyAreWaiting() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "1");
+    props.put("Pool.MaximumWaitingRequests", "1");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection held = ds.getConnection();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> waiting = executor.submit(() -> {
+        ds.getConnection().close();
+        return null;
+      });
+      Assertions.assertTrue(await(() -> ds.getWaitingRequestCount() == 1), "request did not wait");
+      long start = System.currentTimeMillis();
+      ConnectionAcquisitionException e = Assertions.assertThrows(ConnectionAcquisitionException.class,
+          ds::getConnection);
+      Assertions.assertEquals(ConnectionAcquisitionException.Reason.QUEUE_FULL, e.getReason());
+      Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+      Assertions.assertEquals(1, ds.getRejectedRequestCount());
+      held.close();
+      waiting.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldFailWhenInterruptedWhileWaiting() throws Exception {
+    Map<String, String> props = baseProps();
+    props.put("Pool.MaximumActiveConnections", "1");
+    SimpleDataSource ds = new SimpleDataSource(props);
+    Connection held = ds.getConnection();
+    Thread.currentThread().interrupt();
+    try {
+      ConnectionAcquisitionException e = Assertions.assertThrows(ConnectionAcquisitionException.class,
+          ds::getConnection);
+      Assertions.assertEquals(ConnectionAcquisitionException.Reason.INTERRUPTED, e.getReason());
+      Assertions.assertTrue(Thread.interrupted());
+    } finally {
+      held.close();
+    }
+    ds.forceCloseAll();
+  }
+
+  private static PreparedStatement realStatement(PreparedStatement proxy) {
+    return ((CachedStatement) proxy).getStatement();
+  }
+
+  private static boolean await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        return false;
+      }
+      Thread.sleep(10);
+    }
+    return true;
+  }
+
+  private static Connection realConnection(Connection proxy) {
+    return ((SimpleDataSource.SimplePooledConnection) proxy).getRealConnection();
+  }
+
   // -------------------------------------------------------------------------
   // Ping path - ping enabled with fast-query
   // -------------------------------------------------------------------------
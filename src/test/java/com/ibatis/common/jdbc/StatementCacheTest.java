@@ -0,0 +1,187 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.common.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+  private static final StatementCache.Key KEY = new StatementCache.Key("SELECT 1", false, -1, -1);
+
+  /** The state of the fake statements, by statement. */
+  private final Map<Object, Map<String, Object>> states = new HashMap<>();
+
+  private final Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+      new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+        if ("prepareStatement".equals(method.getName())) {
+          return newStatement();
+        }
+        return null;
+      });
+
+  private PreparedStatement newStatement() {
+    Map<String, Object> state = new HashMap<>();
+    state.put("maxRows", 0L);
+    state.put("queryTimeout", 0);
+    state.put("escapeProcessing", true);
+    state.put("closed", false);
+    state.put("closeOnCompletion", false);
+    PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "setLargeMaxRows":
+              state.put("maxRows", args[0]);
+              return null;
+            case "getLargeMaxRows":
+              return state.get("maxRows");
+            case "setQueryTimeout":
+              state.put("queryTimeout", args[0]);
+              state.put("queryTimeoutSet", true);
+              return null;
+            case "getQueryTimeout":
+              return state.get("queryTimeout");
+            case "setEscapeProcessing":
+              state.put("escapeProcessing", args[0]);
+              return null;
+            case "closeOnCompletion":
+              state.put("closeOnCompletion", true);
+              return null;
+            case "close":
+              state.put("closed", true);
+              return null;
+            case "isClosed":
+              return state.get("closed");
+            case "executeQuery":
+              return newResultSet(state);
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              return null;
+          }
+        });
+    states.put(statement, state);
+    return statement;
+  }
+
+  private ResultSet newResultSet(Map<String, Object> statementState) {
+    return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "close":
+              statementState.put("resultSetClosed", true);
+              if (Boolean.TRUE.equals(statementState.get("closeOnCompletion"))) {
+                statementState.put("closed", true);
+              }
+              return null;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              return null;
+          }
+        });
+  }
+
+  private StatementCache newCache() {
+    return new StatementCache(2, new LongAdder(), new LongAdder());
+  }
+
+  private Map<String, Object> stateOf(PreparedStatement ps) {
+    return states.get(((CachedStatement) ps).getStatement());
+  }
+
+  @Test
+  void shouldResetSettingsBeforeReuse() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    ps.setLargeMaxRows(5);
+    ps.setEscapeProcessing(false);
+    ps.close();
+    PreparedStatement again = cache.prepare(KEY, connection, connection);
+    Assertions.assertSame(((CachedStatement) ps).getStatement(), ((CachedStatement) again).getStatement());
+    Assertions.assertEquals(0L, again.getLargeMaxRows());
+    Assertions.assertEquals(true, stateOf(again).get("escapeProcessing"));
+    Assertions.assertNull(stateOf(again).get("queryTimeoutSet"));
+  }
+
+  @Test
+  void shouldResetQueryTimeoutBeforeReuse() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    ps.setQueryTimeout(30);
+    ps.close();
+    PreparedStatement again = cache.prepare(KEY, connection, connection);
+    Assertions.assertSame(((CachedStatement) ps).getStatement(), ((CachedStatement) again).getStatement());
+    Assertions.assertEquals(0, again.getQueryTimeout());
+  }
+
+  @Test
+  void shouldCloseOpenResultSetOnReturn() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    ps.executeQuery();
+    Map<String, Object> state = stateOf(ps);
+    ps.close();
+    Assertions.assertEquals(true, state.get("resultSetClosed"));
+    Assertions.assertEquals(false, state.get("closed"));
+    Assertions.assertEquals(1, cache.size());
+  }
+
+  @Test
+  void shouldNotCacheStatementThatClosesOnCompletion() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    ps.closeOnCompletion();
+    ps.executeQuery();
+    Map<String, Object> state = stateOf(ps);
+    ps.close();
+    Assertions.assertEquals(true, state.get("closed"));
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldNotCacheStatementWithCursorName() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    ps.setCursorName("c1");
+    Map<String, Object> state = stateOf(ps);
+    ps.close();
+    Assertions.assertEquals(true, state.get("closed"));
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldNotCacheStatementClosedByDriver() throws Exception {
+    StatementCache cache = newCache();
+    PreparedStatement ps = cache.prepare(KEY, connection, connection);
+    stateOf(ps).put("closed", true);
+    ps.close();
+    Assertions.assertEquals(0, cache.size());
+  }
+
+}
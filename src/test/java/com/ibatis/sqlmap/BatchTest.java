@@ -17,6 +17,7 @@ package com.ibatis.sqlmap;
 
 import com.ibatis.sqlmap.engine.execution.BatchException;
 import com.ibatis.sqlmap.engine.execution.BatchResult;
+import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
 
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
@@ -395,4 +396,147 @@ class BatchTest extends BaseSqlMap {
       }
     }
   }
+
+  @Test
+  void testExecuteBatchDetailedGroupsRowsBySql() throws Exception {
+    ((SqlMapClientImpl) BaseSqlMap.sqlMap).getDelegate().setBatchGroupingEnabled(true);
+    try {
+      BaseSqlMap.sqlMap.startTransaction();
+      BaseSqlMap.sqlMap.startBatch();
+
+      // interleave inserts and updates
+      for (int id = 10; id < 14; id++) {
+        BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(id, "fred"));
+        BaseSqlMap.sqlMap.update("updateAccountViaInlineParameters", newAccount(id, "barney"));
+      }
+
+      final List<?> results = BaseSqlMap.sqlMap.executeBatchDetailed();
+      BaseSqlMap.sqlMap.commitTransaction();
+
+      Assertions.assertEquals(2, results.size());
+
+      BatchResult br = (BatchResult) results.get(0);
+      Assertions.assertEquals("insertAccountViaInlineParameters", br.getStatementId());
+      Assertions.assertEquals(4, br.getUpdateCounts().length);
+
+      br = (BatchResult) results.get(1);
+      Assertions.assertEquals("updateAccountViaInlineParameters", br.getStatementId());
+      Assertions.assertArrayEquals(new int[] { 1, 1, 1, 1 }, br.getUpdateCounts());
+    } finally {
+      BaseSqlMap.sqlMap.endTransaction();
+    }
+  }
+
+  @Test
+  void testExecuteBatchDetailedRunsGroupsInBatchOrder() throws Exception {
+    SqlMapClientImpl client = (SqlMapClientImpl) BaseSqlMap.sqlMap;
+    client.getDelegate().setBatchGroupingEnabled(true);
+    client.getMappedStatement("deleteAccount").setBatchOrder(2);
+    client.getMappedStatement("insertAccountViaInlineParameters").setBatchOrder(1);
+    try {
+      BaseSqlMap.sqlMap.startTransaction();
+      BaseSqlMap.sqlMap.startBatch();
+
+      // the delete of account 1 is added first, but runs after the inserts
+      Account account = new Account();
+      account.setId(1);
+      BaseSqlMap.sqlMap.delete("deleteAccount", account);
+      BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(10, "fred"));
+      BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(11, "fred"));
+
+      final List<?> results = BaseSqlMap.sqlMap.executeBatchDetailed();
+      BaseSqlMap.sqlMap.commitTransaction();
+
+      Assertions.assertEquals(2, results.size());
+      Assertions.assertEquals("insertAccountViaInlineParameters", ((BatchResult) results.get(0)).getStatementId());
+      Assertions.assertEquals("deleteAccount", ((BatchResult) results.get(1)).getStatementId());
+    } finally {
+      BaseSqlMap.sqlMap.endTransaction();
+    }
+  }
+
+  @Test
+  void testExecuteBatchDetailedAccumulatesFlushedRows() throws Exception {
+    try {
+      BaseSqlMap.sqlMap.startTransaction();
+      BaseSqlMap.sqlMap.startBatch(2);
+
+      // the first two rows are executed as soon as they are added
+      for (int id = 10; id < 15; id++) {
+        BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(id, "fred"));
+      }
+
+      final List<?> results = BaseSqlMap.sqlMap.executeBatchDetailed();
+      BaseSqlMap.sqlMap.commitTransaction();
+
+      Assertions.assertEquals(1, results.size());
+      BatchResult br = (BatchResult) results.get(0);
+      Assertions.assertEquals("insertAccountViaInlineParameters", br.getStatementId());
+      Assertions.assertEquals(5, br.getUpdateCounts().length);
+    } finally {
+      BaseSqlMap.sqlMap.endTransaction();
+    }
+  }
+
+  @Test
+  void testExecuteBatchCountsFlushedRows() throws Exception {
+    try {
+      BaseSqlMap.sqlMap.startTransaction();
+      BaseSqlMap.sqlMap.startBatch(2);
+
+      // two chunks are executed before executeBatch, the last row by it
+      for (int id = 10; id < 15; id++) {
+        BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(id, "fred"));
+      }
+
+      final int results = BaseSqlMap.sqlMap.executeBatch();
+      BaseSqlMap.sqlMap.commitTransaction();
+
+      Assertions.assertEquals(5, results);
+    } finally {
+      BaseSqlMap.sqlMap.endTransaction();
+    }
+  }
+
+  @Test
+  void testFailedFlushReportsBatchException() throws Exception {
+    try {
+      BaseSqlMap.sqlMap.startTransaction();
+      BaseSqlMap.sqlMap.startBatch(2);
+
+      // executed when the update is added
+      BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(10, "fred"));
+      BaseSqlMap.sqlMap.update("updateAccountViaInlineParameters", newAccount(10, "barney"));
+
+      // an account with all null values fails when the second row is added
+      BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", new Account());
+      SQLException e = Assertions.assertThrows(SQLException.class,
+          () -> BaseSqlMap.sqlMap.insert("insertAccountViaInlineParameters", newAccount(11, "fred")));
+
+      Throwable cause = e;
+      while (cause != null && !(cause instanceof BatchException)) {
+        cause = cause.getCause();
+      }
+      Assertions.assertNotNull(cause);
+      final List<?> results = ((BatchException) cause).getSuccessfulBatchResults();
+      Assertions.assertEquals(2, results.size());
+      Assertions.assertEquals("insertAccountViaInlineParameters", ((BatchResult) results.get(0)).getStatementId());
+      Assertions.assertEquals(1, ((BatchResult) results.get(0)).getUpdateCounts().length);
+      Assertions.assertEquals("updateAccountViaInlineParameters", ((BatchResult) results.get(1)).getStatementId());
+      Assertions.assertEquals(1, ((BatchResult) results.get(1)).getUpdateCounts().length);
+
+      Assertions.assertThrows(BatchException.class, () -> BaseSqlMap.sqlMap.executeBatchDetailed());
+    } finally {
+      BaseSqlMap.sqlMap.endTransaction();
+    }
+  }
+
+  private static Account newAccount(int id, String firstName) {
+    Account account = new Account();
+    account.setId(id);
+    account.setFirstName(firstName);
+    account.setLastName("flintstone");
+    account.setEmailAddress(firstName + ".flintstone@gmail.com");
+    return account;
+  }
 }
@@ -120,6 +120,49 @@ class AccessPlanTest {
     Assertions.assertNotNull(plan);
   }
 
+  public static class FieldBean {
+    private String code;
+    private long count;
+  }
+
+  @Test
+  void shouldUseMethodHandlesForBeanProperties() {
+    AccessPlan plan = AccessPlanFactory.getAccessPlan(TestBean.class, new String[] { "name", "age" });
+    Assertions.assertTrue(plan instanceof MethodHandleAccessPlan);
+  }
+
+  @Test
+  void shouldSetAndGetFieldsWithoutAccessorsViaMethodHandles() {
+    AccessPlan plan = AccessPlanFactory.getAccessPlan(FieldBean.class, new String[] { "code", "count" });
+    Assertions.assertTrue(plan instanceof MethodHandleAccessPlan);
+    FieldBean bean = new FieldBean();
+    plan.setProperties(bean, new Object[] { "X1", 7L });
+    Assertions.assertEquals("X1", bean.code);
+    Assertions.assertEquals(7L, bean.count);
+    Assertions.assertArrayEquals(new Object[] { "X1", 7L }, plan.getProperties(bean));
+  }
+
+  @Test
+  void shouldSetPrimitivePropertiesToZeroForNullValuesViaMethodHandles() {
+    AccessPlan plan = AccessPlanFactory.getAccessPlan(TestBean.class, new String[] { "name", "age", "active" });
+    TestBean bean = new TestBean();
+    bean.setName("Dave");
+    bean.setAge(40);
+    bean.setActive(true);
+    plan.setProperties(bean, new Object[] { null, null, null });
+    Assertions.assertNull(bean.getName());
+    Assertions.assertEquals(0, bean.getAge());
+    Assertions.assertFalse(bean.isActive());
+  }
+
+  @Test
+  void shouldReportTheFailingPropertyViaMethodHandles() {
+    AccessPlan plan = AccessPlanFactory.getAccessPlan(TestBean.class, new String[] { "name", "age" });
+    RuntimeException e = Assertions.assertThrows(RuntimeException.class,
+        () -> plan.setProperties(new TestBean(), new Object[] { "Carol", "not a number" }));
+    Assertions.assertTrue(e.getMessage().startsWith("Error setting property 'setAge'"));
+  }
+
   @Test
   void shouldReportBytecodeEnhancementDisabledByDefault() {
     Assertions.assertFalse(AccessPlanFactory.isBytecodeEnhancementEnabled());
@@ -132,6 +175,7 @@ class AccessPlanTest {
       Assertions.assertTrue(AccessPlanFactory.isBytecodeEnhancementEnabled());
       AccessPlan plan = AccessPlanFactory.getAccessPlan(TestBean.class, new String[] { "name" });
       Assertions.assertNotNull(plan);
+      Assertions.assertFalse(plan instanceof MethodHandleAccessPlan);
     } finally {
       AccessPlanFactory.setBytecodeEnhancementEnabled(false);
     }
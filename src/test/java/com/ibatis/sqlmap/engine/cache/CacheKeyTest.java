@@ -48,4 +48,32 @@ class CacheKeyTest {
 
   }
 
+  @Test
+  void testPrimitiveAndObjectSlotsAreDistinct() {
+    final CacheKey primitive = new CacheKey().update("id").update(5);
+    final CacheKey boxed = new CacheKey().update("id").update(Integer.valueOf(5));
+    Assertions.assertEquals(primitive.hashCode(), boxed.hashCode());
+    Assertions.assertFalse(primitive.equals(boxed));
+    Assertions.assertFalse(boxed.equals(primitive));
+    Assertions.assertEquals(primitive, new CacheKey().update("id").update(5));
+    Assertions.assertFalse(primitive.equals(new CacheKey().update("id").update(6)));
+  }
+
+  @Test
+  void testManyValues() throws Exception {
+    final CacheKey key1 = new CacheKey();
+    final CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 50; i++) {
+      key1.update("value" + i).update(i);
+      key2.update("value" + i).update(i);
+    }
+    Assertions.assertEquals(key1, key2);
+    Assertions.assertEquals(key1.toString(), key2.toString());
+    final CacheKey clone = key1.clone();
+    Assertions.assertEquals(key1, clone);
+    clone.update(99);
+    Assertions.assertFalse(key1.equals(clone));
+    Assertions.assertEquals(key1, key2);
+  }
+
 }
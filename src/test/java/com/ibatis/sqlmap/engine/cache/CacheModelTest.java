@@ -0,0 +1,357 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import com.ibatis.sqlmap.engine.cache.lru.ConcurrentLruCacheController;
+import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
+import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CacheModelTest {
+
+  private CacheModel newCacheModel() throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setId("test-cache");
+    cacheModel.setReadOnly(true);
+    cacheModel.setCacheController(new ConcurrentLruCacheController());
+    return cacheModel;
+  }
+
+  @Test
+  void testGetAndPutObject() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    CacheKey key = new CacheKey().update("key");
+    Assertions.assertNull(cacheModel.getObject(key));
+    cacheModel.putObject(key, "value");
+    Assertions.assertEquals("value", cacheModel.getObject(key));
+    cacheModel.putObject(key, null);
+    Assertions.assertSame(CacheModel.NULL_OBJECT, cacheModel.getObject(key));
+    Assertions.assertEquals(2.0 / 3.0, cacheModel.getHitRatio(), 0.0001);
+  }
+
+  @Test
+  void testLoadObjectWithoutCoalescing() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    CacheKey key = new CacheKey().update("key");
+    Assertions.assertEquals("value", cacheModel.loadObject(key, () -> "value"));
+    Assertions.assertEquals("value", cacheModel.getObject(key));
+    Assertions.assertNull(cacheModel.loadObject(new CacheKey().update("other"), () -> null));
+  }
+
+  @Test
+  void testConcurrentMissesShareOneLoad() throws Exception {
+    final CacheModel cacheModel = newCacheModel();
+    cacheModel.setCoalesceMisses(true);
+    final CacheKey key = new CacheKey().update("key");
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> cacheModel.loadObject(key, () -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "value";
+        })));
+      }
+      Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<Object> result : results) {
+        Assertions.assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+      Assertions.assertEquals(1, loads.get());
+      Assertions.assertEquals("value", cacheModel.getObject(key));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testWaitingMissLoadsItselfWhenLeaderFails() throws Exception {
+    final CacheModel cacheModel = newCacheModel();
+    cacheModel.setCoalesceMisses(true);
+    final CacheKey key = new CacheKey().update("key");
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> leader = executor.submit(() -> cacheModel.loadObject(key, () -> {
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new SQLException("failed");
+      }));
+      Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+      new Thread(() -> {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        release.countDown();
+      }).start();
+      Assertions.assertEquals("fallback", cacheModel.loadObject(key, () -> "fallback"));
+      Assertions.assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testWaitingMissLoadsItselfAfterTimeout() throws Exception {
+    final CacheModel cacheModel = newCacheModel();
+    cacheModel.setCoalesceMisses(true);
+    cacheModel.setCoalesceTimeout(50);
+    final CacheKey key = new CacheKey().update("key");
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> cacheModel.loadObject(key, () -> {
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "slow";
+      }));
+      Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Assertions.assertEquals("fast", cacheModel.loadObject(key, () -> "fast"));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testEntriesExpireIndividually() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    AtomicLong clock = new AtomicLong(1000);
+    cacheModel.setClock(clock::get);
+    cacheModel.setTimeToLive(100);
+    CacheKey first = new CacheKey().update("first");
+    CacheKey second = new CacheKey().update("second");
+    cacheModel.putObject(first, "1");
+    clock.addAndGet(60);
+    cacheModel.putObject(second, "2");
+    clock.addAndGet(60);
+    Assertions.assertNull(cacheModel.getObject(first));
+    Assertions.assertEquals("2", cacheModel.getObject(second));
+    clock.addAndGet(60);
+    Assertions.assertNull(cacheModel.getObject(second));
+  }
+
+  @Test
+  void testIdleEntriesExpire() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    AtomicLong clock = new AtomicLong(1000);
+    cacheModel.setClock(clock::get);
+    cacheModel.setTimeToIdle(100);
+    CacheKey used = new CacheKey().update("used");
+    CacheKey idle = new CacheKey().update("idle");
+    cacheModel.putObject(used, "u");
+    cacheModel.putObject(idle, "i");
+    for (int i = 0; i < 4; i++) {
+      clock.addAndGet(40);
+      Assertions.assertEquals("u", cacheModel.getObject(used));
+    }
+    Assertions.assertNull(cacheModel.getObject(idle));
+  }
+
+  @Test
+  void testStaleEntryIsServedWhileOneCallerRefreshes() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    AtomicLong clock = new AtomicLong(1000);
+    cacheModel.setClock(clock::get);
+    cacheModel.setTimeToLive(50);
+    cacheModel.setStaleWhileRevalidate(10000);
+    CacheKey key = new CacheKey().update("key");
+    cacheModel.putObject(key, "old");
+    clock.addAndGet(80);
+    Assertions.assertNull(cacheModel.getObject(key));
+    Assertions.assertEquals("old", cacheModel.getObject(key));
+    Assertions.assertEquals("new", cacheModel.loadObject(key, () -> "new"));
+    Assertions.assertEquals("new", cacheModel.getObject(key));
+  }
+
+  @Test
+  void testResolveCacheTags() {
+    CacheTags tags = CacheTags.parse("ACCOUNT:id, ORDERS");
+    Assertions.assertArrayEquals(new String[] { "ACCOUNT:7", "ORDERS" }, tags.resolve(7));
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 8);
+    Assertions.assertArrayEquals(new String[] { "ACCOUNT:8", "ORDERS" }, tags.resolve(parameter));
+    Assertions.assertArrayEquals(new String[] { "ACCOUNT", "ORDERS" }, tags.resolve(null));
+  }
+
+  @Test
+  void testRowInvalidationKeepsOtherRows() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    cacheModel.addFlushTriggerStatement("updateAccount", CacheTags.parse("ACCOUNT:id"));
+    MappedStatement updateAccount = new MappedStatement();
+    updateAccount.setId("updateAccount");
+    CacheKey account1 = new CacheKey().update("account1");
+    CacheKey account2 = new CacheKey().update("account2");
+    CacheKey allAccounts = new CacheKey().update("allAccounts");
+    CacheKey untagged = new CacheKey().update("untagged");
+    cacheModel.putObject(account1, "1", new String[] { "ACCOUNT:1" });
+    cacheModel.putObject(account2, "2", new String[] { "ACCOUNT:2" });
+    cacheModel.putObject(allAccounts, "all", new String[] { "ACCOUNT" });
+    cacheModel.putObject(untagged, "untagged");
+
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    cacheModel.onExecuteStatement(updateAccount, parameter);
+    Assertions.assertNull(cacheModel.getObject(account1));
+    Assertions.assertEquals("2", cacheModel.getObject(account2));
+    Assertions.assertNull(cacheModel.getObject(allAccounts));
+    Assertions.assertNull(cacheModel.getObject(untagged));
+
+    cacheModel.putObject(account1, "1", new String[] { "ACCOUNT:1" });
+    Assertions.assertEquals("1", cacheModel.getObject(account1));
+  }
+
+  @Test
+  void testTableInvalidationDropsAllRows() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    CacheKey account = new CacheKey().update("account");
+    CacheKey order = new CacheKey().update("order");
+    cacheModel.putObject(account, "1", new String[] { "ACCOUNT:1" });
+    cacheModel.putObject(order, "2", new String[] { "ORDERS:1" });
+    cacheModel.invalidate("ACCOUNT");
+    Assertions.assertNull(cacheModel.getObject(account));
+    Assertions.assertEquals("2", cacheModel.getObject(order));
+  }
+
+  @Test
+  void testUntaggedTriggerFlushes() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    cacheModel.addFlushTriggerStatement("updateOrder");
+    MappedStatement updateOrder = new MappedStatement();
+    updateOrder.setId("updateOrder");
+    CacheKey key = new CacheKey().update("key");
+    cacheModel.putObject(key, "value", new String[] { "ACCOUNT:1" });
+    cacheModel.onExecuteStatement(updateOrder, null);
+    Assertions.assertNull(cacheModel.getObject(key));
+  }
+
+  @Test
+  void testInvalidationDuringLoadIsNotServed() throws Exception {
+    final CacheModel cacheModel = newCacheModel();
+    CacheKey key = new CacheKey().update("key");
+    Object loaded = cacheModel.loadObject(key, () -> {
+      cacheModel.invalidate("ACCOUNT:1");
+      return "value";
+    }, new String[] { "ACCOUNT:1" });
+    Assertions.assertEquals("value", loaded);
+    Assertions.assertNull(cacheModel.getObject(key));
+  }
+
+  @Test
+  void testStatistics() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    AtomicLong clock = new AtomicLong(1000);
+    cacheModel.setClock(clock::get);
+    cacheModel.setTimeToLive(1);
+    cacheModel.addFlushTriggerStatement("updateAccount");
+    MappedStatement updateAccount = new MappedStatement();
+    updateAccount.setId("updateAccount");
+    CacheKey key = new CacheKey().update("key");
+    Assertions.assertNull(cacheModel.getObject(key));
+    cacheModel.loadObject(key, () -> "value");
+    clock.addAndGet(10);
+    Assertions.assertNull(cacheModel.getObject(key));
+    cacheModel.onExecuteStatement(updateAccount, null);
+    cacheModel.flush();
+
+    CacheStatistics statistics = cacheModel.getStatistics();
+    Assertions.assertEquals("test-cache", statistics.getCacheModelId());
+    Assertions.assertEquals(2, statistics.getRequests());
+    Assertions.assertEquals(0, statistics.getHits());
+    Assertions.assertEquals(2, statistics.getMisses());
+    Assertions.assertEquals(1, statistics.getPuts());
+    Assertions.assertEquals(1, statistics.getLoads());
+    Assertions.assertEquals(0, statistics.getSize());
+    Assertions.assertEquals(Long.valueOf(1), statistics.getEvictions().get("expired"));
+    Assertions.assertEquals(Long.valueOf(0), statistics.getEvictions().get("size"));
+    Assertions.assertEquals(Long.valueOf(1), statistics.getFlushes().get("updateAccount"));
+    Assertions.assertEquals(Long.valueOf(1), statistics.getFlushes().get(CacheModel.FLUSH_DATA_CACHE));
+  }
+
+  @Test
+  void testStatisticsMBean() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    CacheKey key = new CacheKey().update("key");
+    cacheModel.putObject(key, "value");
+    cacheModel.getObject(key);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("com.ibatis.sqlmap:type=CacheModel,id=test-cache");
+    server.registerMBean(new CacheModelStatistics(cacheModel), name);
+    try {
+      Assertions.assertEquals(1L, server.getAttribute(name, "Hits"));
+      Assertions.assertEquals(1L, server.getAttribute(name, "Size"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+
+  @Test
+  void testShutdownUnregistersMBeans() throws Exception {
+    SqlMapExecutorDelegate delegate = new SqlMapExecutorDelegate();
+    delegate.addCacheModel(newCacheModel());
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName pattern = new ObjectName("com.ibatis.sqlmap:type=CacheModel,id=\"test-cache\",*");
+    delegate.registerCacheMBeans();
+    Set<ObjectName> names = server.queryNames(pattern, null);
+    Assertions.assertEquals(1, names.size());
+    delegate.shutdown();
+    Assertions.assertFalse(server.isRegistered(names.iterator().next()));
+  }
+
+}
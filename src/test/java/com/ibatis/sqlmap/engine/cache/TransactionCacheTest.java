@@ -0,0 +1,170 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache;
+
+import com.ibatis.sqlmap.engine.cache.lru.ConcurrentLruCacheController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TransactionCacheTest {
+
+  private CacheModel newCacheModel() throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setId("test-cache");
+    cacheModel.setReadOnly(true);
+    cacheModel.setCacheController(new ConcurrentLruCacheController());
+    return cacheModel;
+  }
+
+  @Test
+  void testLoadIsPublishedOnCommit() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    Assertions.assertEquals("value", transactionCache.loadObject(cacheModel, key, () -> "value", null));
+    Assertions.assertEquals("value", transactionCache.getObject(cacheModel, key));
+    Assertions.assertNull(cacheModel.getObject(key));
+    transactionCache.commit();
+    Assertions.assertNull(transactionCache.getObject(cacheModel, key));
+    Assertions.assertEquals("value", cacheModel.getObject(key));
+  }
+
+  @Test
+  void testConcurrentMissesOfTransactionsShareOneLoad() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    cacheModel.setCoalesceMisses(true);
+    CacheKey key = new CacheKey().update("key");
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    int threads = 8;
+    List<TransactionCache> transactionCaches = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        TransactionCache transactionCache = new TransactionCache();
+        transactionCaches.add(transactionCache);
+        results.add(executor.submit(() -> transactionCache.loadObject(cacheModel, key, () -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "value";
+        }, null)));
+      }
+      Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<Object> result : results) {
+        Assertions.assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+      Assertions.assertEquals(1, loads.get());
+      Assertions.assertNull(cacheModel.getObject(key));
+      for (TransactionCache transactionCache : transactionCaches) {
+        transactionCache.commit();
+      }
+      Assertions.assertEquals("value", cacheModel.getObject(key));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testLoadAfterUpdateIsNotShared() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    cacheModel.setCoalesceMisses(true);
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    transactionCache.onUpdate();
+    Assertions.assertEquals("uncommitted", transactionCache.loadObject(cacheModel, key, () -> "uncommitted", null));
+    Assertions.assertEquals("committed", cacheModel.loadObject(key, () -> "committed"));
+    transactionCache.end();
+    Assertions.assertEquals("committed", cacheModel.getObject(key));
+  }
+
+  @Test
+  void testCachedNull() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    Assertions.assertNull(transactionCache.loadObject(cacheModel, key, () -> null, null));
+    Assertions.assertSame(CacheModel.NULL_OBJECT, transactionCache.getObject(cacheModel, key));
+    transactionCache.commit();
+    Assertions.assertSame(CacheModel.NULL_OBJECT, cacheModel.getObject(key));
+  }
+
+  @Test
+  void testUpdateDiscardsLoads() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    transactionCache.loadObject(cacheModel, key, () -> "value", null);
+    transactionCache.onUpdate();
+    Assertions.assertNull(transactionCache.getObject(cacheModel, key));
+    transactionCache.loadObject(cacheModel, key, () -> "dirty", null);
+    transactionCache.end();
+    Assertions.assertNull(cacheModel.getObject(key));
+  }
+
+  @Test
+  void testReadOnlyTransactionPublishesOnEnd() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    transactionCache.loadObject(cacheModel, key, () -> "value", null);
+    transactionCache.end();
+    Assertions.assertEquals("value", cacheModel.getObject(key));
+  }
+
+  @Test
+  void testLoadBeforeFlushIsNotPublished() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    transactionCache.loadObject(cacheModel, key, () -> "stale", null);
+    cacheModel.flush();
+    transactionCache.commit();
+    Assertions.assertNull(cacheModel.getObject(key));
+  }
+
+  @Test
+  void testSerializedReadWriteResultsAreNotKept() throws Exception {
+    CacheModel cacheModel = newCacheModel();
+    cacheModel.setReadOnly(false);
+    cacheModel.setSerialize(true);
+    TransactionCache transactionCache = new TransactionCache();
+    CacheKey key = new CacheKey().update("key");
+    transactionCache.loadObject(cacheModel, key, () -> "value", null);
+    Assertions.assertNull(transactionCache.getObject(cacheModel, key));
+    transactionCache.commit();
+    Assertions.assertEquals("value", cacheModel.getObject(key));
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.distributed;
+
+import com.ibatis.sqlmap.engine.cache.CacheKey;
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DistributedCacheControllerTest {
+
+  private CacheModel newNode(String id, String store) throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setId(id);
+    cacheModel.setReadOnly(true);
+    cacheModel.setCacheController(new DistributedCacheController());
+    Properties props = new Properties();
+    props.setProperty("store", store);
+    cacheModel.configure(props);
+    return cacheModel;
+  }
+
+  private String newId() {
+    return "distributed-" + UUID.randomUUID();
+  }
+
+  @Test
+  void testFlushInvalidatesPeers() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "none");
+    CacheModel node2 = newNode(id, "none");
+    CacheKey key = new CacheKey().update("key");
+    node1.putObject(key, "value1");
+    node2.putObject(key, "value2");
+    node1.flush();
+    Assertions.assertNull(node1.getObject(key));
+    Assertions.assertNull(node2.getObject(key));
+    Assertions.assertEquals(Long.valueOf(1), node2.getStatistics().getFlushes().get(CacheModel.FLUSH_PEER));
+  }
+
+  @Test
+  void testNearCachesAreIndependentWithoutStore() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "none");
+    CacheModel node2 = newNode(id, "none");
+    CacheKey key = new CacheKey().update("key");
+    node1.putObject(key, "value");
+    Assertions.assertEquals("value", node1.getObject(key));
+    Assertions.assertNull(node2.getObject(key));
+  }
+
+  @Test
+  void testOtherCacheModelsAreNotFlushed() throws Exception {
+    CacheModel node1 = newNode(newId(), "none");
+    CacheModel other = newNode(newId(), "none");
+    CacheKey key = new CacheKey().update("key");
+    other.putObject(key, "value");
+    node1.flush();
+    Assertions.assertEquals("value", other.getObject(key));
+  }
+
+  @Test
+  void testTagInvalidationReachesPeers() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "none");
+    CacheModel node2 = newNode(id, "none");
+    CacheKey row1 = new CacheKey().update("row1");
+    CacheKey row2 = new CacheKey().update("row2");
+    node2.putObject(row1, "account1", new String[] { "ACCOUNT:1" });
+    node2.putObject(row2, "account2", new String[] { "ACCOUNT:2" });
+    node1.invalidate("ACCOUNT:1");
+    Assertions.assertNull(node2.getObject(row1));
+    Assertions.assertEquals("account2", node2.getObject(row2));
+  }
+
+  @Test
+  void testSharedStore() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "inprocess");
+    CacheModel node2 = newNode(id, "inprocess");
+    CacheKey key = new CacheKey().update("key");
+    CacheKey nullKey = new CacheKey().update("null");
+    Assertions.assertEquals("value", node1.loadObject(key, () -> "value"));
+    node1.putObject(nullKey, null);
+    Assertions.assertEquals("value", node2.getObject(key));
+    Assertions.assertSame(CacheModel.NULL_OBJECT, node2.getObject(nullKey));
+    node2.flush();
+    Assertions.assertNull(node1.getObject(key));
+    Assertions.assertNull(node2.getObject(key));
+  }
+
+  @Test
+  void testSharedStoreEntriesWithTags() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "inprocess");
+    CacheModel node2 = newNode(id, "inprocess");
+    CacheKey key = new CacheKey().update("key");
+    node1.putObject(key, "account1", new String[] { "ACCOUNT:1" });
+    Assertions.assertEquals("account1", node2.getObject(key));
+    node2.invalidate("ACCOUNT:1");
+    Assertions.assertNull(node1.getObject(key));
+    Assertions.assertNull(node2.getObject(key));
+  }
+
+  @Test
+  void testRemovalReachesPeers() throws Exception {
+    String id = newId();
+    DistributedCacheController controller1 = new DistributedCacheController();
+    DistributedCacheController controller2 = new DistributedCacheController();
+    CacheModel node1 = new CacheModel();
+    node1.setId(id);
+    node1.setCacheController(controller1);
+    CacheModel node2 = new CacheModel();
+    node2.setId(id);
+    node2.setCacheController(controller2);
+    CacheKey key = new CacheKey().update("key");
+    controller1.putObject(node1, key, "value");
+    controller2.putObject(node2, key, "value");
+    controller1.removeObject(node1, key);
+    Assertions.assertNull(controller2.getObject(node2, key));
+    Assertions.assertFalse(controller1.getNodeId().equals(controller2.getNodeId()));
+  }
+
+  @Test
+  void testExpiryStaysLocal() throws Exception {
+    String id = newId();
+    CacheModel node1 = newNode(id, "none");
+    CacheModel node2 = newNode(id, "none");
+    node1.setTimeToLive(1);
+    CacheKey key = new CacheKey().update("key");
+    node1.putObject(key, "value1");
+    node2.putObject(key, "value2");
+    Thread.sleep(10);
+    Assertions.assertNull(node1.getObject(key));
+    Assertions.assertEquals(Long.valueOf(1), node1.getStatistics().getEvictions().get("expired"));
+    Assertions.assertEquals("value2", node2.getObject(key));
+  }
+
+}
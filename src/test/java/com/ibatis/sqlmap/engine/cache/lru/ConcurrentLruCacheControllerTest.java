@@ -0,0 +1,120 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.lru;
+
+import com.ibatis.sqlmap.engine.cache.CacheController;
+import com.ibatis.sqlmap.engine.cache.CacheWeigher;
+
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentLruCacheControllerTest extends LruCacheControllerTest {
+
+  @Override
+  protected CacheController getController() {
+    return new ConcurrentLruCacheController();
+  }
+
+  @Test
+  void testSizeIsBoundedAcrossSegments() {
+    final CacheController cc = this.getController();
+    final Properties props = new Properties();
+    props.setProperty("cache-size", "64");
+    cc.setProperties(props);
+    for (int i = 0; i < 1000; i++) {
+      cc.putObject(null, "key" + i, "value" + i);
+    }
+    int cached = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (cc.getObject(null, "key" + i) != null) {
+        cached++;
+      }
+    }
+    Assertions.assertTrue(cached > 0);
+    Assertions.assertTrue(cached <= 64);
+  }
+
+  @Test
+  void testLeastRecentlyUsedIsEvicted() {
+    final CacheController cc = this.getController();
+    final Properties props = new Properties();
+    props.setProperty("cache-size", "2");
+    cc.setProperties(props);
+    cc.putObject(null, "a", "1");
+    cc.putObject(null, "b", "2");
+    Assertions.assertEquals("1", cc.getObject(null, "a"));
+    cc.putObject(null, "c", "3");
+    Assertions.assertEquals("1", cc.getObject(null, "a"));
+    Assertions.assertNull(cc.getObject(null, "b"));
+    Assertions.assertEquals("3", cc.getObject(null, "c"));
+  }
+
+  @Test
+  void testBoundedByWeight() {
+    final ConcurrentLruCacheController cc = new ConcurrentLruCacheController();
+    final Properties props = new Properties();
+    props.setProperty("max-weight", "10k");
+    props.setProperty("row-weight", "100");
+    cc.setProperties(props);
+    cc.putObject(null, "small1", Collections.nCopies(10, "row"));
+    cc.putObject(null, "small2", Collections.nCopies(10, "row"));
+    Assertions.assertNotNull(cc.getObject(null, "small1"));
+    Assertions.assertNotNull(cc.getObject(null, "small2"));
+    cc.putObject(null, "large", Collections.nCopies(1000, "row"));
+    Assertions.assertNull(cc.getObject(null, "large"));
+    for (int i = 0; i < 100; i++) {
+      cc.putObject(null, "key" + i, Collections.nCopies(10, "row"));
+    }
+    Assertions.assertTrue(cc.getWeight() <= 10 * 1024);
+    Assertions.assertTrue(cc.getWeight() > 0);
+  }
+
+  @Test
+  void testCustomWeigher() {
+    final ConcurrentLruCacheController cc = new ConcurrentLruCacheController();
+    final Properties props = new Properties();
+    props.setProperty("max-weight", "3");
+    props.setProperty("weigher", LengthWeigher.class.getName());
+    cc.setProperties(props);
+    cc.putObject(null, "a", "1");
+    cc.putObject(null, "b", "22");
+    Assertions.assertEquals("1", cc.getObject(null, "a"));
+    Assertions.assertEquals("22", cc.getObject(null, "b"));
+    cc.putObject(null, "c", "333");
+    Assertions.assertNull(cc.getObject(null, "a"));
+    Assertions.assertNull(cc.getObject(null, "b"));
+    Assertions.assertEquals("333", cc.getObject(null, "c"));
+    Assertions.assertEquals(3, cc.getWeight());
+    cc.removeObject(null, "c");
+    Assertions.assertEquals(0, cc.getWeight());
+  }
+
+  public static class LengthWeigher implements CacheWeigher {
+
+    @Override
+    public long weigh(Object key, Object value) {
+      return ((String) value).length();
+    }
+
+    @Override
+    public void setProperties(Properties props) {
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.offheap;
+
+import com.ibatis.sqlmap.engine.cache.CacheController;
+import com.ibatis.sqlmap.engine.cache.CacheKey;
+import com.ibatis.sqlmap.engine.cache.CacheModel;
+import com.ibatis.sqlmap.engine.cache.CacheSerializer;
+import com.ibatis.sqlmap.engine.cache.CompactCacheSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheControllerTest {
+
+  private OffHeapCacheController newController(String maxMemory) {
+    OffHeapCacheController controller = new OffHeapCacheController();
+    Properties props = new Properties();
+    props.setProperty("max-memory", maxMemory);
+    props.setProperty("concurrency-level", "1");
+    controller.setProperties(props);
+    return controller;
+  }
+
+  @Test
+  void testGetPutRemoveAndFlush() {
+    CacheController cc = newController("1m");
+    Assertions.assertNull(cc.getObject(null, "key"));
+    cc.putObject(null, "key", "value");
+    Assertions.assertEquals("value", cc.getObject(null, "key"));
+    cc.removeObject(null, "key");
+    Assertions.assertNull(cc.getObject(null, "key"));
+    cc.putObject(null, "key", "value");
+    cc.flush(null);
+    Assertions.assertNull(cc.getObject(null, "key"));
+  }
+
+  @Test
+  void testCachedNullKeepsIdentity() throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setReadOnly(true);
+    cacheModel.setTimeToLive(60000);
+    cacheModel.setCacheController(newController("1m"));
+    CacheKey key = new CacheKey().update("key");
+    cacheModel.putObject(key, null);
+    Assertions.assertSame(CacheModel.NULL_OBJECT, cacheModel.getObject(key));
+  }
+
+  @Test
+  void testRemoveDoesNotDeserialize() {
+    AtomicInteger deserialized = new AtomicInteger();
+    CompactCacheSerializer compact = new CompactCacheSerializer();
+    OffHeapCacheController cc = newController("1m");
+    cc.setSerializer(new CacheSerializer() {
+      @Override
+      public byte[] serialize(Object value) throws IOException {
+        return compact.serialize(value);
+      }
+
+      @Override
+      public Object deserialize(byte[] bytes) throws IOException {
+        deserialized.incrementAndGet();
+        return compact.deserialize(bytes);
+      }
+
+      @Override
+      public void setProperties(Properties props) {
+        // No properties
+      }
+    });
+    cc.putObject(null, "key", "value");
+    cc.removeObject(null, "key");
+    Assertions.assertEquals(0, deserialized.get());
+    Assertions.assertNull(cc.getObject(null, "key"));
+    Assertions.assertEquals(0, cc.getWeight());
+  }
+
+  @Test
+  void testTimeToIdleIsRejected() throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setId("offheap");
+    cacheModel.setCacheController(newController("1m"));
+    Assertions.assertThrows(RuntimeException.class, () -> cacheModel.setTimeToIdle(60000));
+
+    CacheModel configuredFirst = new CacheModel();
+    configuredFirst.setTimeToIdle(60000);
+    Assertions.assertThrows(RuntimeException.class, () -> configuredFirst.setCacheController(newController("1m")));
+  }
+
+  @Test
+  void testStaleWhileRevalidateIsRejected() throws Exception {
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setId("offheap");
+    cacheModel.setTimeToLive(60000);
+    cacheModel.setCacheController(newController("1m"));
+    Assertions.assertThrows(RuntimeException.class, () -> cacheModel.setStaleWhileRevalidate(60000));
+  }
+
+  @Test
+  void testOldestEntriesAreOverwritten() {
+    OffHeapCacheController cc = newController("1m");
+    byte[] value = new byte[100 * 1024];
+    for (int i = 0; i < 25; i++) {
+      cc.putObject(null, i, value);
+    }
+    Assertions.assertNull(cc.getObject(null, 0));
+    Assertions.assertArrayEquals(value, (byte[]) cc.getObject(null, 24));
+    Assertions.assertTrue(cc.getEvictionCount() > 0);
+    Assertions.assertTrue(cc.getWeight() <= cc.getMaxMemory());
+    int cached = 0;
+    for (int i = 0; i < 25; i++) {
+      Object cachedValue = cc.getObject(null, i);
+      if (cachedValue != null) {
+        Assertions.assertArrayEquals(value, (byte[]) cachedValue);
+        cached++;
+      }
+    }
+    Assertions.assertEquals(cc.getWeight(), cached * (long) (value.length + 5));
+  }
+
+  @Test
+  void testCachedNullsAreOverwritten() {
+    OffHeapCacheController cc = newController("64k");
+    for (int i = 0; i < 100000; i++) {
+      cc.putObject(null, i, CacheModel.NULL_OBJECT);
+    }
+    Assertions.assertTrue(cc.getSize() <= 64 * 1024);
+    Assertions.assertTrue(cc.getEvictionCount() > 0);
+    Assertions.assertNull(cc.getObject(null, 0));
+    Assertions.assertSame(CacheModel.NULL_OBJECT, cc.getObject(null, 99999));
+  }
+
+  @Test
+  void testReplacedEntriesAreNotEvicted() {
+    OffHeapCacheController cc = newController("64k");
+    byte[] value = new byte[1024];
+    for (int i = 0; i < 1000; i++) {
+      cc.putObject(null, "key", value);
+    }
+    Assertions.assertEquals(1, cc.getSize());
+    Assertions.assertEquals(0, cc.getEvictionCount());
+    Assertions.assertEquals(value.length + 5, cc.getWeight());
+    Assertions.assertArrayEquals(value, (byte[]) cc.getObject(null, "key"));
+  }
+
+  @Test
+  void testEntryLargerThanCacheIsNotCached() {
+    CacheController cc = newController("1m");
+    cc.putObject(null, "key", new byte[2 * 1024 * 1024]);
+    Assertions.assertNull(cc.getObject(null, "key"));
+  }
+
+  @Test
+  void testCompactSerializerRoundTrip() throws Exception {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    Map<String, Object> row = new HashMap<>();
+    row.put("ID", 7);
+    row.put("NAME", "Clinton");
+    row.put("BALANCE", new BigDecimal("12.50"));
+    row.put("UPDATED", new Timestamp(1234567890123L));
+    row.put("NOTE", null);
+    List<Object> rows = new ArrayList<>();
+    rows.add(row);
+    rows.add(Long.valueOf(3));
+    Assertions.assertEquals(rows, serializer.deserialize(serializer.serialize(rows)));
+
+    // objects the compact format does not know fall back to Java serialization
+    List<Object> beans = new ArrayList<>();
+    beans.add(new UUID(1, 2));
+    Assertions.assertEquals(beans, serializer.deserialize(serializer.serialize(beans)));
+  }
+
+  @Test
+  void testCompactSerializerWritesExpiringEntriesCompactly() throws Exception {
+    List<byte[]> written = new ArrayList<>();
+    CompactCacheSerializer compact = new CompactCacheSerializer();
+    OffHeapCacheController cc = newController("1m");
+    cc.setSerializer(new CacheSerializer() {
+      @Override
+      public byte[] serialize(Object value) throws IOException {
+        byte[] bytes = compact.serialize(value);
+        written.add(bytes);
+        return bytes;
+      }
+
+      @Override
+      public Object deserialize(byte[] bytes) throws IOException {
+        return compact.deserialize(bytes);
+      }
+
+      @Override
+      public void setProperties(Properties props) {
+        // No properties
+      }
+    });
+    CacheModel cacheModel = new CacheModel();
+    cacheModel.setReadOnly(true);
+    cacheModel.setTimeToLive(60000);
+    cacheModel.setCacheController(cc);
+    Map<String, Object> row = new HashMap<>();
+    row.put("ID", 7);
+    row.put("NAME", "Clinton");
+    List<Object> rows = new ArrayList<>();
+    rows.add(row);
+    CacheKey key = new CacheKey().update("key");
+    cacheModel.putObject(key, rows);
+
+    Assertions.assertEquals(rows, cacheModel.getObject(key));
+    Assertions.assertEquals(1, written.size());
+    byte[] bytes = written.get(0);
+    for (int i = 0; i + 1 < bytes.length; i++) {
+      // the magic number of a Java serialization stream
+      Assertions.assertFalse(bytes[i] == (byte) 0xAC && bytes[i + 1] == (byte) 0xED);
+    }
+  }
+
+}
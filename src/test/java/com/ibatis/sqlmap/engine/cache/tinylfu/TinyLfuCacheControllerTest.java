@@ -0,0 +1,83 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.cache.tinylfu;
+
+import com.ibatis.sqlmap.engine.cache.CacheController;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheControllerTest {
+
+  private CacheController getController(int size) {
+    CacheController cc = new TinyLfuCacheController();
+    Properties props = new Properties();
+    props.setProperty("cache-size", String.valueOf(size));
+    cc.setProperties(props);
+    return cc;
+  }
+
+  @Test
+  void testGetAndPutObject() {
+    final CacheController cc = getController(10);
+    Assertions.assertNull(cc.getObject(null, "testKey"));
+    cc.putObject(null, "testKey", "testVal");
+    Assertions.assertEquals("testVal", cc.getObject(null, "testKey"));
+    cc.putObject(null, "testKey", null);
+    Assertions.assertNull(cc.getObject(null, "testKey"));
+  }
+
+  @Test
+  void testRemoveObjectAndFlush() {
+    final CacheController cc = getController(10);
+    cc.putObject(null, "a", "1");
+    cc.putObject(null, "b", "2");
+    Assertions.assertEquals("1", cc.removeObject(null, "a"));
+    Assertions.assertNull(cc.getObject(null, "a"));
+    cc.flush(null);
+    Assertions.assertNull(cc.getObject(null, "b"));
+  }
+
+  @Test
+  void testOneHitWonderDoesNotEvictPopularEntry() {
+    final CacheController cc = getController(1);
+    cc.getObject(null, "popular");
+    cc.putObject(null, "popular", "p");
+    for (int i = 0; i < 5; i++) {
+      Assertions.assertEquals("p", cc.getObject(null, "popular"));
+    }
+    Assertions.assertNull(cc.getObject(null, "rare"));
+    cc.putObject(null, "rare", "r");
+    Assertions.assertNull(cc.getObject(null, "rare"));
+    Assertions.assertEquals("p", cc.getObject(null, "popular"));
+  }
+
+  @Test
+  void testFrequentlyRequestedEntryIsAdmitted() {
+    final CacheController cc = getController(1);
+    cc.getObject(null, "old");
+    cc.putObject(null, "old", "o");
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertNull(cc.getObject(null, "new"));
+    }
+    cc.putObject(null, "new", "n");
+    Assertions.assertEquals("n", cc.getObject(null, "new"));
+    Assertions.assertNull(cc.getObject(null, "old"));
+  }
+
+}
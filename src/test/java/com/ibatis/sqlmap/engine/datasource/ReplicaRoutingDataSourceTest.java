@@ -0,0 +1,177 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.datasource;
+
+import com.ibatis.sqlmap.client.SqlMapClient;
+import com.ibatis.sqlmap.client.SqlMapClientBuilder;
+import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
+
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReplicaRoutingDataSourceTest {
+
+  @Test
+  void shouldUsePrimaryOutsideOfReads() throws Exception {
+    ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(dataSource("primary"),
+        Arrays.asList(dataSource("replica0")), null);
+    Assertions.assertEquals("primary", ds.getConnection().toString());
+    ds.beginRead();
+    Assertions.assertEquals("replica0", ds.getConnection().toString());
+    ds.beginRead();
+    ds.endRead();
+    Assertions.assertEquals("replica0", ds.getConnection().toString());
+    ds.endRead();
+    Assertions.assertFalse(ds.isReading());
+    Assertions.assertEquals("primary", ds.getConnection().toString());
+  }
+
+  @Test
+  void shouldBalanceReadsRoundRobin() throws Exception {
+    ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(dataSource("primary"),
+        Arrays.asList(dataSource("replica0"), dataSource("replica1")), ReplicaRoutingDataSource.ROUND_ROBIN);
+    ds.beginRead();
+    try {
+      Assertions.assertEquals("replica0", ds.getConnection().toString());
+      Assertions.assertEquals("replica1", ds.getConnection().toString());
+      Assertions.assertEquals("replica0", ds.getConnection().toString());
+    } finally {
+      ds.endRead();
+    }
+  }
+
+  @Test
+  void shouldBalanceReadsToLeastOutstandingReplica() throws Exception {
+    ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(dataSource("primary"),
+        Arrays.asList(dataSource("replica0"), dataSource("replica1")), ReplicaRoutingDataSource.LEAST_OUTSTANDING);
+    ds.beginRead();
+    try {
+      Connection first = ds.getConnection();
+      Connection second = ds.getConnection();
+      Assertions.assertEquals("replica0", first.toString());
+      Assertions.assertEquals("replica1", second.toString());
+      Assertions.assertFalse(Proxy.isProxyClass(second.getClass()));
+      second.close();
+      second.close();
+      Assertions.assertEquals(0, ds.getOutstandingConnections(1));
+      Assertions.assertEquals("replica1", ds.getConnection().toString());
+      Assertions.assertEquals(1, ds.getOutstandingConnections(0));
+    } finally {
+      ds.endRead();
+    }
+  }
+
+  @Test
+  void shouldSkipFailingReplicasAndFallBackToPrimary() throws Exception {
+    ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(dataSource("primary"),
+        Arrays.asList(failingDataSource(), dataSource("replica1")), null);
+    ds.beginRead();
+    try {
+      Assertions.assertEquals("replica1", ds.getConnection().toString());
+      Assertions.assertEquals("replica1", ds.getConnection().toString());
+    } finally {
+      ds.endRead();
+    }
+    ReplicaRoutingDataSource down = new ReplicaRoutingDataSource(dataSource("primary"),
+        Arrays.asList(failingDataSource()), null);
+    down.beginRead();
+    try {
+      Assertions.assertEquals("primary", down.getConnection().toString());
+    } finally {
+      down.endRead();
+    }
+  }
+
+  @Test
+  void shouldConfigureReadReplicasInTransactionManager() throws Exception {
+    DATA_SOURCES.put("primary", dataSource("primary"));
+    DATA_SOURCES.put("replica", dataSource("replica"));
+    String config = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<!DOCTYPE sqlMapConfig PUBLIC \"-//ibatis.apache.org//DTD SQL Map Config 2.0//EN\""
+        + " \"http://ibatis.apache.org/dtd/sql-map-config-2.dtd\">\n" + "<sqlMapConfig>"
+        + "<transactionManager type=\"JDBC\">" + "<dataSource type=\"" + NamedDataSourceFactory.class.getName() + "\">"
+        + "<property name=\"name\" value=\"primary\"/></dataSource>" + "<readReplicas balancing=\"leastOutstanding\">"
+        + "<dataSource type=\"" + NamedDataSourceFactory.class.getName() + "\">"
+        + "<property name=\"name\" value=\"replica\"/></dataSource>" + "</readReplicas>" + "</transactionManager>"
+        + "</sqlMapConfig>";
+    SqlMapClient client = SqlMapClientBuilder.buildSqlMapClient(new StringReader(config));
+    DataSource ds = ((SqlMapClientImpl) client).getDelegate().getDataSource();
+    Assertions.assertTrue(ds instanceof ReplicaRoutingDataSource);
+    ReplicaRoutingDataSource routing = (ReplicaRoutingDataSource) ds;
+    Assertions.assertSame(DATA_SOURCES.get("primary"), routing.getPrimary());
+    Assertions.assertEquals(Arrays.asList(DATA_SOURCES.get("replica")), routing.getReplicas());
+  }
+
+  private static final Map<String, DataSource> DATA_SOURCES = new HashMap<>();
+
+  public static class NamedDataSourceFactory implements DataSourceFactory {
+    private DataSource dataSource;
+
+    @Override
+    public void initialize(Map map) {
+      dataSource = DATA_SOURCES.get(map.get("name"));
+    }
+
+    @Override
+    public DataSource getDataSource() {
+      return dataSource;
+    }
+  }
+
+  private static DataSource dataSource(String name) {
+    return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[] { DataSource.class },
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getConnection":
+              return connection(name);
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "toString":
+              return name;
+            default:
+              return null;
+          }
+        });
+  }
+
+  private static DataSource failingDataSource() {
+    return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[] { DataSource.class },
+        (proxy, method, args) -> {
+          if ("getConnection".equals(method.getName())) {
+            throw new SQLException("down");
+          }
+          return null;
+        });
+  }
+
+  private static Connection connection(String name) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class },
+        (proxy, method, args) -> "toString".equals(method.getName()) ? name : null);
+  }
+
+}
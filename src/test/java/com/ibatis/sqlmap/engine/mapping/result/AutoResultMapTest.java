@@ -0,0 +1,97 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.mapping.result;
+
+import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
+import com.ibatis.sqlmap.engine.scope.SessionScope;
+import com.ibatis.sqlmap.engine.scope.StatementScope;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AutoResultMapTest {
+
+  @Test
+  void shouldBuildOneResultMapPerColumnList() throws Exception {
+    AutoResultMap autoResultMap = newAutoResultMap(true);
+    AtomicInteger metaDataCalls = new AtomicInteger();
+    ResultSet first = newResultSet(metaDataCalls, "ID", "NAME");
+    ResultSet second = newResultSet(metaDataCalls, "ID", "NAME");
+    ResultSet other = newResultSet(metaDataCalls, "ID");
+
+    StatementScope statementScope = new StatementScope(new SessionScope());
+    ResultMap shape = autoResultMap.resolveSubMap(statementScope, first);
+    Assertions.assertSame(shape, autoResultMap.resolveSubMap(statementScope, first));
+    Assertions.assertEquals(1, metaDataCalls.get());
+
+    Assertions.assertSame(shape, autoResultMap.resolveSubMap(statementScope, second));
+    Assertions.assertEquals(2, shape.getResultMappings().length);
+    Assertions.assertEquals("NAME", shape.getResultMappings()[1].getColumnName());
+    Assertions.assertEquals(2, shape.getResultMappings()[1].getColumnIndex());
+
+    ResultMap otherShape = autoResultMap.resolveSubMap(statementScope, other);
+    Assertions.assertNotSame(shape, otherShape);
+    Assertions.assertEquals(1, otherShape.getResultMappings().length);
+    Assertions.assertEquals(2, shape.getResultMappings().length);
+  }
+
+  @Test
+  void shouldKeepTheFirstColumnListWithoutRemapping() throws Exception {
+    AutoResultMap autoResultMap = newAutoResultMap(false);
+    AtomicInteger metaDataCalls = new AtomicInteger();
+
+    ResultMap shape = autoResultMap.resolveSubMap(new StatementScope(new SessionScope()),
+        newResultSet(metaDataCalls, "ID", "NAME"));
+    Assertions.assertSame(shape,
+        autoResultMap.resolveSubMap(new StatementScope(new SessionScope()), newResultSet(metaDataCalls, "ID")));
+    Assertions.assertEquals(1, metaDataCalls.get());
+    Assertions.assertEquals(2, shape.getResultMappings().length);
+  }
+
+  private static AutoResultMap newAutoResultMap(boolean allowRemapping) {
+    AutoResultMap autoResultMap = new AutoResultMap(new SqlMapExecutorDelegate(), allowRemapping);
+    autoResultMap.setId("test-AutoResultMap");
+    autoResultMap.setResultClass(HashMap.class);
+    return autoResultMap;
+  }
+
+  private static ResultSet newResultSet(AtomicInteger metaDataCalls, String... columns) {
+    ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+        ResultSetMetaData.class.getClassLoader(), new Class[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+          if ("getColumnCount".equals(method.getName())) {
+            return columns.length;
+          }
+          if ("getColumnLabel".equals(method.getName()) || "getColumnName".equals(method.getName())) {
+            return columns[(Integer) args[0] - 1];
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] { ResultSet.class },
+        (proxy, method, args) -> {
+          if ("getMetaData".equals(method.getName())) {
+            metaDataCalls.incrementAndGet();
+            return metaData;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.mapping.result;
+
+import com.ibatis.sqlmap.client.extensions.ParameterSetter;
+import com.ibatis.sqlmap.client.extensions.ResultGetter;
+import com.ibatis.sqlmap.client.extensions.TypeHandlerCallback;
+import com.ibatis.sqlmap.engine.accessplan.PrimitiveAccessPlan;
+import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
+import com.ibatis.sqlmap.engine.scope.SessionScope;
+import com.ibatis.sqlmap.engine.scope.StatementScope;
+import com.ibatis.sqlmap.engine.type.BooleanTypeHandler;
+import com.ibatis.sqlmap.engine.type.CustomTypeHandler;
+import com.ibatis.sqlmap.engine.type.DoubleTypeHandler;
+import com.ibatis.sqlmap.engine.type.IntegerTypeHandler;
+import com.ibatis.sqlmap.engine.type.LongTypeHandler;
+import com.ibatis.sqlmap.engine.type.StringTypeHandler;
+import com.ibatis.sqlmap.engine.type.TypeHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ResultMapTest {
+
+  @Test
+  void shouldReadNamedColumnsByIndexResolvedOncePerResultSet() throws Exception {
+    ResultMap resultMap = new ResultMap(new SqlMapExecutorDelegate());
+    resultMap.setId("account");
+    resultMap.setResultClass(HashMap.class);
+    resultMap.setResultMappingList(Arrays.asList(newMapping("firstName", "FIRST_NAME"),
+        newMapping("lastName", "LAST_NAME")));
+
+    AtomicInteger findColumnCalls = new AtomicInteger();
+    ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class[] { ResultSet.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findColumn":
+              findColumnCalls.incrementAndGet();
+              return "FIRST_NAME".equals(args[0]) ? 3 : 5;
+            case "getString":
+              if (args[0] instanceof String) {
+                throw new UnsupportedOperationException("read by name");
+              }
+              return "column" + args[0];
+            case "wasNull":
+              return false;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    StatementScope statementScope = new StatementScope(new SessionScope());
+    Assertions.assertArrayEquals(new Object[] { "column3", "column5" }, resultMap.getResults(statementScope, rs));
+    Assertions.assertArrayEquals(new Object[] { "column3", "column5" }, resultMap.getResults(statementScope, rs));
+    Assertions.assertEquals(2, findColumnCalls.get());
+  }
+
+  @Test
+  void shouldPassColumnNameToCustomTypeHandlerCallbacks() throws Exception {
+    TypeHandlerCallback callback = new TypeHandlerCallback() {
+      @Override
+      public Object getResult(ResultGetter getter) {
+        return getter.getColumnName();
+      }
+
+      @Override
+      public void setParameter(ParameterSetter setter, Object parameter) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Object valueOf(String s) {
+        return s;
+      }
+    };
+    ResultMap resultMap = new ResultMap(new SqlMapExecutorDelegate());
+    resultMap.setId("account");
+    resultMap.setResultClass(HashMap.class);
+    resultMap.setResultMappingList(Arrays.asList(newMapping("firstName", "FIRST_NAME"),
+        newMapping("lastName", "LAST_NAME", new CustomTypeHandler(callback))));
+
+    ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class[] { ResultSet.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findColumn":
+              return "FIRST_NAME".equals(args[0]) ? 3 : 5;
+            case "getString":
+              return "column" + args[0];
+            case "wasNull":
+              return false;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    StatementScope statementScope = new StatementScope(new SessionScope());
+    Assertions.assertArrayEquals(new Object[] { "column3", "LAST_NAME" }, resultMap.getResults(statementScope, rs));
+  }
+
+  public static class Measurement {
+    private int count;
+    private long total;
+    private double ratio;
+    private boolean valid;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public void setTotal(long total) {
+      this.total = total;
+    }
+
+    public double getRatio() {
+      return ratio;
+    }
+
+    public void setRatio(double ratio) {
+      this.ratio = ratio;
+    }
+
+    public boolean isValid() {
+      return valid;
+    }
+
+    public void setValid(boolean valid) {
+      this.valid = valid;
+    }
+  }
+
+  @Test
+  void shouldSetPrimitivePropertiesFromPrimitiveColumnValues() throws Exception {
+    ResultMap resultMap = new ResultMap(new SqlMapExecutorDelegate());
+    resultMap.setId("measurement");
+    resultMap.setResultClass(Measurement.class);
+    ResultMapping count = newMapping("count", "COUNT", new IntegerTypeHandler());
+    count.setNullValue("-1");
+    resultMap.setResultMappingList(Arrays.asList(count, newMapping("total", "TOTAL", new LongTypeHandler()),
+        newMapping("ratio", "RATIO", new DoubleTypeHandler()), newMapping("valid", "VALID", new BooleanTypeHandler())));
+
+    Object[] row = { null, 12345678901L, 0.25, true };
+    AtomicInteger column = new AtomicInteger();
+    ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class[] { ResultSet.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findColumn":
+              return Arrays.asList("COUNT", "TOTAL", "RATIO", "VALID").indexOf(args[0]) + 1;
+            case "getInt":
+            case "getLong":
+            case "getDouble":
+            case "getBoolean":
+              column.set((Integer) args[0]);
+              Object value = row[column.get() - 1];
+              return value != null ? value : method.getName().equals("getInt") ? 0 : null;
+            case "wasNull":
+              return row[column.get() - 1] == null;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    StatementScope statementScope = new StatementScope(new SessionScope());
+    Object[] values = resultMap.getResults(statementScope, rs);
+    Assertions.assertEquals(-1, values[0]);
+    Assertions.assertSame(PrimitiveAccessPlan.PRIMITIVE_VALUE, values[1]);
+
+    Measurement measurement = (Measurement) resultMap.setResultObjectValues(statementScope, null, values);
+    Assertions.assertEquals(-1, measurement.getCount());
+    Assertions.assertEquals(12345678901L, measurement.getTotal());
+    Assertions.assertEquals(0.25, measurement.getRatio());
+    Assertions.assertTrue(measurement.isValid());
+  }
+
+  private static ResultMapping newMapping(String propertyName, String columnName, TypeHandler typeHandler) {
+    ResultMapping mapping = newMapping(propertyName, columnName);
+    mapping.setTypeHandler(typeHandler);
+    return mapping;
+  }
+
+  private static ResultMapping newMapping(String propertyName, String columnName) {
+    ResultMapping mapping = new ResultMapping();
+    mapping.setPropertyName(propertyName);
+    mapping.setColumnName(columnName);
+    mapping.setTypeHandler(new StringTypeHandler());
+    return mapping;
+  }
+}
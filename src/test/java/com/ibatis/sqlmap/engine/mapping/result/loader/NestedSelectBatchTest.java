@@ -0,0 +1,91 @@
+/*
+ * Copyright 2004-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibatis.sqlmap.engine.mapping.result.loader;
+
+import com.ibatis.sqlmap.engine.impl.SqlMapClientImpl;
+import com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate;
+import com.ibatis.sqlmap.engine.mapping.result.ResultMap;
+import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class NestedSelectBatchTest {
+
+  @Test
+  void shouldRunTheSelectOncePerBatchOfKeys() throws SQLException {
+    List<List<?>> queries = new ArrayList<>();
+    NestedSelectBatch batch = new NestedSelectBatch(setupMockSqlMapClientImpl(queries), "ordersByCustomers",
+        "customerId", 2);
+    Assertions.assertEquals(Object.class, batch.getKeyType());
+
+    List<Object> first = new ArrayList<>();
+    List<Object> second = new ArrayList<>();
+    List<Object> sameAsFirst = new ArrayList<>();
+    List<Object> third = new ArrayList<>();
+    batch.add(1, first);
+    batch.add(1, sameAsFirst);
+    Assertions.assertTrue(queries.isEmpty());
+    batch.add(2, second);
+    Assertions.assertEquals(Collections.singletonList(Arrays.asList(1, 2)), queries);
+    batch.add(3, third);
+    batch.load();
+    batch.load();
+
+    Assertions.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3)), queries);
+    Assertions.assertEquals(2, first.size());
+    Assertions.assertEquals(first, sameAsFirst);
+    Assertions.assertEquals(1, second.size());
+    Assertions.assertEquals(2, ((Map<?, ?>) second.get(0)).get("customerId"));
+    Assertions.assertTrue(third.isEmpty());
+  }
+
+  /**
+   * Mock a {@link SqlMapClientImpl} whose <code>ordersByCustomers</code> select returns two orders of customer 1 and
+   * one of customer 2, whatever the keys, and records the keys it was run with.
+   */
+  private SqlMapClientImpl setupMockSqlMapClientImpl(List<List<?>> queries) {
+    final SqlMapExecutorDelegate delegate = new SqlMapExecutorDelegate();
+    MappedStatement statement = new MappedStatement();
+    statement.setId("ordersByCustomers");
+    ResultMap resultMap = new ResultMap(delegate);
+    resultMap.setResultClass(HashMap.class);
+    statement.setResultMap(resultMap);
+    delegate.addMappedStatement(statement);
+    return new SqlMapClientImpl(delegate) {
+      @Override
+      public List queryForList(final String id, final Object paramObject) throws SQLException {
+        Assertions.assertEquals("ordersByCustomers", id);
+        queries.add(new ArrayList<>((List<?>) paramObject));
+        return Arrays.asList(order(1), order(1), order(2));
+      }
+    };
+  }
+
+  private static Map<String, Object> order(int customerId) {
+    Map<String, Object> order = new HashMap<>();
+    order.put("customerId", customerId);
+    return order;
+  }
+}